@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.xilinx.rapidwright.design;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import com.xilinx.rapidwright.device.Device;
+import com.xilinx.rapidwright.device.PIP;
+import com.xilinx.rapidwright.device.Site;
+import com.xilinx.rapidwright.device.SiteTypeEnum;
+import com.xilinx.rapidwright.device.Tile;
+import com.xilinx.rapidwright.util.FileTools;
+import com.xilinx.rapidwright.util.Installer;
+import com.xilinx.rapidwright.util.Utils;
+
+/**
+ * The relative site and tile footprint of a {@link Module}, used to check whether a module can be
+ * placed at an anchor site without actually placing a {@link ModuleInst}. The checks are the same
+ * that {@link ModuleInst#place(Site)} performs (every movable site and every PIP tile must have a
+ * corresponding site/tile at the new location), but nothing in the design is modified.
+ *
+ * Since all checks besides the anchor site itself only depend on the anchor tile, results are
+ * memoized per tile in a bitset. Lists of valid anchors can additionally be cached on disk by
+ * setting the environment variable {@link #RW_PLACEMENT_CACHE} to a directory.
+ *
+ * Like {@link ModuleInst#getAllValidPlacementsByPlacing()}, candidate anchors are all sites
+ * compatible with the type of the module's anchor site instance, which may differ from the
+ * primary type of its site.
+ */
+public class ModuleFootprint {
+
+    /** Environment variable naming the directory in which valid anchor lists are cached */
+    public static final String RW_PLACEMENT_CACHE = "RW_PLACEMENT_CACHE";
+
+    private static final String CACHE_FILE_SUFFIX = ".anchors";
+
+    private final Module module;
+    private final Site anchor;
+    /** Site type of the anchor's site instance, used to enumerate candidate anchors */
+    private final SiteTypeEnum anchorSiteType;
+    /** Template sites (and their types) of all site instances that move with the module */
+    private final List<Site> templateSites = new ArrayList<>();
+    private final List<SiteTypeEnum> templateSiteTypes = new ArrayList<>();
+    /** Distinct template tiles of all PIPs in the module */
+    private final List<Tile> pipTiles = new ArrayList<>();
+    private String signature;
+
+    public ModuleFootprint(Module module) {
+        this.module = module;
+        this.anchor = module.getAnchor();
+        SiteInst anchorInst = anchor == null ? null : module.getSiteInstAtSite(anchor);
+        this.anchorSiteType = anchorInst != null ? anchorInst.getSiteTypeEnum()
+                : anchor != null ? anchor.getSiteTypeEnum() : null;
+        Map<String, SiteInst> sites = new LinkedHashMap<>();
+        for (SiteInst si : module.getSiteInsts()) {
+            if (si.getSite() == null || Utils.isLockedSiteType(si.getSiteTypeEnum())) {
+                continue;
+            }
+            sites.putIfAbsent(si.getSiteName() + ":" + si.getSiteTypeEnum(), si);
+        }
+        for (SiteInst si : sites.values()) {
+            templateSites.add(si.getSite());
+            templateSiteTypes.add(si.getSiteTypeEnum());
+        }
+        Map<String, Tile> tiles = new LinkedHashMap<>();
+        for (Net net : module.getNets()) {
+            for (PIP pip : net.getPIPs()) {
+                tiles.putIfAbsent(pip.getTile().getName(), pip.getTile());
+            }
+        }
+        pipTiles.addAll(tiles.values());
+    }
+
+    public Module getModule() {
+        return module;
+    }
+
+    /**
+     * Checks if all sites and PIP tiles of the module have a corresponding location when the
+     * module's anchor is moved to the provided tile.
+     * @param newAnchorTile The tile of the new anchor site.
+     * @return True if the footprint fits, false otherwise.
+     */
+    public boolean isValidAnchorTile(Tile newAnchorTile) {
+        for (int i = 0; i < templateSites.size(); i++) {
+            Site templateSite = templateSites.get(i);
+            Tile newTile = module.getCorrespondingTile(templateSite.getTile(), newAnchorTile);
+            if (newTile == null || templateSite.getCorrespondingSite(templateSiteTypes.get(i), newTile) == null) {
+                return false;
+            }
+        }
+        for (Tile pipTile : pipTiles) {
+            if (module.getCorrespondingTile(pipTile, newAnchorTile) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isCorrespondingAnchor(Site newAnchorSite) {
+        return newAnchorSite.equals(anchor.getCorrespondingSite(anchor.getSiteTypeEnum(), newAnchorSite.getTile()));
+    }
+
+    /**
+     * Checks if the module could be placed with its anchor on the provided site. This does not
+     * consider other logic already placed in a design.
+     * @param newAnchorSite The candidate anchor site.
+     * @return True if the placement would succeed, false otherwise.
+     */
+    public boolean isValidAnchor(Site newAnchorSite) {
+        if (anchor == null || newAnchorSite == null) {
+            return false;
+        }
+        return isCorrespondingAnchor(newAnchorSite) && isValidAnchorTile(newAnchorSite.getTile());
+    }
+
+    /**
+     * Computes all sites the module's anchor can be placed on.
+     * @param device The device to search.
+     * @return List of valid anchor sites, in the order of
+     * {@link Device#getAllCompatibleSites(SiteTypeEnum)} for the anchor site instance's type.
+     */
+    public List<Site> calculateValidAnchors(Device device) {
+        List<Site> validSites = new ArrayList<>();
+        if (anchor == null) {
+            return validSites;
+        }
+        int columns = device.getColumns();
+        BitSet checkedTiles = new BitSet();
+        BitSet validTiles = new BitSet();
+        for (Site candidate : device.getAllCompatibleSites(anchorSiteType)) {
+            if (!isCorrespondingAnchor(candidate)) {
+                continue;
+            }
+            Tile tile = candidate.getTile();
+            int tileIdx = tile.getRow() * columns + tile.getColumn();
+            if (!checkedTiles.get(tileIdx)) {
+                checkedTiles.set(tileIdx);
+                if (isValidAnchorTile(tile)) {
+                    validTiles.set(tileIdx);
+                }
+            }
+            if (validTiles.get(tileIdx)) {
+                validSites.add(candidate);
+            }
+        }
+        return validSites;
+    }
+
+    /**
+     * Gets a hash identifying the footprint of the module, used as the key for cached results.
+     * @return MD5 hash of the module name, anchor and footprint.
+     */
+    public String getSignature() {
+        if (signature == null) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(module.getName()).append('\n');
+            sb.append(anchor == null ? "null" : anchor.getName() + ":" + anchorSiteType).append('\n');
+            TreeSet<String> entries = new TreeSet<>();
+            for (int i = 0; i < templateSites.size(); i++) {
+                entries.add(templateSites.get(i).getName() + ":" + templateSiteTypes.get(i));
+            }
+            for (Tile pipTile : pipTiles) {
+                entries.add(pipTile.getName());
+            }
+            for (String entry : entries) {
+                sb.append(entry).append('\n');
+            }
+            signature = Installer.calculateMD5OfStream(
+                    new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8)));
+        }
+        return signature;
+    }
+
+    private static Path getCacheFile(Device device, String signature) {
+        String cacheDir = System.getenv(RW_PLACEMENT_CACHE);
+        if (cacheDir == null) {
+            return null;
+        }
+        return Paths.get(cacheDir, device.getName() + "_" + signature + CACHE_FILE_SUFFIX);
+    }
+
+    /**
+     * Gets all sites the module's anchor can be placed on. If {@link #RW_PLACEMENT_CACHE} is set,
+     * results are read from (or stored to) a file keyed by device and footprint signature.
+     * @param device The device to search.
+     * @return List of valid anchor sites.
+     */
+    public List<Site> getValidAnchors(Device device) {
+        Path cacheFile = getCacheFile(device, getSignature());
+        if (cacheFile != null && Files.exists(cacheFile)) {
+            List<String> lines = FileTools.getLinesFromTextFile(cacheFile.toString());
+            if (!lines.isEmpty() && lines.get(0).equals(getSignature())) {
+                List<Site> sites = new ArrayList<>(lines.size() - 1);
+                for (int i = 1; i < lines.size(); i++) {
+                    sites.add(device.getSite(lines.get(i)));
+                }
+                return sites;
+            }
+        }
+        List<Site> sites = calculateValidAnchors(device);
+        if (cacheFile != null) {
+            List<String> lines = new ArrayList<>(sites.size() + 1);
+            lines.add(getSignature());
+            for (Site site : sites) {
+                lines.add(site.getName());
+            }
+            try {
+                FileTools.makeDirs(cacheFile.getParent().toString());
+                Path tmp = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+                FileTools.writeLinesToTextFile(lines, tmp.toString());
+                Files.move(tmp, cacheFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                throw new UncheckedIOException("ERROR: Couldn't write placement cache file " + cacheFile, e);
+            }
+        }
+        return sites;
+    }
+
+    /**
+     * Convenience method to get all valid anchor sites of a module.
+     * @param module The module to place.
+     * @param device The device to search.
+     * @return List of valid anchor sites.
+     */
+    public static List<Site> getValidAnchors(Module module, Device device) {
+        return new ModuleFootprint(module).getValidAnchors(device);
+    }
+
+    /**
+     * Replacement for {@link Module#calculateAllValidPlacements(Device)} that checks the module's
+     * footprint instead of placing a test instance on every candidate site. The result is stored
+     * as the module's valid placements, so that {@link Module#getAllValidPlacements()} (and
+     * placers using it) see the same sites.
+     * @param module The module to place.
+     * @param device The device to search.
+     * @return The module's list of valid placements.
+     */
+    public static ArrayList<Site> calculateAllValidPlacements(Module module, Device device) {
+        ArrayList<Site> validPlacements = module.getAllValidPlacements();
+        validPlacements.clear();
+        validPlacements.addAll(getValidAnchors(module, device));
+        return validPlacements;
+    }
+}
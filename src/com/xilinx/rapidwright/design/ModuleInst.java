@@ -212,12 +212,23 @@ public class ModuleInst extends AbstractModuleInst<Module, ModuleInst>{
 	}
 	
 	/**
-	 * Does a brute force search to find all valid locations of where this module
-	 * instance can be placed.  It returns the module instance to its original
-	 * location.
+	 * Finds all valid locations of where this module instance can be placed. The module's
+	 * footprint is checked against each compatible anchor site (see {@link ModuleFootprint}),
+	 * this module instance and the design are left untouched.
 	 * @return A list of valid anchor sites for the module instance to be placed.
 	 */
 	public ArrayList<Site> getAllValidPlacements(){
+		if(getAnchor() == null) return new ArrayList<Site>();
+		return new ArrayList<Site>(ModuleFootprint.getValidAnchors(module, getDesign().getDevice()));
+	}
+
+	/**
+	 * Does a brute force search to find all valid locations of where this module
+	 * instance can be placed by placing it on every compatible site.  It returns the
+	 * module instance to its original location.
+	 * @return A list of valid anchor sites for the module instance to be placed.
+	 */
+	public ArrayList<Site> getAllValidPlacementsByPlacing(){
 		ArrayList<Site> validSites = new ArrayList<Site>();
 		if(getAnchor() == null) return validSites;
 		Site originalSite = getAnchor().getSite();
@@ -57,6 +57,13 @@ public class SimpleTileRectangle extends TileRectangle {
         this.empty = rect.empty;
     }
 
+    /**
+     * Make the Rectangle empty again, so that it can be reused
+     */
+    public void reset() {
+        empty = true;
+    }
+
     public static Collector<Tile, ?, SimpleTileRectangle> collector() {
         return TileRectangle.collector(SimpleTileRectangle::new, SimpleTileRectangle::extendTo);
     }
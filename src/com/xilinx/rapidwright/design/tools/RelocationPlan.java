@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.design.tools;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.design.DesignTools;
+import com.xilinx.rapidwright.design.Net;
+import com.xilinx.rapidwright.design.SiteInst;
+import com.xilinx.rapidwright.design.SitePinInst;
+import com.xilinx.rapidwright.device.PIP;
+import com.xilinx.rapidwright.device.Site;
+import com.xilinx.rapidwright.device.Tile;
+import com.xilinx.rapidwright.util.ParallelismTools;
+
+/**
+ * A batched relocation of a set of SiteInsts (and the PIPs of their nets) by a fixed tile offset.
+ *
+ * Creating a plan does not modify the design: the source-to-destination tile map is computed once
+ * for all tiles involved (column by column, checking that tile types match), and destination sites
+ * of all SiteInsts as well as destination tiles of all PIPs are looked up in parallel. Any problem
+ * found is recorded as a conflict, so that a plan can be used as a dry-run of
+ * {@link RelocationTools#relocate(Design, Collection, int, int)}. A plan without conflicts can then
+ * be applied to the design in one pass with {@link #commit()}.
+ *
+ * PIPs are checked conservatively: all PIPs of nets that will be relocated are checked, including
+ * those on branches that {@link #commit()} unroutes because their sinks are not relocated. PIPs of
+ * clock nets without a compatible destination tile are not conflicts; as with
+ * {@link RelocationTools#relocate(Design, Collection, int, int)} they are left in place, and are
+ * reported by {@link #getSkippedClockPIPs()}.
+ */
+public class RelocationPlan {
+
+    private final Design design;
+
+    private final int tileColOffset;
+
+    private final int tileRowOffset;
+
+    /** Destination site of each SiteInst to be relocated */
+    private final Map<SiteInst, Site> destSites = new LinkedHashMap<>();
+
+    /** Static source SiteInsts occupying a destination site, to be unplaced */
+    private final List<SiteInst> staticSources = new ArrayList<>();
+
+    /** Destination tile of every source tile that has a compatible one */
+    private final Map<Tile, Tile> tileMap = new HashMap<>();
+
+    private final List<String> conflicts = new ArrayList<>();
+
+    /** Clock net PIPs without a destination tile, which are left in place */
+    private final List<String> skippedClockPIPs = new ArrayList<>();
+
+    private int pipCount;
+
+    private boolean committed;
+
+    public RelocationPlan(Design design, Collection<SiteInst> siteInsts, int tileColOffset, int tileRowOffset) {
+        this.design = design;
+        this.tileColOffset = tileColOffset;
+        this.tileRowOffset = tileRowOffset;
+
+        Set<SiteInst> moved = new HashSet<>(siteInsts);
+        List<Net> nets = getNetsToRelocate(moved);
+        Set<Tile> srcTiles = new HashSet<>();
+        for (SiteInst si : siteInsts) {
+            srcTiles.add(si.getTile());
+        }
+        for (Net n : nets) {
+            for (PIP p : n.getPIPs()) {
+                srcTiles.add(p.getTile());
+            }
+        }
+        buildTileMap(srcTiles);
+        planSiteInsts(new ArrayList<>(siteInsts), moved);
+        checkPIPs(nets);
+    }
+
+    private String getDestTileName(Tile srcTile) {
+        return srcTile.getNameRoot() + "_X" + (srcTile.getTileXCoordinate() + tileColOffset)
+                + "Y" + (srcTile.getTileYCoordinate() + tileRowOffset);
+    }
+
+    /**
+     * Nets whose PIPs would be moved: those with a relocated pin and whose source is not outside
+     * of the relocated SiteInsts.
+     */
+    private List<Net> getNetsToRelocate(Set<SiteInst> moved) {
+        List<Net> nets = new ArrayList<>();
+        for (Net n : design.getNets()) {
+            if (!n.hasPIPs()) {
+                continue;
+            }
+            SitePinInst src = n.getSource();
+            if (src != null && !moved.contains(src.getSiteInst())) {
+                continue;
+            }
+            for (SitePinInst spi : n.getPins()) {
+                if (moved.contains(spi.getSiteInst())) {
+                    nets.add(n);
+                    break;
+                }
+            }
+        }
+        return nets;
+    }
+
+    /**
+     * Computes the destination of each source tile. Each tile column is processed as a separate
+     * task; tiles whose destination does not exist or has a different type are left unmapped.
+     */
+    private void buildTileMap(Set<Tile> srcTiles) {
+        Map<Integer, List<Tile>> columns = srcTiles.stream()
+                .collect(Collectors.groupingBy(Tile::getTileXCoordinate));
+        List<Future<Map<Tile, Tile>>> futures = new ArrayList<>(columns.size());
+        for (List<Tile> column : columns.values()) {
+            futures.add(ParallelismTools.submit(() -> {
+                Map<Tile, Tile> columnMap = new HashMap<>();
+                for (Tile st : column) {
+                    Tile dt = st.getTileXYNeighbor(tileColOffset, tileRowOffset);
+                    if (dt != null && dt.getTileTypeEnum() == st.getTileTypeEnum()) {
+                        columnMap.put(st, dt);
+                    }
+                }
+                return columnMap;
+            }));
+        }
+        for (Future<Map<Tile, Tile>> f : futures) {
+            tileMap.putAll(ParallelismTools.get(f));
+        }
+    }
+
+    private void planSiteInsts(List<SiteInst> siteInsts, Set<SiteInst> moved) {
+        Site[] dest = new Site[siteInsts.size()];
+        SiteInst[] occupants = new SiteInst[siteInsts.size()];
+        ParallelismTools.invokeAllRange(siteInsts.size(), i -> {
+            SiteInst si = siteInsts.get(i);
+            Site srcSite = si.getSite();
+            Tile destTile = srcSite.getTile().getTileXYNeighbor(tileColOffset, tileRowOffset);
+            if (destTile != null) {
+                dest[i] = srcSite.getCorrespondingSite(srcSite.getSiteTypeEnum(), destTile);
+                if (dest[i] != null) {
+                    occupants[i] = design.getSiteInstFromSite(dest[i]);
+                }
+            }
+        });
+        for (int i = 0; i < siteInsts.size(); i++) {
+            SiteInst si = siteInsts.get(i);
+            Tile srcTile = si.getTile();
+            if (dest[i] == null) {
+                conflicts.add("Failed to move SiteInst '" + si.getName() + "' from Tile '" + srcTile.getName()
+                        + "' to Tile '" + getDestTileName(srcTile) + "'");
+                continue;
+            }
+            SiteInst occupant = occupants[i];
+            if (occupant != null && !moved.contains(occupant)) {
+                if (occupant.getName().startsWith("STATIC_SOURCE")) {
+                    staticSources.add(occupant);
+                } else {
+                    conflicts.add("Failed to move SiteInst '" + si.getName() + "' from Tile '" + srcTile.getName()
+                            + "' to Tile '" + dest[i].getTile().getName() + "' as it is already occupied by '"
+                            + occupant.getName() + "'");
+                    continue;
+                }
+            }
+            destSites.put(si, dest[i]);
+        }
+    }
+
+    private void checkPIPs(List<Net> nets) {
+        List<List<String>> netConflicts = new ArrayList<>(Collections.nCopies(nets.size(), null));
+        List<List<String>> netSkipped = new ArrayList<>(Collections.nCopies(nets.size(), null));
+        ParallelismTools.invokeAllRange(nets.size(), i -> {
+            Net n = nets.get(i);
+            boolean isClockNet = n.isClockNet() || n.hasGapRouting();
+            List<String> messages = null;
+            for (PIP sp : n.getPIPs()) {
+                if (tileMap.containsKey(sp.getTile())) {
+                    continue;
+                }
+                if (messages == null) {
+                    messages = new ArrayList<>();
+                }
+                if (isClockNet) {
+                    messages.add("Skipping clock net PIP '" + sp + "' (Net '" + n.getName() + "')");
+                } else {
+                    messages.add("Failed to move PIP '" + sp + "' to Tile '"
+                            + getDestTileName(sp.getTile()) + "' (Net '" + n.getName() + "')");
+                }
+            }
+            (isClockNet ? netSkipped : netConflicts).set(i, messages);
+        });
+        for (int i = 0; i < nets.size(); i++) {
+            pipCount += nets.get(i).getPIPs().size();
+            if (netConflicts.get(i) != null) {
+                conflicts.addAll(netConflicts.get(i));
+            }
+            if (netSkipped.get(i) != null) {
+                skippedClockPIPs.addAll(netSkipped.get(i));
+            }
+        }
+    }
+
+    /**
+     * Gets all problems found that prevent this plan from being committed.
+     * @return List of conflict messages, empty if the plan can be committed.
+     */
+    public List<String> getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * Gets the clock net PIPs that have no compatible destination tile. These do not prevent the
+     * plan from being committed, but are left at their current tile by {@link #commit()}.
+     * @return List of messages, one per skipped PIP.
+     */
+    public List<String> getSkippedClockPIPs() {
+        return skippedClockPIPs;
+    }
+
+    public boolean hasConflicts() {
+        return !conflicts.isEmpty();
+    }
+
+    public int getSiteInstCount() {
+        return destSites.size();
+    }
+
+    /**
+     * @return The number of PIPs on nets to be relocated (before any unrouting).
+     */
+    public int getPIPCount() {
+        return pipCount;
+    }
+
+    public Map<Tile, Tile> getTileMap() {
+        return Collections.unmodifiableMap(tileMap);
+    }
+
+    /**
+     * Applies this plan to the design. All SiteInsts are unplaced and then placed at their
+     * destinations, and PIPs are moved in parallel using the precomputed tile map. As with
+     * {@link RelocationTools#relocate(Design, Collection, int, int)}, nets sourced outside of the
+     * relocated SiteInsts are unrouted, as are branches to sinks outside of them.
+     * @return True if the plan was applied, false if it has conflicts (the design is unmodified).
+     */
+    public boolean commit() {
+        if (hasConflicts()) {
+            return false;
+        }
+        if (committed) {
+            throw new RuntimeException("ERROR: Relocation plan has already been committed");
+        }
+        committed = true;
+
+        for (String msg : skippedClockPIPs) {
+            System.out.println("INFO: " + msg);
+        }
+
+        for (SiteInst si : staticSources) {
+            si.unPlace();
+        }
+        for (SiteInst si : destSites.keySet()) {
+            si.unPlace();
+        }
+        for (Map.Entry<SiteInst, Site> e : destSites.entrySet()) {
+            e.getKey().place(e.getValue());
+        }
+
+        DesignTools.createMissingSitePinInsts(design);
+
+        List<Net> nets = new ArrayList<>();
+        for (Net n : design.getNets()) {
+            if (!n.hasPIPs()) {
+                continue;
+            }
+            SitePinInst src = n.getSource();
+            if (src != null && !destSites.containsKey(src.getSiteInst())) {
+                n.unroute();
+                continue;
+            }
+            Collection<SitePinInst> pins = n.getPins();
+            List<SitePinInst> nonMatchingPins = pins.stream()
+                    .filter((spi) -> !destSites.containsKey(spi.getSiteInst()))
+                    .collect(Collectors.toList());
+            if (nonMatchingPins.size() == pins.size()) {
+                continue;
+            }
+            if (!nonMatchingPins.isEmpty()) {
+                DesignTools.unroutePins(n, nonMatchingPins);
+            }
+            nets.add(n);
+        }
+
+        ParallelismTools.invokeAllRange(nets.size(), i -> {
+            for (PIP sp : nets.get(i).getPIPs()) {
+                Tile dt = tileMap.get(sp.getTile());
+                // Unmapped tiles can only belong to clock nets, whose PIPs are left in place
+                // (see getSkippedClockPIPs())
+                if (dt != null) {
+                    sp.setTile(dt);
+                }
+            }
+        });
+        return true;
+    }
+}
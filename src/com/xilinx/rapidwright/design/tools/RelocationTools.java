@@ -89,11 +89,23 @@ public class RelocationTools {
                                    int tileColOffset,
                                    int tileRowOffset,
                                    Set<SiteTypeEnum> siteTypes) {
+        Collection<SiteInst> siteInsts = getSiteInsts(design, instanceName, siteTypes);
+        return siteInsts != null && relocate(design, siteInsts, tileColOffset, tileRowOffset);
+    }
+
+    /**
+     * Collects all SiteInsts belonging to the logical Cell at instanceName.
+     * @return The SiteInsts, or null if the instance does not exist or a SiteInst also
+     * contains Cells from outside of the instance.
+     */
+    private static Collection<SiteInst> getSiteInsts(Design design,
+                                                     String instanceName,
+                                                     Set<SiteTypeEnum> siteTypes) {
         EDIFNetlist netlist = design.getNetlist();
         EDIFHierCellInst instanceCell = netlist.getHierCellInstFromName(instanceName);
         if (instanceCell == null) {
             System.out.println("ERROR: Logical cell with instance name '" + instanceName + "' not found");
-            return false;
+            return null;
         }
 
         Set<Cell> cells = new HashSet<>();
@@ -138,7 +150,7 @@ public class RelocationTools {
             }
         }
 
-        return !error && relocate(design, siteInsts, tileColOffset, tileRowOffset);
+        return error ? null : siteInsts;
     }
 
     /**
@@ -303,6 +315,58 @@ public class RelocationTools {
         return true;
     }
 
+    /**
+     * Relocate all SiteInsts (and all associated PIPs) belonging to the logical Cell at
+     * instanceName in-place by tileColOffset/tileRowOffset tiles, using a {@link RelocationPlan}.
+     *
+     * @param design Parent design
+     * @param instanceName Full hierarchical instance name to logical cell
+     *                     (empty for top cell)
+     * @param tileColOffset Relocate this number of tile columns (X axis)
+     * @param tileRowOffset Relocate this number of tile rows (Y axis)
+     * @param dryRun Only report conflicts, do not modify the design
+     * @return True if successful (or, for a dry-run, if relocation would succeed), false otherwise.
+     */
+    public static boolean relocateBatched(Design design,
+                                          String instanceName,
+                                          int tileColOffset,
+                                          int tileRowOffset,
+                                          boolean dryRun) {
+        Collection<SiteInst> siteInsts = getSiteInsts(design, instanceName, defaultSiteTypes);
+        return siteInsts != null && relocateBatched(design, siteInsts, tileColOffset, tileRowOffset, dryRun);
+    }
+
+    /**
+     * Relocate all given SiteInsts and PIPs in-place by tileColOffset/tileRowOffset tiles.
+     * Behaves like {@link #relocate(Design, Collection, int, int)}, but all destinations are
+     * computed up front (in parallel) by a {@link RelocationPlan} and the design is only modified
+     * once they are known to be valid. PIPs are checked conservatively, see {@link RelocationPlan}.
+     *
+     * @param design Parent design
+     * @param siteInsts List of SiteInsts to be relocated
+     * @param tileColOffset Relocate this number of tile columns (X axis)
+     * @param tileRowOffset Relocate this number of tile rows (Y axis)
+     * @param dryRun Only report conflicts, do not modify the design
+     * @return True if successful (or, for a dry-run, if relocation would succeed), false otherwise.
+     */
+    public static boolean relocateBatched(Design design,
+                                          Collection<SiteInst> siteInsts,
+                                          int tileColOffset,
+                                          int tileRowOffset,
+                                          boolean dryRun) {
+        if (siteInsts.isEmpty())
+            return true;
+
+        if (tileColOffset == 0 && tileRowOffset == 0)
+            return true;
+
+        RelocationPlan plan = new RelocationPlan(design, siteInsts, tileColOffset, tileRowOffset);
+        for (String conflict : plan.getConflicts()) {
+            System.out.println("ERROR: " + conflict);
+        }
+        return dryRun ? !plan.hasConflicts() : plan.commit();
+    }
+
     private static void revertRouting(List<Pair<Net, List<PIP>>> oldRoute) {
         for (Pair<Net,List<PIP>> e : oldRoute) {
             e.getFirst().setPIPs(e.getSecond());
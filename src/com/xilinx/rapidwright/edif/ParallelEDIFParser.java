@@ -38,6 +38,7 @@ import java.util.stream.Collectors;
 
 import com.xilinx.rapidwright.device.Device;
 import com.xilinx.rapidwright.tests.CodePerfTracker;
+import com.xilinx.rapidwright.util.MetricsRegistry;
 import com.xilinx.rapidwright.util.ParallelismTools;
 import com.xilinx.rapidwright.util.StringPool;
 import com.xilinx.rapidwright.util.function.InputStreamSupplier;
@@ -73,6 +74,19 @@ public class ParallelEDIFParser implements AutoCloseable{
         this(p, Files.size(p));
     }
 
+    public StringPool getUniquifier() {
+        return uniquifier;
+    }
+
+    /**
+     * Sets the pool used to deduplicate names while parsing, e.g. {@link StringPool#sharedWeakPool()}
+     * to share strings between netlists parsed in the same session. Must be thread safe.
+     * @param uniquifier The string pool.
+     */
+    public void setUniquifier(StringPool uniquifier) {
+        this.uniquifier = Objects.requireNonNull(uniquifier);
+    }
+
     protected ParallelEDIFParserWorker makeWorker(long offset) throws IOException {
         return new ParallelEDIFParserWorker(fileName, inputStreamSupplier.get(), offset, uniquifier, maxTokenLength);
     }
@@ -100,6 +114,10 @@ public class ParallelEDIFParser implements AutoCloseable{
     }
 
     public EDIFNetlist parseEDIFNetlist(CodePerfTracker t) throws IOException {
+        if (t == CodePerfTracker.SILENT && MetricsRegistry.getGlobal().isEnabled()) {
+            // Quiet tracker that still records each phase as a metric
+            t = new CodePerfTracker("edif/parse", false, false);
+        }
 
         t.start("Initialize workers");
         initializeWorkers();
@@ -139,6 +157,10 @@ public class ParallelEDIFParser implements AutoCloseable{
 
         t.stop().start("Do Parse");
         doParse();
+        MetricsRegistry metrics = MetricsRegistry.getGlobal();
+        metrics.setGauge("edif/parse/threads", workers.size());
+        metrics.setGauge("edif/parse/string_pool_size", uniquifier.size());
+        metrics.setGauge("edif/parse/string_pool_hit_rate", uniquifier.getHitRate());
 
 
         return mergeParseResults(t);
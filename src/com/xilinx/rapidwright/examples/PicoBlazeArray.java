@@ -39,6 +39,7 @@ import com.xilinx.rapidwright.design.AbstractModuleInst;
 import com.xilinx.rapidwright.design.Design;
 import com.xilinx.rapidwright.design.DesignTools;
 import com.xilinx.rapidwright.design.Module;
+import com.xilinx.rapidwright.design.ModuleFootprint;
 import com.xilinx.rapidwright.design.ModuleImpls;
 import com.xilinx.rapidwright.design.ModuleImplsInst;
 import com.xilinx.rapidwright.design.ModuleInst;
@@ -94,7 +95,7 @@ public class PicoBlazeArray {
 		for(SiteInst i : m.getSiteInsts()){
 			if(i.getSite().getSiteTypeEnum() == SiteTypeEnum.RAMBFIFO36){
 				m.setAnchor(i.getSite());
-				m.calculateAllValidPlacements(m.getDevice());
+				ModuleFootprint.calculateAllValidPlacements(m, m.getDevice());
 			}
 		}
 	}
@@ -57,6 +57,8 @@ import com.xilinx.rapidwright.interchange.LogicalNetlist.Netlist.Port;
 import com.xilinx.rapidwright.interchange.LogicalNetlist.Netlist.PortInstance;
 import com.xilinx.rapidwright.interchange.LogicalNetlist.Netlist.PropertyMap;
 import com.xilinx.rapidwright.interchange.LogicalNetlist.Netlist.PortInstance.BusIdx;
+import com.xilinx.rapidwright.util.MetricsRegistry;
+import com.xilinx.rapidwright.util.ParallelismTools;
 
 public class LogNetlistReader {
     private Enumerator<String> allStrings;
@@ -152,6 +154,19 @@ public class LogNetlistReader {
     private void readEDIFCell(int cellIdx, EDIFNetlist n, Netlist.Reader netlist,
                                         StructList.Reader<Netlist.Cell.Reader> cellListReader,
                                         StructList.Reader<Netlist.CellInstance.Reader> instListReader) {
+        EDIFCell edifCell = readEDIFCellContents(cellIdx, n, netlist, cellListReader, instListReader);
+        checkUnisimDefinition(edifCell);
+    }
+
+    /**
+     * Reads the instances and nets of a single cell. Only the cell itself, its own instances and
+     * its own nets are modified, so different cells can be read concurrently once all ports and
+     * cells have been created.
+     * @return The populated cell
+     */
+    private EDIFCell readEDIFCellContents(int cellIdx, EDIFNetlist n, Netlist.Reader netlist,
+                                        StructList.Reader<Netlist.Cell.Reader> cellListReader,
+                                        StructList.Reader<Netlist.CellInstance.Reader> instListReader) {
         Cell.Reader cellReader = cellListReader.get(cellIdx);
 
         EDIFCell edifCell = allCells.get(cellReader.getIndex());
@@ -188,7 +203,15 @@ public class LogNetlistReader {
                 }
             }
         }
+        return edifCell;
+    }
 
+    /**
+     * Checks if the cell belongs to the primitives library and, if so, that its ports match
+     * the Unisim definition. Mismatches are reported as warnings.
+     * @param edifCell The cell to check
+     */
+    private void checkUnisimDefinition(EDIFCell edifCell) {
         // Check if Unisim definitions match
         if(edifCell.getLibrary().isHDIPrimitivesLibrary()) {
             Unisim cellType = Unisim.valueOf(edifCell.getName());
@@ -238,7 +261,7 @@ public class LogNetlistReader {
 
         extractPropertyMap(instReader.getPropMap(), edifCellInst);
 
-        allInsts.add(instIdx, edifCellInst);
+        allInsts.set(instIdx, edifCellInst);
     }
 
     /**
@@ -249,10 +272,15 @@ public class LogNetlistReader {
      */
     public static EDIFNetlist readLogNetlist(String fileName) throws IOException {
         ReaderOptions readerOptions = new ReaderOptions(32L*1024L*1024L*1024L, 64);
+        MetricsRegistry metrics = MetricsRegistry.getGlobal();
+        long t = System.nanoTime();
         MessageReader readMsg = Interchange.readInterchangeFile(fileName, readerOptions);
 
         Netlist.Reader netlist = readMsg.getRoot(Netlist.factory);
-        return getLogNetlist(netlist);
+        t = metrics.lap("interchange/readLogNetlist/read file", t);
+        EDIFNetlist n = getLogNetlist(netlist);
+        metrics.lap("interchange/readLogNetlist/netlist", t);
+        return n;
     }
 
     private void readStrings(Netlist.Reader netlist) {
@@ -284,6 +312,12 @@ public class LogNetlistReader {
 
     private void readPorts(Netlist.Reader netlist) {
         StructList.Reader<Port.Reader> portReaderList = netlist.getPortList();
+        if(ParallelismTools.getParallel()) {
+            allPorts = new ArrayList<EDIFPort>(Collections.nCopies(portReaderList.size(), null));
+            ParallelismTools.invokeAllRange(portReaderList.size(),
+                    (i) -> allPorts.set(i, readEDIFPort(portReaderList.get(i))));
+            return;
+        }
         allPorts = new ArrayList<EDIFPort>(portReaderList.size());
         for(int i = 0; i < portReaderList.size(); ++i) {
             Port.Reader portReader = portReaderList.get(i);
@@ -331,8 +365,17 @@ public class LogNetlistReader {
         StructList.Reader<Netlist.Cell.Reader> cellListReader = netlist.getCellList();
         StructList.Reader<Netlist.CellInstance.Reader> instListReader = netlist.getInstList();
         allInsts = new ArrayList<EDIFCellInst>(Collections.nCopies(instListReader.size(), null));
-        for(int i=0; i < cellCount; i++) {
-            readEDIFCell(i, n, netlist, cellListReader, instListReader);
+        if(ParallelismTools.getParallel()) {
+            // Cells only reference their own instances and nets, read their contents concurrently
+            ParallelismTools.invokeAllRange(cellCount,
+                    (i) -> readEDIFCellContents(i, n, netlist, cellListReader, instListReader));
+            for(int i=0; i < cellCount; i++) {
+                checkUnisimDefinition(allCells.get(cellListReader.get(i).getIndex()));
+            }
+        } else {
+            for(int i=0; i < cellCount; i++) {
+                readEDIFCell(i, n, netlist, cellListReader, instListReader);
+            }
         }
 
         if(!skipTopStuff) {
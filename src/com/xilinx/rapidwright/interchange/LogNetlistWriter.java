@@ -26,6 +26,7 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Function;
 
 import org.capnproto.MessageBuilder;
 import org.capnproto.PrimitiveList;
@@ -53,6 +54,8 @@ import com.xilinx.rapidwright.interchange.LogicalNetlist.Netlist.Net;
 import com.xilinx.rapidwright.interchange.LogicalNetlist.Netlist.Port;
 import com.xilinx.rapidwright.interchange.LogicalNetlist.Netlist.PortInstance;
 import com.xilinx.rapidwright.interchange.LogicalNetlist.Netlist.PropertyMap;
+import com.xilinx.rapidwright.util.MetricsRegistry;
+import com.xilinx.rapidwright.util.ParallelismTools;
 
 public class LogNetlistWriter {
 
@@ -176,55 +179,131 @@ public class LogNetlistWriter {
 
         int i = 0;
         for (EDIFCell cell : allCells) {
-            CellDeclaration.Builder cellDeclBuilder = cellDeclsList.get(i);
-            cellDeclBuilder.setName(allStrings.getIndex(cell.getName()));
-            Cell.Builder cellBuilder = cellsList.get(i);
-            cellBuilder.setIndex(i);
-            populatePropertyMap(cellDeclBuilder.getPropMap(), cell);
-            cellDeclBuilder.setView(allStrings.getIndex(cell.getView()));
-            cellDeclBuilder.setLib(allStrings.getIndex(lookupLibName(cell.getLibrary().getName())));
-
-            PrimitiveList.Int.Builder insts = cellBuilder.initInsts(cell.getCellInsts().size());
-            int j = 0;
-            for (EDIFCellInst inst : cell.getCellInsts()) {
-                insts.set(j, allInsts.getIndex(inst));
-                j++;
-            }
+            writeCellHeader(cell, i, cellsList.get(i), cellDeclsList.get(i));
+            writeCellReferences(cell, cellsList.get(i), cellDeclsList.get(i), allInsts::getIndex, allPorts::getIndex);
+            i++;
+        }
+
+    }
+
+    /**
+     * Parallel version of {@link #writeAllCellsToNetlistBuilder(Netlist.Builder)}. Cap'n Proto
+     * builders allocate from a single arena that is not thread-safe, so a serial pass first
+     * allocates all lists and writes all strings and properties (in the same order as the
+     * serial version). Worker threads then resolve the cell instance and port references and
+     * write them into the pre-sized list slots.
+     * @param netlist The netlist builder.
+     */
+    private void writeAllCellsToNetlistBuilderParallel(Netlist.Builder netlist) {
+        StructList.Builder<CellDeclaration.Builder> cellDeclsList = netlist.initCellDecls(allCells.size());
+        StructList.Builder<Cell.Builder> cellsList = netlist.initCellList(allCells.size());
+
+        for (int i = 0; i < allCells.size(); i++) {
+            writeCellHeader(allCells.get(i), i, cellsList.get(i), cellDeclsList.get(i));
+        }
 
-            PrimitiveList.Int.Builder ports = cellDeclBuilder.initPorts(cell.getPorts().size());
-            j = 0;
-            for (EDIFPort port : cell.getPorts()) {
-                ports.set(j, allPorts.getIndex(port));
-                j++;
+        // Ports and instances that are referenced but not declared by any exported cell are not
+        // enumerated yet. Enumerators are not thread-safe, so cells referring to them are
+        // written again serially, adding the missing entries
+        boolean[] unresolved = new boolean[allCells.size()];
+        ParallelismTools.invokeAllRange(allCells.size(), (i) -> {
+            unresolved[i] = !writeCellReferences(allCells.get(i), cellsList.get(i), cellDeclsList.get(i),
+                    allInsts::maybeGetIndex, allPorts::maybeGetIndex);
+        });
+        for (int i = 0; i < unresolved.length; i++) {
+            if (unresolved[i]) {
+                writeCellReferences(allCells.get(i), cellsList.get(i), cellDeclsList.get(i),
+                        allInsts::getIndex, allPorts::getIndex);
             }
+        }
+    }
+
+    /**
+     * Writes the strings and properties of a cell, its nets and its declaration, and allocates
+     * the instance, port and port instance lists that {@link #writeCellReferences} fills in.
+     * @param cell The cell to write.
+     * @param index Index of the cell in the cell list.
+     * @param cellBuilder The cell builder.
+     * @param cellDeclBuilder The cell declaration builder.
+     */
+    private void writeCellHeader(EDIFCell cell, int index, Cell.Builder cellBuilder,
+            CellDeclaration.Builder cellDeclBuilder) {
+        cellDeclBuilder.setName(allStrings.getIndex(cell.getName()));
+        cellBuilder.setIndex(index);
+        populatePropertyMap(cellDeclBuilder.getPropMap(), cell);
+        cellDeclBuilder.setView(allStrings.getIndex(cell.getView()));
+        cellDeclBuilder.setLib(allStrings.getIndex(lookupLibName(cell.getLibrary().getName())));
 
-            StructList.Builder<Net.Builder> nets = cellBuilder.initNets(cell.getNets().size());
-            j = 0;
-            for (EDIFNet net : cell.getNets()) {
-                Net.Builder netBuilder = nets.get(j);
-                netBuilder.setName(allStrings.getIndex(net.getName()));
-                populatePropertyMap(netBuilder.getPropMap(), net);
-                StructList.Builder<PortInstance.Builder> portInsts = netBuilder
-                        .initPortInsts(net.getPortInsts().size());
-                int k = 0;
-                for (EDIFPortInst portInst : net.getPortInsts()) {
-                    PortInstance.Builder piBuilder = portInsts.get(k);
-                    piBuilder.setPort(allPorts.getIndex(portInst.getPort()));
-                    if (portInst.getCellInst() != null) {
-                        piBuilder.setInst(allInsts.getIndex(portInst.getCellInst()));
-                    } else {
-                        piBuilder.setExtPort(Void.VOID);
-                    }
-                    if(portInst.getPort().isBus()) {
-                        piBuilder.initBusIdx().setIdx(portInst.getIndex());
-                    }
-                    k++;
+        cellBuilder.initInsts(cell.getCellInsts().size());
+        cellDeclBuilder.initPorts(cell.getPorts().size());
+
+        StructList.Builder<Net.Builder> nets = cellBuilder.initNets(cell.getNets().size());
+        int j = 0;
+        for (EDIFNet net : cell.getNets()) {
+            Net.Builder netBuilder = nets.get(j);
+            netBuilder.setName(allStrings.getIndex(net.getName()));
+            populatePropertyMap(netBuilder.getPropMap(), net);
+            netBuilder.initPortInsts(net.getPortInsts().size());
+            j++;
+        }
+    }
+
+    /**
+     * Writes the instance and port references of a cell into its pre-sized lists.
+     * @param cell The cell to write.
+     * @param cellBuilder The cell builder.
+     * @param cellDeclBuilder The cell declaration builder.
+     * @param instIndex Gets the index of an instance, or null if it is not enumerated.
+     * @param portIndex Gets the index of a port, or null if it is not enumerated.
+     * @return False if a reference could not be resolved, in which case the cell is only
+     * partially written.
+     */
+    private static boolean writeCellReferences(EDIFCell cell, Cell.Builder cellBuilder,
+            CellDeclaration.Builder cellDeclBuilder, Function<EDIFCellInst, Integer> instIndex,
+            Function<EDIFPort, Integer> portIndex) {
+        PrimitiveList.Int.Builder insts = cellBuilder.getInsts();
+        int j = 0;
+        for (EDIFCellInst inst : cell.getCellInsts()) {
+            Integer idx = instIndex.apply(inst);
+            if (idx == null) return false;
+            insts.set(j, idx);
+            j++;
+        }
+
+        PrimitiveList.Int.Builder ports = cellDeclBuilder.getPorts();
+        j = 0;
+        for (EDIFPort port : cell.getPorts()) {
+            Integer idx = portIndex.apply(port);
+            if (idx == null) return false;
+            ports.set(j, idx);
+            j++;
+        }
+
+        StructList.Builder<Net.Builder> nets = cellBuilder.getNets();
+        j = 0;
+        for (EDIFNet net : cell.getNets()) {
+            StructList.Builder<PortInstance.Builder> portInsts = nets.get(j).getPortInsts();
+            int k = 0;
+            for (EDIFPortInst portInst : net.getPortInsts()) {
+                PortInstance.Builder piBuilder = portInsts.get(k);
+                Integer idx = portIndex.apply(portInst.getPort());
+                if (idx == null) return false;
+                piBuilder.setPort(idx);
+                if (portInst.getCellInst() != null) {
+                    idx = instIndex.apply(portInst.getCellInst());
+                    if (idx == null) return false;
+                    piBuilder.setInst(idx);
+                } else {
+                    piBuilder.setExtPort(Void.VOID);
+                }
+                if(portInst.getPort().isBus()) {
+                    piBuilder.initBusIdx().setIdx(portInst.getIndex());
                 }
-                j++;
+                k++;
             }
-            i++;
+            j++;
         }
-
+        return true;
     }
 
     private void writeAllPortsToNetlistBuilder(Netlist.Builder netlist) {
@@ -259,6 +338,27 @@ public class LogNetlistWriter {
         }
     }
 
+    /**
+     * Parallel version of {@link #writeAllInstsToNetlistBuilder(Netlist.Builder)}, strings and
+     * properties are written serially and cell references are resolved by worker threads.
+     * @param netlist The netlist builder.
+     */
+    private void writeAllInstsToNetlistBuilderParallel(Netlist.Builder netlist) {
+        StructList.Builder<CellInstance.Builder> cellInstsList = netlist.initInstList(allInsts.size());
+        for (int i = 0; i < allInsts.size(); i++) {
+            EDIFCellInst inst = allInsts.get(i);
+            CellInstance.Builder ciBuilder = cellInstsList.get(i);
+            ciBuilder.setName(allStrings.getIndex(inst.getName()));
+            populatePropertyMap(ciBuilder.getPropMap(), inst);
+            ciBuilder.setView(allStrings.getIndex(inst.getViewref().getName()));
+        }
+
+        ParallelismTools.invokeAllRange(allInsts.size(), (i) -> {
+            Integer cellIdx = allCells.maybeGetIndex(allInsts.get(i).getCellType());
+            cellInstsList.get(i).setCell(cellIdx == null ? -1 : cellIdx);
+        });
+    }
+
     private void writeAllStringsToNetlistBuilder(Netlist.Builder netlist) {
         int stringCount = allStrings.size();
         TextList.Builder strList = netlist.initStrList(stringCount);
@@ -277,22 +377,38 @@ public class LogNetlistWriter {
         MessageBuilder message = new MessageBuilder();
         Netlist.Builder netlist = message.initRoot(Netlist.factory);
 
+        MetricsRegistry metrics = MetricsRegistry.getGlobal();
+        long t = System.nanoTime();
         LogNetlistWriter writer = new LogNetlistWriter();
         writer.writeTopNetlistStuffToNetlistBuilder(n, netlist);
         writer.populateNetlistBuilder(n, netlist);
         writer.writeAllStringsToNetlistBuilder(netlist);
+        t = metrics.lap("interchange/writeLogNetlist/netlist", t);
 
         Interchange.writeInterchangeFile(fileName, message);
+        metrics.lap("interchange/writeLogNetlist/write file", t);
     }
 
     /**
-     * Helper method to populate the logical netlist object with an existing builder.
+     * Helper method to populate the logical netlist object with an existing builder. When
+     * parallel processing is enabled ({@link ParallelismTools#getParallel()}), cell and instance
+     * references are resolved by multiple threads after a serial pass has enumerated all
+     * cells, ports and instances.
      * @param n The EDIF Netlist to serialize
      * @param netlist The current builder object to receive the EDIF Netlist
      */
     public void populateNetlistBuilder(EDIFNetlist n, Netlist.Builder netlist) {
         populateEnumerations(n);
 
+        if (ParallelismTools.getParallel()) {
+            writeAllCellsToNetlistBuilderParallel(netlist);
+
+            writeAllPortsToNetlistBuilder(netlist);
+
+            writeAllInstsToNetlistBuilderParallel(netlist);
+            return;
+        }
+
         writeAllCellsToNetlistBuilder(netlist);
 
         writeAllPortsToNetlistBuilder(netlist);
@@ -0,0 +1,621 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.interchange;
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.zip.GZIPInputStream;
+
+import org.capnproto.BufferedInputStreamWrapper;
+import org.capnproto.MessageReader;
+import org.capnproto.PackedInputStream;
+import org.capnproto.PrimitiveList;
+import org.capnproto.ReaderOptions;
+import org.capnproto.StructList;
+import org.capnproto.TextList;
+
+/**
+ * Random-access, read-only view of a device resources (interchange) file for tools that only
+ * need to query parts of the device. Rather than parsing the entire
+ * {@link DeviceResources.Device} message up front, the uncompressed message is memory-mapped
+ * and a sidecar index file of precomputed hash tables and offsets is used to look up tiles,
+ * wires, nodes and downhill PIPs. Queries for one region of the device therefore only touch
+ * the pages of the file that they need.
+ *
+ * If the device resources file is compressed and/or packed (see {@link Interchange#IS_GZIPPED}
+ * and {@link Interchange#IS_PACKED}), an uncompressed copy ({@link #RAW_FILE_EXT}) is created
+ * next to it the first time it is opened. The index ({@link #INDEX_FILE_EXT}) is created on
+ * first use and rebuilt whenever it is older than the uncompressed file.
+ *
+ * Instances are safe to query from multiple threads.
+ */
+public class MappedDeviceResources implements Closeable {
+
+    /** Suffix of the uncompressed, unpacked copy of a device resources file */
+    public static final String RAW_FILE_EXT = ".raw";
+    /** Suffix of the sidecar index file */
+    public static final String INDEX_FILE_EXT = ".idx";
+
+    private static final int INDEX_MAGIC = 0x52574958;
+    private static final int INDEX_VERSION = 1;
+
+    private static final int STRING_TABLE = 0;
+    private static final int TILE_TABLE = 1;
+    private static final int WIRE_TABLE = 2;
+    private static final int WIRE_TO_NODE = 3;
+    private static final int TILE_TYPE_WIRE_BASE = 4;
+    private static final int TILE_TYPE_WIRE_TABLE = 5;
+    private static final int PIP_OFFSETS = 6;
+    private static final int PIP_ENTRIES = 7;
+    private static final int SECTION_COUNT = 8;
+
+    /** Index header: magic, version, raw file size (2 ints), raw file timestamp (2 ints),
+     * section count, followed by the length of each section in ints */
+    private static final int HEADER_INTS = 7 + SECTION_COUNT;
+
+    private final FileChannel rawChannel;
+
+    private final FileChannel indexChannel;
+
+    private final DeviceResources.Device.Reader dReader;
+
+    private final TextList.Reader strings;
+
+    private final StructList.Reader<DeviceResources.Device.Tile.Reader> tiles;
+
+    private final StructList.Reader<DeviceResources.Device.TileType.Reader> tileTypes;
+
+    private final StructList.Reader<DeviceResources.Device.Wire.Reader> wires;
+
+    private final StructList.Reader<DeviceResources.Device.Node.Reader> nodes;
+
+    private final IntBuffer[] sections;
+
+    private MappedDeviceResources(FileChannel rawChannel, FileChannel indexChannel,
+            MessageReader message, IntBuffer[] sections) {
+        this.rawChannel = rawChannel;
+        this.indexChannel = indexChannel;
+        this.dReader = message.getRoot(DeviceResources.Device.factory);
+        this.strings = dReader.getStrList();
+        this.tiles = dReader.getTileList();
+        this.tileTypes = dReader.getTileTypeList();
+        this.wires = dReader.getWires();
+        this.nodes = dReader.getNodes();
+        this.sections = sections;
+    }
+
+    /**
+     * Opens a device resources file for random access, creating the uncompressed copy and
+     * the index file if they are missing or out of date.
+     * @param devResFileName Path to the device resources file.
+     * @return The opened device resources.
+     * @throws IOException If the file could not be read or the index could not be written.
+     */
+    public static MappedDeviceResources open(String devResFileName) throws IOException {
+        Path rawFile = getRawFile(Paths.get(devResFileName));
+        Path indexFile = Paths.get(rawFile.toString() + INDEX_FILE_EXT);
+
+        FileChannel rawChannel = FileChannel.open(rawFile, StandardOpenOption.READ);
+        MessageReader message = new MessageReader(mapSegments(rawChannel),
+                new ReaderOptions(Long.MAX_VALUE, 64));
+        long rawSize = rawChannel.size();
+        long rawTimestamp = Files.getLastModifiedTime(rawFile).toMillis();
+
+        FileChannel indexChannel = openIndex(indexFile, rawSize, rawTimestamp);
+        if(indexChannel == null) {
+            writeIndex(message.getRoot(DeviceResources.Device.factory), indexFile, rawSize, rawTimestamp);
+            indexChannel = openIndex(indexFile, rawSize, rawTimestamp);
+            if(indexChannel == null) {
+                throw new IOException("ERROR: Failed to create index " + indexFile);
+            }
+        }
+        return new MappedDeviceResources(rawChannel, indexChannel, message, mapSections(indexChannel));
+    }
+
+    private static Path getRawFile(Path devResFile) throws IOException {
+        if(!Interchange.IS_GZIPPED && !Interchange.IS_PACKED) {
+            return devResFile;
+        }
+        Path rawFile = Paths.get(devResFile.toString() + RAW_FILE_EXT);
+        if(Files.exists(rawFile) &&
+                Files.getLastModifiedTime(rawFile).compareTo(Files.getLastModifiedTime(devResFile)) >= 0) {
+            return rawFile;
+        }
+        Path tmpFile = Files.createTempFile(rawFile.toAbsolutePath().getParent(), rawFile.getFileName().toString(), ".tmp");
+        InputStream in = new FileInputStream(devResFile.toFile());
+        if(Interchange.IS_GZIPPED) {
+            in = new GZIPInputStream(in);
+        }
+        ReadableByteChannel channel = Channels.newChannel(in);
+        if(Interchange.IS_PACKED) {
+            channel = new PackedInputStream(new BufferedInputStreamWrapper(channel));
+        }
+        try (ReadableByteChannel input = channel;
+             FileChannel out = FileChannel.open(tmpFile, StandardOpenOption.WRITE)) {
+            // Copy exactly one unpacked message: segment table followed by the segments
+            ByteBuffer first = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(input, first);
+            int segmentCount = first.getInt(0) + 1;
+            ByteBuffer header = ByteBuffer.allocate(((segmentCount + 2) / 2) * 8).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(first);
+            readFully(input, header);
+            long remaining = 0;
+            for(int i=0; i < segmentCount; i++) {
+                remaining += (header.getInt(4 + 4 * i) & 0xffffffffL) * 8;
+            }
+            writeFully(out, header);
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+            while(remaining > 0) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), remaining));
+                readFully(input, buffer);
+                remaining -= buffer.remaining();
+                writeFully(out, buffer);
+            }
+        }
+        Files.move(tmpFile, rawFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return rawFile;
+    }
+
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer) < 0) {
+                throw new IOException("ERROR: Unexpected end of file");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if(read < 0) {
+                throw new IOException("ERROR: Unexpected end of file");
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Memory-maps each segment of an unpacked Cap'n Proto message (standard serialization
+     * format: segment count, segment sizes, then segment data).
+     */
+    private static ByteBuffer[] mapSegments(FileChannel channel) throws IOException {
+        ByteBuffer first = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, first, 0);
+        int segmentCount = first.getInt(0) + 1;
+        int headerBytes = ((segmentCount + 2) / 2) * 8;
+        ByteBuffer header = ByteBuffer.allocate(headerBytes).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, header, 0);
+
+        ByteBuffer[] segments = new ByteBuffer[segmentCount];
+        long offset = headerBytes;
+        for(int i=0; i < segmentCount; i++) {
+            long segmentBytes = (header.getInt(4 + 4 * i) & 0xffffffffL) * 8;
+            if(segmentBytes > Integer.MAX_VALUE) {
+                throw new IOException("ERROR: Message segment " + i + " is too large to be mapped ("
+                        + segmentBytes + " bytes)");
+            }
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, segmentBytes)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            offset += segmentBytes;
+        }
+        return segments;
+    }
+
+    private static FileChannel openIndex(Path indexFile, long rawSize, long rawTimestamp) throws IOException {
+        if(!Files.exists(indexFile)) {
+            return null;
+        }
+        FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ);
+        if(channel.size() >= HEADER_INTS * 4L) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_INTS * 4);
+            readFully(channel, header, 0);
+            if(header.getInt(0) == INDEX_MAGIC && header.getInt(4) == INDEX_VERSION
+                    && header.getLong(8) == rawSize && header.getLong(16) == rawTimestamp
+                    && header.getInt(24) == SECTION_COUNT) {
+                return channel;
+            }
+        }
+        channel.close();
+        return null;
+    }
+
+    private static IntBuffer[] mapSections(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_INTS * 4);
+        readFully(channel, header, 0);
+        IntBuffer[] sections = new IntBuffer[SECTION_COUNT];
+        long offset = HEADER_INTS * 4L;
+        for(int i=0; i < SECTION_COUNT; i++) {
+            long length = header.getInt((7 + i) * 4) * 4L;
+            sections[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length).asIntBuffer();
+            offset += length;
+        }
+        return sections;
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int mix(int a, int b) {
+        return mix(a * 0x01000193 ^ b);
+    }
+
+    private static int[] createTable(int size) {
+        long capacity = Long.highestOneBit(Math.max(1L, size + size / 3L)) << 1;
+        if(capacity > Integer.MAX_VALUE / 4) {
+            throw new RuntimeException("ERROR: Too many entries to index: " + size);
+        }
+        return new int[(int) capacity];
+    }
+
+    /**
+     * Inserts a value into an open-addressing (linear probing) hash table. Entries are stored
+     * as value+1 so that 0 can denote an empty slot.
+     */
+    private static void insert(int[] table, int hash, int value) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while(table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value + 1;
+    }
+
+    private static int lookup(IntBuffer table, int hash, IntPredicate matches) {
+        int mask = table.limit() - 1;
+        int slot = hash & mask;
+        int entry;
+        while((entry = table.get(slot)) != 0) {
+            if(matches.test(entry - 1)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static void writeIndex(DeviceResources.Device.Reader dReader, Path indexFile,
+            long rawSize, long rawTimestamp) throws IOException {
+        int[][] sections = new int[SECTION_COUNT][];
+
+        TextList.Reader strings = dReader.getStrList();
+        int[] stringTable = createTable(strings.size());
+        for(int i=0; i < strings.size(); i++) {
+            insert(stringTable, mix(strings.get(i).toString().hashCode()), i);
+        }
+        sections[STRING_TABLE] = stringTable;
+
+        StructList.Reader<DeviceResources.Device.Tile.Reader> tiles = dReader.getTileList();
+        int[] tileTable = createTable(tiles.size());
+        for(int i=0; i < tiles.size(); i++) {
+            insert(tileTable, mix(tiles.get(i).getName()), i);
+        }
+        sections[TILE_TABLE] = tileTable;
+
+        StructList.Reader<DeviceResources.Device.Wire.Reader> wires = dReader.getWires();
+        int[] wireTable = createTable(wires.size());
+        for(int i=0; i < wires.size(); i++) {
+            DeviceResources.Device.Wire.Reader wire = wires.get(i);
+            insert(wireTable, mix(wire.getTile(), wire.getWire()), i);
+        }
+        sections[WIRE_TABLE] = wireTable;
+
+        StructList.Reader<DeviceResources.Device.Node.Reader> nodes = dReader.getNodes();
+        int[] wireToNode = new int[wires.size()];
+        Arrays.fill(wireToNode, -1);
+        for(int i=0; i < nodes.size(); i++) {
+            PrimitiveList.Int.Reader nodeWires = nodes.get(i).getWires();
+            for(int j=0; j < nodeWires.size(); j++) {
+                wireToNode[nodeWires.get(j)] = i;
+            }
+        }
+        sections[WIRE_TO_NODE] = wireToNode;
+
+        // Tile type wires get a global id: tileTypeWireBase[tileType] + tile type wire index
+        StructList.Reader<DeviceResources.Device.TileType.Reader> tileTypes = dReader.getTileTypeList();
+        int[] tileTypeWireBase = new int[tileTypes.size() + 1];
+        for(int i=0; i < tileTypes.size(); i++) {
+            tileTypeWireBase[i+1] = tileTypeWireBase[i] + tileTypes.get(i).getWires().size();
+        }
+        int tileTypeWireCount = tileTypeWireBase[tileTypes.size()];
+        sections[TILE_TYPE_WIRE_BASE] = tileTypeWireBase;
+
+        int[] tileTypeWireTable = createTable(tileTypeWireCount);
+        // Downhill PIPs per tile type wire in compressed sparse row form. Entries are the PIP
+        // index within the tile type, or its complement for bidirectional PIPs used in reverse
+        int[] pipOffsets = new int[tileTypeWireCount + 1];
+        for(int i=0; i < tileTypes.size(); i++) {
+            DeviceResources.Device.TileType.Reader tileType = tileTypes.get(i);
+            PrimitiveList.Int.Reader ttWires = tileType.getWires();
+            for(int j=0; j < ttWires.size(); j++) {
+                insert(tileTypeWireTable, mix(i, ttWires.get(j)), tileTypeWireBase[i] + j);
+            }
+            for(DeviceResources.Device.PIP.Reader pip : tileType.getPips()) {
+                pipOffsets[tileTypeWireBase[i] + pip.getWire0() + 1]++;
+                if(!pip.getDirectional()) {
+                    pipOffsets[tileTypeWireBase[i] + pip.getWire1() + 1]++;
+                }
+            }
+        }
+        for(int i=0; i < tileTypeWireCount; i++) {
+            pipOffsets[i+1] += pipOffsets[i];
+        }
+        int[] pipEntries = new int[pipOffsets[tileTypeWireCount]];
+        int[] fill = Arrays.copyOf(pipOffsets, tileTypeWireCount);
+        for(int i=0; i < tileTypes.size(); i++) {
+            StructList.Reader<DeviceResources.Device.PIP.Reader> pips = tileTypes.get(i).getPips();
+            for(int j=0; j < pips.size(); j++) {
+                DeviceResources.Device.PIP.Reader pip = pips.get(j);
+                pipEntries[fill[tileTypeWireBase[i] + pip.getWire0()]++] = j;
+                if(!pip.getDirectional()) {
+                    pipEntries[fill[tileTypeWireBase[i] + pip.getWire1()]++] = ~j;
+                }
+            }
+        }
+        sections[TILE_TYPE_WIRE_TABLE] = tileTypeWireTable;
+        sections[PIP_OFFSETS] = pipOffsets;
+        sections[PIP_ENTRIES] = pipEntries;
+
+        Path tmpFile = Files.createTempFile(indexFile.toAbsolutePath().getParent(), indexFile.getFileName().toString(), ".tmp");
+        try (FileChannel out = FileChannel.open(tmpFile, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_INTS * 4);
+            header.putInt(INDEX_MAGIC).putInt(INDEX_VERSION).putLong(rawSize).putLong(rawTimestamp);
+            header.putInt(SECTION_COUNT);
+            for(int[] section : sections) {
+                header.putInt(section.length);
+            }
+            header.flip();
+            writeFully(out, header);
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+            for(int[] section : sections) {
+                for(int i=0; i < section.length; i += buffer.capacity() / 4) {
+                    buffer.clear();
+                    buffer.asIntBuffer().put(section, i, Math.min(buffer.capacity() / 4, section.length - i));
+                    buffer.limit(Math.min(buffer.capacity(), (section.length - i) * 4));
+                    writeFully(out, buffer);
+                }
+            }
+        }
+        Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Gets the underlying (lazily read) device message.
+     * @return The device reader.
+     */
+    public DeviceResources.Device.Reader getDevice() {
+        return dReader;
+    }
+
+    /**
+     * Gets the string at the specified index of the device string list.
+     * @param index Index in the string list.
+     * @return The string.
+     */
+    public String getString(int index) {
+        return strings.get(index).toString();
+    }
+
+    /**
+     * Looks up the index of a string in the device string list.
+     * @param str The string to look up.
+     * @return Index of the string, or -1 if not present.
+     */
+    public int getStringIndex(String str) {
+        return lookup(sections[STRING_TABLE], mix(str.hashCode()), i -> str.equals(getString(i)));
+    }
+
+    /**
+     * Looks up the index of a tile by name.
+     * @param tileName Name of the tile.
+     * @return Index of the tile in the device tile list, or -1 if not found.
+     */
+    public int getTileIndex(String tileName) {
+        int name = getStringIndex(tileName);
+        if(name == -1) return -1;
+        return lookup(sections[TILE_TABLE], mix(name), i -> tiles.get(i).getName() == name);
+    }
+
+    /**
+     * Looks up a tile by name.
+     * @param tileName Name of the tile.
+     * @return The tile, or null if not found.
+     */
+    public DeviceResources.Device.Tile.Reader getTile(String tileName) {
+        int idx = getTileIndex(tileName);
+        return idx == -1 ? null : tiles.get(idx);
+    }
+
+    /**
+     * Looks up the index of a wire in the device wire list.
+     * @param tileName Name of the tile.
+     * @param wireName Name of the wire in the tile.
+     * @return Index of the wire, or -1 if not found.
+     */
+    public int getWireIndex(String tileName, String wireName) {
+        int tile = getStringIndex(tileName);
+        int wire = getStringIndex(wireName);
+        if(tile == -1 || wire == -1) return -1;
+        return lookup(sections[WIRE_TABLE], mix(tile, wire), i -> {
+            DeviceResources.Device.Wire.Reader w = wires.get(i);
+            return w.getTile() == tile && w.getWire() == wire;
+        });
+    }
+
+    /**
+     * Gets a wire by its index in the device wire list.
+     * @param wireIndex Index of the wire.
+     * @return The wire.
+     */
+    public DeviceResources.Device.Wire.Reader getWire(int wireIndex) {
+        return wires.get(wireIndex);
+    }
+
+    /**
+     * Gets the node that a wire belongs to.
+     * @param wireIndex Index of the wire in the device wire list.
+     * @return Index of the node in the device node list, or -1 if the wire is not part of a node.
+     */
+    public int getNodeIndex(int wireIndex) {
+        return sections[WIRE_TO_NODE].get(wireIndex);
+    }
+
+    /**
+     * Gets a node by its index in the device node list.
+     * @param nodeIndex Index of the node.
+     * @return The node.
+     */
+    public DeviceResources.Device.Node.Reader getNode(int nodeIndex) {
+        return nodes.get(nodeIndex);
+    }
+
+    /**
+     * Gets the wires of a node.
+     * @param nodeIndex Index of the node in the device node list.
+     * @return Indices of the wires (in the device wire list) in the node.
+     */
+    public int[] getNodeWires(int nodeIndex) {
+        PrimitiveList.Int.Reader nodeWires = nodes.get(nodeIndex).getWires();
+        int[] result = new int[nodeWires.size()];
+        for(int i=0; i < result.length; i++) {
+            result[i] = nodeWires.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * A PIP that can be driven from a wire, together with the direction it is used in.
+     */
+    public static class DownhillPIP {
+        private final DeviceResources.Device.PIP.Reader pip;
+        private final boolean reversed;
+
+        public DownhillPIP(DeviceResources.Device.PIP.Reader pip, boolean reversed) {
+            this.pip = pip;
+            this.reversed = reversed;
+        }
+
+        /**
+         * @return The PIP of the tile type.
+         */
+        public DeviceResources.Device.PIP.Reader getPIP() {
+            return pip;
+        }
+
+        /**
+         * @return True if this is a bidirectional PIP that is driven from its wire1.
+         */
+        public boolean isReversed() {
+            return reversed;
+        }
+
+        /**
+         * @return Index (in the tile type's wire list) of the wire driving the PIP.
+         */
+        public int getStartWire() {
+            return reversed ? pip.getWire1() : pip.getWire0();
+        }
+
+        /**
+         * @return Index (in the tile type's wire list) of the wire driven by the PIP.
+         */
+        public int getEndWire() {
+            return reversed ? pip.getWire0() : pip.getWire1();
+        }
+    }
+
+    /**
+     * Gets the PIPs that can be driven from the given wire. This includes bidirectional PIPs
+     * whose wire1 is the given wire, which are marked as reversed.
+     * @param wireIndex Index of the wire in the device wire list.
+     * @return List of downhill PIPs of the wire's tile type, empty if there are none.
+     */
+    public List<DownhillPIP> getDownhillPIPs(int wireIndex) {
+        DeviceResources.Device.Wire.Reader wire = wires.get(wireIndex);
+        int tileName = wire.getTile();
+        int wireName = wire.getWire();
+        int tileIdx = lookup(sections[TILE_TABLE], mix(tileName), i -> tiles.get(i).getName() == tileName);
+        if(tileIdx == -1) {
+            throw new RuntimeException("ERROR: Tile " + getString(tileName) + " of wire " + wireIndex + " not found");
+        }
+        int tileType = tiles.get(tileIdx).getType();
+        IntBuffer tileTypeWireBase = sections[TILE_TYPE_WIRE_BASE];
+        int base = tileTypeWireBase.get(tileType);
+        int end = tileTypeWireBase.get(tileType + 1);
+        PrimitiveList.Int.Reader ttWires = tileTypes.get(tileType).getWires();
+        int ttWire = lookup(sections[TILE_TYPE_WIRE_TABLE], mix(tileType, wireName),
+                i -> i >= base && i < end && ttWires.get(i - base) == wireName);
+        List<DownhillPIP> downhill = new ArrayList<>();
+        if(ttWire == -1) {
+            return downhill;
+        }
+        StructList.Reader<DeviceResources.Device.PIP.Reader> pips = tileTypes.get(tileType).getPips();
+        IntBuffer pipEntries = sections[PIP_ENTRIES];
+        for(int i=sections[PIP_OFFSETS].get(ttWire); i < sections[PIP_OFFSETS].get(ttWire + 1); i++) {
+            int entry = pipEntries.get(i);
+            downhill.add(entry < 0 ? new DownhillPIP(pips.get(~entry), true) : new DownhillPIP(pips.get(entry), false));
+        }
+        return downhill;
+    }
+
+    /**
+     * Gets the PIPs that can be driven from the given wire.
+     * @param tileName Name of the tile.
+     * @param wireName Name of the wire in the tile.
+     * @return List of downhill PIPs, or null if the wire does not exist.
+     */
+    public List<DownhillPIP> getDownhillPIPs(String tileName, String wireName) {
+        int wireIndex = getWireIndex(tileName, wireName);
+        return wireIndex == -1 ? null : getDownhillPIPs(wireIndex);
+    }
+
+    @Override
+    public void close() throws IOException {
+        rawChannel.close();
+        indexChannel.close();
+    }
+}
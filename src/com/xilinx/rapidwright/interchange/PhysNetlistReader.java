@@ -81,6 +81,7 @@ import com.xilinx.rapidwright.interchange.PhysicalNetlist.PhysNetlist.Property;
 import com.xilinx.rapidwright.interchange.PhysicalNetlist.PhysNetlist.RouteBranch;
 import com.xilinx.rapidwright.interchange.PhysicalNetlist.PhysNetlist.RouteBranch.RouteSegment;
 import com.xilinx.rapidwright.interchange.PhysicalNetlist.PhysNetlist.SiteInstance;
+import com.xilinx.rapidwright.util.MetricsRegistry;
 import com.xilinx.rapidwright.util.Utils;
 
 public class PhysNetlistReader {
@@ -91,30 +92,40 @@ public class PhysNetlistReader {
     private static final String STATIC_SOURCE = "STATIC_SOURCE";
     private static int tieoffInstanceCount = 0;
 
+    private static final String READ_METRIC = "interchange/readPhysNetlist";
+
     public static Design readPhysNetlist(String physNetlistFileName, EDIFNetlist netlist) throws IOException {
         Design design = new Design();
         design.setNetlist(netlist);
         ReaderOptions rdOptions =
                 new ReaderOptions(ReaderOptions.DEFAULT_READER_OPTIONS.traversalLimitInWords * 64,
                 ReaderOptions.DEFAULT_READER_OPTIONS.nestingLimit * 128);
+        MetricsRegistry metrics = MetricsRegistry.getGlobal();
+        long t = System.nanoTime();
         MessageReader readMsg = Interchange.readInterchangeFile(physNetlistFileName, rdOptions);
 
         PhysNetlist.Reader physNetlist = readMsg.getRoot(PhysNetlist.factory);
         design.setPartName(physNetlist.getPart().toString());
 
         Enumerator<String> allStrings = readAllStrings(physNetlist);
+        t = metrics.lap(READ_METRIC + "/read file", t);
 
         checkConstantRoutingAndNetNaming(physNetlist, netlist, allStrings);
+        t = metrics.lap(READ_METRIC + "/check constant nets", t);
 
         readSiteInsts(physNetlist, design, allStrings);
+        t = metrics.lap(READ_METRIC + "/site insts", t);
 
         readPlacement(physNetlist, design, allStrings);
 
         checkMacros(design);
+        t = metrics.lap(READ_METRIC + "/placement", t);
         
         readRouting(physNetlist, design, allStrings);
+        t = metrics.lap(READ_METRIC + "/routing", t);
 
         readDesignProperties(physNetlist, design, allStrings);
+        metrics.lap(READ_METRIC + "/properties", t);
 
         return design;
     }
@@ -72,10 +72,13 @@ import com.xilinx.rapidwright.interchange.PhysicalNetlist.PhysNetlist.RouteBranc
 import com.xilinx.rapidwright.interchange.PhysicalNetlist.PhysNetlist.RouteBranch.RouteSegment;
 import com.xilinx.rapidwright.interchange.PhysicalNetlist.PhysNetlist.SiteInstance;
 import com.xilinx.rapidwright.interchange.RouteBranchNode.RouteSegmentType;
+import com.xilinx.rapidwright.util.MetricsRegistry;
 
 public class PhysNetlistWriter {
         
     public static final boolean BUILD_ROUTING_GRAPH_ON_EXPORT = true;
+
+    private static final String WRITE_METRIC = "interchange/writePhysNetlist";
     
     private static void writeSiteInsts(PhysNetlist.Builder physNetlist, Design design, 
             Enumerator<String> strings) {
@@ -522,16 +525,23 @@ public class PhysNetlistWriter {
 
         physNetlist.setPart(design.getPartName());
         
+        MetricsRegistry metrics = MetricsRegistry.getGlobal();
+        long t = System.nanoTime();
         writeSiteInsts(physNetlist, design, strings);
+        t = metrics.lap(WRITE_METRIC + "/site insts", t);
         
         writePlacement(physNetlist, design, strings);
+        t = metrics.lap(WRITE_METRIC + "/placement", t);
         
         writePhysNets(physNetlist, design, strings);
+        t = metrics.lap(WRITE_METRIC + "/routing", t);
         
         writeDesignProperties(physNetlist, design, strings);
         
         writeStrings(physNetlist, strings);
+        t = metrics.lap(WRITE_METRIC + "/strings", t);
         
         Interchange.writeInterchangeFile(fileName, message);
+        metrics.lap(WRITE_METRIC + "/write file", t);
     }
 }
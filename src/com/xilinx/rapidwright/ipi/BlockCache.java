@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.xilinx.rapidwright.ipi;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import com.xilinx.rapidwright.design.ModuleCache;
+import com.xilinx.rapidwright.design.ModuleImpls;
+import com.xilinx.rapidwright.edif.EDIFNetlist;
+import com.xilinx.rapidwright.util.FileTools;
+
+/**
+ * A content-addressed, size-bounded disk cache of implemented blocks ({@link ModuleImpls}).
+ *
+ * Each entry is a directory named by its key (see {@link BlockCreator#getMD5Checksum(List, String)}),
+ * containing the compact module file and the Kryo-serialized netlist as read by
+ * {@link BlockCreator#readStoredModule(String, String)}. Entries are written to a temporary
+ * directory and atomically renamed into place, so concurrent readers never see partial entries
+ * and concurrent writers of the same key are harmless. Reading an entry updates its modification
+ * time, and the least recently used entries are evicted once the cache exceeds its maximum size.
+ * Only complete entries whose directory name is a key are ever evicted, so other directories
+ * that happen to be in the cache directory are left alone.
+ *
+ * The location and size can be set with the environment variables {@link #RW_BLOCK_CACHE} and
+ * {@link #RW_BLOCK_CACHE_SIZE_MB}.
+ */
+public class BlockCache {
+
+    /** Environment variable to set the block cache directory */
+    public static final String RW_BLOCK_CACHE = "RW_BLOCK_CACHE";
+
+    /** Environment variable to set the maximum size of the block cache in megabytes */
+    public static final String RW_BLOCK_CACHE_SIZE_MB = "RW_BLOCK_CACHE_SIZE_MB";
+
+    public static final long DEFAULT_MAX_SIZE_MB = 10 * 1024;
+
+    /**
+     * Name of the default cache directory within {@link BlockCreator#BLOCK_CACHE_PATH}, which
+     * also holds the IP and out-of-context run directories of the block stitcher flow
+     */
+    public static final String DEFAULT_CACHE_DIR_NAME = "blocks";
+
+    /** Keys are MD5 checksums as computed by {@link BlockCreator#getMD5Checksum(List, String)} */
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{32}");
+
+    /** Common file name (without extension) of the files in each entry */
+    private static final String ENTRY_FILE_NAME = "block";
+
+    private static final String TMP_PREFIX = ".tmp_";
+
+    private final Path cacheDir;
+
+    private final long maxSizeBytes;
+
+    /** Estimated total size of all entries, -1 until the cache directory has been scanned */
+    private final AtomicLong sizeBytes = new AtomicLong(-1);
+
+    public BlockCache(Path cacheDir, long maxSizeBytes) {
+        this.cacheDir = cacheDir;
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    /**
+     * Creates a block cache as configured by {@link #RW_BLOCK_CACHE} (defaulting to the
+     * {@link #DEFAULT_CACHE_DIR_NAME} directory in {@link BlockCreator#BLOCK_CACHE_PATH}) and
+     * {@link #RW_BLOCK_CACHE_SIZE_MB}.
+     * @return The block cache.
+     */
+    public static BlockCache createDefault() {
+        String dir = System.getenv(RW_BLOCK_CACHE);
+        String size = System.getenv(RW_BLOCK_CACHE_SIZE_MB);
+        long maxSizeMB = size == null ? DEFAULT_MAX_SIZE_MB : Long.parseLong(size);
+        Path cacheDir = dir == null ? Paths.get(BlockCreator.BLOCK_CACHE_PATH, DEFAULT_CACHE_DIR_NAME)
+                : Paths.get(dir);
+        return new BlockCache(cacheDir, maxSizeMB * 1024 * 1024);
+    }
+
+    public Path getCacheDir() {
+        return cacheDir;
+    }
+
+    public long getMaxSizeBytes() {
+        return maxSizeBytes;
+    }
+
+    private Path getEntryDir(String key) {
+        return cacheDir.resolve(key);
+    }
+
+    private static String getCommonFileName(Path entryDir) {
+        return entryDir.resolve(ENTRY_FILE_NAME).toString();
+    }
+
+    /**
+     * Checks if a directory is a complete cache entry, ie. it is named by a key and contains
+     * both files of a block.
+     */
+    private static boolean isEntry(Path dir) {
+        if (!KEY_PATTERN.matcher(dir.getFileName().toString()).matches()) {
+            return false;
+        }
+        String common = getCommonFileName(dir);
+        return new File(common + ".dat").isFile() && new File(common + ".kryo").isFile();
+    }
+
+    /**
+     * Checks if an entry for the given key is present.
+     * @param key The key of the block.
+     * @return True if the block is cached, false otherwise.
+     */
+    public boolean contains(String key) {
+        String common = getCommonFileName(getEntryDir(key));
+        return new File(common + ".dat").exists() && new File(common + ".kryo").exists();
+    }
+
+    /**
+     * Reads a cached block and marks it as recently used.
+     * @param key The key of the block.
+     * @param cellInstanceName Name of the cell instance to restore on the netlist and modules.
+     * @return The cached block or null if it is not (or no longer) present.
+     */
+    public ModuleImpls get(String key, String cellInstanceName) {
+        if (!contains(key)) {
+            return null;
+        }
+        Path entryDir = getEntryDir(key);
+        try {
+            Files.setLastModifiedTime(entryDir, FileTime.fromMillis(System.currentTimeMillis()));
+            return BlockCreator.readStoredModule(getCommonFileName(entryDir), cellInstanceName);
+        } catch (IOException | UncheckedIOException e) {
+            // Entry was evicted concurrently
+            return null;
+        }
+    }
+
+    /**
+     * Stores a block in the cache, evicting least recently used entries if the cache grows
+     * beyond its maximum size. If an entry for the key already exists, nothing is written.
+     * The size of the cache is tracked as entries are stored, so the cache directory is only
+     * scanned once and when entries need to be evicted.
+     * @param key The key of the block.
+     * @param modImpls The implementations of the block.
+     * @param netlist The netlist of the block.
+     */
+    public void put(String key, ModuleImpls modImpls, EDIFNetlist netlist) {
+        Path entryDir = getEntryDir(key);
+        if (Files.isDirectory(entryDir)) {
+            return;
+        }
+        Path tmpDir = null;
+        long entrySize = 0;
+        try {
+            Files.createDirectories(cacheDir);
+            tmpDir = Files.createTempDirectory(cacheDir, TMP_PREFIX);
+            String common = getCommonFileName(tmpDir);
+            ModuleCache.saveToCompactFile(modImpls, common + ".dat");
+            FileTools.writeObjectToKryoFile(common + ".kryo", netlist);
+            entrySize = getSize(tmpDir);
+            Files.move(tmpDir, entryDir, StandardCopyOption.ATOMIC_MOVE);
+            tmpDir = null;
+        } catch (FileAlreadyExistsException | DirectoryNotEmptyException e) {
+            // Another writer stored the same block first
+            return;
+        } catch (IOException e) {
+            throw new UncheckedIOException("ERROR: Couldn't store block " + key + " in " + cacheDir, e);
+        } finally {
+            if (tmpDir != null && Files.exists(tmpDir)) {
+                FileTools.deleteFolder(tmpDir.toString());
+            }
+        }
+        if (sizeBytes.get() < 0 || sizeBytes.addAndGet(entrySize) > maxSizeBytes) {
+            evict();
+        }
+    }
+
+    /**
+     * @return The estimated total size of all entries in bytes, or -1 if the cache directory
+     * has not been scanned yet.
+     */
+    public long getSizeBytes() {
+        return sizeBytes.get();
+    }
+
+    private static long getSize(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).mapToLong(f -> f.toFile().length()).sum();
+        }
+    }
+
+    /**
+     * Removes the least recently used entries until the cache fits into its maximum size.
+     * Entries are first renamed so that concurrent readers either see a whole entry or none.
+     */
+    public void evict() {
+        List<Path> entries = new ArrayList<>();
+        List<Long> sizes = new ArrayList<>();
+        long totalSize = 0;
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(cacheDir, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                if (isEntry(dir)) {
+                    entries.add(dir);
+                }
+            }
+            entries.sort(Comparator.comparingLong(p -> p.toFile().lastModified()));
+            for (Path dir : entries) {
+                long size = getSize(dir);
+                sizes.add(size);
+                totalSize += size;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("ERROR: Couldn't read block cache " + cacheDir, e);
+        }
+        // Always keep the most recently used entry
+        for (int i = 0; i < entries.size() - 1 && totalSize > maxSizeBytes; i++) {
+            Path entry = entries.get(i);
+            Path evicted = entry.resolveSibling(TMP_PREFIX + entry.getFileName());
+            try {
+                Files.move(entry, evicted, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // Already evicted by someone else
+                continue;
+            }
+            FileTools.deleteFolder(evicted.toString());
+            totalSize -= sizes.get(i);
+        }
+        sizeBytes.set(totalSize);
+    }
+}
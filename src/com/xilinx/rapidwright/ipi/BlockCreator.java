@@ -30,6 +30,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
@@ -38,10 +39,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import com.xilinx.rapidwright.design.Design;
 import com.xilinx.rapidwright.design.Module;
+import com.xilinx.rapidwright.design.ModuleFootprint;
 import com.xilinx.rapidwright.design.ModuleCache;
 import com.xilinx.rapidwright.design.ModuleImpls;
 import com.xilinx.rapidwright.design.Net;
@@ -61,6 +65,7 @@ import com.xilinx.rapidwright.util.FileTools;
 import com.xilinx.rapidwright.util.Job;
 import com.xilinx.rapidwright.util.JobQueue;
 import com.xilinx.rapidwright.util.MessageGenerator;
+import com.xilinx.rapidwright.util.ParallelismTools;
 import com.xilinx.rapidwright.util.StringTools;
 import com.xilinx.rapidwright.util.Utils;
 
@@ -72,7 +77,8 @@ import com.xilinx.rapidwright.util.Utils;
  */
 public class BlockCreator {
 
-	public static final String BLOCK_CACHE_PATH = "/home/"+System.getenv("USER")+"/blockCache";
+	/** Default location of the {@link BlockCache}, can be overridden with {@link BlockCache#RW_BLOCK_CACHE} */
+	public static final String BLOCK_CACHE_PATH = System.getProperty("user.home") + File.separator + "blockCache";
 
 	public static final String ROUTED_XPN_SUFFIX = "_routed.xpn";
 	
@@ -88,7 +94,27 @@ public class BlockCreator {
 	
 	public static final boolean BC_DEBUG = false;
 	
-	private static HashMap<String,ModuleImpls> inMemModuleCache = new HashMap<String, ModuleImpls>();
+	private static Map<String,ModuleImpls> inMemModuleCache = new ConcurrentHashMap<String, ModuleImpls>();
+	
+	/** Blocks being read from the block cache in the background, see {@link #prefetchBlock} */
+	private static Map<String,Future<PrefetchedBlock>> pendingModuleReads = new ConcurrentHashMap<>();
+	
+	/**
+	 * Result of reading a block from the block cache in the background. The key is kept so that
+	 * the input files of a block missing from the cache do not need to be hashed again.
+	 */
+	private static class PrefetchedBlock {
+		final String blockCacheKey;
+		/** The cached block or null if it is not in the cache */
+		final ModuleImpls modules;
+		
+		PrefetchedBlock(String blockCacheKey, ModuleImpls modules) {
+			this.blockCacheKey = blockCacheKey;
+			this.modules = modules;
+		}
+	}
+	
+	private static BlockCache blockCache;
 	
 	public static final String DONE_FILE_PREFIX = "done.file.";
 	
@@ -120,7 +146,7 @@ public class BlockCreator {
 			Module m = new Module(d,dcpName.replace(ROUTED_DCP_SUFFIX, METADATA_FILE_SUFFIX));
 
 			m.setDevice(d.getDevice());
-			m.calculateAllValidPlacements(d.getDevice());
+			ModuleFootprint.calculateAllValidPlacements(m, d.getDevice());
 
 			fixupModuleOutputs(m);
 
@@ -225,8 +251,7 @@ public class BlockCreator {
 		return complete.digest();
 	}
 
-	public static String getMD5Checksum(String filename) {
-		byte[] b = createChecksum(filename);
+	private static String toHexString(byte[] b) {
 		StringBuilder result = new StringBuilder(32);
 		for (int i=0; i < b.length; i++) {
 			result.append(Integer.toString( ( b[i] & 0xff ) + 0x100, 16).substring( 1 ));
@@ -234,6 +259,70 @@ public class BlockCreator {
 		return result.toString();
 	}
 
+	public static String getMD5Checksum(String filename) {
+		return toHexString(createChecksum(filename));
+	}
+
+	/**
+	 * Computes a combined checksum of several files and a string of options, used as the key
+	 * of a block in the {@link BlockCache}. The order of the files matters.
+	 * @param fileNames The input files (netlist, constraints, implementation results).
+	 * @param options Any additional options that affect the block.
+	 * @return The MD5 checksum as a hex string.
+	 */
+	public static String getMD5Checksum(List<String> fileNames, String options) {
+		MessageDigest md5;
+		try {
+			md5 = MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException("ERROR: Couldn't find an MD5 algorithm provider "
+					+ "in current Java environment.");
+		}
+		for(String fileName : fileNames){
+			md5.update(getMD5Checksum(fileName).getBytes(StandardCharsets.UTF_8));
+		}
+		md5.update(options.getBytes(StandardCharsets.UTF_8));
+		return toHexString(md5.digest());
+	}
+
+	/**
+	 * Gets the block cache used by {@link #createOrRetrieveBlock}, configured by the
+	 * environment variables {@link BlockCache#RW_BLOCK_CACHE} and {@link BlockCache#RW_BLOCK_CACHE_SIZE_MB}.
+	 * @return The block cache.
+	 */
+	public static synchronized BlockCache getBlockCache() {
+		if(blockCache == null){
+			blockCache = BlockCache.createDefault();
+		}
+		return blockCache;
+	}
+
+	public static synchronized void setBlockCache(BlockCache cache) {
+		blockCache = cache;
+	}
+
+	/**
+	 * Gets the key of a block in the block cache, covering the logical netlist, the implemented
+	 * DCPs together with their metadata and pblock constraints and the number of implementations.
+	 */
+	private static String getBlockCacheKey(String edifFileName, String routedDCPFileName, int blockImplCount) {
+		List<String> fileNames = new ArrayList<>();
+		fileNames.add(edifFileName);
+		for(String dcpName : getRoutedDCPFileNames(routedDCPFileName, blockImplCount)){
+			fileNames.add(dcpName);
+			for(String suffix : new String[]{METADATA_FILE_SUFFIX, USED_PBLOCK_FILE_SUFFIX}){
+				String fileName = dcpName.replace(ROUTED_DCP_SUFFIX, suffix);
+				if(new File(fileName).exists()) fileNames.add(fileName);
+			}
+		}
+		return getMD5Checksum(fileNames, "blockImplCount=" + blockImplCount);
+	}
+	
+	private static String getCacheID(String xciFileName) {
+		String cacheID = xciFileName.replace(".xci", "");
+		return cacheID.substring(cacheID.lastIndexOf('/')+1, cacheID.length());
+	}
+
 	/**
 	 * Read the stored module from disk.  
 	 * @param commonFileName This is the root name of the two files involved that store the module information.
@@ -254,6 +343,26 @@ public class BlockCreator {
 		return modImpls;
 
 	}
+
+	/**
+	 * Reads several stored modules from disk in parallel.
+	 * @param commonFileNames The root names of the stored modules (see {@link #readStoredModule}).
+	 * @param cellInstanceNames The cell instance names to restore, in the same order.
+	 * @return The populated modules, in the same order.
+	 */
+	public static List<ModuleImpls> readStoredModules(List<String> commonFileNames, List<String> cellInstanceNames){
+		List<Future<ModuleImpls>> futures = new ArrayList<>(commonFileNames.size());
+		for(int i=0; i < commonFileNames.size(); i++){
+			String commonFileName = commonFileNames.get(i);
+			String cellInstanceName = cellInstanceNames.get(i);
+			futures.add(ParallelismTools.submit(() -> readStoredModule(commonFileName, cellInstanceName)));
+		}
+		List<ModuleImpls> modImpls = new ArrayList<>(futures.size());
+		for(Future<ModuleImpls> f : futures){
+			modImpls.add(ParallelismTools.get(f));
+		}
+		return modImpls;
+	}
 	
 	public static void implementBlocks(HashMap<String,String> ipNames, String cacheDir, ImplGuide implHelper, Device dev){
 		JobQueue jobs = new JobQueue();
@@ -542,13 +651,26 @@ public class BlockCreator {
 		Objects.requireNonNull(xciFileName);
 		Objects.requireNonNull(routedDCPFileName);
 		String uniqueFileName = getUniqueFileName(xciFileName);
-		String cacheID = xciFileName.replace(".xci", "");
-		cacheID = cacheID.substring(cacheID.lastIndexOf('/')+1, cacheID.length());
+		String cacheID = getCacheID(xciFileName);
 		ModuleImpls cachedModules = inMemModuleCache.get(cacheID);
 		if(cachedModules != null) {
 			//System.out.println("Cache hit on " + cellInstanceName + " " + cacheID);
 			return cachedModules;
 		}
+		Future<PrefetchedBlock> pending = pendingModuleReads.remove(cacheID);
+		String blockCacheKey;
+		if(pending != null) {
+			PrefetchedBlock prefetched = ParallelismTools.get(pending);
+			blockCacheKey = prefetched.blockCacheKey;
+			cachedModules = prefetched.modules;
+		} else {
+			blockCacheKey = getBlockCacheKey(edifFileName, routedDCPFileName, blockImplCount);
+			cachedModules = getBlockCache().get(blockCacheKey, cellInstanceName);
+		}
+		if(cachedModules != null) {
+			inMemModuleCache.put(cacheID, cachedModules);
+			return cachedModules;
+		}
 		//System.out.println("Cache miss on " + cellInstanceName + " " + cacheID);
 		String datFileName = uniqueFileName+".dat";
 		/*boolean storedModuleValid = new File(datFileName).exists() && new File(uniqueFileName+".kryo").exists(); 
@@ -579,12 +701,32 @@ public class BlockCreator {
 			e.setDevice(m.getDevice());
 		}
 
-		//ModuleCache.saveToCompactFile(modules,uniqueFileName+".dat");
-		//FileTools.writeObjectToKryoFile(uniqueFileName+".kryo", e);
+		getBlockCache().put(blockCacheKey, modules, e);
 		inMemModuleCache.put(cacheID, modules);
 		return modules;
 	}
 	
+	/**
+	 * Starts reading a block from the block cache in the background, so that a later call to
+	 * {@link #createOrRetrieveBlock} with the same arguments does not have to wait for it. This
+	 * allows many unchanged blocks to be loaded in parallel. Blocks missing from the cache are
+	 * created by {@link #createOrRetrieveBlock} as usual.
+	 * @param edifFileName The EDIF file name (logical netlist)
+	 * @param routedDCPFileName The routed DCP file name 
+	 * @param cellInstanceName The name of the cell instance (also the IP name in IPI)
+	 * @param xciFileName The XCI file name (attributes to the IP block that indicate its uniqueness)
+	 * @param blockImplCount The number of implementations provided for this module 
+	 */
+	public static void prefetchBlock(String edifFileName, String routedDCPFileName, String cellInstanceName, String xciFileName, int blockImplCount){
+		String cacheID = getCacheID(xciFileName);
+		if(inMemModuleCache.containsKey(cacheID) || pendingModuleReads.containsKey(cacheID)) return;
+		BlockCache cache = getBlockCache();
+		pendingModuleReads.put(cacheID, ParallelismTools.submit(() -> {
+			String blockCacheKey = getBlockCacheKey(edifFileName, routedDCPFileName, blockImplCount);
+			return new PrefetchedBlock(blockCacheKey, cache.get(blockCacheKey, cellInstanceName));
+		}));
+	}
+	
 	public static void main(String[] args) {
 		if(args.length != 5){
 			System.out.println("USAGE: <EDIF file name> <routed DCP file name> "
@@ -25,10 +25,14 @@
 package com.xilinx.rapidwright.ipi;
 
 import java.io.File;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.Set;
@@ -67,6 +71,8 @@ import com.xilinx.rapidwright.router.Router;
 import com.xilinx.rapidwright.tests.CodePerfTracker;
 import com.xilinx.rapidwright.util.FileTools;
 import com.xilinx.rapidwright.util.MessageGenerator;
+import com.xilinx.rapidwright.util.Pair;
+import com.xilinx.rapidwright.util.ParallelismTools;
 import com.xilinx.rapidwright.util.Utils;
 
 /**
@@ -87,6 +93,9 @@ public class BlockStitcher {
 
 	HashMap<String,String> bdInstNameToModInstName = new HashMap<String, String>();
 	
+	/** Use the indexed net stitching (see {@link #stitchNetsIndexed(Design)}) instead of the name-based one */
+	private boolean indexedStitching = true;
+	
 	public static final boolean DUMP_SYNTH_DCP_ONLY = false;
 	
 	public static final boolean CREATE_ROUTED_DCP = false;
@@ -96,6 +105,7 @@ public class BlockStitcher {
 	public static final boolean INSTANCE_PORT_IOs = true;
 	
 	public static final boolean REPORT_UNCONNECTED = false;
+	
 
 	public static final String CACHE_ID = "CACHE_ID";
 	
@@ -121,6 +131,55 @@ public class BlockStitcher {
 		return list;
 	}
 	
+	/**
+	 * A port instance of the stitched netlist together with the module instance port and 
+	 * physical net it resolves to. 
+	 */
+	private static class PortInstNet {
+		final EDIFHierPortInst portInst;
+		final ModuleInst mi;
+		final Port port;
+		final Net net;
+		
+		PortInstNet(EDIFHierPortInst portInst, ModuleInst mi, Port port, Net net){
+			this.portInst = portInst;
+			this.mi = mi;
+			this.port = port;
+			this.net = net;
+		}
+	}
+	
+	/**
+	 * The files of an implemented block, as passed to {@link BlockCreator#createOrRetrieveBlock}.
+	 */
+	private static class BlockFiles {
+		final String edifFileName;
+		final String routedDCPFileName;
+		final String xciFileName;
+		final int blockImplCount;
+		
+		BlockFiles(String edifFileName, String routedDCPFileName, String xciFileName, int blockImplCount){
+			this.edifFileName = edifFileName;
+			this.routedDCPFileName = routedDCPFileName;
+			this.xciFileName = xciFileName;
+			this.blockImplCount = blockImplCount;
+		}
+	}
+	
+	public boolean isIndexedStitching() {
+		return indexedStitching;
+	}
+
+	/**
+	 * Selects how the physical nets of connected module instances are merged by
+	 * {@link #stitchDesign(Design, HashMap)}. Both produce the same nets.
+	 * @param indexedStitching If true (the default), port instances are resolved once and
+	 * grouped in parallel, otherwise they are looked up by name.
+	 */
+	public void setIndexedStitching(boolean indexedStitching) {
+		this.indexedStitching = indexedStitching;
+	}
+	
 	private Net validateNet(Net curr, Net found){
 		if(curr == null) return found;
 		if(!curr.equals(found)){
@@ -136,14 +195,80 @@ public class BlockStitcher {
 	 * @param constraints
 	 */
 	public void stitchDesign(Design design, HashMap<String,PackagePinConstraint> constraints){
+		HashMap<EDIFHierPortInst,Net> topPortsMap = indexedStitching ? stitchNetsIndexed(design) : stitchNets(design);
+
+		// Handle top level pins / IO instantiation
+		// Note that it appears like some top-level pins might already have IOs instantiated (clk_wiz)
+		if(INSTANCE_PORT_IOs && constraints != null && constraints.size() > 0){
+			nextPort: for(Entry<EDIFHierPortInst, Net> e : topPortsMap.entrySet()){			
+				String portName = e.getKey().getPortInst().getName();
+				Net portNet = null;
+				portNet = e.getValue();
+
+				Site site = design.getDevice().getSiteFromPackagePin(constraints.get(portName).getName());
+				if(site == null){
+					MessageGenerator.briefMessage("WARNING: It appears that the I/O called " + portName + " is not assigned to a package pin!");
+					continue nextPort;
+				}
+				
+				// Check for IOs that already exist, we can skip instantiation
+				boolean isPortOutput = e.getKey().isOutput(); 
+				for(SitePinInst p : portNet.getPins()){
+					boolean portDirMatch = isPortOutput == !p.isOutPin();
+					if(portDirMatch && p.getSite().getName().startsWith("IOB_")){
+						MessageGenerator.briefMessage("INFO: IOB already instantiated for " + e.getKey());
+						continue nextPort;
+					}
+				}					
+				
+				SiteInst inst = design.getSiteInstFromSite(site);
+				if(inst != null){
+					// IO Site has already been created
+					continue;
+				}
+
+				String ioStandard = constraints.get(portName).getIoStandard();
+				String pkgPin = constraints.get(portName).getName();
+				EDIFNet logNet = e.getKey().getPortInst().getNet();
+				design.createAndPlaceIOB(portName, isPortOutput ? PinType.OUT : PinType.IN, pkgPin, ioStandard, portNet, logNet);
+			}
+		}
+		
+		HashMap<Site, SiteInst> uniqueMap = new HashMap<Site, SiteInst>();
+		for(SiteInst i : design.getSiteInsts()){			
+			if(!Utils.isModuleSiteType(i.getSiteTypeEnum())){
+				i.detachFromModule();
+				for(SitePinInst p : i.getSitePinInsts()){
+					p.getNet().unroute();
+				}
+				Site site = i.getSite();
+				if(site != null){					
+					if(uniqueMap.containsKey(i.getSite())){
+						SiteInst duplicate = uniqueMap.get(site);
+						System.out.println("WARNING: Found duplicate site used by instances: " + i.getName() + " " + duplicate.getName() + " " + i.getSiteName());
+					}else{
+						uniqueMap.put(i.getSite(),i);
+					}
+				}else{
+					if(i.getModuleInst() == null){
+						System.out.println("WARNING: Unplaced site outside of module instance: " + i.getName()  + " "+ i.getSiteTypeEnum());
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Merges the physical nets of the module instances that are connected in the logical netlist,
+	 * looking up port instances and nets by name.
+	 * @param design The design with placed module instances.
+	 * @return Map of top level ports to their physical nets.
+	 */
+	private HashMap<EDIFHierPortInst,Net> stitchNets(Design design){
 		boolean debug = false;
 		EDIFNetlist n = design.getNetlist();
 		// Create a reverse parent net map (Parent Net -> Children Nets: all logical nets that are physically equivalent) 
-		HashMap<EDIFHierNet,ArrayList<EDIFHierNet>> reverseMap = new HashMap<>();
-		for(Entry<EDIFHierNet,EDIFHierNet> e : n.getParentNetMap().entrySet()){
-			ArrayList<EDIFHierNet> l = reverseMap.computeIfAbsent(e.getValue(), k -> new ArrayList<>());
-			l.add(e.getKey());
-		}
+		HashMap<EDIFHierNet,ArrayList<EDIFHierNet>> reverseMap = getReverseParentNetMap(n);
 		
 		HashSet<String> addedPorts = new HashSet<>();
 		HashMap<String,ArrayList<EDIFHierPortInst>> portGroups = new HashMap<>();
@@ -260,66 +385,185 @@ public class BlockStitcher {
 				topPortsMap.put(p, newNet);
 			}
 		}
-
-		// Handle top level pins / IO instantiation
-		// Note that it appears like some top-level pins might already have IOs instantiated (clk_wiz)
-		if(INSTANCE_PORT_IOs && constraints != null && constraints.size() > 0){
-			nextPort: for(Entry<EDIFHierPortInst, Net> e : topPortsMap.entrySet()){			
-				String portName = e.getKey().getPortInst().getName();
-				Net portNet = null;
-				portNet = e.getValue();
-
-				Site site = design.getDevice().getSiteFromPackagePin(constraints.get(portName).getName());
-				if(site == null){
-					MessageGenerator.briefMessage("WARNING: It appears that the I/O called " + portName + " is not assigned to a package pin!");
-					continue nextPort;
-				}
-				
-				// Check for IOs that already exist, we can skip instantiation
-				boolean isPortOutput = e.getKey().isOutput(); 
-				for(SitePinInst p : portNet.getPins()){
-					boolean portDirMatch = isPortOutput == !p.isOutPin();
-					if(portDirMatch && p.getSite().getName().startsWith("IOB_")){
-						MessageGenerator.briefMessage("INFO: IOB already instantiated for " + e.getKey());
-						continue nextPort;
-					}
-				}					
-				
-				SiteInst inst = design.getSiteInstFromSite(site);
-				if(inst != null){
-					// IO Site has already been created
-					continue;
-				}
-
-				String ioStandard = constraints.get(portName).getIoStandard();
-				String pkgPin = constraints.get(portName).getName();
-				EDIFNet logNet = e.getKey().getPortInst().getNet();
-				design.createAndPlaceIOB(portName, isPortOutput ? PinType.OUT : PinType.IN, pkgPin, ioStandard, portNet, logNet);
+		return topPortsMap;
+	}
+	
+	/**
+	 * Creates a reverse parent net map (Parent Net -> Children Nets: all logical nets that are
+	 * physically equivalent).
+	 */
+	private static HashMap<EDIFHierNet,ArrayList<EDIFHierNet>> getReverseParentNetMap(EDIFNetlist n){
+		HashMap<EDIFHierNet,ArrayList<EDIFHierNet>> reverseMap = new HashMap<>();
+		for(Entry<EDIFHierNet,EDIFHierNet> e : n.getParentNetMap().entrySet()){
+			ArrayList<EDIFHierNet> l = reverseMap.computeIfAbsent(e.getValue(), k -> new ArrayList<>());
+			l.add(e.getKey());
+		}
+		return reverseMap;
+	}
+	
+	/**
+	 * Gets the physical nets of all ports of a module instance.
+	 * @return Map of port name to corresponding net (ports without a net are omitted).
+	 */
+	private static Map<String,Net> getPortNets(ModuleInst mi, Design design){
+		Map<String,Net> portNets = new HashMap<>();
+		for(Port port : mi.getModule().getPorts()){
+			Net net = getCorrespondingNet(mi, port, design);
+			if(net != null) portNets.put(port.getName(), net);
+		}
+		return portNets;
+	}
+	
+	private static PortInstNet resolvePortInst(EDIFHierPortInst p, Design design, Map<ModuleInst,Map<String,Net>> portNets){
+		ModuleInst mi = design.getModuleInst(p.getFullHierarchicalInstName());
+		if(mi == null) return new PortInstNet(p, null, null, null);
+		String portName = p.getPortInst().getName();
+		return new PortInstNet(p, mi, mi.getPort(portName), portNets.get(mi).get(portName));
+	}
+	
+	/**
+	 * Gets the port instances of a group of physically equivalent nets, each port instance once.
+	 * @param childNets The nets sharing a parent net.
+	 */
+	private static List<PortInstNet> getPortGroup(List<EDIFHierNet> childNets, Design design, 
+			Map<ModuleInst,Map<String,Net>> portNets){
+		Set<EDIFHierPortInst> added = new HashSet<>();
+		List<PortInstNet> group = new ArrayList<>();
+		for(EDIFHierNet absNet : childNets){
+			for(EDIFPortInst p : absNet.getNet().getPortInsts()){
+				EDIFHierPortInst absPort = new EDIFHierPortInst(absNet.getHierarchicalInst(), p);
+				if(!added.add(absPort)) continue;
+				group.add(resolvePortInst(absPort, design, portNets));
 			}
 		}
+		return group;
+	}
+	
+	/**
+	 * Merges the physical nets of the module instances that are connected in the logical netlist.
+	 * This produces the same result as {@link #stitchNets(Design)}, but port instances are 
+	 * identified by object rather than by name, and the module instance and net of each port 
+	 * instance are resolved once from precomputed per-module instance port maps. Port groups of 
+	 * independent parent nets are collected in parallel, the nets to merge are then determined 
+	 * serially and all merges are applied at the end.
+	 * @param design The design with placed module instances.
+	 * @return Map of top level ports to their physical nets.
+	 */
+	private HashMap<EDIFHierPortInst,Net> stitchNetsIndexed(Design design){
+		EDIFNetlist n = design.getNetlist();
 		
-		HashMap<Site, SiteInst> uniqueMap = new HashMap<Site, SiteInst>();
-		for(SiteInst i : design.getSiteInsts()){			
-			if(!Utils.isModuleSiteType(i.getSiteTypeEnum())){
-				i.detachFromModule();
-				for(SitePinInst p : i.getSitePinInsts()){
-					p.getNet().unroute();
+		// Resolve the physical nets of all module instance ports
+		List<ModuleInst> moduleInsts = new ArrayList<>(design.getModuleInsts());
+		List<Map<String,Net>> moduleInstPortNets = new ArrayList<>(Collections.nCopies(moduleInsts.size(), null));
+		ParallelismTools.invokeAllRange(moduleInsts.size(), 
+				(i) -> moduleInstPortNets.set(i, getPortNets(moduleInsts.get(i), design)));
+		Map<ModuleInst,Map<String,Net>> portNets = new HashMap<>();
+		for(int i=0; i < moduleInsts.size(); i++){
+			portNets.put(moduleInsts.get(i), moduleInstPortNets.get(i));
+		}
+		
+		// Collect the port instances of each parent (physical) net
+		List<ArrayList<EDIFHierNet>> parentNets = new ArrayList<>(getReverseParentNetMap(n).values());
+		List<List<PortInstNet>> groups = new ArrayList<>(Collections.nCopies(parentNets.size(), null));
+		ParallelismTools.invokeAllRange(parentNets.size(), 
+				(i) -> groups.set(i, getPortGroup(parentNets.get(i), design, portNets)));
+		Map<EDIFHierPortInst,List<PortInstNet>> portGroups = new HashMap<>();
+		for(List<PortInstNet> group : groups){
+			for(PortInstNet p : group){
+				portGroups.put(p.portInst, group);
+			}
+		}
+		
+		// Connect port groups through pass-thru connections from Module Port meta-data, 
+		// recording the merges without modifying the design yet
+		Set<EDIFHierPortInst> visited = new HashSet<>();
+		Set<Net> mergedNets = new HashSet<>();
+		Set<Net> netsWithMergedSource = new HashSet<>();
+		List<Pair<Net,Net>> merges = new ArrayList<>();
+		HashMap<EDIFHierPortInst,Net> topPortsMap = new HashMap<>();
+		for(Entry<EDIFHierPortInst,List<PortInstNet>> e : portGroups.entrySet()){
+			if(visited.contains(e.getKey())) continue;
+			Queue<PortInstNet> q = new ArrayDeque<>(e.getValue());
+			ArrayList<Net> nets = new ArrayList<>();
+			Set<Net> netsAlreadyVisited = new HashSet<>();
+			ArrayList<EDIFHierPortInst> topPorts = new ArrayList<>();
+			Net newNet = null;
+			while(!q.isEmpty()){
+				PortInstNet curr = q.poll();
+				if(!visited.add(curr.portInst)) continue;
+				if(curr.mi == null) {
+					EDIFCellInst inst = curr.portInst.getPortInst().getCellInst();
+					if(inst != null){
+						// Internal VCC/GND source
+						if(inst.getCellType().getName().equals("GND")) {
+							newNet = validateNet(newNet, design.getGndNet());
+						}
+						else if(inst.getCellType().getName().equals("VCC")) {
+							newNet = validateNet(newNet, design.getVccNet());
+						}
+					} else if(curr.portInst.getHierarchicalInstName().isEmpty()){
+						topPorts.add(curr.portInst);
+					}
+					continue;
 				}
-				Site site = i.getSite();
-				if(site != null){					
-					if(uniqueMap.containsKey(i.getSite())){
-						SiteInst duplicate = uniqueMap.get(site);
-						System.out.println("WARNING: Found duplicate site used by instances: " + i.getName() + " " + duplicate.getName() + " " + i.getSiteName());
-					}else{
-						uniqueMap.put(i.getSite(),i);
+				if(REPORT_UNCONNECTED && !curr.port.isOutPort() && curr.port.getType() == PortType.UNCONNECTED){
+					MessageGenerator.briefError("WARNING: " + curr.portInst + " is unconnected internally.");
+				}
+				for(EDIFHierPortInst passThru : getPassThruPortInsts(curr.port, curr.portInst)){
+					if(visited.contains(passThru)) continue;
+					List<PortInstNet> passThruGroup = portGroups.get(passThru);
+					if(passThruGroup == null){
+						// This is likely a pass-thru that is static-driven and down stream 
+						// sinks have not been explored
+						passThruGroup = new ArrayList<>();
+						for(EDIFPortInst pi : passThru.getPortInst().getNet().getPortInsts()){
+							EDIFHierPortInst p = new EDIFHierPortInst(passThru.getHierarchicalInst(), pi);
+							passThruGroup.add(resolvePortInst(p, design, portNets));
+						}
 					}
+					q.addAll(passThruGroup);
+				}
+				Net net = curr.net;
+				// Nets merged into another one by a previous group no longer exist
+				if(net == null || mergedNets.contains(net)) continue;
+				if(!netsAlreadyVisited.add(net)) continue;
+
+				if(net.getType() == NetType.GND) {
+					newNet = validateNet(newNet, design.getGndNet());
+				}
+				else if(net.getType() == NetType.VCC){
+					newNet = validateNet(newNet, design.getVccNet());
 				}else{
-					if(i.getModuleInst() == null){
-						System.out.println("WARNING: Unplaced site outside of module instance: " + i.getName()  + " "+ i.getSiteTypeEnum());
+					nets.add(net);
+					if(net.getSource() != null || netsWithMergedSource.contains(net)){
+						newNet = validateNet(newNet, net);
 					}
 				}
 			}
+			
+			if(newNet == null){
+				if(nets.size() == 0) continue;
+				// This is a new with a top-level input yet to be instantiated
+				newNet = nets.get(0);
+			}
+			
+			for(Net net : nets){
+				if(net.equals(newNet)) continue;
+				merges.add(new Pair<>(net, newNet));
+				mergedNets.add(net);
+				if(net.getSource() != null || netsWithMergedSource.contains(net)){
+					netsWithMergedSource.add(newNet);
+				}
+			}
+			for(EDIFHierPortInst p : topPorts){
+				topPortsMap.put(p, newNet);
+			}
 		}
+		
+		for(Pair<Net,Net> merge : merges){
+			design.movePinsToNewNetDeleteOldNet(merge.getFirst(), merge.getSecond(), true);
+		}
+		return topPortsMap;
 	}
 	
 	public Net getCorrespondingNet(EDIFHierPortInst pr, Design design){
@@ -330,6 +574,11 @@ public class BlockStitcher {
 			return null;
 		}
 		Port port = mi.getModule().getPort(pr.getPortInst().getName());
+		return getCorrespondingNet(mi, port, design);
+	}
+	
+	private static Net getCorrespondingNet(ModuleInst mi, Port port, Design design){
+		String modInstName = mi.getName();
 		if(port.getType() == PortType.UNCONNECTED) 
 			return null;
 		if(port.getSitePinInsts().isEmpty()){
@@ -476,6 +725,8 @@ public class BlockStitcher {
 		t.stop().start("Retrieve Blocks from Cache");
 		int totalBlocks = 0;
 		HashMap<ModuleInst,EDIFNetlist> miMap = new HashMap<ModuleInst,EDIFNetlist>();
+		// Locate the files of all blocks first, so that cached blocks can be loaded in parallel
+		Map<String,BlockFiles> blockFiles = new HashMap<>();
 		for(Entry<String,String> e : ipNames.entrySet()){
 			String blockName = e.getKey();
 			String cacheID = e.getValue();
@@ -507,8 +758,20 @@ public class BlockStitcher {
 
 			xciFileName = dir2 + "/" + cacheID + ".xci"; 
 			//System.out.println(routedDCPFileName + " " + edifFileName + " " + xciFileName);
+			if(edifFileName != null && routedDCPFileName != null){
+				BlockCreator.prefetchBlock(edifFileName, routedDCPFileName, blockName, xciFileName, blockImplCount);
+			}
+			blockFiles.put(blockName, new BlockFiles(edifFileName, routedDCPFileName, xciFileName, blockImplCount));
+		}
+		
+		for(Entry<String,String> e : ipNames.entrySet()){
+			String blockName = e.getKey();
+			String cacheID = e.getValue();
+			BlockFiles files = blockFiles.get(blockName);
+			if(files == null) continue;
 
-			ModuleImpls modImpls = BlockCreator.createOrRetrieveBlock(edifFileName, routedDCPFileName, blockName, xciFileName, blockImplCount);
+			ModuleImpls modImpls = BlockCreator.createOrRetrieveBlock(files.edifFileName, files.routedDCPFileName,
+					blockName, files.xciFileName, files.blockImplCount);
 			for(Module m : modImpls){
 				// Add Cache ID to Module
 				m.getMetaDataMap().put(CACHE_ID, cacheID);
@@ -59,6 +59,27 @@ public abstract class AbstractPath<PortT, ModuleInstT extends AbstractModuleInst
 
     public abstract void calculateLength();
 
+    /**
+     * Update the length after some of the connected module instances were moved. By default, this
+     * recalculates the whole length.
+     * @param moved0 A module instance that was moved
+     * @param moved1 Another module instance that was moved, may be null
+     */
+    public void updateLength(ModuleInstT moved0, ModuleInstT moved1) {
+        calculateLength();
+    }
+
+    /**
+     * Remember the current length (and any cached data it was derived from), so that it can be
+     * brought back by {@link #restoreState()} when a move is undone.
+     */
+    public abstract void saveState();
+
+    /**
+     * Restore the state saved by the last call to {@link #saveState()} without recalculating it.
+     */
+    public abstract void restoreState();
+
     public abstract String getName();
 
     public boolean connectsTo(ModuleInstT hm) {
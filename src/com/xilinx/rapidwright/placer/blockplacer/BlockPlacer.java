@@ -31,6 +31,7 @@ import java.util.Set;
 
 import com.xilinx.rapidwright.design.Design;
 import com.xilinx.rapidwright.design.Module;
+import com.xilinx.rapidwright.design.ModuleFootprint;
 import com.xilinx.rapidwright.design.ModuleImpls;
 import com.xilinx.rapidwright.design.ModuleInst;
 import com.xilinx.rapidwright.design.Net;
@@ -159,7 +160,7 @@ public class BlockPlacer extends AbstractBlockPlacer<HardMacro, Site>{
 					//Module m = new Module();
 					//m.readFromCompactFile(fileName);
 					//sites = m.getAllValidPlacements();
-					sites = module.calculateAllValidPlacements(dev);
+					sites = ModuleFootprint.calculateAllValidPlacements(module, dev);
 				}
 				if(debugFlow){
 					// Need to check if placements will work with existing implementation
@@ -31,6 +31,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -91,6 +92,8 @@ public abstract class BlockPlacer2<ModuleT, ModuleInstT extends AbstractModuleIn
 	public double finalBestCost;
 	/** */
 	public double placerRuntime;
+	/** Number of evaluated moves per second during annealing */
+	public double movesPerSecond;
 	/** */
 	/** */
 	protected double rangeLimit;
@@ -117,6 +120,13 @@ public abstract class BlockPlacer2<ModuleT, ModuleInstT extends AbstractModuleIn
 
     private Map<ModuleInstT, Site> lockedPlacements = null;
 
+	/** Run a quadratic pre-placement before annealing? */
+	private boolean analyticalPlacement = false;
+	/** Start temperature after an analytical pre-placement, relative to the regular start temperature */
+	private double analyticalStartTempFactor = 0.1;
+	/** Target tile of each hard macro, as computed by the analytical pre-placement */
+	private Map<ModuleInstT, Tile> analyticalTargets;
+
 	/**
 	 * Empty Constructor
 	 *
@@ -146,10 +156,42 @@ public abstract class BlockPlacer2<ModuleT, ModuleInstT extends AbstractModuleIn
 	 * Sets the random seed to be used in this placer
 	 * @param seed
 	 */
-	private void setSeed(long seed){
+	public void setSeed(long seed){
 		this.seed = seed;
 	}
 
+	/**
+	 * Gets the random seed used by this placer
+	 * @return The seed
+	 */
+	public long getSeed(){
+		return seed;
+	}
+
+	/**
+	 * Enables a quadratic (analytical) pre-placement: hard macros are legalized to the valid
+	 * placement nearest to the minimum squared wirelength solution, and annealing starts at a
+	 * reduced temperature (see {@link #setAnalyticalStartTempFactor(double)}) so that it refines
+	 * instead of scrambling the pre-placement.
+	 * @param analyticalPlacement True to enable the pre-placement
+	 */
+	public void setAnalyticalPlacement(boolean analyticalPlacement) {
+		this.analyticalPlacement = analyticalPlacement;
+	}
+
+	public boolean isAnalyticalPlacement() {
+		return analyticalPlacement;
+	}
+
+	/**
+	 * Sets the factor applied to the calculated start temperature when an analytical
+	 * pre-placement is used.
+	 * @param analyticalStartTempFactor Factor between 0 and 1
+	 */
+	public void setAnalyticalStartTempFactor(double analyticalStartTempFactor) {
+		this.analyticalStartTempFactor = analyticalStartTempFactor;
+	}
+
 	abstract List<ModuleInstT> getModuleImpls(boolean debugFlow);
 
 	protected abstract void ignorePath(PathT path);
@@ -205,9 +247,13 @@ public abstract class BlockPlacer2<ModuleT, ModuleInstT extends AbstractModuleIn
 
 		possiblePlacements = new HashMap<>();
 
+		if (analyticalPlacement) {
+			analyticalTargets = calculateAnalyticalTargets();
+		}
+
 		// Place hard macros for initial placement
 		for(ModuleInstT hm : hardMacros){
-			PriorityQueue<PlacementT> sites = new PriorityQueue<>(1024, getInitialPlacementComparator());
+			PriorityQueue<PlacementT> sites = new PriorityQueue<>(1024, getInitialPlacementComparator(hm));
 			final Collection<PlacementT> allPlacements = getAllPlacements(hm);
 
 			possiblePlacements.put(hm.getModule(), allPlacements.stream().collect(SortedValidPlacementCache.collector(this)));
@@ -241,6 +287,91 @@ public abstract class BlockPlacer2<ModuleT, ModuleInstT extends AbstractModuleIn
 		hardMacros = prunedList;
 	}
 
+	/**
+	 * Gets the order in which placements are tried during initial placement. With an analytical
+	 * pre-placement, this legalizes each hard macro to the nearest valid placement of its target.
+	 */
+	private Comparator<PlacementT> getInitialPlacementComparator(ModuleInstT hm) {
+		Tile target = analyticalTargets == null ? null : analyticalTargets.get(hm);
+		if (target == null) {
+			return getInitialPlacementComparator();
+		}
+		return Comparator.comparingInt(p -> getPlacementTile(p).getManhattanDistance(target));
+	}
+
+	/**
+	 * Adds the tiles of all fixed (not movable) ports of a path, used as anchors for the
+	 * analytical pre-placement.
+	 * @param path The path
+	 * @param tiles List to add the tiles to
+	 */
+	protected void getFixedPortTiles(PathT path, List<Tile> tiles) {
+	}
+
+	/**
+	 * Solves the quadratic placement problem of all hard macros, using tile columns and rows
+	 * as coordinates.
+	 * @return Target tile of each hard macro
+	 */
+	private Map<ModuleInstT, Tile> calculateAnalyticalTargets() {
+		long start = System.nanoTime();
+		Map<ModuleInstT, Integer> index = new HashMap<>();
+		for (ModuleInstT hm : hardMacros) {
+			index.put(hm, index.size());
+		}
+		double centerX = dev.getColumns() / 2.0;
+		double centerY = dev.getRows() / 2.0;
+		QuadraticPlacer qp = new QuadraticPlacer(hardMacros.size());
+		// Weak pull towards the center keeps the system solvable for unconnected macros
+		for (int i = 0; i < hardMacros.size(); i++) {
+			qp.addAnchor(i, centerX, centerY, 1e-3);
+		}
+		int[] cells = new int[16];
+		double[] fixedX = new double[16];
+		double[] fixedY = new double[16];
+		List<Tile> fixedTiles = new ArrayList<>();
+		for (PathT path : allPaths) {
+			int cellCount = 0;
+			for (ModuleInstT hm : path.moduleInsts) {
+				Integer i = index.get(hm);
+				if (i == null) continue;
+				if (cellCount == cells.length) {
+					cells = Arrays.copyOf(cells, cellCount * 2);
+				}
+				cells[cellCount++] = i;
+			}
+			fixedTiles.clear();
+			getFixedPortTiles(path, fixedTiles);
+			if (fixedTiles.size() > fixedX.length) {
+				fixedX = new double[fixedTiles.size()];
+				fixedY = new double[fixedTiles.size()];
+			}
+			for (int i = 0; i < fixedTiles.size(); i++) {
+				fixedX[i] = fixedTiles.get(i).getColumn();
+				fixedY[i] = fixedTiles.get(i).getRow();
+			}
+			qp.addNet(cells, cellCount, fixedX, fixedY, fixedTiles.size());
+		}
+
+		double[] x = new double[hardMacros.size()];
+		double[] y = new double[hardMacros.size()];
+		Arrays.fill(x, centerX);
+		Arrays.fill(y, centerY);
+		qp.solve(x, y, Math.max(100, 2 * qp.getVariableCount()));
+
+		Tile center = dev.getTile(dev.getRows()/2, dev.getColumns()/2);
+		Map<ModuleInstT, Tile> targets = new HashMap<>();
+		for (int i = 0; i < hardMacros.size(); i++) {
+			int col = Math.max(0, Math.min(dev.getColumns() - 1, (int) Math.round(x[i])));
+			int row = Math.max(0, Math.min(dev.getRows() - 1, (int) Math.round(y[i])));
+			Tile target = dev.getTile(row, col);
+			targets.put(hardMacros.get(i), target == null ? center : target);
+		}
+		if(DEBUG_LEVEL > 0) System.out.printf("Analytical pre-placement: %d variables, %d CG iterations, %.3f secs\n",
+				qp.getVariableCount(), qp.getIterations(), (System.nanoTime() - start) / 1e9);
+		return targets;
+	}
+
 	private void unplaceDesign(){
 		// Place hard macros for initial placement
 		currentMove = new Move<ModuleInstT, PlacementT>(this);
@@ -292,14 +423,7 @@ public abstract class BlockPlacer2<ModuleT, ModuleInstT extends AbstractModuleIn
 					//System.out.println("start temp not accept");
 					// Undo the move, we are not accepting it
 					currentMove.undoMove();
-					for (PathT path : getConnectedPaths(currentMove.getBlock0())) {
-						path.calculateLength();
-					}
-					if (currentMove.getBlock1() != null) {
-						for (PathT path : getConnectedPaths(currentMove.getBlock1())) {
-							path.calculateLength();
-						}
-					}
+					restoreConnectedPaths(currentMove.getBlock0(), currentMove.getBlock1());
 					saveAllCosts();
 					double testCost = currentSystemCost();
 					if(testCost != previousCost){
@@ -380,15 +504,24 @@ public abstract class BlockPlacer2<ModuleT, ModuleInstT extends AbstractModuleIn
 	protected abstract PlacementT getTempAnchorSite(ModuleInstT mi);
 
 	public double placeDesign(boolean debugFlow){
-		rand = new Random(seed);
-		boolean finished = false;
-		int maxInnerIteration = 0;
-		double r;
 		//MessageGenerator.printHeader(this.getClass().getCanonicalName());
 		long start = System.currentTimeMillis();
 		//System.out.println("Initialization Time: " + ((System.currentTimeMillis()-start)/1000.0) + " secs");
-		start = System.currentTimeMillis();
 		initializePlacer(debugFlow);
+		return placeInitializedDesign(start);
+	}
+
+	/**
+	 * Runs the initial placement and the annealing schedule on a placer on which
+	 * {@link #initializePlacer(boolean)} has already been called.
+	 * @param start Start time (in ms) used to report the placer runtime
+	 * @return The final system cost
+	 */
+	protected double placeInitializedDesign(long start){
+		rand = new Random(seed);
+		boolean finished = false;
+		int maxInnerIteration = 0;
+		double r;
 		initialPlacement();
 		//HandPlacer.openDesign(design);
 		int totalFootprint = 0;
@@ -399,12 +532,35 @@ public abstract class BlockPlacer2<ModuleT, ModuleInstT extends AbstractModuleIn
 
 		//rangeLimit = Math.max(dev.getColumns(), dev.getRows());
 		rangeLimit = Math.max(squareWidth, squareWidth);
-		currentTemp = calculateStartTemp();
+		if (analyticalPlacement) {
+			// Estimating the start temperature perturbs the placement, so bring back the
+			// legalized pre-placement afterwards and start at a lower temperature
+			// (including hard macros pruned from annealing, as they may have been swapped)
+			Map<ModuleInstT, PlacementT> prePlacement = new HashMap<>();
+			for(ModuleInstT hm : analyticalTargets.keySet()){
+				prePlacement.put(hm, getCurrentPlacement(hm));
+			}
+			currentTemp = calculateStartTemp() * analyticalStartTempFactor;
+			for(ModuleInstT hm : prePlacement.keySet()){
+				unsetTempAnchorSite(hm);
+			}
+			for(Map.Entry<ModuleInstT, PlacementT> e : prePlacement.entrySet()){
+				setTempAnchorSite(e.getKey(), e.getValue());
+			}
+			for(PathT path : allPaths){
+				path.calculateLength();
+			}
+			currentMove = new Move<>(this);
+		} else {
+			currentTemp = calculateStartTemp();
+		}
 		if (Double.isNaN(currentTemp)) {
 			throw new RuntimeException("initialized to NAN temperature");
 		}
 		System.out.println("currentTemp = " + currentTemp);
 		System.out.println("hardMacros.size() = " + hardMacros.size());
+		long annealStart = System.nanoTime();
+		int annealStartMoves = totalMoves;
 		//initializePlacer(debugFlow);
 		//unplaceDesign();
 		//initialPlacement();
@@ -445,8 +601,10 @@ public abstract class BlockPlacer2<ModuleT, ModuleInstT extends AbstractModuleIn
 		finalSystemCost = prevSystemCost;
 		finalBestCost = bestSoFar;
 		placerRuntime  = ((System.currentTimeMillis()-start)/1000.0);
+		double annealRuntime = (System.nanoTime() - annealStart) / 1e9;
+		movesPerSecond = annealRuntime > 0 ? (totalMoves - annealStartMoves) / annealRuntime : 0;
 		if(DEBUG_LEVEL > 0) System.out.println(seed + ": " + currSystemCost + " / " + bestSoFar + " Runtime: " + placerRuntime + "secs");
-		if(DEBUG_LEVEL > 0) System.out.printf("  Perturbation Time: %.3f secs (%9.0f moves/sec)\n", placerRuntime,(totalMoves/placerRuntime));
+		if(DEBUG_LEVEL > 0) System.out.printf("  Perturbation Time: %.3f secs (%9.0f moves/sec)\n", annealRuntime, movesPerSecond);
 
 		if(DEBUG_LEVEL > 0) System.out.println("Final System Cost: " + finalSystemCost);
 		/*
@@ -522,6 +680,7 @@ public abstract class BlockPlacer2<ModuleT, ModuleInstT extends AbstractModuleIn
 		int badMoveCount = 0;
 		int badAcceptedMoveCount = 0;
 		double totalMovesCost = 0.0;
+		long stepStart = System.nanoTime();
 		for(int inner_iterate = 0; inner_iterate< maxInnerIteration; inner_iterate++){
 		//for(int inner_iterate = 0; inner_iterate< (10*rangeLimit); inner_iterate++){
 		//for(int inner_iterate = 0; inner_iterate< (dev.getColumns()*dev.getRows()); inner_iterate++){
@@ -616,14 +775,7 @@ public abstract class BlockPlacer2<ModuleT, ModuleInstT extends AbstractModuleIn
 				else{
 					// Undo the move, we are not accepting it
 					currentMove.undoMove();
-					for (PathT path : getConnectedPaths(currentMove.getBlock0())) {
-						path.calculateLength();
-					}
-					if (currentMove.getBlock1() != null) {
-						for (PathT path : getConnectedPaths(currentMove.getBlock1())) {
-							path.calculateLength();
-						}
-					}
+					restoreConnectedPaths(currentMove.getBlock0(), currentMove.getBlock1());
 					saveAllCosts();
 					if (PARANOID) {
 						double testCost = currentSystemCost();
@@ -639,6 +791,8 @@ public abstract class BlockPlacer2<ModuleT, ModuleInstT extends AbstractModuleIn
 			}// Move loop
 
 		}//inner loop
+		double stepRuntime = (System.nanoTime() - stepStart) / 1e9;
+		double stepMovesPerSecond = stepRuntime > 0 ? moveCount / stepRuntime : 0;
 		if (moveCount >0){
 			moveAcceptanceRate = ((double)currentAcceptedMoveCount) / moveCount;
 		} else {
@@ -664,7 +818,7 @@ public abstract class BlockPlacer2<ModuleT, ModuleInstT extends AbstractModuleIn
 					rangeLimit
 			);
 		}
-		if(DEBUG_LEVEL > 0) System.out.printf("MOVES:%7d/%7d COST:%7.1f AVG_COST/MOVE:%7.1f TEMP:%7.1f ACCEPTANCE_RATE:%5.1f%% BEST:%7.1f BAD:%4.1f%%\n",currentAcceptedMoveCount, moveCount, prevSystemCost, totalMovesCost/ moveCount, currentTemp, moveAcceptanceRate*100, bestSoFar, 100.0*badAcceptedMoveCount/badMoveCount);
+		if(DEBUG_LEVEL > 0) System.out.printf("MOVES:%7d/%7d COST:%7.1f AVG_COST/MOVE:%7.1f TEMP:%7.1f ACCEPTANCE_RATE:%5.1f%% BEST:%7.1f BAD:%4.1f%% MOVES/SEC:%9.0f\n",currentAcceptedMoveCount, moveCount, prevSystemCost, totalMovesCost/ moveCount, currentTemp, moveAcceptanceRate*100, bestSoFar, 100.0*badAcceptedMoveCount/badMoveCount, stepMovesPerSecond);
 	}
 
 	protected abstract int getTileSize(ModuleInstT hm);
@@ -673,6 +827,20 @@ public abstract class BlockPlacer2<ModuleT, ModuleInstT extends AbstractModuleIn
 		return allPaths;
 	}
 
+	/**
+	 * @return Total number of moves evaluated so far
+	 */
+	public int getTotalMoves() {
+		return totalMoves;
+	}
+
+	/**
+	 * @return Number of evaluated moves per second during the last annealing run
+	 */
+	public double getMovesPerSecond() {
+		return movesPerSecond;
+	}
+
 	enum Direction{UP, DOWN, LEFT, RIGHT};
 
 
@@ -693,7 +861,7 @@ public abstract class BlockPlacer2<ModuleT, ModuleInstT extends AbstractModuleIn
 	private int calcConnectedCost(ModuleInstT hm0, ModuleInstT hm1) {
 		int cost = 0;
 		for (PathT objects : getConnectedPaths(hm0)) {
-			objects.calculateLength();
+			objects.updateLength(hm0, hm1);
 			int length = objects.getLength();
 			cost+= length;
 		}
@@ -703,7 +871,7 @@ public abstract class BlockPlacer2<ModuleT, ModuleInstT extends AbstractModuleIn
 					//We have already counted the path in the above loop. Don't double count it!
 					continue;
 				}
-				path.calculateLength();
+				path.updateLength(hm1, null);
 				int length = path.getLength();
 				cost += length;
 			}
@@ -711,6 +879,41 @@ public abstract class BlockPlacer2<ModuleT, ModuleInstT extends AbstractModuleIn
 		return cost;
 	}
 
+	/**
+	 * Sums up the current lengths of all paths connected to the given modules without
+	 * recalculating them and saves their state, so that undoing a move can restore the
+	 * cached lengths through {@link #restoreConnectedPaths(AbstractModuleInst, AbstractModuleInst)}.
+	 */
+	private int saveConnectedCost(ModuleInstT hm0, ModuleInstT hm1) {
+		int cost = 0;
+		for (PathT path : getConnectedPaths(hm0)) {
+			path.saveState();
+			cost += path.getLength();
+		}
+		if (hm1 != null) {
+			for (PathT path : getConnectedPaths(hm1)) {
+				if (path.connectsTo(hm0)) {
+					//We have already counted the path in the above loop. Don't double count it!
+					continue;
+				}
+				path.saveState();
+				cost += path.getLength();
+			}
+		}
+		return cost;
+	}
+
+	private void restoreConnectedPaths(ModuleInstT hm0, ModuleInstT hm1) {
+		for (PathT path : getConnectedPaths(hm0)) {
+			path.restoreState();
+		}
+		if (hm1 != null) {
+			for (PathT path : getConnectedPaths(hm1)) {
+				path.restoreState();
+			}
+		}
+	}
+
 	protected abstract Tile getPlacementTile(PlacementT placement);
 
 	private boolean getNextMove(ModuleInstT selected){
@@ -781,7 +984,7 @@ public abstract class BlockPlacer2<ModuleT, ModuleInstT extends AbstractModuleIn
 				hm1 = null;
 			}
 
-			costBefore = calcConnectedCost(hm0, hm1);
+			costBefore = saveConnectedCost(hm0, hm1);
 
 			if(hm1 != null){
 				site1Previous = getCurrentPlacement(hm1);
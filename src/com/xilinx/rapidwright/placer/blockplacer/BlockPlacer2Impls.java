@@ -26,28 +26,34 @@ import java.io.PrintWriter;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import com.xilinx.rapidwright.design.AbstractModuleInst;
 import com.xilinx.rapidwright.design.Cell;
 import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.design.Module;
 import com.xilinx.rapidwright.design.ModuleImpls;
 import com.xilinx.rapidwright.design.ModuleImplsInst;
 import com.xilinx.rapidwright.design.ModulePlacement;
+import com.xilinx.rapidwright.design.Port;
 import com.xilinx.rapidwright.design.SitePinInst;
 import com.xilinx.rapidwright.device.Site;
 import com.xilinx.rapidwright.device.Tile;
 import com.xilinx.rapidwright.edif.EDIFCellInst;
 import com.xilinx.rapidwright.edif.EDIFNet;
 import com.xilinx.rapidwright.edif.EDIFPortInst;
+import com.xilinx.rapidwright.util.ParallelismTools;
 
 public class BlockPlacer2Impls extends BlockPlacer2<ModuleImpls, ModuleImplsInst, ModulePlacement, ImplsPath> {
 
@@ -57,6 +63,8 @@ public class BlockPlacer2Impls extends BlockPlacer2<ModuleImpls, ModuleImplsInst
     private final AbstractOverlapCache overlaps;
 
     private final Map<ModuleImplsInst, Set<ImplsPath>> modulesToPaths = new HashMap<>();
+    /** Flat per-module copies of {@link #modulesToPaths}, iterated on every move */
+    private final Map<ModuleImplsInst, List<ImplsPath>> modulesToPathLists = new HashMap<>();
 
     public BlockPlacer2Impls(Design design, List<ModuleImplsInst> moduleInstances, boolean ignoreMostUsedNets, Path graphData, AbstractOverlapCache overlapCache) {
         super(design, ignoreMostUsedNets, graphData);
@@ -73,6 +81,91 @@ public class BlockPlacer2Impls extends BlockPlacer2<ModuleImpls, ModuleImplsInst
         this(design, moduleInstances, true, null);
     }
 
+    /**
+     * Places the module instances by running one independent annealing chain per seed. Each chain
+     * works on its own copies of the module instances with its own overlap cache and placement
+     * state, so chains can run concurrently (see {@link ParallelismTools#getParallel()}). The
+     * chain with the lowest {@link #currentSystemCost()} wins (ties go to the earlier seed) and
+     * its placement is applied to the provided instances. The result only depends on the seeds.
+     * @param design The design containing the module instances
+     * @param moduleInstances The module instances to place
+     * @param ignoreMostUsedNets Ignore nets connecting to most of the instances
+     * @param seeds One seed per annealing chain
+     * @return The system cost of the selected placement
+     */
+    public static double placeDesignMultiStart(Design design, List<ModuleImplsInst> moduleInstances,
+                                               boolean ignoreMostUsedNets, long... seeds) {
+        if (seeds.length == 0) {
+            throw new RuntimeException("ERROR: At least one seed is required for multi-start placement");
+        }
+
+        // Lazily computed module data is shared between all chains, populate it up front
+        for (ModuleImplsInst mii : moduleInstances) {
+            ModuleImpls impls = mii.getModule();
+            impls.getAllPlacements();
+            for (Module impl : impls) {
+                impl.getBoundingBox();
+                for (Port port : impl.getPorts()) {
+                    if (!port.getSitePinInsts().isEmpty()) {
+                        port.getBoundingBox();
+                    }
+                }
+            }
+        }
+
+        // Paths are derived from the netlist, so set up all chains before annealing concurrently
+        List<List<ModuleImplsInst>> chainInstances = new ArrayList<>(seeds.length);
+        List<BlockPlacer2Impls> chains = new ArrayList<>(seeds.length);
+        for (long seed : seeds) {
+            List<ModuleImplsInst> copies = new ArrayList<>(moduleInstances.size());
+            for (ModuleImplsInst mii : moduleInstances) {
+                ModuleImplsInst copy = new ModuleImplsInst(mii.getName(), mii.getCellInst(), mii.getModule());
+                if (mii.getPlacement() != null) {
+                    copy.place(mii.getPlacement());
+                }
+                copies.add(copy);
+            }
+            BlockPlacer2Impls chain = new BlockPlacer2Impls(design, copies, ignoreMostUsedNets, null);
+            chain.setSeed(seed);
+            chain.initializePlacer(false);
+            chainInstances.add(copies);
+            chains.add(chain);
+        }
+
+        List<Future<Double>> results = new ArrayList<>(chains.size());
+        for (BlockPlacer2Impls chain : chains) {
+            results.add(ParallelismTools.submit(() -> chain.placeInitializedDesign(System.currentTimeMillis())));
+        }
+        for (Future<Double> result : results) {
+            ParallelismTools.get(result);
+        }
+
+        int best = 0;
+        double bestCost = Double.MAX_VALUE;
+        for (int i = 0; i < chains.size(); i++) {
+            double cost = chains.get(i).currentSystemCost();
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = i;
+            }
+        }
+
+        List<ModuleImplsInst> bestInstances = chainInstances.get(best);
+        for (int i = 0; i < moduleInstances.size(); i++) {
+            ModulePlacement placement = bestInstances.get(i).getPlacement();
+            if (placement == null) {
+                moduleInstances.get(i).unplace();
+            } else {
+                moduleInstances.get(i).place(placement);
+            }
+        }
+        if (DEBUG_LEVEL > 0) {
+            System.out.println("Multi-start placement: selected seed " + seeds[best] + " with cost "
+                    + bestCost + " out of " + seeds.length + " chains");
+        }
+        return bestCost;
+    }
+
     @Override
     public void setTempAnchorSite(ModuleImplsInst hm, ModulePlacement placement) {
         placeHm(hm, placement);
@@ -267,7 +360,19 @@ public class BlockPlacer2Impls extends BlockPlacer2<ModuleImpls, ModuleImplsInst
 
     @Override
     protected Collection<ImplsPath> getConnectedPaths(ModuleImplsInst module) {
-        return modulesToPaths.get(module);
+        return modulesToPathLists.computeIfAbsent(module, m -> {
+            Set<ImplsPath> paths = modulesToPaths.get(m);
+            return paths == null ? Collections.emptyList() : new ArrayList<>(paths);
+        });
+    }
+
+    @Override
+    protected void getFixedPortTiles(ImplsPath path, List<Tile> tiles) {
+        for (ImplsInstancePort port : path) {
+            if (port instanceof ImplsInstancePort.SitePinInstPort) {
+                tiles.add(((ImplsInstancePort.SitePinInstPort) port).getSitePinInst().getTile());
+            }
+        }
     }
 
     @Override
@@ -294,5 +399,6 @@ public class BlockPlacer2Impls extends BlockPlacer2<ModuleImpls, ModuleImplsInst
         for (Set<ImplsPath> value : modulesToPaths.values()) {
             value.remove(path);
         }
+        modulesToPathLists.clear();
     }
 }
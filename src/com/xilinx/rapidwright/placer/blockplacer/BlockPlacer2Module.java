@@ -32,6 +32,7 @@ import java.util.Map;
 
 import com.xilinx.rapidwright.design.Design;
 import com.xilinx.rapidwright.design.Module;
+import com.xilinx.rapidwright.design.ModuleFootprint;
 import com.xilinx.rapidwright.design.ModuleImpls;
 import com.xilinx.rapidwright.design.ModuleInst;
 import com.xilinx.rapidwright.design.Net;
@@ -65,7 +66,7 @@ public class BlockPlacer2Module extends BlockPlacer2<Module, HardMacro, Site, Pa
             for(Module module : moduleImpls){
                 ArrayList<Site> sites = module.getAllValidPlacements();
                 if(sites.size() == 0){
-                    sites = module.calculateAllValidPlacements(dev);
+                    sites = ModuleFootprint.calculateAllValidPlacements(module, dev);
                 }
                 if(debugFlow){
                     // Need to check if placements will work with existing implementation
@@ -126,6 +127,9 @@ public class BlockPlacer2Module extends BlockPlacer2<Module, HardMacro, Site, Pa
 
     @Override
     void unsetTempAnchorSite(HardMacro hm) {
+        if (currentPlacements != null) {
+            currentPlacements.remove(hm.getTempAnchorSite(), hm);
+        }
         hm.unsetTempAnchorSite();
     }
 
@@ -152,6 +156,15 @@ public class BlockPlacer2Module extends BlockPlacer2<Module, HardMacro, Site, Pa
         return placement.getTile();
     }
 
+    @Override
+    protected void getFixedPortTiles(Path path, List<Tile> tiles) {
+        for (PathPort port : path) {
+            if (port.getBlock() == null) {
+                tiles.add(port.getSitePinInst().getTile());
+            }
+        }
+    }
+
     @Override
     protected Site getCurrentPlacement(HardMacro selected) {
         return selected.getTempAnchorSite();
@@ -36,6 +36,11 @@ import com.xilinx.rapidwright.design.TileRectangle;
  */
 public abstract class ImplsInstancePort {
     private ImplsPath path;
+    /** Location of this port as currently accounted for in the bounding box of its {@link ImplsPath} */
+    final SimpleTileRectangle counted = new SimpleTileRectangle();
+    /** Value of {@link #counted} when the path's state was last saved, only valid while {@link #countedSaved} is set */
+    final SimpleTileRectangle savedCounted = new SimpleTileRectangle();
+    boolean countedSaved;
 
     public abstract String getName();
 
@@ -21,18 +21,45 @@
  */
 package com.xilinx.rapidwright.placer.blockplacer;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
 import com.xilinx.rapidwright.design.ModuleImplsInst;
 import com.xilinx.rapidwright.design.SimpleTileRectangle;
+import com.xilinx.rapidwright.design.TileRectangle;
 
 /**
  * Net between Ports of {@link ModuleImplsInst}s
+ *
+ * The bounding box of all port locations is kept together with the number of ports that lie on each
+ * of its edges. When instances are moved, {@link #updateLength(ModuleImplsInst, ModuleImplsInst)}
+ * only looks at their ports. The whole path is only rescanned if the last port on an edge moves
+ * inwards.
  */
 public class ImplsPath extends AbstractPath<ImplsInstancePort, ModuleImplsInst>{
+    private static final int MIN_COLUMN = 0;
+    private static final int MAX_COLUMN = 1;
+    private static final int MIN_ROW = 2;
+    private static final int MAX_ROW = 3;
+
     int length;
+    private int savedLength;
+    private boolean calculated;
+    private boolean savedCalculated;
+    private final SimpleTileRectangle bounds = new SimpleTileRectangle();
+    private final SimpleTileRectangle savedBounds = new SimpleTileRectangle();
+    /** Number of ports on the min column, max column, min row and max row edge of {@link #bounds} */
+    private final int[] edgeCounts = new int[4];
+    private final int[] savedEdgeCounts = new int[4];
+    /** Ports whose location changed since the last {@link #saveState()} */
+    private final List<ImplsInstancePort> changedPorts = new ArrayList<>();
+    private final Map<ModuleImplsInst, List<ImplsInstancePort>> instancePorts = new HashMap<>();
+    private final SimpleTileRectangle previous = new SimpleTileRectangle();
 
     public ImplsPath(String name) {
         this.name = Objects.requireNonNull(name);
@@ -41,9 +68,12 @@ public class ImplsPath extends AbstractPath<ImplsInstancePort, ModuleImplsInst>{
     public void addPort(ImplsInstancePort port) {
         ports.add(port);
         if (port instanceof ImplsInstancePort.InstPort) {
-            moduleInsts.add(((ImplsInstancePort.InstPort) port).getInstance());
+            ModuleImplsInst instance = ((ImplsInstancePort.InstPort) port).getInstance();
+            moduleInsts.add(instance);
+            instancePorts.computeIfAbsent(instance, i -> new ArrayList<>()).add(port);
         }
         port.setPath(this);
+        calculated = false;
     }
 
 
@@ -55,14 +85,133 @@ public class ImplsPath extends AbstractPath<ImplsInstancePort, ModuleImplsInst>{
         return length;
     }
 
+    @Override
     public void calculateLength(){
-
-        SimpleTileRectangle rect = new SimpleTileRectangle();
         for (ImplsInstancePort port : ports) {
-            port.enterToRect(rect);
+            relocate(port);
+        }
+        recount();
+        calculated = true;
+    }
+
+    @Override
+    public void updateLength(ModuleImplsInst moved0, ModuleImplsInst moved1) {
+        if (!calculated) {
+            calculateLength();
+            return;
+        }
+        boolean valid = movePorts(moved0, true);
+        valid = movePorts(moved1, valid);
+        if (valid) {
+            updateLengthFromBounds();
+        } else {
+            recount();
+        }
+    }
+
+    /**
+     * Update the locations of an instance's ports and apply the change to the bounding box
+     * @param instance The moved instance, may be null
+     * @param valid Whether the bounding box is still valid
+     * @return Whether the bounding box is still valid, false if it needs to be rebuilt from all ports
+     */
+    private boolean movePorts(ModuleImplsInst instance, boolean valid) {
+        List<ImplsInstancePort> moved = instance != null ? instancePorts.get(instance) : null;
+        if (moved == null) {
+            return valid;
+        }
+        for (ImplsInstancePort port : moved) {
+            previous.reset();
+            previous.extendTo(port.counted);
+            relocate(port);
+            // Add before removing, so that a port staying on (or moving beyond) an edge keeps it alive
+            if (valid) {
+                addToBounds(port.counted);
+                valid = removeFromBounds(previous);
+            }
+        }
+        return valid;
+    }
+
+    private void relocate(ImplsInstancePort port) {
+        if (!port.countedSaved) {
+            port.countedSaved = true;
+            port.savedCounted.reset();
+            port.savedCounted.extendTo(port.counted);
+            changedPorts.add(port);
+        }
+        port.counted.reset();
+        port.enterToRect(port.counted);
+    }
+
+    private static int getEdge(TileRectangle rect, int edge) {
+        switch (edge) {
+            case MIN_COLUMN:
+                return rect.getMinColumn();
+            case MAX_COLUMN:
+                return rect.getMaxColumn();
+            case MIN_ROW:
+                return rect.getMinRow();
+            default:
+                return rect.getMaxRow();
+        }
+    }
+
+    private void addToBounds(TileRectangle rect) {
+        if (rect.isEmpty()) {
+            return;
+        }
+        if (bounds.isEmpty()) {
+            bounds.extendTo(rect);
+            Arrays.fill(edgeCounts, 1);
+            return;
+        }
+        for (int edge = 0; edge < edgeCounts.length; edge++) {
+            int diff = getEdge(rect, edge) - getEdge(bounds, edge);
+            if (diff == 0) {
+                edgeCounts[edge]++;
+            } else if (edge == MIN_COLUMN || edge == MIN_ROW ? diff < 0 : diff > 0) {
+                edgeCounts[edge] = 1;
+            }
         }
+        bounds.extendTo(rect);
+    }
 
+    private boolean removeFromBounds(TileRectangle rect) {
         if (rect.isEmpty()) {
+            return true;
+        }
+        for (int edge = 0; edge < edgeCounts.length; edge++) {
+            if (getEdge(rect, edge) == getEdge(bounds, edge) && --edgeCounts[edge] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void recount() {
+        bounds.reset();
+        for (ImplsInstancePort port : ports) {
+            bounds.extendTo(port.counted);
+        }
+        Arrays.fill(edgeCounts, 0);
+        if (!bounds.isEmpty()) {
+            for (ImplsInstancePort port : ports) {
+                if (port.counted.isEmpty()) {
+                    continue;
+                }
+                for (int edge = 0; edge < edgeCounts.length; edge++) {
+                    if (getEdge(port.counted, edge) == getEdge(bounds, edge)) {
+                        edgeCounts[edge]++;
+                    }
+                }
+            }
+        }
+        updateLengthFromBounds();
+    }
+
+    private void updateLengthFromBounds() {
+        if (bounds.isEmpty()) {
             length = 0;
             return;
         }
@@ -72,7 +221,35 @@ public class ImplsPath extends AbstractPath<ImplsInstancePort, ModuleImplsInst>{
             fanOutPenalty = 3;
         }
 
-        length = rect.hpwl() * fanOutPenalty;
+        length = bounds.hpwl() * fanOutPenalty;
+    }
+
+    @Override
+    public void saveState() {
+        savedLength = length;
+        savedCalculated = calculated;
+        savedBounds.reset();
+        savedBounds.extendTo(bounds);
+        System.arraycopy(edgeCounts, 0, savedEdgeCounts, 0, edgeCounts.length);
+        for (ImplsInstancePort port : changedPorts) {
+            port.countedSaved = false;
+        }
+        changedPorts.clear();
+    }
+
+    @Override
+    public void restoreState() {
+        length = savedLength;
+        calculated = savedCalculated;
+        bounds.reset();
+        bounds.extendTo(savedBounds);
+        System.arraycopy(savedEdgeCounts, 0, edgeCounts, 0, edgeCounts.length);
+        for (ImplsInstancePort port : changedPorts) {
+            port.counted.reset();
+            port.counted.extendTo(port.savedCounted);
+            port.countedSaved = false;
+        }
+        changedPorts.clear();
     }
 
     public String getName() {
@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.xilinx.rapidwright.placer.blockplacer;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.xilinx.rapidwright.design.ModuleImplsInst;
+import com.xilinx.rapidwright.design.RelocatableTileRectangle;
+
+/**
+ * Detection of overlaps between modules using a spatial index.
+ *
+ * Placed instances are stored in a balanced binary search tree (a treap) ordered by the minimum column of their
+ * bounding box. Every tree node additionally stores the bounding box of its whole subtree, which allows skipping
+ * subtrees that cannot contain an overlapping instance. Insertion and removal take O(log n) expected time, and
+ * overlap queries only visit the parts of the tree whose extent overlaps the queried module. In contrast to
+ * {@link RegionBasedOverlapCache}, this does not need a region size to be tuned for the module sizes.
+ */
+public class IntervalTreeOverlapCache extends AbstractOverlapCache {
+
+    private static class Node {
+        final ModuleImplsInst inst;
+        final int minColumn;
+        final int maxColumn;
+        final int minRow;
+        final int maxRow;
+        /** Insertion counter, breaks ties between instances with the same minimum column */
+        final long id;
+        final int priority;
+        Node left;
+        Node right;
+        /** Extent of the whole subtree rooted at this node */
+        int subMaxColumn;
+        int subMinRow;
+        int subMaxRow;
+
+        Node(ModuleImplsInst inst, RelocatableTileRectangle bb, long id, int priority) {
+            this.inst = inst;
+            this.minColumn = bb.getMinColumn();
+            this.maxColumn = bb.getMaxColumn();
+            this.minRow = bb.getMinRow();
+            this.maxRow = bb.getMaxRow();
+            this.id = id;
+            this.priority = priority;
+            update();
+        }
+
+        void update() {
+            subMaxColumn = maxColumn;
+            subMinRow = minRow;
+            subMaxRow = maxRow;
+            if (left != null) {
+                subMaxColumn = Math.max(subMaxColumn, left.subMaxColumn);
+                subMinRow = Math.min(subMinRow, left.subMinRow);
+                subMaxRow = Math.max(subMaxRow, left.subMaxRow);
+            }
+            if (right != null) {
+                subMaxColumn = Math.max(subMaxColumn, right.subMaxColumn);
+                subMinRow = Math.min(subMinRow, right.subMinRow);
+                subMaxRow = Math.max(subMaxRow, right.subMaxRow);
+            }
+        }
+
+        boolean isBefore(Node other) {
+            return minColumn < other.minColumn || (minColumn == other.minColumn && id < other.id);
+        }
+    }
+
+    private final List<ModuleImplsInst> instances;
+    private final Map<ModuleImplsInst, Node> nodes = new HashMap<>();
+    /** Fixed seed, so that the tree shape (and therefore the runtime) is reproducible */
+    private final Random rand = new Random(0);
+    private Node root;
+    private long nextId;
+    private long queries;
+    private long visitedNodes;
+
+    public IntervalTreeOverlapCache(List<ModuleImplsInst> instances) {
+        this.instances = instances;
+        for (ModuleImplsInst instance : instances) {
+            if (instance.getPlacement() != null) {
+                place(instance);
+            }
+        }
+    }
+
+    private static Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        l.right = n;
+        n.update();
+        l.update();
+        return l;
+    }
+
+    private static Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        r.left = n;
+        n.update();
+        r.update();
+        return r;
+    }
+
+    private static Node insert(Node n, Node newNode) {
+        if (n == null) {
+            return newNode;
+        }
+        if (newNode.isBefore(n)) {
+            n.left = insert(n.left, newNode);
+            if (n.left.priority > n.priority) {
+                return rotateRight(n);
+            }
+        } else {
+            n.right = insert(n.right, newNode);
+            if (n.right.priority > n.priority) {
+                return rotateLeft(n);
+            }
+        }
+        n.update();
+        return n;
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            a.update();
+            return a;
+        }
+        b.left = merge(a, b.left);
+        b.update();
+        return b;
+    }
+
+    private static Node remove(Node n, Node toRemove) {
+        if (n == null) {
+            throw new RuntimeException("ERROR: " + toRemove.inst + " is not contained in the overlap cache");
+        }
+        if (n == toRemove) {
+            return merge(n.left, n.right);
+        }
+        if (toRemove.isBefore(n)) {
+            n.left = remove(n.left, toRemove);
+        } else {
+            n.right = remove(n.right, toRemove);
+        }
+        n.update();
+        return n;
+    }
+
+    /**
+     * Remove an Instance from the cache. Has to be called before actually unplacing the instance
+     * @param mii  the instance
+     */
+    @Override
+    public void unplace(ModuleImplsInst mii) {
+        Node node = nodes.remove(mii);
+        if (node != null) {
+            root = remove(root, node);
+        }
+    }
+
+    /**
+     * Add an Instance to the cache. Has to be called after placing the instance
+     * @param mii  the instance
+     */
+    @Override
+    public void place(ModuleImplsInst mii) {
+        unplace(mii);
+        Node node = new Node(mii, mii.getBoundingBox(), nextId++, rand.nextInt());
+        nodes.put(mii, node);
+        root = insert(root, node);
+    }
+
+    private boolean doesNotOverlapAny(Node n, ModuleImplsInst mii, RelocatableTileRectangle bb) {
+        while (n != null) {
+            visitedNodes++;
+            if (n.subMaxColumn < bb.getMinColumn() || n.subMaxRow < bb.getMinRow() || n.subMinRow > bb.getMaxRow()) {
+                return true;
+            }
+            if (!doesNotOverlapAny(n.left, mii, bb)) {
+                return false;
+            }
+            if (n.minColumn > bb.getMaxColumn()) {
+                // Everything to the right starts even further right
+                return true;
+            }
+            ModuleImplsInst other = n.inst;
+            if (other != mii && n.maxColumn >= bb.getMinColumn()
+                    && n.minRow <= bb.getMaxRow() && n.maxRow >= bb.getMinRow()) {
+                if (mii.getPlacement().placement == other.getPlacement().placement || mii.overlaps(other)) {
+                    return false;
+                }
+            }
+            n = n.right;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isValidPlacement(ModuleImplsInst mii) {
+        if (mii.getPlacement() == null) {
+            return true;
+        }
+        queries++;
+        return doesNotOverlapAny(root, mii, mii.getBoundingBox());
+    }
+
+    private int getHeight(Node n) {
+        if (n == null) {
+            return 0;
+        }
+        return 1 + Math.max(getHeight(n.left), getHeight(n.right));
+    }
+
+    private void checkCorrectness() {
+        boolean error = false;
+        for (ModuleImplsInst mii : instances) {
+            boolean inTree = nodes.containsKey(mii);
+            if (inTree != (mii.getPlacement() != null)) {
+                System.out.println(mii + (inTree ? " is wrongly in the tree, is not placed at all" : " should be in the tree"));
+                error = true;
+            } else if (inTree) {
+                Node node = nodes.get(mii);
+                RelocatableTileRectangle bb = mii.getBoundingBox();
+                if (node.minColumn != bb.getMinColumn() || node.maxColumn != bb.getMaxColumn()
+                        || node.minRow != bb.getMinRow() || node.maxRow != bb.getMaxRow()) {
+                    System.out.println(mii + " is stored with an outdated bounding box");
+                    error = true;
+                }
+            }
+        }
+        if (error) {
+            throw new RuntimeException("error in overlaps");
+        }
+    }
+
+    @Override
+    public void printStats() {
+        checkCorrectness();
+        System.out.println("Placed Insts: " + nodes.size() + ", Tree Height: " + getHeight(root));
+        if (queries > 0) {
+            System.out.printf("Visited Nodes per Query: %.1f\n", (double) visitedNodes / queries);
+        }
+    }
+}
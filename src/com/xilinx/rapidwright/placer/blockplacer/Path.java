@@ -40,6 +40,7 @@ public class Path extends AbstractPath<PathPort, HardMacro>{
 
 	// Half Perimeter Wire Length
 	protected int hpwl;
+	private int savedHpwl;
 	protected ArrayList<Integer> delay;
 	protected int maxDelay;
 
@@ -80,6 +81,16 @@ public class Path extends AbstractPath<PathPort, HardMacro>{
 		calculateHPWL();
 	}
 
+	@Override
+	public void saveState(){
+		savedHpwl = hpwl;
+	}
+
+	@Override
+	public void restoreState(){
+		hpwl = savedHpwl;
+	}
+
 	@Override
 	public String getName() {
 		return name;
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.xilinx.rapidwright.placer.blockplacer;
+
+import java.util.Arrays;
+
+/**
+ * Minimizes the squared wirelength between a set of movable cells and fixed pins, as used for an
+ * analytical pre-placement before annealing in {@link BlockPlacer2}.
+ *
+ * Nets are modeled as cliques (or, if they have more than {@link #MAX_CLIQUE_SIZE} pins, as stars
+ * around an additional free variable), which leads to a sparse, symmetric positive definite system
+ * per dimension. Connections are collected in coordinate format, compressed to CSR form and solved
+ * with a Jacobi-preconditioned conjugate gradient method. Everything is kept in primitive arrays.
+ */
+public class QuadraticPlacer {
+
+    /** Nets with more pins than this are modeled as a star instead of a clique */
+    public static final int MAX_CLIQUE_SIZE = 16;
+
+    private static final double TOLERANCE = 1e-6;
+
+    /** Number of cells as requested by the user, star nodes are numbered after them */
+    private final int cellCount;
+    private int varCount;
+
+    /** Diagonal of the system matrix and right hand sides, indexed by variable */
+    private double[] diag;
+    private double[] bx;
+    private double[] by;
+
+    /** Off-diagonal entries in coordinate format, each connection is stored once */
+    private int[] cooA = new int[64];
+    private int[] cooB = new int[64];
+    private double[] cooWeight = new double[64];
+    private int cooCount;
+
+    private int iterations;
+
+    public QuadraticPlacer(int cellCount) {
+        this.cellCount = cellCount;
+        this.varCount = cellCount;
+        int capacity = Math.max(cellCount, 1);
+        diag = new double[capacity];
+        bx = new double[capacity];
+        by = new double[capacity];
+    }
+
+    private int addVariable() {
+        if (varCount == diag.length) {
+            diag = Arrays.copyOf(diag, varCount * 2);
+            bx = Arrays.copyOf(bx, varCount * 2);
+            by = Arrays.copyOf(by, varCount * 2);
+        }
+        return varCount++;
+    }
+
+    /**
+     * Adds a spring between two movable cells.
+     */
+    public void addConnection(int a, int b, double weight) {
+        if (a == b) {
+            return;
+        }
+        if (cooCount == cooA.length) {
+            cooA = Arrays.copyOf(cooA, cooCount * 2);
+            cooB = Arrays.copyOf(cooB, cooCount * 2);
+            cooWeight = Arrays.copyOf(cooWeight, cooCount * 2);
+        }
+        cooA[cooCount] = a;
+        cooB[cooCount] = b;
+        cooWeight[cooCount] = weight;
+        cooCount++;
+        diag[a] += weight;
+        diag[b] += weight;
+    }
+
+    /**
+     * Adds a spring between a movable cell and a fixed location.
+     */
+    public void addAnchor(int cell, double x, double y, double weight) {
+        diag[cell] += weight;
+        bx[cell] += weight * x;
+        by[cell] += weight * y;
+    }
+
+    /**
+     * Adds a net connecting movable cells and fixed pins.
+     * @param cells Indices of the movable cells on the net.
+     * @param cellCount Number of valid entries in cells.
+     * @param fixedX Column coordinates of the fixed pins on the net.
+     * @param fixedY Row coordinates of the fixed pins on the net.
+     * @param fixedCount Number of valid entries in fixedX and fixedY.
+     */
+    public void addNet(int[] cells, int cellCount, double[] fixedX, double[] fixedY, int fixedCount) {
+        int pins = cellCount + fixedCount;
+        if (pins < 2 || cellCount == 0) {
+            return;
+        }
+        if (pins > MAX_CLIQUE_SIZE) {
+            double weight = (double) pins / (pins - 1);
+            int star = addVariable();
+            for (int i = 0; i < cellCount; i++) {
+                addConnection(cells[i], star, weight);
+            }
+            for (int i = 0; i < fixedCount; i++) {
+                addAnchor(star, fixedX[i], fixedY[i], weight);
+            }
+            return;
+        }
+        double weight = 1.0 / (pins - 1);
+        for (int i = 0; i < cellCount; i++) {
+            for (int j = i + 1; j < cellCount; j++) {
+                addConnection(cells[i], cells[j], weight);
+            }
+            for (int j = 0; j < fixedCount; j++) {
+                addAnchor(cells[i], fixedX[j], fixedY[j], weight);
+            }
+        }
+    }
+
+    /**
+     * Solves for the positions of all movable cells. Every variable must be connected (directly or
+     * indirectly) to an anchor, otherwise the system is singular.
+     * @param x Initial column coordinates, overwritten with the solution. At least cellCount long.
+     * @param y Initial row coordinates, overwritten with the solution. At least cellCount long.
+     * @param maxIterations Maximum number of conjugate gradient iterations per dimension.
+     */
+    public void solve(double[] x, double[] y, int maxIterations) {
+        int n = varCount;
+        for (int i = 0; i < n; i++) {
+            if (diag[i] <= 0) {
+                throw new RuntimeException("ERROR: Variable " + i + " is not connected to anything");
+            }
+        }
+
+        // Compress to CSR, storing each connection in both rows
+        int[] rowStart = new int[n + 1];
+        for (int i = 0; i < cooCount; i++) {
+            rowStart[cooA[i] + 1]++;
+            rowStart[cooB[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            rowStart[i + 1] += rowStart[i];
+        }
+        int[] cols = new int[rowStart[n]];
+        double[] vals = new double[rowStart[n]];
+        int[] fill = Arrays.copyOf(rowStart, n);
+        for (int i = 0; i < cooCount; i++) {
+            int a = cooA[i];
+            int b = cooB[i];
+            cols[fill[a]] = b;
+            vals[fill[a]++] = -cooWeight[i];
+            cols[fill[b]] = a;
+            vals[fill[b]++] = -cooWeight[i];
+        }
+
+        // Star nodes start at the mean of the cells
+        double[] fullX = new double[n];
+        double[] fullY = new double[n];
+        System.arraycopy(x, 0, fullX, 0, cellCount);
+        System.arraycopy(y, 0, fullY, 0, cellCount);
+        double meanX = 0;
+        double meanY = 0;
+        for (int i = 0; i < cellCount; i++) {
+            meanX += x[i];
+            meanY += y[i];
+        }
+        if (cellCount > 0) {
+            Arrays.fill(fullX, cellCount, n, meanX / cellCount);
+            Arrays.fill(fullY, cellCount, n, meanY / cellCount);
+        }
+
+        double[][] work = new double[4][n];
+        iterations = conjugateGradient(rowStart, cols, vals, bx, fullX, maxIterations, work);
+        iterations += conjugateGradient(rowStart, cols, vals, by, fullY, maxIterations, work);
+        System.arraycopy(fullX, 0, x, 0, cellCount);
+        System.arraycopy(fullY, 0, y, 0, cellCount);
+    }
+
+    private void multiply(int[] rowStart, int[] cols, double[] vals, double[] v, double[] result) {
+        for (int i = 0; i < varCount; i++) {
+            double sum = diag[i] * v[i];
+            for (int k = rowStart[i]; k < rowStart[i + 1]; k++) {
+                sum += vals[k] * v[cols[k]];
+            }
+            result[i] = sum;
+        }
+    }
+
+    private static double dot(double[] a, double[] b, int n) {
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    /**
+     * @return Number of iterations performed
+     */
+    private int conjugateGradient(int[] rowStart, int[] cols, double[] vals, double[] b, double[] x,
+                                  int maxIterations, double[][] work) {
+        int n = varCount;
+        double[] r = work[0];
+        double[] z = work[1];
+        double[] p = work[2];
+        double[] ap = work[3];
+
+        multiply(rowStart, cols, vals, x, ap);
+        for (int i = 0; i < n; i++) {
+            r[i] = b[i] - ap[i];
+            z[i] = r[i] / diag[i];
+            p[i] = z[i];
+        }
+        double threshold = TOLERANCE * TOLERANCE * Math.max(dot(b, b, n), 1.0);
+        double rz = dot(r, z, n);
+        int iter = 0;
+        while (iter < maxIterations && dot(r, r, n) > threshold) {
+            multiply(rowStart, cols, vals, p, ap);
+            double alpha = rz / dot(p, ap, n);
+            for (int i = 0; i < n; i++) {
+                x[i] += alpha * p[i];
+                r[i] -= alpha * ap[i];
+                z[i] = r[i] / diag[i];
+            }
+            double rzNext = dot(r, z, n);
+            double beta = rzNext / rz;
+            rz = rzNext;
+            for (int i = 0; i < n; i++) {
+                p[i] = z[i] + beta * p[i];
+            }
+            iter++;
+        }
+        return iter;
+    }
+
+    /**
+     * @return Total number of conjugate gradient iterations in the last call to solve()
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return Number of variables, including star nodes added for large nets
+     */
+    public int getVariableCount() {
+        return varCount;
+    }
+}
@@ -28,6 +28,7 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -47,6 +48,7 @@ import com.xilinx.rapidwright.device.Tile;
 import com.xilinx.rapidwright.device.TileTypeEnum;
 import com.xilinx.rapidwright.edif.EDIFNet;
 import com.xilinx.rapidwright.util.MessageGenerator;
+import com.xilinx.rapidwright.util.MetricsRegistry;
 import com.xilinx.rapidwright.util.Pair;
 import com.xilinx.rapidwright.util.RuntimeTracker;
 import com.xilinx.rapidwright.util.RuntimeTrackerTree;
@@ -146,12 +148,12 @@ public class RWRoute{
 	/** The total number of connections that are routed */
 	private int connectionsRouted;
 	private long nodesEvaluated;
-	/** The total number of nodes pushed into the queue */
-	private long nodesPushed;
 	/** The total number of connections routed in an iteration */
 	private int connectionsRoutedIteration;
-	/** Total number of nodes popped from the queue */
-	private long nodesPopped;
+	/** Expansion counters of the current iteration, cheap enough to be always on */
+	private RouteSearchStats iterationStats;
+	/** Expansion counters of all completed iterations */
+	private RouteSearchStats searchStats;
 	
 	/** The maximum criticality constraint of connection */
 	private static float MAX_CRITICALITY = 0.99f;
@@ -224,8 +226,8 @@ public class RWRoute{
 		routethruHelper = new RouteThruHelper(design.getDevice());		
 		connectionsRouted = 0;
 		connectionsRoutedIteration = 0;
-		nodesPushed = 0;
-		nodesPopped = 0;
+		iterationStats = new RouteSearchStats();
+		searchStats = new RouteSearchStats();
 		overUsedRnodes = new HashSet<>();
 		
 		routerTimer.getRuntimeTracker("Initialization").stop();
@@ -758,6 +760,8 @@ public class RWRoute{
 			
 			printRoutingIterationStatisticsInfo(System.nanoTime() - startIteration, rnodeId - lastIterationRnodeId,
 					(float) ((rnodesTimer.getTime() - lasterIterationRnodeTime) * 1e-9), config.isTimingDriven());
+			searchStats.add(iterationStats);
+			iterationStats.reset();
 			
 			if(overUsedRnodes.size() == 0) {
 				Set<Connection> unroutedConnectionss = getUnroutedConnections();
@@ -950,6 +954,33 @@ public class RWRoute{
 	private void printRoutingIterationStatisticsInfo(float iterationRuntime, long numRnodes, float rnodesCreationTime,
 			boolean timingDriven){
 		long overUsed = overUsedRnodes.size();
+		MetricsRegistry metrics = MetricsRegistry.getGlobal();
+		if(metrics.isEnabled()) {
+			Map<String, Number> record = new LinkedHashMap<>();
+			record.put("iteration", routeIteration);
+			record.put("rnodes_created", numRnodes);
+			record.put("rnodes_creation_s", rnodesCreationTime);
+			record.put("connections_routed", connectionsRoutedIteration);
+			record.put("overused_rnodes", overUsed);
+			if(timingDriven && maxDelayAndTimingVertex != null) {
+				record.put("max_delay", maxDelayAndTimingVertex.getFirst());
+			}
+			record.put("runtime_s", iterationRuntime * 1e-9);
+			for(int c = 0; c < RouteSearchStats.NUM_COUNTERS; c++) {
+				record.put(RouteSearchStats.getCounterName(c), iterationStats.get(c));
+			}
+			metrics.addRecord("rwroute/iterations", record);
+			for(int b = 0; b < RouteSearchStats.NUM_BUCKETS; b++) {
+				if(iterationStats.get(b, RouteSearchStats.CONNECTIONS) == 0) continue;
+				Map<String, Number> bucketRecord = new LinkedHashMap<>();
+				bucketRecord.put("iteration", routeIteration);
+				bucketRecord.put("hpwl_min", (1 << b) - 1);
+				for(int c = 0; c < RouteSearchStats.NUM_COUNTERS; c++) {
+					bucketRecord.put(RouteSearchStats.getCounterName(c), iterationStats.get(b, c));
+				}
+				metrics.addRecord("rwroute/iteration_buckets", bucketRecord);
+			}
+		}
 		if(timingDriven) {
 			System.out.printf("%4d       %12d  %8.2f   %11d  %10d   %5d  %9.2f\n",
 					routeIteration,
@@ -1224,7 +1255,7 @@ public class RWRoute{
 		while(!queue.isEmpty()){
 			if(!targetReached() && !successRoute) {
 				Routable rnode = queue.poll();
-				nodesPopped++;
+				iterationStats.increment(RouteSearchStats.POPPED);
 				
 				setChildrenOfRnode(rnode);
 				exploreAndExpand(rnode, connection, shareWeight, rnodeCostWeight,
@@ -1240,6 +1271,7 @@ public class RWRoute{
 			connection.getSink().setRouted(true);
 			if(config.isTimingDriven()) connection.updateRouteDelay();	
 		}else {
+			iterationStats.increment(RouteSearchStats.FAILED);
 			connection.getSink().setRouted(false);
 			connection.getSinkRnode().setTarget(false);
 			resetExpansion();
@@ -1443,18 +1475,25 @@ public class RWRoute{
 				if(childRNode.getDelay() > 10000) {
 					// To filter out those nodes that are considered to be excluded with the masking resource approach,
 					// such as U-turn shape nodes near the boundary and some node cross RCLK
+					iterationStats.increment(RouteSearchStats.REJECTED_EXCLUDED);
 					continue;
 				}
 				if(isAccessible(childRNode, connection)){
 					evaluateCostAndPush(rnode, longParent, childRNode, connection, shareWeight, rnodeCostWeight,
 							rnodeLengthWeight, rnodeEstWlWeight, rnodeDelayWeight, rnodeEstDlyWeight);
+				}else {
+					iterationStats.increment(RouteSearchStats.REJECTED_BOUNDING_BOX);
 				}
 			}else if(childRNode.getRoutableType() == RoutableType.PINBOUNCE) {			
 				if(isAccessible(childRNode, connection)) {				
 					if(usablePINBounce(childRNode, connection.getSinkRnode())) {
 						evaluateCostAndPush(rnode, longParent, childRNode, connection, shareWeight, rnodeCostWeight,
 								rnodeLengthWeight, rnodeEstWlWeight, rnodeDelayWeight, rnodeEstDlyWeight);
-					}					
+					}else {
+						iterationStats.increment(RouteSearchStats.REJECTED_EXCLUDED);
+					}
+				}else {
+					iterationStats.increment(RouteSearchStats.REJECTED_BOUNDING_BOX);
 				}
 			}else if(childRNode.getRoutableType() == RoutableType.PINFEED_I) {
 				if(connection.isCrossSLR()) {
@@ -1568,7 +1607,8 @@ public class RWRoute{
 		childRnode.setUpstreamPathCost(newPartialPathCost);
 		childRnode.setPrev(rnode);
 		queue.add(childRnode);
-		nodesPushed++;
+		iterationStats.increment(RouteSearchStats.PUSHED);
+		iterationStats.updateQueueSize(queue.size());
 	}
 	
 	/**
@@ -1581,6 +1621,7 @@ public class RWRoute{
 		
 		connectionsRouted++;
 		connectionsRoutedIteration++;
+		iterationStats.startConnection(connection.getHpwl());
 		// Clears previous route of the connection
 		connection.resetRoute();
 		queue.clear();	
@@ -1689,8 +1730,12 @@ public class RWRoute{
 			printFormattedString("Num iterations:", routeIteration);
 			printFormattedString("Connections routed:", connectionsRouted);
 			printFormattedString("Nodes evaluated:", nodesEvaluated);
-			printFormattedString("Nodes pushed:", nodesPushed);
-			printFormattedString("Nodes popped:", nodesPopped);
+			printFormattedString("Nodes pushed:", searchStats.get(RouteSearchStats.PUSHED));
+			printFormattedString("Nodes popped:", searchStats.get(RouteSearchStats.POPPED));
+			printFormattedString("Nodes outside bounding box:", searchStats.get(RouteSearchStats.REJECTED_BOUNDING_BOX));
+			printFormattedString("Max queue size:", searchStats.get(RouteSearchStats.QUEUE_MAX));
+			System.out.printf("------------------------------------------------------------------------------\n");
+			System.out.print(searchStats.toTable());
 			System.out.printf("------------------------------------------------------------------------------\n");
 		}
 		
@@ -1700,7 +1745,33 @@ public class RWRoute{
 			printTimingInfo();
 		}
 		System.out.printf("==============================================================================\n");
-		
+		exportMetrics(MetricsRegistry.getGlobal());
+	}
+	
+	/**
+	 * Adds the routing statistics and the runtime breakdown to a metrics registry, with names
+	 * prefixed by "rwroute/".
+	 * @param metrics The registry to add to.
+	 */
+	public void exportMetrics(MetricsRegistry metrics) {
+		if(!metrics.isEnabled()) return;
+		routerTimer.exportMetrics(metrics, "rwroute");
+		metrics.increment("rwroute/iterations_run", routeIteration);
+		metrics.increment("rwroute/connections_routed", connectionsRouted);
+		metrics.increment("rwroute/nodes_evaluated", nodesEvaluated);
+		for(int c = 0; c < RouteSearchStats.NUM_COUNTERS; c++) {
+			if(c == RouteSearchStats.QUEUE_MAX) {
+				metrics.setGauge("rwroute/search/" + RouteSearchStats.getCounterName(c), searchStats.get(c));
+			} else {
+				metrics.increment("rwroute/search/" + RouteSearchStats.getCounterName(c), searchStats.get(c));
+			}
+		}
+		metrics.increment("rwroute/rnodes_created", rnodeId);
+		metrics.setGauge("rwroute/total_wirelength", totalWL);
+		metrics.setGauge("rwroute/overused_rnodes", overUsedRnodes.size());
+		if(maxDelayAndTimingVertex != null) {
+			metrics.setGauge("rwroute/max_delay", maxDelayAndTimingVertex.getFirst());
+		}
 	}
 	
 	/**
@@ -91,6 +91,8 @@ public class RWRouteConfig {
 	private boolean resolveConflictNets;
 	/** A keyword to help recognize the target conflict nets */
 	private String anchorNameKeyword;
+	/** Timing corners that criticality is based on, null to only use the nominal delays */
+	private String timingCorners;
 	
 	/** Constructs a Configuration Object */
 	public RWRouteConfig(String[] arguments) {
@@ -123,6 +125,7 @@ public class RWRouteConfig {
 		printConnectionSpan = false;
 		resolveConflictNets = false;
 		anchorNameKeyword = "q0_reg";
+		timingCorners = null;
 		if(arguments != null) {
 			parseArguments(arguments);
 		}
@@ -240,6 +243,9 @@ public class RWRouteConfig {
 			case "--anchorNameKeyword":
 				setAnchorNameKeyword(arguments[++i]);
 				break;
+			case "--timingCorners":
+				setTimingCorners(arguments[++i]);
+				break;
 			default:
 				break;
 			}
@@ -889,6 +895,27 @@ public class RWRouteConfig {
 		this.anchorNameKeyword = anchorNameKeyWord;
 	}
 
+	/**
+	 * Gets the timing corners used for timing-driven routing.
+	 * Default: null, i.e. only the nominal delays are used.
+	 * Can be modified by using "--timingCorners" option, e.g. "--timingCorners slow:1.0:1.0,fast:0.7:0.8".
+	 * @return The timing corners, see {@link com.xilinx.rapidwright.timing.TimingCorner#parseCorners(String)} for the format.
+	 */
+	public String getTimingCorners() {
+		return timingCorners;
+	}
+
+	/**
+	 * Sets the timing corners used for timing-driven routing.
+	 * The criticality of each connection is then based on the corner where its slack is worst.
+	 * Default: null.
+	 * Can be modified by using "--timingCorners" option, e.g. "--timingCorners slow:1.0:1.0,fast:0.7:0.8".
+	 * @param timingCorners Comma separated list of name:logicDelayFactor:netDelayFactor[:requirement] entries.
+	 */
+	public void setTimingCorners(String timingCorners) {
+		this.timingCorners = timingCorners;
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder s = new StringBuilder();
@@ -918,6 +945,9 @@ public class RWRouteConfig {
 			s.append(MessageGenerator.formatString("Reroute percentage: ", reroutePercentage));
 			s.append(MessageGenerator.formatString("PessimismA: ", pessimismA));
 			s.append(MessageGenerator.formatString("PessimismB: ", pessimismB));
+			if(timingCorners != null) {
+				s.append(MessageGenerator.formatString("Timing corners: ", timingCorners));
+			}
 		}
 		s.append(MessageGenerator.formatString("Mask nodes across RCLK: ", maskNodesCrossRCLK));
 		s.append(MessageGenerator.formatString("Include U-turn nodes: ", useUTurnNodes));
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.rwroute;
+
+import java.util.Arrays;
+
+/**
+ * Counters of the wavefront expansion of {@link RWRoute}, bucketed by the half-perimeter
+ * wirelength (HPWL) of the connection being routed.
+ *
+ * All counters live in a single primitive array so that counting neither allocates nor needs
+ * synchronization. An instance must only be updated by the thread that routes the connections;
+ * results of several instances (e.g. one per iteration) are combined with {@link #add(RouteSearchStats)}.
+ */
+public class RouteSearchStats {
+
+    /** Rnodes popped from the queue */
+    public static final int POPPED = 0;
+    /** Rnodes pushed into the queue */
+    public static final int PUSHED = 1;
+    /** Children rejected as they are outside of the connection's bounding box */
+    public static final int REJECTED_BOUNDING_BOX = 2;
+    /** Children rejected as they are excluded from routing (masked wires, unusable PINBOUNCEs) */
+    public static final int REJECTED_EXCLUDED = 3;
+    /** Connections routed */
+    public static final int CONNECTIONS = 4;
+    /** Connections that could not be routed */
+    public static final int FAILED = 5;
+    /** Largest queue size, combined by maximum instead of sum */
+    public static final int QUEUE_MAX = 6;
+
+    public static final int NUM_COUNTERS = 7;
+
+    private static final String[] COUNTER_NAMES = {"popped", "pushed", "outside_bb", "excluded",
+            "connections", "failed", "queue_max"};
+
+    /** Bucket i holds connections with an HPWL in [2^i - 1, 2^(i+1) - 1), the last one all longer ones */
+    public static final int NUM_BUCKETS = 8;
+
+    private final long[] counts = new long[NUM_BUCKETS * NUM_COUNTERS];
+
+    /** Offset of the bucket of the connection currently being routed */
+    private int offset;
+
+    public static String getCounterName(int counter) {
+        return COUNTER_NAMES[counter];
+    }
+
+    /**
+     * Gets the bucket of connections with the given HPWL.
+     * @param hpwl The half-perimeter wirelength of a connection in tiles.
+     * @return The bucket index.
+     */
+    public static int getBucket(int hpwl) {
+        int bucket = 31 - Integer.numberOfLeadingZeros(Math.max(hpwl, 0) + 1);
+        return Math.min(bucket, NUM_BUCKETS - 1);
+    }
+
+    /**
+     * @param bucket The bucket index.
+     * @return A name of the range of HPWLs in the bucket, such as "3-6" or "127+".
+     */
+    public static String getBucketName(int bucket) {
+        int min = (1 << bucket) - 1;
+        if (bucket == NUM_BUCKETS - 1) {
+            return min + "+";
+        }
+        return min + "-" + ((1 << (bucket + 1)) - 2);
+    }
+
+    /**
+     * Starts counting for a new connection, which also counts the connection itself.
+     * @param hpwl The half-perimeter wirelength of the connection.
+     */
+    public void startConnection(int hpwl) {
+        offset = getBucket(hpwl) * NUM_COUNTERS;
+        counts[offset + CONNECTIONS]++;
+    }
+
+    public void increment(int counter) {
+        counts[offset + counter]++;
+    }
+
+    public void updateQueueSize(int size) {
+        if (size > counts[offset + QUEUE_MAX]) {
+            counts[offset + QUEUE_MAX] = size;
+        }
+    }
+
+    public long get(int bucket, int counter) {
+        return counts[bucket * NUM_COUNTERS + counter];
+    }
+
+    /**
+     * Gets a counter over all buckets.
+     * @param counter The counter, such as {@link #PUSHED}.
+     * @return The sum (or the maximum for {@link #QUEUE_MAX}) over all buckets.
+     */
+    public long get(int counter) {
+        long total = 0;
+        for (int i = counter; i < counts.length; i += NUM_COUNTERS) {
+            total = counter == QUEUE_MAX ? Math.max(total, counts[i]) : total + counts[i];
+        }
+        return total;
+    }
+
+    /**
+     * Adds the counters of another instance to this one.
+     * @param other The counters to add.
+     */
+    public void add(RouteSearchStats other) {
+        for (int i = 0; i < counts.length; i++) {
+            if (i % NUM_COUNTERS == QUEUE_MAX) {
+                counts[i] = Math.max(counts[i], other.counts[i]);
+            } else {
+                counts[i] += other.counts[i];
+            }
+        }
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        offset = 0;
+    }
+
+    /**
+     * Gets a table of all counters with one row per bucket that has connections.
+     * @return The formatted table.
+     */
+    public String toTable() {
+        StringBuilder sb = new StringBuilder(String.format("%8s", "HPWL"));
+        for (int c = 0; c < NUM_COUNTERS; c++) {
+            sb.append(String.format(" %12s", COUNTER_NAMES[c]));
+        }
+        sb.append('\n');
+        for (int b = 0; b < NUM_BUCKETS; b++) {
+            if (get(b, CONNECTIONS) == 0) continue;
+            sb.append(String.format("%8s", getBucketName(b)));
+            for (int c = 0; c < NUM_COUNTERS; c++) {
+                sb.append(String.format(" %12d", get(b, c)));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
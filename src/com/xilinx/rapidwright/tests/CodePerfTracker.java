@@ -29,9 +29,12 @@ import java.util.HashMap;
 import java.util.Map;
 
 import com.xilinx.rapidwright.util.MessageGenerator;
+import com.xilinx.rapidwright.util.MetricsRegistry;
 
 /**
  * Simple tool for measuring code runtime and memory and reporting.
+ * If the global {@link MetricsRegistry} is enabled, each finished segment is also recorded there
+ * as a timer named "&lt;tracker name&gt;/&lt;segment name&gt;".
  * 
  * Created on: Jun 29, 2016
  */
@@ -54,6 +57,8 @@ public class CodePerfTracker {
 	private int maxSegmentNameSize = 24;
 	private boolean printProgress = true;
 	private boolean trackMemoryUsingGC = false;
+	/** True if the last segment has been started but not stopped */
+	private boolean segmentRunning = false;
 
 	public static final CodePerfTracker SILENT;
 	
@@ -134,6 +139,7 @@ public class CodePerfTracker {
 		segmentNames.add(segmentName);
 		memUsages.add(currUsage);
 		runtimes.add(System.nanoTime());
+		segmentRunning = true;
 		return this;
 	}
 
@@ -149,6 +155,8 @@ public class CodePerfTracker {
 		
 		runtimes.set(idx, end-start);
 		memUsages.set(idx,	currUsage-prevUsage);
+		segmentRunning = false;
+		MetricsRegistry.getGlobal().addTime(getMetricName(segmentNames.get(idx)), end-start);
 		
 		if(printProgress && isVerbose()){
 			print(idx);
@@ -172,12 +180,36 @@ public class CodePerfTracker {
 		}
 
 		long end = System.nanoTime();
+		MetricsRegistry.getGlobal().addTime(getMetricName(segmentName), end-start);
 		if (printProgress && isVerbose()) {
 			print("(" + segmentName + ")", end-start, null, true);
 		}
 		return this;
 	}
 
+	private String getMetricName(String segmentName) {
+		return (name == null || name.isEmpty() ? "" : name + "/") + segmentName;
+	}
+
+	/**
+	 * Adds the memory usage (as a gauge named "&lt;segment&gt;/mem_bytes") of all finished
+	 * segments to a metrics registry. Their runtimes are added as timers as well, unless the
+	 * registry is the global one, which already received them when each segment stopped.
+	 * @param metrics The registry to add to.
+	 */
+	public void exportMetrics(MetricsRegistry metrics) {
+		if(!GLOBAL_DEBUG || this == SILENT) return;
+		boolean addTimes = metrics != MetricsRegistry.getGlobal();
+		int count = segmentRunning ? segmentNames.size() - 1 : segmentNames.size();
+		for(int i=0; i < count; i++){
+			String metricName = getMetricName(segmentNames.get(i));
+			if(addTimes){
+				metrics.addTime(metricName, runtimes.get(i));
+			}
+			metrics.setGauge(metricName + "/mem_bytes", memUsages.get(i));
+		}
+	}
+
 	private void print(String segmentName, Long runtime, Long memUsage) {
 		print(segmentName, runtime, memUsage, false);
 	}
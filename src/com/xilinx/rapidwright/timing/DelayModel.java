@@ -32,7 +32,7 @@ import com.xilinx.rapidwright.device.SiteTypeEnum;
 /**
  * Provide delay lookup for logic and intra site delay.
  *
- * Never construct DelayModel directly. Use DelayModelBuilder to guarantee that there is at most one DelayModel.
+ * Never construct DelayModel directly. Use DelayModelBuilder to guarantee that there is at most one DelayModel per series.
  *
  * Conventions:
  * A user see a cell with all its input and output pins. But, the user do NOT know
@@ -90,6 +90,62 @@ public interface DelayModel {
      * @throws  IllegalArgumentException if the given bel is not recognized by the model.
      */
      public short getLogicDelay(short belIdx, String frBelPin, String toBelPin);
+
+    /**
+     * Get the index of a site type for the int-id version of {@link #getIntraSiteDelay(SiteTypeEnum, String, String)}.
+     * @param siteType The site type.
+     * @return The site index, or -1 if the site type is not recognized by the model.
+     */
+    public int getSiteIndex(SiteTypeEnum siteType);
+
+    /**
+     * Get the id of a driving bel or site pin for {@link #getIntraSiteDelay(int, int, int)}.
+     * @param frBelPin The bel pin including the bel name.
+     * @return The pin id, or -1 if the pin is not known to the model.
+     */
+    public int getIntraSiteFromPinId(String frBelPin);
+
+    /**
+     * Get the id of a sink bel or site pin for {@link #getIntraSiteDelay(int, int, int)}.
+     * @param toBelPin The bel pin including the bel name.
+     * @return The pin id, or -1 if the pin is not known to the model.
+     */
+    public int getIntraSiteToPinId(String toBelPin);
+
+    /**
+     * Get the delay in ps between two bel pins within a site, using ids resolved beforehand.
+     * @param siteIdx The site index, see {@link #getSiteIndex(SiteTypeEnum)}.
+     * @param frPinId The id of the driving pin, see {@link #getIntraSiteFromPinId(String)}.
+     * @param toPinId The id of the sink pin, see {@link #getIntraSiteToPinId(String)}.
+     * @return Intra-site delay in ps. Return a negative value if the connection does not exist.
+     */
+    public short getIntraSiteDelay(int siteIdx, int frPinId, int toPinId);
+
+    /**
+     * Get the id of an input bel pin for {@link #getLogicDelay(short, int, int, int)}.
+     * @param belIdx The unique BEL timing model index, see {@link #getBELIndex(String)}.
+     * @param frBelPin An input bel pin. It must NOT include bel name.
+     * @return The pin id, or -1 if the pin is not known to the model.
+     */
+    public int getLogicFromPinId(short belIdx, String frBelPin);
+
+    /**
+     * Get the id of an output bel pin for {@link #getLogicDelay(short, int, int, int)}.
+     * @param belIdx The unique BEL timing model index, see {@link #getBELIndex(String)}.
+     * @param toBelPin An output bel pin. It must NOT include bel name.
+     * @return The pin id, or -1 if the pin is not known to the model.
+     */
+    public int getLogicToPinId(short belIdx, String toBelPin);
+
+    /**
+     * Get the delay between input and output pins of a bel, using ids resolved beforehand.
+     * @param belIdx The unique BEL timing model index, see {@link #getBELIndex(String)}.
+     * @param frPinId The id of the input pin, see {@link #getLogicFromPinId(short, String)}.
+     * @param toPinId The id of the output pin, see {@link #getLogicToPinId(short, String)}.
+     * @param encodedConfig Bit-wise OR of the encoded configs of the bel, see {@link #getEncodedConfigCode(String)}.
+     * @return Logic delay in ps. Return a negative value if the connection does not exist.
+     */
+    public short getLogicDelay(short belIdx, int frPinId, int toPinId, int encodedConfig);
      
      /**
       * TODO - Revisit this as part of the DelayModel
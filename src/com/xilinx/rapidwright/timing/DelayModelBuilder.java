@@ -27,14 +27,19 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.xilinx.rapidwright.util.FileTools;
 
 /**
  * Build a delay model.
  *
  * Never construct DelayModel directly. DelayModelBuilder guarantees that there is at most one DelayModel
- * ie., DelayModelBuilder returns the existing model.
+ * per series, ie., DelayModelBuilder returns the existing model of the series.
  */
 class DelayModelBuilder {
 
@@ -50,58 +55,78 @@ class DelayModelBuilder {
      * List all the valid sources to store the model. Adding new sources require appending them to 
      * the end of valid_mode or valid_source. Never change the order of existing entries.
      */
-    private static String[]   valid_source = {"text"};
+    private static String[]   valid_source = {"text", "binary"};
 
-    private static DelayModel aModel       = null;
+    /**
+     * The models built so far, by series.
+     */
+    private static final Map<String, DelayModel> models = new ConcurrentHashMap<>();
 
     /**
-     * Prepare the appropriate input file for {@link #getDelayModel(String, String, String)}
+     * Prepare the appropriate input file for {@link #newDelayModel(String, String, String)} and
+     * return the model of the series, building it on first use.
      */
     public static DelayModel getDelayModel(String series) {
         String fileName = TimingModel.TIMING_DATA_DIR + File.separator +series+
                 File.separator + "intrasite_delay_terms.txt";
-        return getDelayModel("small", "text", fileName);
-    }
-
-    /**
-     * The method that decides to build a new model or to return the existing one.
-     * Please see the method newDelayModel for parameters' description.
-     */
-    private static DelayModel getDelayModel(String mode, String source, String fileName) {
-        if (aModel == null) {
-            synchronized (DelayModelBuilder.class) {
-                if (aModel == null) {
-                    newDelayModel(mode, source, fileName);
-                }
-            }
-        }
-        return aModel;
+        return models.computeIfAbsent(series, (k) -> newDelayModel("small", "binary", fileName));
     }
 
     /**
      * The method to build DelayModel and DelayModelSource according to the given parameters.
      * @param mode      The type of delay model. It defines how data are stored which will affect 
      * the memory requirement and how fast the lookup is. Currently, the only valid entry is "small".
-     * @param source    The source of delay model. Currently, the only valid entry is "text".
+     * @param source    The source of delay model. Valid entries are "text" and "binary". The
+     *  latter reads the binary file generated from the text file, if it is up to date, or parses the
+     *  text file and (re)generates the binary file.
      * @param fileName  The text file describing the delay model.
      * @throws IllegalArgumentException  This method throw IllegalArgumentException if the fileName
      *  does not exist.
      */
-    private static void newDelayModel(String mode, String source, String fileName) {
+    private static DelayModel newDelayModel(String mode, String source, String fileName) {
         DelayModelSource src;
         if (source.equalsIgnoreCase(valid_source[0])) {
             src = new DelayModelSourceFromText(fileName);
+        } else if (source.equalsIgnoreCase(valid_source[1])) {
+            src = getBinarySource(fileName);
         } else {
             throw new IllegalArgumentException("DelayModelBuilder: Unknown source to newDelayModel.");
         }
 
         if (mode.equalsIgnoreCase(valid_mode[0])) {
-            aModel = new SmallDelayModel(src);
+            return new SmallDelayModel(src);
         } else {
             throw new IllegalArgumentException("DelayModelBuilder: Unknown mode to newDelayModel.");
         }
     }
 
+    /**
+     * Read the binary file generated from the given text file. If it is missing or stale, the text
+     * file is parsed instead and the binary file is written for the next time, if possible.
+     * @param fileName  The text file describing the delay model.
+     * @return The source of the delay model.
+     */
+    private static DelayModelSource getBinarySource(String fileName) {
+        File textFile = new File(FileTools.getRapidWrightPath() + File.separator + fileName);
+        long checksum;
+        try {
+            checksum = DelayModelSourceFromBinary.getChecksum(textFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("ERROR: Couldn't read " + textFile, e);
+        }
+        File binaryFile = DelayModelSourceFromBinary.getBinaryFile(textFile);
+        DelayModelSource src = DelayModelSourceFromBinary.read(binaryFile, checksum);
+        if (src == null) {
+            src = new DelayModelSourceFromText(fileName);
+            try {
+                DelayModelSourceFromBinary.write(src, checksum, binaryFile);
+            } catch (IOException e) {
+                // The installation may be read-only, the text file is parsed again next time
+            }
+        }
+        return src;
+    }
+
 
     // ************************    for testing     ***********************
     private static int testLogicDelay(DelayModel delayModel, List<String> config, String belName, String[] src, String[] dst
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * An implementation of DelayModelSource reading a compact binary file, generated from the text
+ * format (see {@link DelayModelSourceFromText}) and memory-mapped when loaded.
+ *
+ * The file stores a table of all distinct strings, followed by the config codes and the logic and
+ * intra-site delay entries referring to strings by index. Its header holds the CRC-32 of the text
+ * file it was generated from, so that a stale binary file is detected and regenerated.
+ */
+class DelayModelSourceFromBinary extends DelayModelSource {
+
+    private static final int MAGIC = 0x52575444;
+
+    private static final int VERSION = 1;
+
+    /**
+     * Gets the binary file corresponding to a text file, in the same directory.
+     * @param textFile The text file.
+     * @return The binary file.
+     */
+    public static File getBinaryFile(File textFile) {
+        String name = textFile.getName();
+        int dot = name.lastIndexOf('.');
+        return new File(textFile.getParentFile(), (dot < 0 ? name : name.substring(0, dot)) + ".bin");
+    }
+
+    /**
+     * Computes the checksum identifying the contents of a text file.
+     * @param textFile The text file.
+     * @return The CRC-32 of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    public static long getChecksum(File textFile) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(textFile.toPath())) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Reads a binary file if it was generated from the text file with the given checksum.
+     * @param binaryFile The binary file.
+     * @param checksum The checksum of the current text file, see {@link #getChecksum(File)}.
+     * @return The source or null if the file is missing, stale or invalid.
+     */
+    public static DelayModelSourceFromBinary read(File binaryFile, long checksum) {
+        if (!binaryFile.isFile()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(binaryFile.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getLong() != checksum) {
+                return null;
+            }
+            return new DelayModelSourceFromBinary(buffer);
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private DelayModelSourceFromBinary(ByteBuffer buffer) {
+        String[] strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        int configCount = buffer.getInt();
+        configCodeMap = new HashMap<>();
+        for (int i = 0; i < configCount; i++) {
+            configCodeMap.put(strings[buffer.getInt()], buffer.getInt());
+        }
+        logicDelays = readEntries(buffer, strings);
+        intraSiteDelays = readEntries(buffer, strings);
+    }
+
+    private static List<DelayEntry> readEntries(ByteBuffer buffer, String[] strings) {
+        int count = buffer.getInt();
+        List<DelayEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String scope = strings[buffer.getInt()];
+            String fr = strings[buffer.getInt()];
+            String to = strings[buffer.getInt()];
+            short delay = buffer.getShort();
+            entries.add(new DelayEntry(scope, fr, to, delay, buffer.getInt()));
+        }
+        return entries;
+    }
+
+    private static int getStringIndex(Map<String, Integer> strings, String s) {
+        return strings.computeIfAbsent(s, k -> strings.size());
+    }
+
+    /**
+     * Writes the contents of a source to a binary file. The file is written to a temporary file
+     * first and then moved into place.
+     * @param src The source to write.
+     * @param checksum The checksum of the text file the source was read from.
+     * @param binaryFile The file to write.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(DelayModelSource src, long checksum, File binaryFile) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        List<DelayEntry> logic = src.getLogicDelayEntries();
+        List<DelayEntry> intraSite = src.getIntraSiteDelayEntries();
+        Map<String, Integer> configCodes = src.getConfigCodeMap();
+        for (String key : configCodes.keySet()) {
+            getStringIndex(strings, key);
+        }
+        for (List<DelayEntry> entries : Arrays.asList(logic, intraSite)) {
+            for (DelayEntry e : entries) {
+                getStringIndex(strings, e.scope);
+                getStringIndex(strings, e.fr);
+                getStringIndex(strings, e.to);
+            }
+        }
+
+        Path target = binaryFile.toPath();
+        Path tmp = Files.createTempFile(target.toAbsolutePath().getParent(), binaryFile.getName(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(checksum);
+            out.writeInt(strings.size());
+            for (String s : strings.keySet()) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > 0xFFFF) {
+                    throw new IOException("ERROR: String too long for binary timing data: " + s);
+                }
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+            out.writeInt(configCodes.size());
+            for (Map.Entry<String, Integer> e : configCodes.entrySet()) {
+                out.writeInt(strings.get(e.getKey()));
+                out.writeInt(e.getValue());
+            }
+            for (List<DelayEntry> entries : Arrays.asList(logic, intraSite)) {
+                out.writeInt(entries.size());
+                for (DelayEntry e : entries) {
+                    out.writeInt(strings.get(e.scope));
+                    out.writeInt(strings.get(e.fr));
+                    out.writeInt(strings.get(e.to));
+                    out.writeShort(e.delay);
+                    out.writeInt(e.config);
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
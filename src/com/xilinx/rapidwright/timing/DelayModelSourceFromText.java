@@ -36,16 +36,30 @@ import java.util.Map;
 import java.util.Scanner;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.xilinx.rapidwright.util.FileTools;
+import com.xilinx.rapidwright.util.ParallelismTools;
 
 /**
  * An implementation of DelayModelSource, used to provide data source to DelayModel class.
+ *
+ * The file is split into chunks of whole bel and site sections, which do not depend on each other,
+ * and the chunks are parsed in parallel. Their entries are concatenated in file order.
  */
 class DelayModelSourceFromText extends DelayModelSource {
 
+    // TODO: consider changing this construct so that only the keywords (bel,site)
+    //  are specified in only one place.
+    private static final Pattern SECTION_PATTERN = Pattern.compile("^(bel|site) (\\w+)");
+
+    /**
+     * Number of chunks per thread to split the file into, to balance sections of different sizes.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
     // These members are built by collectConfigs and used by storeArcs
     /**
      * Map a config value to a unique index.
@@ -265,59 +279,88 @@ class DelayModelSourceFromText extends DelayModelSource {
     }
 
     /**
-     * Parse and dispatch each line of the given file to either  storeLogicDelayArc or storeIntraSiteDelayArc.
+     * Read all lines of the given file and parse them in chunks of whole sections.
      * @param fileName Specify the text file to load logic and intra-site delays from.
      */
     private void readIntraSiteDelays(String fileName) {
 
-        
-        Scanner sc = null;
+        List<String> lines = new ArrayList<>();
+        try(InputStream inputStream = new FileInputStream(FileTools.getRapidWrightPath() + File.separator + fileName)){
+            Scanner sc = new Scanner(inputStream, "UTF-8");
+            while (sc.hasNextLine()) {
+                lines.add(sc.nextLine());
+            }
+            // Note that Scanner suppresses exceptions
+            if (sc.ioException() != null) {
+                throw sc.ioException();
+            }
+        } catch (IOException ex) {
+            System.out.println (ex.toString());
+            System.out.println("IOException during reading file " + fileName);
+            throw new UncheckedIOException(ex);
+        }
+
+        // Chunks only start at section headers, so that each one can be parsed on its own
+        int minChunkSize = lines.size() / (ParallelismTools.maxParallelism() * CHUNKS_PER_THREAD) + 1;
+        List<Future<DelayModelSourceFromText>> chunks = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i <= lines.size(); i++) {
+            if (i == lines.size() || (i - start >= minChunkSize && isSectionHeader(lines.get(i)))) {
+                List<String> chunk = lines.subList(start, i);
+                chunks.add(ParallelismTools.submit(() -> new DelayModelSourceFromText(chunk)));
+                start = i;
+            }
+        }
+        for (Future<DelayModelSourceFromText> future : chunks) {
+            DelayModelSourceFromText chunk = ParallelismTools.get(future);
+            logicDelays.addAll(chunk.logicDelays);
+            intraSiteDelays.addAll(chunk.intraSiteDelays);
+            configCodeMap.putAll(chunk.configCodeMap);
+        }
+    }
+
+    private static boolean isSectionHeader(String line) {
+        // Headers never contain ", " so that the line does not need to be made canonical first
+        return SECTION_PATTERN.matcher(line.trim()).find();
+    }
+
+    /**
+     * Parse and dispatch each line to either  storeLogicDelayArc or storeIntraSiteDelayArc.
+     * @param lines The lines of the text file, starting at a section header or at the beginning of the file.
+     */
+    private void parseLines(List<String> lines) {
 
         String siteName = null;
         String belName  = null;
 
-        try(InputStream inputStream = new FileInputStream(FileTools.getRapidWrightPath() + File.separator + fileName)){
-            sc = new Scanner(inputStream, "UTF-8");
-            while (sc.hasNextLine()) {
-                // Make canonical from "," without spaces
-                String line = sc.nextLine().trim().replaceAll(",\\s+",",");
+        for (String rawLine : lines) {
+            // Make canonical from "," without spaces
+            String line = rawLine.trim().replaceAll(",\\s+",",");
 
 
-                String testLine = line.replaceAll("\\s+", "");
-                boolean lineIsBlank = testLine.isEmpty();
+            String testLine = line.replaceAll("\\s+", "");
+            boolean lineIsBlank = testLine.isEmpty();
 
-                if (lineIsBlank || line.trim().matches("^#.*")) { // if not a comment line
+            if (lineIsBlank || line.trim().matches("^#.*")) { // if not a comment line
 //                    System.out.println("skip " + line);
+            } else {
+                Matcher matcher = SECTION_PATTERN.matcher(line);
+                if (matcher.find()) {
+                    if (matcher.group(1).equalsIgnoreCase("bel")) {
+                        belName = collectConfigs(line);
+                        siteName = null;
+                    } else if (matcher.group(1).equalsIgnoreCase("site")) {
+                        belName = null;
+                        siteName = matcher.group(2);
+                    }
                 } else {
-                    // TODO: consider changing this construct so that only the keywords (bel,site)
-                    //  are specified in only one place.
-                    Pattern pattern = Pattern.compile("^(bel|site) (\\w+)");
-                    Matcher matcher = pattern.matcher(line);
-                    if (matcher.find()) {
-                        if (matcher.group(1).equalsIgnoreCase("bel")) {
-                            belName = collectConfigs(line);
-                            siteName = null;
-                        } else if (matcher.group(1).equalsIgnoreCase("site")) {
-                            belName = null;
-                            siteName = matcher.group(2);
-                        }
-                    } else {
-                        if (belName != null) {
-                            storeLogicDelayArc(belName, line);
-                        } else if (siteName != null) {
-                            storeIntraSiteDelayArc(siteName, line);
-                        }
+                    if (belName != null) {
+                        storeLogicDelayArc(belName, line);
+                    } else if (siteName != null) {
+                        storeIntraSiteDelayArc(siteName, line);
                     }
                 }
             }
-            // Note that Scanner suppresses exceptions
-            if (sc.ioException() != null) {
-                throw sc.ioException();
-            }
-        } catch (IOException ex) {
-            System.out.println (ex.toString());
-            System.out.println("IOException during reading file " + fileName);
-            throw new UncheckedIOException(ex);
         }
     }
 
@@ -333,6 +376,17 @@ class DelayModelSourceFromText extends DelayModelSource {
         readIntraSiteDelays(fileName);
     }
 
+    /**
+     * Constructor parsing one chunk of the text file.
+     * @param lines The lines of the chunk.
+     */
+    private DelayModelSourceFromText(List<String> lines) {
+        logicDelays     = new ArrayList<>();
+        intraSiteDelays = new ArrayList<>();
+        configCodeMap   = new HashMap<>();
+        parseLines(lines);
+    }
+
     // ************************    helper methods     ***********************
     /**
      * For unit testing.
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.xilinx.rapidwright.util.ParallelismTools;
+
+/**
+ * Multi-corner, multi-mode analysis of a {@link TimingGraph}. All {@link TimingCorner}s share one
+ * {@link TimingGraphTopology} of the graph, which can also be shared with other analyses such as
+ * {@link TimingPathQuery}. Each corner only adds its own arrays of edge delays, arrival and
+ * required times.
+ *
+ * {@link #update()} reads the current logic and net delays of the edges, scales them for each
+ * corner and recomputes arrival and required times of all corners in parallel. Required times
+ * follow {@link TimingGraph#setTimingRequirementTopologicalOrder(float)}: the requirement of a
+ * corner is set on the superSink (or, if it has not been built, on all vertices without fanout)
+ * and other vertices without fanout are not constrained.
+ */
+public class MultiCornerTiming {
+
+    private final TimingGraphTopology topology;
+
+    private final List<TimingCorner> corners;
+
+    /** Vertices to apply the requirement to */
+    private final boolean[] isEndpoint;
+
+    /** Per corner arrays, indexed by the edge or vertex index of the topology */
+    private final float[][] delays;
+    private final float[][] arrivals;
+    private final float[][] requireds;
+
+    private final float[] maxDelays;
+
+    public MultiCornerTiming(TimingGraph graph, List<TimingCorner> corners) {
+        this(new TimingGraphTopology(graph), corners);
+    }
+
+    public MultiCornerTiming(TimingGraphTopology topology, List<TimingCorner> corners) {
+        if (corners.isEmpty()) {
+            throw new IllegalArgumentException("ERROR: At least one timing corner is required");
+        }
+        this.topology = topology;
+        this.corners = new ArrayList<>(corners);
+        int n = topology.getVertexCount();
+        isEndpoint = new boolean[n];
+        if (topology.superSink != -1) {
+            isEndpoint[topology.superSink] = true;
+        } else {
+            for (int v = 0; v < n; v++) {
+                isEndpoint[v] = !topology.hasFanout[v];
+            }
+        }
+
+        int cornerCount = this.corners.size();
+        delays = new float[cornerCount][topology.getEdgeCount()];
+        arrivals = new float[cornerCount][n];
+        requireds = new float[cornerCount][n];
+        maxDelays = new float[cornerCount];
+    }
+
+    public TimingGraph getTimingGraph() {
+        return topology.getTimingGraph();
+    }
+
+    public TimingGraphTopology getTopology() {
+        return topology;
+    }
+
+    public List<TimingCorner> getCorners() {
+        return Collections.unmodifiableList(corners);
+    }
+
+    /**
+     * Recomputes the delays, arrival and required times of all corners from the current delays of
+     * the graph's edges. Corners are analyzed in parallel.
+     */
+    public void update() {
+        ParallelismTools.invokeAllRange(corners.size(), this::analyze);
+    }
+
+    private void analyze(int c) {
+        TimingCorner corner = corners.get(c);
+        int[] inStart = topology.inStart;
+        int[] inSrc = topology.inSrc;
+        TimingEdge[] edges = topology.inEdges;
+        int n = topology.getVertexCount();
+        float[] delay = delays[c];
+        float[] arrival = arrivals[c];
+        float[] required = requireds[c];
+        for (int k = 0; k < edges.length; k++) {
+            delay[k] = corner.getDelay(edges[k]);
+        }
+
+        float maxDelay = 0;
+        for (int v = 0; v < n; v++) {
+            float max = (inStart[v] == inStart[v + 1]) ? 0 : Float.NEGATIVE_INFINITY;
+            for (int k = inStart[v]; k < inStart[v + 1]; k++) {
+                max = Math.max(max, arrival[inSrc[k]] + delay[k]);
+            }
+            arrival[v] = max;
+            if (isEndpoint[v]) {
+                maxDelay = Math.max(maxDelay, max);
+            }
+        }
+        maxDelays[c] = maxDelay;
+
+        float requirement = getRequirement(c);
+        for (int v = 0; v < n; v++) {
+            required[v] = Float.POSITIVE_INFINITY;
+        }
+        for (int v = n - 1; v >= 0; v--) {
+            if (required[v] == Float.POSITIVE_INFINITY) {
+                // Only vertices without fanout are left unconstrained at this point
+                required[v] = isEndpoint[v] ? requirement : Short.MAX_VALUE;
+            }
+            for (int k = inStart[v]; k < inStart[v + 1]; k++) {
+                int u = inSrc[k];
+                required[u] = Math.min(required[u], required[v] - delay[k]);
+            }
+        }
+    }
+
+    /**
+     * Gets the max delay of a corner, ie. the arrival time at the superSink (or the latest arrival
+     * time at any vertex without fanout).
+     * @param corner Index of the corner.
+     * @return Max delay in picoseconds as of the last {@link #update()}.
+     */
+    public float getMaxDelay(int corner) {
+        return maxDelays[corner];
+    }
+
+    /**
+     * Gets the required time at the endpoints of a corner: its fixed requirement if it has one,
+     * otherwise its max delay.
+     * @param corner Index of the corner.
+     * @return Requirement in picoseconds as of the last {@link #update()}.
+     */
+    public float getRequirement(int corner) {
+        TimingCorner c = corners.get(corner);
+        return c.hasRequirement() ? c.getRequirement() : maxDelays[corner];
+    }
+
+    public float getArrivalTime(int corner, TimingVertex v) {
+        return arrivals[corner][topology.getIndex(v)];
+    }
+
+    public float getRequiredTime(int corner, TimingVertex v) {
+        return requireds[corner][topology.getIndex(v)];
+    }
+
+    public float getDelay(int corner, TimingEdge e) {
+        return delays[corner][topology.getIndex(e)];
+    }
+
+    private float getSlack(int corner, int k) {
+        return requireds[corner][topology.inDst[k]] - arrivals[corner][topology.inSrc[k]] - delays[corner][k];
+    }
+
+    /**
+     * Gets the slack of the worst path through an edge in one corner.
+     * @param corner Index of the corner.
+     * @param e The edge.
+     * @return Slack in picoseconds.
+     */
+    public float getSlack(int corner, TimingEdge e) {
+        return getSlack(corner, topology.getIndex(e));
+    }
+
+    /**
+     * Gets the worst slack of a set of edges in one corner, as used for the criticality of a
+     * connection.
+     * @param corner Index of the corner.
+     * @param edges The edges.
+     * @return The minimum slack in picoseconds, Float.MAX_VALUE if there are no edges.
+     */
+    public float getSlack(int corner, Collection<TimingEdge> edges) {
+        float slack = Float.MAX_VALUE;
+        for (TimingEdge e : edges) {
+            slack = Math.min(slack, getSlack(corner, topology.getIndex(e)));
+        }
+        return slack;
+    }
+
+    /**
+     * Gets the corner in which a set of edges has the worst slack.
+     * @param edges The edges.
+     * @return Index of the corner with the minimum slack, the first one in case of a tie.
+     */
+    public int getWorstCorner(Collection<TimingEdge> edges) {
+        int worst = 0;
+        float worstSlack = Float.MAX_VALUE;
+        for (int c = 0; c < corners.size(); c++) {
+            float slack = getSlack(c, edges);
+            if (slack < worstSlack) {
+                worst = c;
+                worstSlack = slack;
+            }
+        }
+        return worst;
+    }
+}
@@ -24,6 +24,7 @@
 package com.xilinx.rapidwright.timing;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,9 +35,20 @@ import com.xilinx.rapidwright.device.SiteTypeEnum;
 
 /**
  * Implement DelayModel using as small memory as possible.
+ *
+ * Bel pins are resolved to dense int ids when the model is built (drivers and sinks are numbered
+ * separately), and all delays are kept in flat short arrays: intra-site delays are indexed by
+ * (site index, from pin, to pin), and logic delays by (bel index, from pin, to pin) into a compressed
+ * list of (delay, config) entries. Callers that look up the same pins repeatedly can resolve them once
+ * with {@link #getIntraSiteFromPinId(String)}, {@link #getIntraSiteToPinId(String)},
+ * {@link #getLogicFromPinId(short, String)} and {@link #getLogicToPinId(short, String)} and use the
+ * int-id lookups, avoiding string hashing entirely.
  */
 public class SmallDelayModel implements DelayModel {
 
+    /** Returned for connections that are not in the model */
+    public static final short UNKNOWN_DELAY = -2;
+
     /**
      * Specify equivalent bels for logic delays. Equivalent bels map to the same index.
      */
@@ -45,9 +57,37 @@ public class SmallDelayModel implements DelayModel {
      * Specify equivalent sites for logic delays. Equivalent sites map to the same index.
      */
     private Map<String, Short> site2IdxMap;
+    /**
+     * Site index of each site type, by ordinal. -1 if the site type is not in the model.
+     */
+    private short[] siteTypeIdx;
+
+    /**
+     * Ids of all bel or site pins driving and ending intra-site connections, ie., AFF2/D.
+     */
+    private Map<String, Integer> intraSiteFrIds;
+    private Map<String, Integer> intraSiteToIds;
+    /**
+     * Intra-site delays indexed by (siteIdx * frPins + frPin) * toPins + toPin.
+     */
+    private short[] intraSiteDelays;
+
+    /**
+     * Ids of the input and output pins of each bel index appearing in logic delays, ie., I0 of a LUT.
+     */
+    private List<Map<String, Integer>> logicFrIds;
+    private List<Map<String, Integer>> logicToIds;
+    /**
+     * First (bel, fr, to) arc of each bel index, arcs of a bel are indexed by frPin * toPins + toPin.
+     */
+    private int[] belArcBase;
+    /**
+     * First entry of each arc, the entries of arc i are from arcEntryStart[i] to arcEntryStart[i+1].
+     */
+    private int[] arcEntryStart;
+    private short[] entryDelays;
+    private int[] entryConfigs;
 
-    private HashMap<String, List<int[]>> logicDelays;
-    private HashMap<String, Short> intraSiteDelays;
     /**
      * Mapping between config value of a bel to a one-hot binary.
      */
@@ -60,31 +100,88 @@ public class SmallDelayModel implements DelayModel {
     public short getBELIndex(String belName) {
     	return bel2IdxMap.get(belName);
     }
-    
+
+    /**
+     * Get the index of a site type used by {@link #getIntraSiteDelay(int, int, int)}.
+     * @param siteType The site type.
+     * @return The site index, or -1 if the site type is not in the model.
+     */
+    public int getSiteIndex(SiteTypeEnum siteType) {
+        return siteTypeIdx[siteType.ordinal()];
+    }
+
+    private static int getId(Map<String, Integer> ids, String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Get the id of a driving bel or site pin used by {@link #getIntraSiteDelay(int, int, int)}.
+     * @param belPin The bel pin including the bel name, ie., A6LUT/O6.
+     * @return The pin id, or -1 if the pin does not drive any intra-site connection.
+     */
+    public int getIntraSiteFromPinId(String belPin) {
+        return getId(intraSiteFrIds, belPin);
+    }
+
+    /**
+     * Get the id of a sink bel or site pin used by {@link #getIntraSiteDelay(int, int, int)}.
+     * @param belPin The bel pin including the bel name, ie., AFF2/D.
+     * @return The pin id, or -1 if the pin does not end any intra-site connection.
+     */
+    public int getIntraSiteToPinId(String belPin) {
+        return getId(intraSiteToIds, belPin);
+    }
+
+    /**
+     * Get the id of a bel input pin used by {@link #getLogicDelay(short, int, int, int)}.
+     * @param belIdx The bel index, see {@link #getBELIndex(String)}.
+     * @param pin The bel pin without the bel name.
+     * @return The pin id, or -1 if the pin does not start any logic delay of the bel.
+     */
+    public int getLogicFromPinId(short belIdx, String pin) {
+        if (belIdx < 0 || belIdx >= logicFrIds.size()) {
+            return -1;
+        }
+        return getId(logicFrIds.get(belIdx), pin);
+    }
+
+    /**
+     * Get the id of a bel output pin used by {@link #getLogicDelay(short, int, int, int)}.
+     * @param belIdx The bel index, see {@link #getBELIndex(String)}.
+     * @param pin The bel pin without the bel name.
+     * @return The pin id, or -1 if the pin does not end any logic delay of the bel.
+     */
+    public int getLogicToPinId(short belIdx, String pin) {
+        if (belIdx < 0 || belIdx >= logicToIds.size()) {
+            return -1;
+        }
+        return getId(logicToIds.get(belIdx), pin);
+    }
+
     /**
      *  Implement the method with the same signature defined in DelayModel interface.
      */
     public Short getIntraSiteDelay(SiteTypeEnum siteTypeName, String frBelPin, String toBelPin) {
-        boolean verbose = false;
-        Short delay = null;
-        Short idx = site2IdxMap.get(siteTypeName.name());
-        if (idx == null) {
+        int idx = getSiteIndex(siteTypeName);
+        if (idx < 0) {
         	return null;
-//            throw new IllegalArgumentException("SmallDelayModel: Unknown site/belName to getIntraSiteDelay."
-//                    + "  site/belName " + siteTypeName + "  frBelPin " + frBelPin + "  toBelPin " + toBelPin);
-        } else {
-            // Certain that the following combination do not cause duplication. Otherwise, separators must be added.
-            String key = idx + frBelPin + toBelPin;
-            delay = intraSiteDelays.get(key);
-            if (delay == null) {
-                delay = -2;
-                if (verbose) {
-                    System.out.println("WARNING in SmallDelayModel: Unknown connection to getIntraSiteDelay."
-                            + "  site/belName " + siteTypeName + "  frBelPin " + frBelPin + "  toBelPin " + toBelPin);
-                }
-            }
         }
-        return delay;
+        return getIntraSiteDelay(idx, getIntraSiteFromPinId(frBelPin), getIntraSiteToPinId(toBelPin));
+    }
+
+    /**
+     * Get the delay in ps between two bel pins within a site, using pre-resolved ids.
+     * @param siteIdx The site index, see {@link #getSiteIndex(SiteTypeEnum)}.
+     * @param frPinId The id of the driver, see {@link #getIntraSiteFromPinId(String)}.
+     * @param toPinId The id of the sink, see {@link #getIntraSiteToPinId(String)}.
+     * @return Intra-site delay in ps, or {@link #UNKNOWN_DELAY} if the connection does not exist.
+     */
+    public short getIntraSiteDelay(int siteIdx, int frPinId, int toPinId) {
+        if (siteIdx < 0 || frPinId < 0 || toPinId < 0) {
+            return UNKNOWN_DELAY;
+        }
+        return intraSiteDelays[(siteIdx * intraSiteFrIds.size() + frPinId) * intraSiteToIds.size() + toPinId];
     }
 
     /**
@@ -98,51 +195,72 @@ public class SmallDelayModel implements DelayModel {
      *  Implement the method with the same signature defined in DelayModel interface.
      */
     public short getLogicDelay(short belIdx, String frBelPin, String toBelPin, int encodedConfig) {
-        Short delay = -2;
-
-        // Certain that the following combination do not cause duplication. Otherwise, separators must be added.
-        String key = belIdx + frBelPin + toBelPin;
-        List<int[]> entries = logicDelays.get(key);
-
-        if (entries != null) {
-            for (int[] entry : entries) {
-                assert entry.length == 2 :
-                        " Wrong number of elements in an entry of logicDelay. " + entry.length + " expect 2.";
-                if ((encodedConfig & entry[1]) == encodedConfig) {
-                    delay = (short) entry[0];
-                    break;
-                }
+        return getLogicDelay(belIdx, getLogicFromPinId(belIdx, frBelPin), getLogicToPinId(belIdx, toBelPin), encodedConfig);
+    }
+
+    /**
+     * Get the delay between input and output pins of a bel, using pre-resolved ids.
+     * @param belIdx The bel index, see {@link #getBELIndex(String)}.
+     * @param frPinId The id of the input pin, see {@link #getLogicFromPinId(short, String)}.
+     * @param toPinId The id of the output pin, see {@link #getLogicToPinId(short, String)}.
+     * @param encodedConfig Bit-wise OR of the encoded configs of the bel, see {@link #getEncodedConfigCode(String)}.
+     * @return Logic delay in ps, or {@link #UNKNOWN_DELAY} if the arc does not exist for the config.
+     */
+    public short getLogicDelay(short belIdx, int frPinId, int toPinId, int encodedConfig) {
+        if (frPinId < 0 || toPinId < 0) {
+            return UNKNOWN_DELAY;
+        }
+        int arc = belArcBase[belIdx] + frPinId * logicToIds.get(belIdx).size() + toPinId;
+        for (int i = arcEntryStart[arc]; i < arcEntryStart[arc + 1]; i++) {
+            if ((encodedConfig & entryConfigs[i]) == encodedConfig) {
+                return entryDelays[i];
             }
         }
-        return delay;
+        return UNKNOWN_DELAY;
+    }
+
+    private static int getOrAddId(Map<String, Integer> ids, String name) {
+        return ids.computeIfAbsent(name, k -> ids.size());
     }
 
     /**
-     * Store the given timing arc for intra-site delay.
-     * @param idx      a short integer specifying a site
-     * @param fr       a bel or site pin specifying the begin of the intra-site connection
-     * @param to       a bel or site pin specifying the end of the intra-site connection
-     * @param delay    the delay of the intra-site connection
-     * @param siteName the site name to be used in case of exception
+     * Store all timing arcs for intra-site delay.
+     * @param entries  the intra-site connections, whose scope is a site name
      */
-    private void storeIntraSiteDelay(Short idx, String fr, String to, short delay, String siteName) {
-        String key = idx + fr + to;
-        if (intraSiteDelays.containsKey(key)) {
-            throw new IllegalArgumentException("SmallDelayModel: Duplicate entry found for " +
-                    siteName + "  fr " + fr + "  to " + to + " .");
-        } else {
-            intraSiteDelays.put(key, delay);
+    private void storeIntraSiteDelays(List<DelayEntry> entries) {
+        int sites = 0;
+        for (DelayEntry e : entries) {
+            getOrAddId(intraSiteFrIds, e.fr);
+            getOrAddId(intraSiteToIds, e.to);
+        }
+        for (Short idx : site2IdxMap.values()) {
+            sites = Math.max(sites, idx + 1);
+        }
+        int frPins = intraSiteFrIds.size();
+        int toPins = intraSiteToIds.size();
+        intraSiteDelays = new short[sites * frPins * toPins];
+        Arrays.fill(intraSiteDelays, UNKNOWN_DELAY);
+        boolean[] stored = new boolean[intraSiteDelays.length];
+        for (DelayEntry e : entries) {
+            // Assumption 2 of DelayModelSource is satisfied by equivalent mapping in site2IdxMap.
+            Short siteIdx = site2IdxMap.get(e.scope);
+            if (siteIdx == null) {
+                continue;
+            }
+            int i = (siteIdx * frPins + intraSiteFrIds.get(e.fr)) * toPins + intraSiteToIds.get(e.to);
+            if (stored[i]) {
+                throw new IllegalArgumentException("SmallDelayModel: Duplicate entry found for " +
+                        e.scope + "  fr " + e.fr + "  to " + e.to + " .");
+            }
+            stored[i] = true;
+            intraSiteDelays[i] = e.delay;
         }
     }
 
     /**
-     * Store the given timing arc for logic delay of a bel.
-     *
-     * @param idx      a short integer specifying a bel
-     * @param fr       a input bel pin
-     * @param to       a output bel pin
-     * @param delay    the logic delay between the fr and to pins
-     * @param config   bit-wise OR of all valid configuration of this timing arc
+     * Store all timing arcs for logic delay of bels.
+     * Entries of the same arc are kept in the given order, the first one matching a config wins.
+     * @param entries  the logic delays, whose scope is a bel name
      */
     // A timing arc representing a logic delay can have different values depending on bel configuration.
     // Take CARRY8 for example, if CI comes from AX pin, the logic delay from CI is 50 ps more than
@@ -158,21 +276,52 @@ public class SmallDelayModel implements DelayModel {
     // As config is not in the key, values of an arc cen be a List, one element for a distinct delay value.
     // As a result, there is a small runtime overhead to go through the list.
     // However, the size of these lists is only 3. Thus, the overhead of this is much less than 2x.
-    private void storeLogicDelay(short idx, String fr, String to, short delay, int config) {
-        String key = idx + fr + to;
-        // Is there a shortcut for this?
-        int[] t = new int[2];
-        t[0] = delay;
-        t[1] = config;
+    private void storeLogicDelays(List<DelayEntry> entries) {
+        int bels = 0;
+        for (Short idx : bel2IdxMap.values()) {
+            bels = Math.max(bels, idx + 1);
+        }
+        short[] entryBel = new short[entries.size()];
+        for (int bel = 0; bel < bels; bel++) {
+            logicFrIds.add(new HashMap<>());
+            logicToIds.add(new HashMap<>());
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            DelayEntry e = entries.get(i);
+            // Assumption 1 of DelayModelSource is satisfied by equivalent mapping in bel2IdxMap.
+            Short belIdx = bel2IdxMap.get(e.scope);
+            if (belIdx == null) {
+                throw new IllegalArgumentException("SmallDelayModel: Unknown belName to " +
+                        e.scope + " in constructing logic delay database.");
+            }
+            entryBel[i] = belIdx;
+            getOrAddId(logicFrIds.get(belIdx), e.fr);
+            getOrAddId(logicToIds.get(belIdx), e.to);
+        }
 
-        List<int[]> entries = null;
-        if (logicDelays.containsKey(key)) {
-            entries = logicDelays.get(key);
-        } else {
-            entries = new ArrayList<>();
+        belArcBase = new int[bels + 1];
+        for (int bel = 0; bel < bels; bel++) {
+            belArcBase[bel + 1] = belArcBase[bel] + logicFrIds.get(bel).size() * logicToIds.get(bel).size();
+        }
+        int[] entryArc = new int[entries.size()];
+        arcEntryStart = new int[belArcBase[bels] + 1];
+        for (int i = 0; i < entries.size(); i++) {
+            DelayEntry e = entries.get(i);
+            Map<String, Integer> toIds = logicToIds.get(entryBel[i]);
+            entryArc[i] = belArcBase[entryBel[i]] + logicFrIds.get(entryBel[i]).get(e.fr) * toIds.size() + toIds.get(e.to);
+            arcEntryStart[entryArc[i] + 1]++;
+        }
+        for (int arc = 0; arc < belArcBase[bels]; arc++) {
+            arcEntryStart[arc + 1] += arcEntryStart[arc];
+        }
+        entryDelays = new short[entries.size()];
+        entryConfigs = new int[entries.size()];
+        int[] fill = Arrays.copyOf(arcEntryStart, belArcBase[bels]);
+        for (int i = 0; i < entries.size(); i++) {
+            int slot = fill[entryArc[i]]++;
+            entryDelays[slot] = entries.get(i).delay;
+            entryConfigs[slot] = entries.get(i).config;
         }
-        entries.add(t);
-        logicDelays.put(key, entries);
     }
 
     /**
@@ -181,34 +330,25 @@ public class SmallDelayModel implements DelayModel {
      */
     public SmallDelayModel(DelayModelSource src) {
 
-        logicDelays     = new HashMap<>();
-        intraSiteDelays = new HashMap<>();
+        intraSiteFrIds  = new HashMap<>();
+        intraSiteToIds  = new HashMap<>();
+        logicFrIds      = new ArrayList<>();
+        logicToIds      = new ArrayList<>();
         bel2IdxMap      = src.getBEL2IdxMap();
         site2IdxMap     = src.getSite2IdxMap();
 
+        SiteTypeEnum[] siteTypes = SiteTypeEnum.values();
+        siteTypeIdx = new short[siteTypes.length];
+        for (SiteTypeEnum siteType : siteTypes) {
+            siteTypeIdx[siteType.ordinal()] = site2IdxMap.getOrDefault(siteType.name(), (short) -1);
+        }
+
         // populate logic delay.
         configCodeMap   = src.getConfigCodeMap();
-        List<DelayEntry> logicDelayEntries     = src.getLogicDelayEntries();
-        for (DelayEntry e : logicDelayEntries) {
-            String belName = e.scope;
-            // Assumption 1 of DelayModelSource is satisfied by equivalent mapping in bel2IdxMap.
-            Short belIdx = bel2IdxMap.get(belName);
-            if (belIdx == null) {
-                throw new IllegalArgumentException("SmallDelayModel: Unknown belName to " +
-                        belName + " in constructing logic delay database.");
-            } else {
-                storeLogicDelay(belIdx, e.fr, e.to, e.delay, e.config);
-            }
-        }
+        storeLogicDelays(src.getLogicDelayEntries());
 
         // populate intra site delay.
-        List<DelayEntry> intraSiteDelayEntries = src.getIntraSiteDelayEntries();
-        for (DelayEntry e : intraSiteDelayEntries ) {
-            String siteName = e.scope;
-            // Assumption 2 of DelayModelSource is satisfied by equivalent mapping in site2IdxMap.
-            Short siteIdx = site2IdxMap.get(siteName);
-            storeIntraSiteDelay(siteIdx, e.fr, e.to, e.delay, siteName);
-        }
+        storeIntraSiteDelays(src.getIntraSiteDelayEntries());
     }
 
 
@@ -224,10 +364,19 @@ public class SmallDelayModel implements DelayModel {
         System.out.println("\n");
 
         System.out.println("All delay entries");
-        for (Map.Entry<String, List<int[]>> entry : logicDelays.entrySet()) {
-            System.out.println(entry.getKey());
-            for (int[] arr : entry.getValue()) {
-                System.out.println(arr[0] + " " + String.format("0x%08x",arr[1]));
+        for (short bel = 0; bel < logicFrIds.size(); bel++) {
+            Map<String, Integer> toIds = logicToIds.get(bel);
+            for (Map.Entry<String, Integer> fr : logicFrIds.get(bel).entrySet()) {
+                for (Map.Entry<String, Integer> to : toIds.entrySet()) {
+                    int arc = belArcBase[bel] + fr.getValue() * toIds.size() + to.getValue();
+                    if (arcEntryStart[arc] == arcEntryStart[arc + 1]) {
+                        continue;
+                    }
+                    System.out.println(bel + fr.getKey() + to.getKey());
+                    for (int i = arcEntryStart[arc]; i < arcEntryStart[arc + 1]; i++) {
+                        System.out.println(entryDelays[i] + " " + String.format("0x%08x", entryConfigs[i]));
+                    }
+                }
             }
         }
     }
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An analysis view of {@link MultiCornerTiming}. A corner is modeled by scaling the logic and net
+ * delays of the edges in the {@link TimingGraph}, a mode by the timing requirement of the view.
+ */
+public class TimingCorner {
+
+    private final String name;
+
+    private final float logicDelayFactor;
+
+    private final float netDelayFactor;
+
+    /** Required time at the timing endpoints in picoseconds, NaN to use the max delay instead */
+    private final float requirement;
+
+    /**
+     * Creates a corner whose timing requirement is its own max delay, as for the single view
+     * analyzed by {@link TimingManager#calculateArrivalRequireTimes()}.
+     * @param name Name of the corner.
+     * @param logicDelayFactor Factor applied to the logic delay of each edge.
+     * @param netDelayFactor Factor applied to the net delay of each edge.
+     */
+    public TimingCorner(String name, float logicDelayFactor, float netDelayFactor) {
+        this(name, logicDelayFactor, netDelayFactor, Float.NaN);
+    }
+
+    /**
+     * Creates a corner with a fixed timing requirement.
+     * @param name Name of the corner.
+     * @param logicDelayFactor Factor applied to the logic delay of each edge.
+     * @param netDelayFactor Factor applied to the net delay of each edge.
+     * @param requirement Required time at the timing endpoints in picoseconds (positive), or NaN
+     * to use the max delay of the corner.
+     */
+    public TimingCorner(String name, float logicDelayFactor, float netDelayFactor, float requirement) {
+        if (!(logicDelayFactor > 0) || !(netDelayFactor > 0)) {
+            throw new IllegalArgumentException("ERROR: Delay factors of timing corner " + name
+                    + " must be positive");
+        }
+        if (requirement <= 0) {
+            throw new IllegalArgumentException("ERROR: Requirement of timing corner " + name
+                    + " must be positive");
+        }
+        this.name = name;
+        this.logicDelayFactor = logicDelayFactor;
+        this.netDelayFactor = netDelayFactor;
+        this.requirement = requirement;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public float getLogicDelayFactor() {
+        return logicDelayFactor;
+    }
+
+    public float getNetDelayFactor() {
+        return netDelayFactor;
+    }
+
+    public float getRequirement() {
+        return requirement;
+    }
+
+    public boolean hasRequirement() {
+        return !Float.isNaN(requirement);
+    }
+
+    /**
+     * Gets the delay of an edge in this corner.
+     * @param e The edge.
+     * @return Delay in picoseconds.
+     */
+    public float getDelay(TimingEdge e) {
+        return e.getLogicDelay() * logicDelayFactor + e.getNetDelay() * netDelayFactor;
+    }
+
+    /**
+     * Parses a list of corners from a comma separated string of
+     * "name:logicDelayFactor:netDelayFactor[:requirement]" entries, e.g. "slow:1.0:1.0,fast:0.7:0.8".
+     * @param corners The corners.
+     * @return List of parsed corners.
+     */
+    public static List<TimingCorner> parseCorners(String corners) {
+        List<TimingCorner> result = new ArrayList<>();
+        for (String corner : corners.split(",")) {
+            String[] parts = corner.trim().split(":");
+            if (parts.length < 3 || parts.length > 4) {
+                throw new IllegalArgumentException("ERROR: Invalid timing corner '" + corner
+                        + "', expected name:logicDelayFactor:netDelayFactor[:requirement]");
+            }
+            float requirement = parts.length == 4 ? Float.parseFloat(parts[3]) : Float.NaN;
+            result.add(new TimingCorner(parts[0], Float.parseFloat(parts[1]), Float.parseFloat(parts[2]),
+                    requirement));
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return name + ":" + logicDelayFactor + ":" + netDelayFactor + (hasRequirement() ? ":" + requirement : "");
+    }
+}
@@ -1112,6 +1112,31 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
     	return false;
     }
     
+    /**
+     * Resolves the ids of the input or output pins of a cell for
+     * {@link DelayModel#getLogicDelay(short, int, int, int)} once, so that the arcs between all
+     * pairs of pins are looked up without hashing pin names.
+     * @param belIdx The BEL timing model index.
+     * @param ports The port instances of the cell.
+     * @param c The cell mapping logical to physical pins, or null if port names are the BEL pins.
+     * @param input True for the ids of input pins, false for those of output pins.
+     * @return Pin ids in the order of ports, -1 for other ports and pins unknown to the model.
+     */
+    private int[] getLogicPinIds(short belIdx, EDIFPortInst[] ports, Cell c, boolean input) {
+        int[] ids = new int[ports.length];
+        for (int k = 0; k < ports.length; k++) {
+            EDIFPortInst port = ports[k];
+            if (input ? !port.isInput() : !port.isOutput()) {
+                ids[k] = -1;
+                continue;
+            }
+            String pin = (c == null) ? port.getName() : c.getPhysicalPinMapping(port.getName());
+            ids[k] = input ? intrasiteAndLogicDelayModel.getLogicFromPinId(belIdx, pin)
+                    : intrasiteAndLogicDelayModel.getLogicToPinId(belIdx, pin);
+        }
+        return ids;
+    }
+
     /**
      * Steps through the Physical "Cells" within the design and effectively adds TimingEdges to the 
      * TimingGraph representing logic delays from input pins to corresponding output pins.
@@ -1133,14 +1158,19 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                     encodedConfig |= intrasiteAndLogicDelayModel.getEncodedConfigCode("RAMB36E2:"+ entry.getKey() + ":" + entry.getValue().getValue().toString());
                 }
                 short belIdx = intrasiteAndLogicDelayModel.getBELIndex("RAMB36E2");
+                EDIFPortInst[] ports = portInstList.toArray(new EDIFPortInst[0]);
+                int[] frPinIds = getLogicPinIds(belIdx, ports, null, true);
+                int[] toPinIds = getLogicPinIds(belIdx, ports, null, false);
                 
                 // TODO this loop should be consolidated with that of CARRY8.
-                for (EDIFPortInst ep1 : portInstList) {
+                for (int k1 = 0; k1 < ports.length; k1++) {
+                    EDIFPortInst ep1 = ports[k1];
                     if (!ep1.isInput()) {
                         continue;
                     }
                     String s1 = ep1.getName();
-                    for (EDIFPortInst ep2 : portInstList) {
+                    for (int k2 = 0; k2 < ports.length; k2++) {
+                        EDIFPortInst ep2 = ports[k2];
                         if (!ep2.isOutput()) {
                             continue;
                         }
@@ -1167,7 +1197,7 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                         			
                         		}
                         }else {
-                        	delay = intrasiteAndLogicDelayModel.getLogicDelay(belIdx, s1, s2, encodedConfig);
+                        	delay = intrasiteAndLogicDelayModel.getLogicDelay(belIdx, frPinIds[k1], toPinIds[k2], encodedConfig);
                         }
                         
                         if (delay < 0) {
@@ -1351,7 +1381,12 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                     excludeSomeEdges = !eqHasI0 || !eqHasI1 || !eqHasI2 || !eqHasI3 || !eqHasI4 || !eqHasI5;
                 }
 
-                for (EDIFPortInst ep1 : portInstList) {
+                EDIFPortInst[] ports = portInstList.toArray(new EDIFPortInst[0]);
+                int[] frPinIds = getLogicPinIds(belIdx, ports, c, true);
+                int[] toPinIds = getLogicPinIds(belIdx, ports, c, false);
+
+                for (int k1 = 0; k1 < ports.length; k1++) {
+                    EDIFPortInst ep1 = ports[k1];
                     if (excludeSomeEdges) {
                         if (ep1.getName().endsWith("I0") && !eqHasI0)
                             continue;
@@ -1368,19 +1403,17 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                     }
                     String s1 = cellName + "/" + ep1.getName();
 
-                    for (EDIFPortInst ep2 : portInstList) {
+                    for (int k2 = 0; k2 < ports.length; k2++) {
+                        EDIFPortInst ep2 = ports[k2];
                         String s2 = cellName + "/" + ep2.getName();
 
                         float logicDelay = 0.0f;
                         if (ep1 != ep2 && ep1.isInput() && ep2.isOutput()) {
 
-                            String physPin = c.getPhysicalPinMapping(ep1.getName());
-                            String outputPhysPin = c.getPhysicalPinMapping(ep2.getName());
-
-
                             float myLogicDelay;
                             try {
-                                myLogicDelay = intrasiteAndLogicDelayModel.getLogicDelay(belIdx, physPin, outputPhysPin);
+                                myLogicDelay = intrasiteAndLogicDelayModel.getLogicDelay(belIdx, frPinIds[k1],
+                                        toPinIds[k2], 0);
                             } catch (IllegalArgumentException e) {
                                 continue;
                             }
@@ -1423,14 +1456,20 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                 }
             	encodedConfig |= intrasiteAndLogicDelayModel.getEncodedConfigCode("CARRY8:CARRY_TYPE:SINGLE_CY8");                
             	short belIdx = intrasiteAndLogicDelayModel.getBELIndex("CARRY8");
+                EDIFPortInst[] ports = portInstList.toArray(new EDIFPortInst[0]);
+                int[] frPinIds = getLogicPinIds(belIdx, ports, c, true);
+                int[] toPinIds = getLogicPinIds(belIdx, ports, c, false);
             	
-                for (EDIFPortInst ep1 : portInstList) {
+                for (int k1 = 0; k1 < ports.length; k1++) {
+                    EDIFPortInst ep1 = ports[k1];
                     if (!ep1.isInput()) {
                         continue;
                     }
 
                     String s1 = cellName + "/" + ep1.getName();
-                    for (EDIFPortInst ep2 : portInstList) {
+                    String physPin = c.getPhysicalPinMapping(ep1.getName());
+                    for (int k2 = 0; k2 < ports.length; k2++) {
+                        EDIFPortInst ep2 = ports[k2];
 
                         if (!ep2.isOutput()) {
                             continue;
@@ -1438,16 +1477,13 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                         String s2 = cellName + "/" + ep2.getName();
                         float logicDelay = 0.0f;
                         if (ep1 != ep2 && ep1.isInput() && ep2.isOutput()) {
-                            String physPin = c.getPhysicalPinMapping(ep1.getName());
-                            String outputPhysPin = c.getPhysicalPinMapping(ep2.getName());
-
                             if (physPin == null || physPin.equals("null")) {
                             	// TODO - This is suspected to be buggy behavior
                                 encodedConfig = 0; 
                             }
                             
                             float myLogicDelay = intrasiteAndLogicDelayModel.getLogicDelay(
-                                     belIdx, physPin, outputPhysPin, encodedConfig);
+                                     belIdx, frPinIds[k1], toPinIds[k2], encodedConfig);
                             if (myLogicDelay < 0) {
                                 continue;
                             }
@@ -1774,6 +1810,11 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
         
         local_spi_source = spi_sources.size() > 0? spi_sources.get(0) : net.getSource() != null ? net.getSource() : local_spi_source;
 
+        // The site and the driving BEL pin of intra-site connections are the same for all sinks
+        int siteIdx = (si == null) ? -1 : intrasiteAndLogicDelayModel.getSiteIndex(si.getSiteTypeEnum());
+        int frPinId = (testSourceCell == null || source == null) ? -1
+                : intrasiteAndLogicDelayModel.getIntraSiteFromPinId(testSourceCell.getBELName() + "/" + source.getName());
+
         for (String D : stringSinks.keySet()) {
             SitePinInst spi_sink = stringSinks.get(D);
             srcCell = testSourceCell;
@@ -1807,22 +1848,17 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
             boolean forceUpdateEdge = false;
             float netDelay = 0f;
             if (haveIntrasiteNet) {//LUT driving a FF is here
-                String param2 = srcCell.getBELName()+"/"+ source.getName();
                 String param3 = null;
                 if (sink_belpins.get(D) == null) {
                     param3 =  dstCell.getBELName() +"/" + stringSinks.get(D).getName();
                 } else {
                     param3 =  dstCell.getBELName() +"/" +sink_belpins.get(D).getName();
                 }
-                float tmpNetDelay;
-                Short returnValue = intrasiteAndLogicDelayModel.getIntraSiteDelay(
-                            si.getSiteTypeEnum(),
-                            param2,
-                            param3);
-                if(returnValue == null) {
+                if (siteIdx < 0) {
                 	continue;
                 }
-                tmpNetDelay = (float) returnValue;
+                float tmpNetDelay = intrasiteAndLogicDelayModel.getIntraSiteDelay(siteIdx, frPinId,
+                        intrasiteAndLogicDelayModel.getIntraSiteToPinId(param3));
                 
                 this.intraSiteDelay = Math.max(0f, tmpNetDelay);// YZhou: for intrasite net, its intrasite delay is equal to net delay
                 netDelay = Math.max(0f, tmpNetDelay);
@@ -1835,12 +1871,9 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                     continue;
                 if (local_spi_source == null || spi_sink == null) {
                     if (local_spi_source == null && spi_sink == null) {//source and sink are null
-                        String param2 = srcCell.getBELName()+"/"+ source.getName();
                         String param3 =  dstCell.getBELName() +"/" +sink_belpins.get(D).getName();
-                        float tmpNetDelay = intrasiteAndLogicDelayModel.getIntraSiteDelay(
-                                si.getSiteTypeEnum(),
-                                param2,
-                                param3);
+                        float tmpNetDelay = intrasiteAndLogicDelayModel.getIntraSiteDelay(siteIdx, frPinId,
+                                intrasiteAndLogicDelayModel.getIntraSiteToPinId(param3));
                         netDelay = tmpNetDelay;
                         this.intraSiteDelay = tmpNetDelay;
                         forceUpdateEdge = true;
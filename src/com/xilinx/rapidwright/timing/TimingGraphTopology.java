@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jgrapht.traverse.TopologicalOrderIterator;
+
+/**
+ * A compact, read-only copy of the structure of a {@link TimingGraph}: vertices in topological
+ * order and the incoming edges of each vertex in CSR form. Analyses such as
+ * {@link TimingPathQuery} and {@link MultiCornerTiming} index their own arrays by the vertex and
+ * edge indices of a topology, so several of them can share one copy.
+ *
+ * Edge delays are not part of the topology. It does not follow later changes of the graph, so a
+ * new topology must be created if vertices or edges are added or removed.
+ */
+public class TimingGraphTopology {
+
+    private final TimingGraph graph;
+
+    /** Vertices in topological order, vertex indices refer to positions in this order */
+    final TimingVertex[] vertices;
+
+    private final Map<TimingVertex, Integer> vertexIndex;
+
+    /** Incoming edges of vertex v are at indices inStart[v] to inStart[v+1]-1 */
+    final int[] inStart;
+    final int[] inSrc;
+    final int[] inDst;
+    final TimingEdge[] inEdges;
+
+    private final Map<TimingEdge, Integer> edgeIndex;
+
+    final boolean[] hasFanout;
+
+    /** Index of the superSink, -1 if it has not been built */
+    final int superSink;
+
+    public TimingGraphTopology(TimingGraph graph) {
+        this.graph = graph;
+        int n = graph.vertexSet().size();
+        vertices = new TimingVertex[n];
+        vertexIndex = new HashMap<>();
+        TopologicalOrderIterator<TimingVertex, TimingEdge> it = new TopologicalOrderIterator<>(graph);
+        for (int i = 0; it.hasNext(); i++) {
+            vertices[i] = it.next();
+            vertexIndex.put(vertices[i], i);
+        }
+
+        inStart = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            inStart[v + 1] = inStart[v] + graph.inDegreeOf(vertices[v]);
+        }
+        int edgeCount = inStart[n];
+        inSrc = new int[edgeCount];
+        inDst = new int[edgeCount];
+        inEdges = new TimingEdge[edgeCount];
+        edgeIndex = new HashMap<>();
+        hasFanout = new boolean[n];
+        for (int v = 0, k = 0; v < n; v++) {
+            for (TimingEdge e : graph.incomingEdgesOf(vertices[v])) {
+                int u = vertexIndex.get(graph.getEdgeSource(e));
+                inSrc[k] = u;
+                inDst[k] = v;
+                inEdges[k] = e;
+                edgeIndex.put(e, k);
+                hasFanout[u] = true;
+                k++;
+            }
+        }
+        Integer superSinkIdx = graph.superSink == null ? null : vertexIndex.get(graph.superSink);
+        superSink = superSinkIdx == null ? -1 : superSinkIdx;
+    }
+
+    public TimingGraph getTimingGraph() {
+        return graph;
+    }
+
+    public int getVertexCount() {
+        return vertices.length;
+    }
+
+    public int getEdgeCount() {
+        return inEdges.length;
+    }
+
+    int getIndex(TimingVertex v) {
+        Integer idx = vertexIndex.get(v);
+        if (idx == null) {
+            throw new IllegalArgumentException("ERROR: Vertex " + v + " is not part of the timing graph");
+        }
+        return idx;
+    }
+
+    int getIndex(TimingEdge e) {
+        Integer idx = edgeIndex.get(e);
+        if (idx == null) {
+            throw new IllegalArgumentException("ERROR: Edge " + e + " is not part of the timing graph");
+        }
+        return idx;
+    }
+}
@@ -47,6 +47,10 @@ import com.xilinx.rapidwright.util.RuntimeTrackerTree;
 public class TimingManager {
     private TimingModel timingModel;
     private TimingGraph timingGraph;
+    /** Topology of the TimingGraph shared by the analyses below, created when first needed */
+    private TimingGraphTopology timingGraphTopology;
+    /** Additional corners the router's criticality is based on, null for the single view only */
+    private MultiCornerTiming multiCornerTiming;
     private Design design;
     private Device device;
 
@@ -99,8 +103,11 @@ public class TimingManager {
         timingGraph.setTimingManager(this);
         timingGraph.setTimingModel(timingModel);
         this.device = this.design.getDevice();
-        if (doBuild)
+        if (doBuild) {
             build(config.isPartialRouting(), targetNets);
+            if (config.getTimingCorners() != null)
+                setTimingCorners(TimingCorner.parseCorners(config.getTimingCorners()));
+        }
     }
     
     /**
@@ -145,7 +152,9 @@ public class TimingManager {
     }
     
     /**
-     * Calculates and returns the maximum arrival time and the associated TimingVertex
+     * Calculates and returns the maximum arrival time and the associated TimingVertex.
+     * If timing corners are set, their arrival and required times are updated as well, but the
+     * returned values are always those of the TimingGraph itself.
      */
     public Pair<Float, TimingVertex> calculateArrivalRequireTimes(){
     	Pair<Float, TimingVertex> maxs;
@@ -154,6 +163,9 @@ public class TimingManager {
 		this.timingGraph.computeArrivalTimesTopologicalOrder();
     	maxs = this.timingGraph.getMaxDelay();
     	this.timingGraph.setTimingRequirementTopologicalOrder(maxs.getFirst());
+    	if(multiCornerTiming != null) {
+    		multiCornerTiming.update();
+    	}
     	
     	return maxs;
     }
@@ -293,15 +305,22 @@ public class TimingManager {
     
     /**
      * Calculates criticality for each connection.
+     * If timing corners are set (see {@link #setTimingCorners(List)}), the criticality of a connection
+     * is based on its slack in the corner where it is worst, normalized by the requirement of that corner
+     * (its max delay unless it has a fixed requirement), and limited to the range 0 to maxCriticality.
      * @param connections Connections in question.
      * @param maxCriticality The maximum criticality value.
      * @param criticalityExponent The criticality exponent to use. For more information, please refer to the {@link RWRouteConfig} class file.
-     * @param maxDelay The maximum delay used to normalize the slack of a connection.
+     * @param maxDelay The maximum delay used to normalize the slack of a connection. Not used with timing corners.
      */
     public void calculateCriticality(List<Connection> connections, float maxCriticality, float criticalityExponent, float maxDelay){
     	for(Connection connection:connections){
     		connection.resetCriticality();
     	}
+    	if(multiCornerTiming != null) {
+    		calculateWorstCornerCriticality(connections, maxCriticality, criticalityExponent);
+    		return;
+    	}
     	float maxCriti = 0;
 		for(Connection connection : connections){
     		connection.calculateCriticality(maxDelay, maxCriticality, criticalityExponent);
@@ -310,6 +329,57 @@ public class TimingManager {
     	}
     }
 
+    private void calculateWorstCornerCriticality(List<Connection> connections, float maxCriticality, float criticalityExponent) {
+    	for(Connection connection : connections) {
+    		List<TimingEdge> edges = connection.getTimingEdges();
+    		int corner = multiCornerTiming.getWorstCorner(edges);
+    		float slackCon = multiCornerTiming.getSlack(corner, edges);
+    		float criticality = 1 - slackCon / multiCornerTiming.getRequirement(corner);
+    		// With a fixed requirement, slacks may be negative or larger than the requirement
+    		if(!(criticality > 0)) {
+    			criticality = 0;
+    		}else if(criticality > 1) {
+    			criticality = 1;
+    		}
+    		criticality = (float) Math.pow(criticality, criticalityExponent) * maxCriticality;
+    		if(criticality > connection.getCriticality())
+    			connection.setCriticality(criticality);
+    	}
+    }
+
+    /**
+     * Sets the timing corners to be analyzed along with the TimingGraph. All corners share the
+     * topology of the TimingGraph, so this must be called after it has been built.
+     * @param corners The corners, null or empty to only analyze the TimingGraph itself.
+     */
+    public void setTimingCorners(List<TimingCorner> corners) {
+    	if(corners == null || corners.isEmpty()) {
+    		multiCornerTiming = null;
+    	}else {
+    		multiCornerTiming = new MultiCornerTiming(getTimingGraphTopology(), corners);
+    	}
+    }
+
+    /**
+     * Gets the topology of the TimingGraph, to be shared by analyses such as {@link TimingPathQuery}
+     * and {@link MultiCornerTiming}. It is created when first needed, so the graph must have been built.
+     * @return The topology of the TimingGraph.
+     */
+    public TimingGraphTopology getTimingGraphTopology() {
+    	if(timingGraphTopology == null) {
+    		timingGraphTopology = new TimingGraphTopology(timingGraph);
+    	}
+    	return timingGraphTopology;
+    }
+
+    /**
+     * Gets the analysis of the timing corners.
+     * @return The MultiCornerTiming object, or null if no timing corners are set.
+     */
+    public MultiCornerTiming getMultiCornerTiming() {
+    	return multiCornerTiming;
+    }
+
     /**
      * Builds the TimingModel and TimingGraph.
      * @return Indication of successful completion.
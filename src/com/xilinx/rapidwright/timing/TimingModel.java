@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
@@ -48,7 +49,6 @@ import com.xilinx.rapidwright.device.Device;
 import com.xilinx.rapidwright.device.IntentCode;
 import com.xilinx.rapidwright.device.Node;
 import com.xilinx.rapidwright.device.PIP;
-import com.xilinx.rapidwright.device.PIPType;
 import com.xilinx.rapidwright.device.Site;
 import com.xilinx.rapidwright.device.SiteTypeEnum;
 import com.xilinx.rapidwright.device.Tile;
@@ -323,75 +323,176 @@ public class TimingModel {
      */
     public float calcDelay(SitePinInst startPinInst, SitePinInst endPinInst, BELPin sourceBELPin,
                            BELPin sinkBELPin, Net net) {
-        ArrayList<IntentCode> intentCodes = new ArrayList<>();
-        HashMap<PIPType, Integer> pipTypes = new LinkedHashMap<>();
-
         nodeList = new ArrayList<>();
         relevantPIPs = new ArrayList<>();
 
         determineNodeList(net, startPinInst, endPinInst);
 
-        for (PIP p : relevantPIPs) {
-            int tmp = 0;
-            if (pipTypes.get(p.getPIPType()) != null) {
-                tmp = pipTypes.get(p.getPIPType());
-                pipTypes.put(p.getPIPType(), ++tmp);
-            } else {
-                pipTypes.put(p.getPIPType(), 1);
-            }
+        if (nodeList.size() == 0) {
+            checkForIntrasiteDelay();
+            return 0f;
         }
 
-        List<IntentCode> nodeIntents = new ArrayList<>();
-        List<Wire> node_start_wires = new ArrayList<>();
+        // The debug output is produced while computing the groups, so don't skip it
+        boolean useGroupCache = groupCache != null && !verbose && !debugFile;
+        GroupCacheKey key = null;
+        if (useGroupCache) {
+            key = new GroupCacheKey(nodeList, relevantPIPs);
+            CachedGroups cached = groupCache.get(key);
+            if (cached != null) {
+                groupCacheHits++;
+                setPathMembers(startPinInst, endPinInst, sourceBELPin, sinkBELPin, cached.groups);
+                checkForIntrasiteDelay();
+                return cached.netDelay + intrasiteDelay;
+            }
+            groupCacheMisses++;
+        }
 
+        List<IntentCode> nodeIntents = new ArrayList<>(nodeList.size());
         for (Node node : nodeList) {
-            node_start_wires.add(node.getAllWiresInNode()[0]);
+            nodeIntents.add(node.getIntentCode());
         }
 
-        String[] ptkeys = new String[pipTypes.size()];
-        int ptkCntr = 0;
-        for (
-                PIPType ptk : pipTypes.keySet()) {
-            ptkeys[ptkCntr++] = "" + ptk;
+        List<TimingGroup> groups = determineGroups(nodeList, nodeIntents, relevantPIPs);
+        float result = calcDelay(startPinInst, endPinInst, sourceBELPin, sinkBELPin, groups);
+        if (useGroupCache) {
+            groupCache.put(key, new CachedGroups(groups, netDelay));
         }
-        Arrays.sort(ptkeys);
+        return result;
+    }
 
-        for (Wire w : node_start_wires) {
-            IntentCode code = w.getIntentCode();
-            nodeIntents.add(code);
-            if (!intentCodes.contains(code)) {
-                intentCodes.add(code);
-            }
+    /** Default number of routed paths for which timing groups and their delays are kept */
+    public static final int DEFAULT_GROUP_CACHE_SIZE = 1 << 14;
+
+    /**
+     * Identifies a routed path by its nodes and PIPs (from sink to source). The intent codes used
+     * to form the timing groups are those of the nodes, so they don't need to be part of the key.
+     */
+    private static class GroupCacheKey {
+        private final Node[] nodes;
+        private final PIP[] pips;
+        private final int hash;
+
+        GroupCacheKey(List<Node> nodes, List<PIP> pips) {
+            this.nodes = nodes.toArray(new Node[nodes.size()]);
+            this.pips = pips.toArray(new PIP[pips.size()]);
+            this.hash = 31 * Arrays.hashCode(this.nodes) + Arrays.hashCode(this.pips);
         }
 
-        IntentCode[] codes = intentCodes.toArray(new IntentCode[intentCodes.size()]);
-        HashMap<IntentCode, Integer> intentHash = new LinkedHashMap<>();
-        Arrays.sort(codes);
-        for (
-                IntentCode c : codes) {
-            List<String> intentList = new LinkedList<>();
-            for (Wire w : node_start_wires) {
-                if (w.getIntentCode() == c) {
-                    intentList.add(w.getWireName());
-                }
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof GroupCacheKey)) return false;
+            GroupCacheKey other = (GroupCacheKey) obj;
+            return hash == other.hash && Arrays.equals(nodes, other.nodes) && Arrays.equals(pips, other.pips);
+        }
+    }
+
+    /** Timing groups of a routed path and their delay, excluding any intrasite delay */
+    private static class CachedGroups {
+        private final List<TimingGroup> groups;
+        private final float netDelay;
+
+        CachedGroups(List<TimingGroup> groups, float netDelay) {
+            this.groups = groups;
+            this.netDelay = netDelay;
+        }
+    }
+
+    private Map<GroupCacheKey, CachedGroups> groupCache = createGroupCache(DEFAULT_GROUP_CACHE_SIZE);
+    private long groupCacheHits;
+    private long groupCacheMisses;
+
+    private static Map<GroupCacheKey, CachedGroups> createGroupCache(int maxSize) {
+        if (maxSize <= 0) {
+            return null;
+        }
+        return new LinkedHashMap<GroupCacheKey, CachedGroups>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<GroupCacheKey, CachedGroups> eldest) {
+                return size() > maxSize;
             }
-            intentHash.put(c, intentList.size());
+        };
+    }
+
+    /**
+     * Sets the maximum number of routed paths for which
+     * {@link #calcDelay(SitePinInst, SitePinInst, BELPin, BELPin, Net)} keeps the timing groups and
+     * their delay. The least recently used paths are evicted first. This clears the cache.
+     * @param maxSize Maximum number of cached paths, 0 disables the cache.
+     */
+    public void setGroupCacheSize(int maxSize) {
+        groupCache = createGroupCache(maxSize);
+    }
+
+    /**
+     * Removes all cached timing groups, this needs to be called if the delay terms are changed.
+     * The PIPs of the last net are also indexed again on the next call, which is needed if
+     * they were modified in place without changing their number.
+     */
+    public void clearGroupCache() {
+        if (groupCache != null) {
+            groupCache.clear();
         }
+        pipMapNet = null;
+        pipMapPIPs = null;
+    }
+
+    public long getGroupCacheHits() {
+        return groupCacheHits;
+    }
 
-        List<TimingGroup> groups = null;
+    public long getGroupCacheMisses() {
+        return groupCacheMisses;
+    }
 
-        if (nodeList.size() > 0)
-            groups = determineGroups(nodeList, nodeIntents, relevantPIPs);
+    /**
+     * Flags of nodes by tile (indexed by row * columns + column) and base wire: bit 2 * wire is set
+     * once the node has been checked and bit 2 * wire + 1 if it contains a global wire.
+     */
+    private BitSet[] globalWireFlags;
 
-        float result = 0f;
-        if (groups != null) {
-            result = calcDelay(startPinInst, endPinInst, sourceBELPin, sinkBELPin, groups);
-        }else {
-        	
-        	checkForIntrasiteDelay();
+    /**
+     * Checks if any of the wires of a node is a global wire, as these always start a new
+     * timing group. Results are computed once per node.
+     * @param node The node to check.
+     * @return True if the node contains a wire with "_GLOBAL" in its name, false otherwise.
+     */
+    private boolean containsGlobalWire(Node node) {
+        if (device == null) {
+            return checkForGlobalWire(node);
+        }
+        if (globalWireFlags == null) {
+            globalWireFlags = new BitSet[device.getRows() * device.getColumns()];
         }
+        Tile tile = node.getTile();
+        int tileIdx = tile.getRow() * device.getColumns() + tile.getColumn();
+        BitSet flags = globalWireFlags[tileIdx];
+        if (flags == null) {
+            flags = new BitSet();
+            globalWireFlags[tileIdx] = flags;
+        }
+        int bit = node.getWire() * 2;
+        if (!flags.get(bit)) {
+            flags.set(bit);
+            if (checkForGlobalWire(node)) {
+                flags.set(bit + 1);
+            }
+        }
+        return flags.get(bit + 1);
+    }
 
-        return result;
+    private static boolean checkForGlobalWire(Node node) {
+        for (Wire w : node.getAllWiresInNode()) {
+            if (w.getWireName().contains("_GLOBAL"))
+                return true;
+        }
+        return false;
     }
 
     void checkTimingGroup(TimingGroup tg) {
@@ -444,16 +545,8 @@ public class TimingModel {
             //checkTimingGroup(initialGroup);
             for (int i = !initialHasPinbounce? 1:2; i < nodes.size() - 1; ) {
                 TimingGroup midGroup = new TimingGroup(this);
-                boolean thisNodeContainsGlobal = false;
-                for (Wire w : nodes.get(i).getAllWiresInNode()) {
-                    if (w.getWireName().contains("_GLOBAL"))
-                        thisNodeContainsGlobal = true;
-                }
-                boolean nextNodeContainsGlobal = false;
-                for (Wire w : nodes.get(i + 1).getAllWiresInNode()) {
-                    if (w.getWireName().contains("_GLOBAL"))
-                        nextNodeContainsGlobal = true;
-                }
+                boolean thisNodeContainsGlobal = containsGlobalWire(nodes.get(i));
+                boolean nextNodeContainsGlobal = containsGlobalWire(nodes.get(i + 1));
                 IntentCode n0 = nodeTypes.get(i);
                 IntentCode n1 = nodeTypes.get(i+1);
                 if (thisNodeContainsGlobal || nextNodeContainsGlobal ||
@@ -1191,6 +1284,8 @@ public class TimingModel {
     public DelayModel getDelayModel() { return this.intrasiteAndLogicDelayModel; }
 
     private float intrasiteDelay;
+    /** Delay of the last path computed excluding the intrasite delay */
+    private float netDelay;
     private SitePinInst startPinInst;
     private SitePinInst endPinInst;
     private BELPin sourceBELPin;
@@ -1213,12 +1308,7 @@ public class TimingModel {
         }
 
         // set these member variables for use in method: "checkForSomeIntrasiteDelays()" down below
-        this.intrasiteDelay = 0;
-        this.startPinInst = startPinInst;
-        this.endPinInst = endPinInst;
-        this.sourceBELPin = sourceBELPin;
-        this.sinkBELPin = sinkBELPin;
-        this.groups = groups;
+        setPathMembers(startPinInst, endPinInst, sourceBELPin, sinkBELPin, groups);
 
         int GroupCntr = 0;
         float netDelayCalc = 0;
@@ -1389,9 +1479,20 @@ public class TimingModel {
             }        	
         }
         
+        netDelay = netDelayCalc;
         return netDelayCalc + intrasiteDelay; // returning sum of net delay and intrasite delay
     }
 
+    private void setPathMembers(SitePinInst startPinInst, SitePinInst endPinInst, BELPin sourceBELPin,
+                                BELPin sinkBELPin, List<TimingGroup> groups) {
+        this.intrasiteDelay = 0;
+        this.startPinInst = startPinInst;
+        this.endPinInst = endPinInst;
+        this.sourceBELPin = sourceBELPin;
+        this.sinkBELPin = sinkBELPin;
+        this.groups = groups;
+    }
+
     private float checkForSitePinDelay(List<TimingGroup> groups) {
         float total_sitepin_delay = 0.f;
         float sitepin_delay = 0.f;
@@ -1600,13 +1701,27 @@ public class TimingModel {
         return result.toArray(new TimingGroup[result.size()]);
     }
 
-    private HashMap<String, PIP> pipEndNodeHashMap;
+    private HashMap<Node, PIP> pipEndNodeHashMap;
+    /** The net indexed by {@link #pipEndNodeHashMap}, with its PIP list and the list's size at that time */
+    private Net pipMapNet;
+    private List<PIP> pipMapPIPs;
+    private int pipMapSize;
 
     private void determineNodeListInitHelper(Net net) {
+        List<PIP> pips = net.getPIPs();
+        // Delays are usually calculated for all sinks of a net in a row, so only index the PIPs
+        // again when the net or its routing changed
+        if (net == pipMapNet && pips == pipMapPIPs && pips.size() == pipMapSize) {
+            return;
+        }
         pipEndNodeHashMap = new HashMap<>();
-        for (PIP p : net.getPIPs()) {
-            if(p.getEndNode() != null) pipEndNodeHashMap.put(p.getEndNode().toString(), p);
+        for (PIP p : pips) {
+            Node endNode = p.getEndNode();
+            if(endNode != null) pipEndNodeHashMap.put(endNode, p);
         }
+        pipMapNet = net;
+        pipMapPIPs = pips;
+        pipMapSize = pips.size();
     }
 
 
@@ -1646,7 +1761,7 @@ public class TimingModel {
                 node = null;
 
             while (node != null && !node.equals(sourcePinNode)) {
-                PIP p = pipEndNodeHashMap.get(node.toString());
+                PIP p = pipEndNodeHashMap.get(node);
                 if (p != null) {
                     relevantPIPs.add(relevantPIPs.size(), p);
                     nodeList.add(nodeList.size(), node);
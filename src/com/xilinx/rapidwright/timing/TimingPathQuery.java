@@ -0,0 +1,503 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import org.jgrapht.GraphPath;
+import org.jgrapht.graph.GraphWalk;
+
+import com.xilinx.rapidwright.util.ParallelismTools;
+
+/**
+ * Batch queries of timing paths and endpoint slacks on a {@link TimingGraph}.
+ *
+ * Creating a query takes a snapshot of the graph: its {@link TimingGraphTopology} (vertices in
+ * topological order and the incoming edges of each vertex in CSR form), the edge delays, and the
+ * arrival time of every vertex, computed in one pass. Queries then neither traverse the JGraphT
+ * structures nor build {@link GraphPath}s. The K worst paths into a set of endpoints are enumerated by decreasing delay
+ * with a best-first search that walks the graph backwards from the endpoints. The arrival times
+ * are exact bounds for the unexplored part of each path, so every path that completes is the next
+ * worst one. Paths share their common suffixes. Slacks, slack histograms and CSV reports of many
+ * endpoints are computed in parallel or streamed.
+ *
+ * The snapshot does not follow later changes of the graph, so a new query must be created after
+ * edge delays are updated. As long as the structure of the graph is unchanged, the new query can
+ * share the topology of the previous one.
+ */
+public class TimingPathQuery {
+
+    private final TimingGraphTopology topology;
+
+    private final TimingGraph graph;
+
+    /** Vertices in topological order, all arrays below are indexed by position in this order */
+    private final TimingVertex[] vertices;
+
+    /** Incoming edges of vertex v are at indices inStart[v] to inStart[v+1]-1 */
+    private final int[] inStart;
+    private final int[] inSrc;
+    private final float[] inDelay;
+    private final TimingEdge[] inEdges;
+
+    private final float[] arrival;
+
+    public TimingPathQuery(TimingGraph graph) {
+        this(new TimingGraphTopology(graph));
+    }
+
+    /**
+     * Creates a query on a topology that may be shared with other analyses of the same graph.
+     * Only the current edge delays and the arrival times are copied.
+     * @param topology Topology of the timing graph.
+     */
+    public TimingPathQuery(TimingGraphTopology topology) {
+        this.topology = topology;
+        this.graph = topology.getTimingGraph();
+        vertices = topology.vertices;
+        inStart = topology.inStart;
+        inSrc = topology.inSrc;
+        inEdges = topology.inEdges;
+        int n = vertices.length;
+        inDelay = new float[inEdges.length];
+        arrival = new float[n];
+        for (int v = 0; v < n; v++) {
+            float max = (inStart[v] == inStart[v + 1]) ? 0 : Float.NEGATIVE_INFINITY;
+            for (int k = inStart[v]; k < inStart[v + 1]; k++) {
+                inDelay[k] = inEdges[k].getDelay();
+                max = Math.max(max, arrival[inSrc[k]] + inDelay[k]);
+            }
+            arrival[v] = max;
+        }
+    }
+
+    public TimingGraph getTimingGraph() {
+        return graph;
+    }
+
+    public TimingGraphTopology getTopology() {
+        return topology;
+    }
+
+    private int getIndex(TimingVertex v) {
+        return topology.getIndex(v);
+    }
+
+    /**
+     * Gets the arrival time of a vertex, ie. the delay of the worst path into it.
+     * @param v The vertex.
+     * @return Arrival time in picoseconds.
+     */
+    public float getArrivalTime(TimingVertex v) {
+        return arrival[getIndex(v)];
+    }
+
+    /**
+     * Gets all timing endpoints of the graph: the vertices driving the superSink if it has been
+     * built (see {@link TimingGraph#buildSuperGraphPaths()}), otherwise all vertices with fanin but
+     * no fanout.
+     * @return List of endpoints in topological order.
+     */
+    public List<TimingVertex> getEndpoints() {
+        List<TimingVertex> endpoints = new ArrayList<>();
+        int superSink = topology.superSink;
+        if (superSink != -1) {
+            for (int k = inStart[superSink]; k < inStart[superSink + 1]; k++) {
+                endpoints.add(vertices[inSrc[k]]);
+            }
+            return endpoints;
+        }
+        for (int v = 0; v < vertices.length; v++) {
+            if (inStart[v] != inStart[v + 1] && !topology.hasFanout[v]) {
+                endpoints.add(vertices[v]);
+            }
+        }
+        return endpoints;
+    }
+
+    /**
+     * Gets all timing endpoints (see {@link #getEndpoints()}) grouped by their clock name.
+     * Endpoints without a clock are grouped under null.
+     * @return Map from clock name to the endpoints of that clock domain.
+     */
+    public Map<String, List<TimingVertex>> getEndpointsByClock() {
+        Map<String, List<TimingVertex>> domains = new LinkedHashMap<>();
+        for (TimingVertex v : getEndpoints()) {
+            domains.computeIfAbsent(v.getClockName(), (k) -> new ArrayList<>()).add(v);
+        }
+        return domains;
+    }
+
+    /**
+     * A timing path found by a query, from a vertex without fanin to an endpoint. Paths are stored
+     * as their first edge followed by the rest of the path, which is shared between paths.
+     */
+    public class Path {
+        /** First vertex of the path */
+        private final int vertex;
+        /** Index of the edge leaving the first vertex, -1 for a path without edges */
+        private final int edge;
+        private final Path next;
+        private final int endpoint;
+        private final int length;
+        /** Delay of the path from its first vertex to its endpoint */
+        private final float delay;
+        /** Delay of the worst path starting at a vertex without fanin and ending with this path */
+        private final float bound;
+
+        private Path(int endpoint) {
+            this.vertex = endpoint;
+            this.edge = -1;
+            this.next = null;
+            this.endpoint = endpoint;
+            this.length = 0;
+            this.delay = 0;
+            this.bound = arrival[endpoint];
+        }
+
+        private Path(int edge, Path next) {
+            this.vertex = inSrc[edge];
+            this.edge = edge;
+            this.next = next;
+            this.endpoint = next.endpoint;
+            this.length = next.length + 1;
+            this.delay = next.delay + inDelay[edge];
+            this.bound = arrival[vertex] + delay;
+        }
+
+        public TimingVertex getStartVertex() {
+            return vertices[vertex];
+        }
+
+        public TimingVertex getEndVertex() {
+            return vertices[endpoint];
+        }
+
+        /**
+         * @return The sum of the edge delays of the path, in picoseconds.
+         */
+        public float getDelay() {
+            return delay;
+        }
+
+        /**
+         * Gets the slack of this path for a required time at its endpoint.
+         * @param requirement Required time in picoseconds.
+         * @return The slack in picoseconds, negative if the requirement is not met.
+         */
+        public float getSlack(float requirement) {
+            return requirement - delay;
+        }
+
+        /**
+         * @return The number of edges of the path.
+         */
+        public int getLength() {
+            return length;
+        }
+
+        public List<TimingEdge> getEdges() {
+            List<TimingEdge> edges = new ArrayList<>(length);
+            for (Path p = this; p.edge != -1; p = p.next) {
+                edges.add(inEdges[p.edge]);
+            }
+            return edges;
+        }
+
+        public List<TimingVertex> getVertices() {
+            List<TimingVertex> path = new ArrayList<>(length + 1);
+            for (Path p = this; p != null; p = p.next) {
+                path.add(vertices[p.vertex]);
+            }
+            return path;
+        }
+
+        /**
+         * Creates a JGraphT path of this path, as returned by {@link TimingGraph#buildGraphPaths()}.
+         * @return The GraphPath with the path delay as its weight.
+         */
+        public GraphPath<TimingVertex, TimingEdge> toGraphPath() {
+            return new GraphWalk<>(graph, getStartVertex(), getEndVertex(), getVertices(), getEdges(), delay);
+        }
+
+        @Override
+        public String toString() {
+            return getStartVertex() + " -> " + getEndVertex() + " (" + delay + " ps, " + length + " edges)";
+        }
+    }
+
+    /**
+     * Enumerates the worst (longest) paths ending at any of the given endpoints in order of
+     * decreasing delay, passing each one to the action as soon as it is found.
+     * @param endpoints The endpoints of the paths.
+     * @param k Maximum number of paths.
+     * @param action Called for each path.
+     */
+    public void forEachWorstPath(Collection<TimingVertex> endpoints, int k, Consumer<Path> action) {
+        PriorityQueue<Path> queue = new PriorityQueue<>((a, b) -> Float.compare(b.bound, a.bound));
+        BitSet seen = new BitSet(vertices.length);
+        for (TimingVertex t : endpoints) {
+            int v = getIndex(t);
+            if (!seen.get(v)) {
+                seen.set(v);
+                queue.add(new Path(v));
+            }
+        }
+        int found = 0;
+        while (found < k && !queue.isEmpty()) {
+            Path p = queue.poll();
+            int v = p.vertex;
+            if (inStart[v] == inStart[v + 1]) {
+                action.accept(p);
+                found++;
+                continue;
+            }
+            for (int e = inStart[v]; e < inStart[v + 1]; e++) {
+                queue.add(new Path(e, p));
+            }
+        }
+    }
+
+    /**
+     * Gets the worst (longest) paths ending at any of the given endpoints.
+     * @param endpoints The endpoints of the paths.
+     * @param k Maximum number of paths.
+     * @return List of at most k paths, in order of decreasing delay.
+     */
+    public List<Path> getWorstPaths(Collection<TimingVertex> endpoints, int k) {
+        List<Path> paths = new ArrayList<>();
+        forEachWorstPath(endpoints, k, paths::add);
+        return paths;
+    }
+
+    /**
+     * Gets the worst paths of each clock domain, see {@link #getEndpointsByClock()}. Clock
+     * domains are searched in parallel.
+     * @param k Maximum number of paths per clock domain.
+     * @return Map from clock name to the worst paths into the endpoints of that clock.
+     */
+    public Map<String, List<Path>> getWorstPathsByClock(int k) {
+        Map<String, List<TimingVertex>> domains = getEndpointsByClock();
+        List<String> clocks = new ArrayList<>(domains.keySet());
+        List<Future<List<Path>>> futures = ParallelismTools.invokeAll(clocks,
+                (clock) -> getWorstPaths(domains.get(clock), k));
+        Map<String, List<Path>> paths = new LinkedHashMap<>();
+        for (int i = 0; i < clocks.size(); i++) {
+            paths.put(clocks.get(i), ParallelismTools.get(futures.get(i)));
+        }
+        return paths;
+    }
+
+    /**
+     * Computes the slack of each endpoint in parallel, ie. the difference between the required
+     * time and the arrival time.
+     * @param endpoints The endpoints.
+     * @param requirement Required time at every endpoint, in picoseconds.
+     * @return Slacks in picoseconds, in the order of the endpoints.
+     */
+    public float[] getSlacks(List<TimingVertex> endpoints, float requirement) {
+        float[] slacks = new float[endpoints.size()];
+        ParallelismTools.invokeAllRange(slacks.length,
+                (i) -> slacks[i] = requirement - arrival[getIndex(endpoints.get(i))]);
+        return slacks;
+    }
+
+    /**
+     * A histogram of endpoint slacks with bins of equal width, starting at the bin of the worst
+     * slack.
+     */
+    public static class SlackHistogram {
+        private final float binWidth;
+        private final float firstBinStart;
+        private final long[] counts;
+        private final float worstSlack;
+        private final double totalNegativeSlack;
+        private final int failingEndpoints;
+
+        private SlackHistogram(float binWidth, float firstBinStart, long[] counts, float worstSlack,
+                               double totalNegativeSlack, int failingEndpoints) {
+            this.binWidth = binWidth;
+            this.firstBinStart = firstBinStart;
+            this.counts = counts;
+            this.worstSlack = worstSlack;
+            this.totalNegativeSlack = totalNegativeSlack;
+            this.failingEndpoints = failingEndpoints;
+        }
+
+        public int getBinCount() {
+            return counts.length;
+        }
+
+        /**
+         * @param bin Index of the bin.
+         * @return The lowest slack of the bin (inclusive), in picoseconds.
+         */
+        public float getBinStart(int bin) {
+            return firstBinStart + bin * binWidth;
+        }
+
+        public float getBinWidth() {
+            return binWidth;
+        }
+
+        /**
+         * @param bin Index of the bin.
+         * @return The number of endpoints with a slack in the bin.
+         */
+        public long getCount(int bin) {
+            return counts[bin];
+        }
+
+        /**
+         * @return The worst slack in picoseconds, or positive infinity if there are no endpoints.
+         */
+        public float getWorstSlack() {
+            return worstSlack;
+        }
+
+        /**
+         * @return The sum of all negative slacks in picoseconds (TNS), 0 if all endpoints meet timing.
+         */
+        public double getTotalNegativeSlack() {
+            return totalNegativeSlack;
+        }
+
+        public int getFailingEndpoints() {
+            return failingEndpoints;
+        }
+    }
+
+    /**
+     * Computes a histogram of the slacks of the given endpoints. Slacks and bin counts are computed
+     * in parallel.
+     * @param endpoints The endpoints.
+     * @param requirement Required time at every endpoint, in picoseconds.
+     * @param binWidth Width of each bin, in picoseconds.
+     * @return The histogram.
+     */
+    public SlackHistogram getSlackHistogram(List<TimingVertex> endpoints, float requirement, float binWidth) {
+        if (!(binWidth > 0)) {
+            throw new IllegalArgumentException("ERROR: Bin width must be positive: " + binWidth);
+        }
+        float[] slacks = getSlacks(endpoints, requirement);
+        float worst = Float.POSITIVE_INFINITY;
+        float best = Float.NEGATIVE_INFINITY;
+        double tns = 0;
+        int failing = 0;
+        for (float slack : slacks) {
+            worst = Math.min(worst, slack);
+            best = Math.max(best, slack);
+            if (slack < 0) {
+                tns += slack;
+                failing++;
+            }
+        }
+        if (slacks.length == 0) {
+            return new SlackHistogram(binWidth, 0, new long[0], worst, 0, 0);
+        }
+        float firstBinStart = (float) Math.floor(worst / binWidth) * binWidth;
+        int binCount = (int) ((best - firstBinStart) / binWidth) + 1;
+
+        int chunks = Math.min(slacks.length, ParallelismTools.maxParallelism() * 4);
+        int chunkSize = (slacks.length + chunks - 1) / chunks;
+        long[][] chunkCounts = new long[chunks][];
+        ParallelismTools.invokeAllRange(chunks, (c) -> {
+            long[] counts = new long[binCount];
+            for (int i = c * chunkSize; i < Math.min(slacks.length, (c + 1) * chunkSize); i++) {
+                counts[Math.min(binCount - 1, (int) ((slacks[i] - firstBinStart) / binWidth))]++;
+            }
+            chunkCounts[c] = counts;
+        });
+        long[] counts = new long[binCount];
+        for (long[] c : chunkCounts) {
+            for (int i = 0; i < binCount; i++) {
+                counts[i] += c[i];
+            }
+        }
+        return new SlackHistogram(binWidth, firstBinStart, counts, worst, tns, failing);
+    }
+
+    private static String toCSVField(String s) {
+        if (s == null) {
+            return "";
+        }
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0) {
+            return s;
+        }
+        return "\"" + s.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Writes the arrival time and slack of each endpoint as CSV, with a header line.
+     * @param out Where to write the CSV to.
+     * @param endpoints The endpoints.
+     * @param requirement Required time at every endpoint, in picoseconds.
+     * @throws IOException if writing fails.
+     */
+    public void writeEndpointSlacksCSV(Writer out, List<TimingVertex> endpoints, float requirement) throws IOException {
+        float[] slacks = getSlacks(endpoints, requirement);
+        out.write("endpoint,clock,arrival,slack\n");
+        for (int i = 0; i < slacks.length; i++) {
+            TimingVertex v = endpoints.get(i);
+            out.write(toCSVField(v.getName()) + "," + toCSVField(v.getClockName()) + ","
+                    + (requirement - slacks[i]) + "," + slacks[i] + "\n");
+        }
+    }
+
+    /**
+     * Writes the worst paths ending at any of the given endpoints as CSV, with a header line.
+     * Each path is written as soon as it is found and is not kept afterwards.
+     * @param out Where to write the CSV to.
+     * @param endpoints The endpoints of the paths.
+     * @param k Maximum number of paths.
+     * @param requirement Required time at every endpoint, in picoseconds.
+     * @throws IOException if writing fails.
+     */
+    public void writeWorstPathsCSV(Writer out, Collection<TimingVertex> endpoints, int k, float requirement) throws IOException {
+        out.write("rank,startpoint,endpoint,clock,delay,slack,edges\n");
+        int[] rank = new int[1];
+        try {
+            forEachWorstPath(endpoints, k, (p) -> {
+                try {
+                    out.write(++rank[0] + "," + toCSVField(p.getStartVertex().getName()) + ","
+                            + toCSVField(p.getEndVertex().getName()) + ","
+                            + toCSVField(p.getEndVertex().getClockName()) + "," + p.getDelay() + ","
+                            + p.getSlack(requirement) + "," + p.getLength() + "\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
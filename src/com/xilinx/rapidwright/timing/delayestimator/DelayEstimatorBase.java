@@ -23,12 +23,26 @@
 
 package com.xilinx.rapidwright.timing.delayestimator;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static java.lang.Math.max;
 
@@ -38,13 +52,22 @@ import com.xilinx.rapidwright.device.Node;
 import com.xilinx.rapidwright.device.Site;
 import com.xilinx.rapidwright.device.SiteTypeEnum;
 import com.xilinx.rapidwright.device.Tile;
+import com.xilinx.rapidwright.device.TileTypeEnum;
 import com.xilinx.rapidwright.timing.GroupDelayType;
 import com.xilinx.rapidwright.timing.TimingModel;
+import com.xilinx.rapidwright.util.FileTools;
 
 
 /**
  * The base class to implement a delay estimator.
  * Provide basic methods to build a customized estimator.
+ *
+ * Node delays are served from a device-wide cache: the node group type and direction of each node
+ * is classified once per (tile type, wire index) of its base wire, and the delays of all node group
+ * types and directions are tabulated for every INT tile coordinate. {@link #getDelayOf(Node)} is then
+ * two primitive array lookups. The classification is stored per device next to the timing data files
+ * (see {@link #getNodeDelayCacheFile(Device)}) so that it is only computed once. Only the classes are
+ * stored; all delays, including those of CLE_IN nodes, are derived from the timing model on construction.
  */
 public class DelayEstimatorBase<T extends InterconnectInfo> implements java.io.Serializable {
     // TODO: Consider moving DelayEstimator as a member of TimingManager.
@@ -69,6 +92,47 @@ public class DelayEstimatorBase<T extends InterconnectInfo> implements java.io.S
     protected transient Device device;
     protected boolean useUTurnNodes;
 
+    private static final int NODE_DELAY_CACHE_VERSION = 2;
+
+    private static final String NODE_DELAY_CACHE_SUFFIX = "_node_delay_cache.dat";
+
+    private static final InterconnectInfo.NodeGroupType[] GROUP_TYPES = InterconnectInfo.NodeGroupType.values();
+
+    private static final InterconnectInfo.Direction[] DIRECTIONS = InterconnectInfo.Direction.values();
+
+    /** Marks classes of nodes that cannot be served from the cache */
+    private static final int UNCACHED_CLASS = 0xFF;
+
+    /** Marks tabulated delays that could not be computed */
+    private static final short NO_CACHED_DELAY = Short.MIN_VALUE;
+
+    /**
+     * Class of each node by tile type ordinal and wire index of its base wire:
+     * 1 + node group type ordinal * 3 + direction ordinal (0 if not classified yet).
+     */
+    protected transient int[][] nodeClasses;
+
+    /**
+     * Delay of CLE_IN nodes by tile type ordinal and wire index of their base wire, taken from
+     * inputSitePinDelay. Only allocated for tile types with CLE_IN nodes; nodes classified after
+     * construction are looked up in inputSitePinDelay instead.
+     */
+    protected transient short[][] cleInDelays;
+
+    /**
+     * Delay by node group class (node group type ordinal * 3 + direction ordinal) and begin INT tile
+     * coordinate.
+     */
+    protected transient short[][] groupDelays;
+
+    /**
+     * Cumulative distance arrays and coefficients by node group type ordinal, see calcNodeGroupDelay.
+     * Derived from the maps, so they are rebuilt after deserialization.
+     */
+    private transient short[][] groupDistArrays;
+    private transient float[] groupBaseDelays;
+    private transient float[] groupK2;
+
 
     /**
      * Constructor from a device.
@@ -78,6 +142,17 @@ public class DelayEstimatorBase<T extends InterconnectInfo> implements java.io.S
      * @param device target device.
      */
     public DelayEstimatorBase(Device device, T ictInfo, boolean useUTurnNodes, int verbose) {
+        this(device, ictInfo, useUTurnNodes, verbose, null);
+    }
+
+    /**
+     * Constructor from a device, storing the node delay cache in the given directory.
+     *
+     * @param device target device.
+     * @param nodeDelayCacheDir directory of the node delay cache file, or null for the default
+     *                          location (see {@link #getNodeDelayCacheFile(Device)}).
+     */
+    public DelayEstimatorBase(Device device, T ictInfo, boolean useUTurnNodes, int verbose, File nodeDelayCacheDir) {
         this.device = device;
         this.verbose = verbose;
         this.ictInfo = ictInfo;
@@ -86,6 +161,14 @@ public class DelayEstimatorBase<T extends InterconnectInfo> implements java.io.S
         timingModel.build();
         buildDistanceArrays(timingModel);
         loadInputSitePinDelay(timingModel);
+        buildNodeDelayCache(nodeDelayCacheDir == null ? getNodeDelayCacheFile(device)
+                : new File(nodeDelayCacheDir, device.getName() + NODE_DELAY_CACHE_SUFFIX));
+    }
+
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        buildGroupArrays();
     }
 
 
@@ -126,6 +209,38 @@ public class DelayEstimatorBase<T extends InterconnectInfo> implements java.io.S
      * @return delay in ps
      */
     public short getDelayOf(Node exitNode) {
+        if (nodeClasses == null) {
+            return calcDelayOf(exitNode);
+        }
+        int nodeClass = getNodeClass(exitNode);
+        if (nodeClass == UNCACHED_CLASS) {
+            return calcDelayOf(exitNode);
+        }
+        int group = nodeClass - 1;
+        if (GROUP_TYPES[group / DIRECTIONS.length] == T.NodeGroupType.CLE_IN) {
+            short[] delays = cleInDelays[exitNode.getTile().getTileTypeEnum().ordinal()];
+            if (delays != null && delays[exitNode.getWire()] != NO_CACHED_DELAY) {
+                return delays[exitNode.getWire()];
+            }
+            return inputSitePinDelay.getOrDefault(exitNode.getWireName(), (short) 0);
+        }
+        Tile tile = exitNode.getTile();
+        int begin = GROUP_TYPES[group / DIRECTIONS.length].orientation() == T.Orientation.HORIZONTAL ?
+                (short) tile.getTileXCoordinate() : (short) tile.getTileYCoordinate();
+        short[] delays = groupDelays[group];
+        if (begin >= 0 && begin < delays.length && delays[begin] != NO_CACHED_DELAY) {
+            return delays[begin];
+        }
+        return calcDelayOf(exitNode);
+    }
+
+    /**
+     * Get delay of the node group of the given exit node, without using the node delay cache.
+     *
+     * @param exitNode the exit node of the node group
+     * @return delay in ps
+     */
+    public short calcDelayOf(Node exitNode) {
         TermInfo termInfo = getTermInfo(exitNode);
 
         // Don't put this in calcTimingGroupDelay because it is called many times to estimate delay.
@@ -257,6 +372,183 @@ public class DelayEstimatorBase<T extends InterconnectInfo> implements java.io.S
         return termInfo;
     }
 
+    private int getNodeClass(Node node) {
+        int[] classes = nodeClasses[node.getTile().getTileTypeEnum().ordinal()];
+        int wire = node.getWire();
+        int nodeClass = classes[wire];
+        if (nodeClass == 0) {
+            // Concurrent classification of the same node writes the same value
+            nodeClass = classifyNode(node);
+            classes[wire] = nodeClass;
+        }
+        return nodeClass;
+    }
+
+    private int classifyNode(Node node) {
+        TermInfo termInfo = getTermInfo(node);
+        if (termInfo.ng == null) {
+            return UNCACHED_CLASS;
+        }
+        return 1 + termInfo.ng.ordinal() * DIRECTIONS.length + termInfo.direction.ordinal();
+    }
+
+    /**
+     * Allocate the node class table and tabulate delays of all node group types, then load the node
+     * classes of the device from its cache file. If there is none, all nodes are classified and the
+     * file is written (unless its directory is not writable).
+     * @param cacheFile the node delay cache file
+     */
+    private void buildNodeDelayCache(File cacheFile) {
+        nodeClasses = new int[TileTypeEnum.values().length][];
+        Map<TileTypeEnum, Tile> representatives = new EnumMap<>(TileTypeEnum.class);
+        for (Tile tile : device.getAllTiles()) {
+            if (representatives.putIfAbsent(tile.getTileTypeEnum(), tile) == null) {
+                nodeClasses[tile.getTileTypeEnum().ordinal()] = new int[tile.getWireCount()];
+            }
+        }
+        for (int i = 0; i < nodeClasses.length; i++) {
+            if (nodeClasses[i] == null) {
+                nodeClasses[i] = new int[0];
+            }
+        }
+
+        groupDelays = new short[GROUP_TYPES.length * DIRECTIONS.length][];
+        for (T.NodeGroupType ng : GROUP_TYPES) {
+            for (T.Direction dir : DIRECTIONS) {
+                int size = (ng.orientation() == T.Orientation.HORIZONTAL) ? numCol : numRow;
+                short[] delays = new short[size];
+                for (short begin = 0; begin < size; begin++) {
+                    TermInfo termInfo = new TermInfo(begin, begin, dir, ng);
+                    try {
+                        delays[begin] = calcNodeGroupDelay(ng, begin, termInfo.end(), 0d);
+                    } catch (RuntimeException e) {
+                        // Not modeled, computed (and failing) on request as without the cache
+                        delays[begin] = NO_CACHED_DELAY;
+                    }
+                }
+                groupDelays[ng.ordinal() * DIRECTIONS.length + dir.ordinal()] = delays;
+            }
+        }
+
+        if (!cacheFile.exists() || !readNodeDelayCache(cacheFile)) {
+            for (Tile tile : representatives.values()) {
+                classifyAllNodes(tile);
+            }
+            try {
+                writeNodeDelayCache(cacheFile);
+            } catch (IOException e) {
+                if (verbose > 0) {
+                    System.out.println("WARNING: Couldn't write node delay cache " + cacheFile + ": " + e.getMessage());
+                }
+            }
+        }
+        buildCleInDelays(representatives.values());
+    }
+
+    private void buildCleInDelays(Collection<Tile> representatives) {
+        cleInDelays = new short[nodeClasses.length][];
+        for (Tile tile : representatives) {
+            int[] classes = nodeClasses[tile.getTileTypeEnum().ordinal()];
+            short[] delays = null;
+            for (int wire = 0; wire < classes.length; wire++) {
+                int nodeClass = classes[wire];
+                if (nodeClass == 0 || nodeClass == UNCACHED_CLASS
+                        || GROUP_TYPES[(nodeClass - 1) / DIRECTIONS.length] != T.NodeGroupType.CLE_IN) {
+                    continue;
+                }
+                if (delays == null) {
+                    delays = new short[classes.length];
+                    Arrays.fill(delays, NO_CACHED_DELAY);
+                }
+                delays[wire] = inputSitePinDelay.getOrDefault(tile.getWireName(wire), (short) 0);
+            }
+            cleInDelays[tile.getTileTypeEnum().ordinal()] = delays;
+        }
+    }
+
+    private void classifyAllNodes(Tile tile) {
+        int[] classes = nodeClasses[tile.getTileTypeEnum().ordinal()];
+        for (int wire = 0; wire < classes.length; wire++) {
+            Node node = Node.getNode(tile, wire);
+            // Only nodes whose base wire is in this tile are classified by this entry
+            if (node == null || node.getTile() != tile || node.getWire() != wire) {
+                continue;
+            }
+            try {
+                classes[wire] = classifyNode(node);
+            } catch (RuntimeException e) {
+                classes[wire] = UNCACHED_CLASS;
+            }
+        }
+    }
+
+    /**
+     * Get the file storing the node classes of a device, located next to the timing data files.
+     * @param device the device
+     * @return the cache file
+     */
+    public static File getNodeDelayCacheFile(Device device) {
+        String series = device.getSeries().name().toLowerCase();
+        return new File(FileTools.getRapidWrightPath() + File.separator + TimingModel.TIMING_DATA_DIR
+                + File.separator + series + File.separator + device.getName() + NODE_DELAY_CACHE_SUFFIX);
+    }
+
+    /**
+     * Write the node classes to a file. The file is written to a temporary file first and then moved into place.
+     * @param cacheFile the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void writeNodeDelayCache(File cacheFile) throws IOException {
+        Path target = cacheFile.toPath();
+        Path tmp = Files.createTempFile(target.toAbsolutePath().getParent(), cacheFile.getName(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+            out.writeInt(NODE_DELAY_CACHE_VERSION);
+            out.writeUTF(device.getName());
+            out.writeInt(nodeClasses.length);
+            for (int[] classes : nodeClasses) {
+                out.writeInt(classes.length);
+                for (int nodeClass : classes) {
+                    out.writeInt(nodeClass);
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Read node classes written by {@link #writeNodeDelayCache(File)}.
+     * @param cacheFile the file to read
+     * @return true if the file was read, false if it is unreadable or does not match the device
+     */
+    public boolean readNodeDelayCache(File cacheFile) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(cacheFile.toPath()))))) {
+            if (in.readInt() != NODE_DELAY_CACHE_VERSION || !in.readUTF().equals(device.getName())
+                    || in.readInt() != nodeClasses.length) {
+                return false;
+            }
+            int[][] classes = new int[nodeClasses.length][];
+            for (int i = 0; i < classes.length; i++) {
+                int length = in.readInt();
+                if (length != nodeClasses[i].length) {
+                    return false;
+                }
+                classes[i] = new int[length];
+                for (int wire = 0; wire < length; wire++) {
+                    classes[i][wire] = in.readInt();
+                }
+            }
+            nodeClasses = classes;
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
     @FunctionalInterface
     interface BuildAccumulativeList<T> {
         List<T> apply(List<T> l);
@@ -413,6 +705,36 @@ public class DelayEstimatorBase<T extends InterconnectInfo> implements java.io.S
             tl.put(GroupDelayType.OTHER, (short) 0);
             L.put(T.Orientation.OUTPUT, tl);
         }
+
+        buildGroupArrays();
+    }
+
+    /**
+     * Copy the distance arrays and coefficients of each node group type from the maps into the
+     * arrays used by calcNodeGroupDelay.
+     */
+    private void buildGroupArrays() {
+        groupDistArrays = new short[GROUP_TYPES.length][];
+        groupBaseDelays = new float[GROUP_TYPES.length];
+        groupK2 = new float[GROUP_TYPES.length];
+        for (T.NodeGroupType ng : GROUP_TYPES) {
+            List<Short> dArray = distArrays.get(ng.orientation()).get(ng.type());
+            Float k0 = K0.get(ng.orientation()).get(ng.type());
+            Float k1 = K1.get(ng.orientation()).get(ng.type());
+            Float k2 = K2.get(ng.orientation()).get(ng.type());
+            Short l  = L .get(ng.orientation()).get(ng.type());
+            if (dArray == null || k0 == null || k1 == null || k2 == null || l == null) {
+                // Left null so that using this type fails as it did with the maps
+                continue;
+            }
+            short[] d = new short[dArray.size()];
+            for (int i = 0; i < d.length; i++) {
+                d[i] = dArray.get(i);
+            }
+            groupDistArrays[ng.ordinal()] = d;
+            groupBaseDelays[ng.ordinal()] = k0 + k1 * l;
+            groupK2[ng.ordinal()] = k2;
+        }
     }
 
 
@@ -427,34 +749,30 @@ public class DelayEstimatorBase<T extends InterconnectInfo> implements java.io.S
     short calcNodeGroupDelay(T.NodeGroupType tg, short begLoc, short endLoc, Double dly) {
         int size = (tg.orientation() == T.Orientation.HORIZONTAL) ? numCol : numRow;
         short d = 0;
-        List<Short> dArray = distArrays.get(tg.orientation()).get(tg.type());
+        short[] dArray = groupDistArrays[tg.ordinal()];
         if(endLoc >= 0 && endLoc < size) {
-            short st  = dArray.get(begLoc);
-            short sp  = dArray.get(endLoc);
+            short st  = dArray[begLoc];
+            short sp  = dArray[endLoc];
             // Need abs in case the tg is going to the left.
             d   = (short) Math.abs(sp-st);
         }else if (endLoc < 0 ) {
             if (!useUTurnNodes)
                 return Short.MAX_VALUE/2;// remove negative delay of u-turn NodeGroups at the device boundaries
             else {
-                d = (short) (dArray.get(begLoc) - 2 * dArray.get(0) + dArray.get(-endLoc - 1));
+                d = (short) (dArray[begLoc] - 2 * dArray[0] + dArray[-endLoc - 1]);
             }
         }else if(endLoc >= size) {
             if(!useUTurnNodes) {
                 return Short.MAX_VALUE / 2;
             }else {
                 int index = Math.min(size - 1, endLoc);
-                d = (short) (dArray.get(index) - dArray.get(begLoc));
+                d = (short) (dArray[index] - dArray[begLoc]);
                 int endIndex = (size - 1) - (index - begLoc) - 1;
-                d += dArray.get(size - 1) - dArray.get(endIndex);
+                d += dArray[size - 1] - dArray[endIndex];
             }
         }
 
-        float k0 = K0.get(tg.orientation()).get(tg.type());
-        float k1 = K1.get(tg.orientation()).get(tg.type());
-        float k2 = K2.get(tg.orientation()).get(tg.type());
-        short l  = L .get(tg.orientation()).get(tg.type());
-
-        return (short) (k0 + k1 * l + k2 * d);
+        // Same as k0 + k1 * l + k2 * d
+        return (short) (groupBaseDelays[tg.ordinal()] + groupK2[tg.ordinal()] * d);
     }
 }
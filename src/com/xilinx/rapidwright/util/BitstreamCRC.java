@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.util;
+
+/**
+ * Table-driven computation of the configuration CRC of UltraScale/UltraScale+ bitstreams.
+ *
+ * The configuration logic computes a CRC-32C (Castagnoli, reflected) over every word written to a
+ * configuration register, extended to 37 bits by the 5-bit register address: the 32 data bits are
+ * shifted in first (LSB first), followed by the address bits. Data words are processed a byte at
+ * a time and address bits all at once with lookup tables.
+ *
+ * Since the CRC is linear, the effect of changing a single word can be computed without
+ * recomputing the CRC over the whole bitstream (see {@link #getWordDelta(int)} and
+ * {@link #shift(int, long)}), which allows CRCs of many variants of a bitstream that only differ in
+ * a few words (such as relocated bitstreams) to be updated incrementally.
+ */
+public class BitstreamCRC {
+
+    public static final int POLYNOMIAL = 0x82F63B78;
+
+    private static final int[] BYTE_TABLE = new int[256];
+
+    private static final int[] ADDRESS_TABLE = new int[32];
+
+    /** Matrices (as 32 columns) shifting a CRC difference by 2^i words of unchanged data */
+    private static final int[][] SHIFT_MATRICES = new int[63][];
+
+    static {
+        for (int i = 0; i < BYTE_TABLE.length; i++) {
+            BYTE_TABLE[i] = shiftBits(i, 8);
+        }
+        for (int i = 0; i < ADDRESS_TABLE.length; i++) {
+            ADDRESS_TABLE[i] = shiftBits(i, 5);
+        }
+        SHIFT_MATRICES[0] = new int[32];
+        for (int bit = 0; bit < 32; bit++) {
+            SHIFT_MATRICES[0][bit] = update(1 << bit, 0, 0);
+        }
+        for (int i = 1; i < SHIFT_MATRICES.length; i++) {
+            SHIFT_MATRICES[i] = square(SHIFT_MATRICES[i - 1]);
+        }
+    }
+
+    private int crc;
+
+    private static int shiftBits(int crc, int bits) {
+        for (int i = 0; i < bits; i++) {
+            crc = (crc & 1) != 0 ? (crc >>> 1) ^ POLYNOMIAL : crc >>> 1;
+        }
+        return crc;
+    }
+
+    /**
+     * Updates a CRC value with one word written to a configuration register.
+     * @param crc The current CRC value.
+     * @param register The address of the register written to (only the lower 5 bits are used).
+     * @param word The data word.
+     * @return The updated CRC value.
+     */
+    public static int update(int crc, int register, int word) {
+        crc ^= word;
+        crc = (crc >>> 8) ^ BYTE_TABLE[crc & 0xFF];
+        crc = (crc >>> 8) ^ BYTE_TABLE[crc & 0xFF];
+        crc = (crc >>> 8) ^ BYTE_TABLE[crc & 0xFF];
+        crc = (crc >>> 8) ^ BYTE_TABLE[crc & 0xFF];
+        crc ^= register & 0x1F;
+        return (crc >>> 5) ^ ADDRESS_TABLE[crc & 0x1F];
+    }
+
+    /**
+     * Updates this CRC with words written to a configuration register.
+     * @param register The address of the register written to.
+     * @param words The data words.
+     * @param offset The index of the first word to use.
+     * @param length The number of words to use.
+     */
+    public void update(int register, int[] words, int offset, int length) {
+        int c = crc;
+        for (int i = offset; i < offset + length; i++) {
+            c = update(c, register, words[i]);
+        }
+        crc = c;
+    }
+
+    public int getValue() {
+        return crc;
+    }
+
+    public void reset() {
+        crc = 0;
+    }
+
+    private static int multiply(int[] matrix, int vector) {
+        int result = 0;
+        for (int bit = 0; vector != 0; bit++, vector >>>= 1) {
+            if ((vector & 1) != 0) {
+                result ^= matrix[bit];
+            }
+        }
+        return result;
+    }
+
+    private static int[] square(int[] matrix) {
+        int[] result = new int[32];
+        for (int bit = 0; bit < 32; bit++) {
+            result[bit] = multiply(matrix, matrix[bit]);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the difference a changed word makes to the CRC right after it has been processed.
+     * @param wordDifference The XOR of the original and the changed word.
+     * @return The difference of the CRC values.
+     */
+    public static int getWordDelta(int wordDifference) {
+        return update(0, 0, wordDifference);
+    }
+
+    /**
+     * Propagates a difference of CRC values through a number of words that are the same in both
+     * bitstreams. The register addresses of these words do not matter.
+     * @param delta The XOR of two CRC values.
+     * @param words The number of words processed after the difference arose.
+     * @return The XOR of the two CRC values after these words.
+     */
+    public static int shift(int delta, long words) {
+        for (int i = 0; words != 0 && delta != 0; i++, words >>>= 1) {
+            if ((words & 1) != 0) {
+                delta = multiply(SHIFT_MATRICES[i], delta);
+            }
+        }
+        return delta;
+    }
+}
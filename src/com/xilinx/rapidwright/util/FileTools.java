@@ -116,8 +116,12 @@ public class FileTools {
 	public static final String PART_DB_PATH = DATA_FOLDER_NAME + File.separator + "parts.db";
 	/** Location of the cell pins default data file */
 	public static final String CELL_PIN_DEFAULTS_FILE_NAME = DATA_FOLDER_NAME + File.separator + "cell_pin_defaults.dat";
-	/** Common instance of the Kryo class for serialization purposes */	
-	private static Kryo kryo;
+	/** Per-thread instance of the Kryo class for serialization purposes (Kryo is not thread-safe) */
+	private static final ThreadLocal<Kryo> kryo = ThreadLocal.withInitial(() -> {
+		Kryo k = new Kryo();
+		k.setRegistrationRequired(false);
+		return k;
+	});
 	/** Supporting data folders packed in standalone jars of RapidWright */ 
 	public static final String[] UNPACK_FOLDERS = new String[]{DATA_FOLDER_NAME, TCL_FOLDER_NAME, 
 	        IMAGES_FOLDER_NAME, TimingModel.TIMING_DATA_DIR};
@@ -1226,11 +1230,7 @@ public class FileTools {
     }
 	
 	public static Kryo getKryoInstance(){
-		if(kryo == null){
-			kryo = new Kryo();
-			kryo.setRegistrationRequired(false);
-		}
-		return kryo;
+		return kryo.get();
 	}
 
 	/**
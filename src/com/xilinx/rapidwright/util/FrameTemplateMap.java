@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A map from frame addresses to frame data, as used by {@link ReplaceFrameData}.
+ *
+ * Addresses (config row, column and minor) are packed into a single long (see
+ * {@link #getKey(int, int, int)}) and stored with open addressing and linear probing in
+ * primitive arrays, so neither lookups nor insertions allocate. Instances are not thread-safe.
+ *
+ * Templates are stored in a compact binary format: a header ({@link #MAGIC}, format version,
+ * words per frame and number of frames) followed by the packed address and data words of each
+ * frame, in ascending address order.
+ */
+public class FrameTemplateMap {
+
+    /** First bytes of a binary template file ("RWFT") */
+    public static final int MAGIC = 0x52574654;
+
+    public static final int VERSION = 1;
+
+    /** Marks an unused slot; it is the key of row {@link Integer#MIN_VALUE}, which is never valid */
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+
+    private int[][] values;
+
+    private int size;
+
+    public FrameTemplateMap() {
+        this(64);
+    }
+
+    public FrameTemplateMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 4) * 2 - 1) << 1;
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new int[capacity][];
+    }
+
+    /**
+     * Packs a frame address into a key. Columns and minor addresses must fit into 16 bits.
+     * @param row The config row.
+     * @param col The column.
+     * @param minor The minor address within the column.
+     * @return The packed key.
+     */
+    public static long getKey(int row, int col, int minor) {
+        if ((col & ~0xFFFF) != 0 || (minor & ~0xFFFF) != 0 || row == Integer.MIN_VALUE) {
+            throw new RuntimeException("ERROR: Invalid frame address row " + row + " col " + col + " minor " + minor);
+        }
+        return ((long) row << 32) | ((long) col << 16) | minor;
+    }
+
+    public static int getRow(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int getCol(long key) {
+        return (int) ((key >>> 16) & 0xFFFF);
+    }
+
+    public static int getMinor(long key) {
+        return (int) (key & 0xFFFF);
+    }
+
+    private int getSlot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        int mask = keys.length - 1;
+        int slot = (int) (h >>> 32) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * @param key A packed frame address.
+     * @return The frame data of the address, or null if there is none.
+     */
+    public int[] get(long key) {
+        return values[getSlot(key)];
+    }
+
+    public boolean containsKey(long key) {
+        return keys[getSlot(key)] == key;
+    }
+
+    /**
+     * Sets the frame data of an address, replacing any previous data.
+     * @param key A packed frame address.
+     * @param data The frame data.
+     */
+    public void put(long key, int[] data) {
+        if (key == EMPTY) {
+            throw new RuntimeException("ERROR: Invalid frame address key " + key);
+        }
+        int slot = getSlot(key);
+        if (keys[slot] != key) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+                slot = getSlot(key);
+            }
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = data;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[][] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        values = new int[oldKeys.length * 2][];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = getSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Adds all frames of another map, replacing the data of addresses present in both.
+     * @param other The map to add.
+     */
+    public void putAll(FrameTemplateMap other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != EMPTY) {
+                put(other.keys[i], other.values[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return All keys in ascending order.
+     */
+    public long[] getKeys() {
+        long[] sorted = new long[size];
+        int i = 0;
+        for (long key : keys) {
+            if (key != EMPTY) {
+                sorted[i++] = key;
+            }
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Creates a copy of this map with all config rows moved by an offset.
+     * @param inc The number of rows to add.
+     * @return The new map, sharing the frame data with this one.
+     */
+    public FrameTemplateMap withRowOffset(int inc) {
+        FrameTemplateMap moved = new FrameTemplateMap(size);
+        for (int i = 0; i < keys.length; i++) {
+            long key = keys[i];
+            if (key != EMPTY) {
+                moved.put(getKey(getRow(key) + inc, getCol(key), getMinor(key)), values[i]);
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Writes all frames in the binary template format. All frames must have the same length.
+     * @param out The stream to write to.
+     * @throws IOException If writing fails.
+     */
+    public void write(DataOutputStream out) throws IOException {
+        long[] sorted = getKeys();
+        int wordsPerFrame = sorted.length == 0 ? 0 : get(sorted[0]).length;
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(wordsPerFrame);
+        out.writeInt(sorted.length);
+        for (long key : sorted) {
+            int[] data = get(key);
+            if (data.length != wordsPerFrame) {
+                throw new RuntimeException("ERROR: Frames of different lengths in template: " + data.length
+                        + " and " + wordsPerFrame + " words");
+            }
+            out.writeLong(key);
+            for (int word : data) {
+                out.writeInt(word);
+            }
+        }
+    }
+
+    /**
+     * Reads frames in the binary template format (as written by {@link #write(DataOutputStream)}).
+     * @param in The stream to read from, positioned after the {@link #MAGIC} number.
+     * @return The frames read.
+     * @throws IOException If reading fails or the version is not supported.
+     */
+    public static FrameTemplateMap read(DataInputStream in) throws IOException {
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported frame template version " + version);
+        }
+        int wordsPerFrame = in.readInt();
+        int count = in.readInt();
+        FrameTemplateMap map = new FrameTemplateMap(count);
+        for (int i = 0; i < count; i++) {
+            long key = in.readLong();
+            int[] data = new int[wordsPerFrame];
+            for (int j = 0; j < wordsPerFrame; j++) {
+                data[j] = in.readInt();
+            }
+            map.put(key, data);
+        }
+        return map;
+    }
+}
@@ -27,8 +27,10 @@ package com.xilinx.rapidwright.util;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -46,6 +48,13 @@ public abstract class Job {
 	
 	private long jobNumber;
 
+	/** Launch and exit times in milliseconds, -1 if not yet known */
+	private volatile long startTime = -1;
+	private volatile long endTime = -1;
+
+	/** Estimated runtime in seconds used for scheduling, negative if unknown */
+	private double estimatedRuntime = -1;
+
 	public static final String DEFAULT_SCRIPT_NAME = "run";
 	
 	public static final String DEFAULT_COMMAND_NAME = "cmd";
@@ -67,8 +76,84 @@ public abstract class Job {
 	public abstract boolean jobWasSuccessful();
 	
 	public abstract void killJob();
-	
-	
+
+	/**
+	 * Gets a future that is completed when this job exits, so that callers do not need to poll
+	 * {@link #getJobState()}. Only valid after {@link #launchJob()}.
+	 * @return The future, or null if this type of job can only be polled.
+	 */
+	public CompletableFuture<Job> onExit() {
+		return null;
+	}
+
+	/**
+	 * Records the launch time of this job, if not recorded yet.
+	 */
+	protected void markStarted() {
+		if (startTime < 0) {
+			startTime = System.currentTimeMillis();
+		}
+	}
+
+	/**
+	 * Records the exit time of this job, if not recorded yet.
+	 */
+	protected void markFinished() {
+		if (endTime < 0) {
+			endTime = System.currentTimeMillis();
+		}
+	}
+
+	/**
+	 * @return Wall clock time in seconds from launch until exit (or until now if still running),
+	 * -1 if the job has not been launched.
+	 */
+	public double getWallTime() {
+		if (startTime < 0) {
+			return -1;
+		}
+		return ((endTime < 0 ? System.currentTimeMillis() : endTime) - startTime) / 1000.0;
+	}
+
+	/**
+	 * @return User plus system CPU time in seconds of the finished job, -1 if not available.
+	 */
+	public double getCPUTime() {
+		return -1;
+	}
+
+	/**
+	 * @return Peak resident set size in kilobytes of the finished job, -1 if not available.
+	 */
+	public long getPeakRSS() {
+		return -1;
+	}
+
+	/**
+	 * @return The estimated runtime in seconds, negative if unknown.
+	 */
+	public double getEstimatedRuntime() {
+		return estimatedRuntime;
+	}
+
+	/**
+	 * Sets the expected runtime of this job, as used by schedulers such as
+	 * {@link JobQueue#LONGEST_ESTIMATED_RUNTIME_FIRST}.
+	 * @param estimatedRuntime Estimated runtime in seconds.
+	 */
+	public void setEstimatedRuntime(double estimatedRuntime) {
+		this.estimatedRuntime = estimatedRuntime;
+	}
+
+	/**
+	 * Gets the lines of the launch script that run the command. They are executed in the run
+	 * directory and must exit with the exit code of the command.
+	 * @return The script lines.
+	 */
+	protected List<String> getCommandScriptLines() {
+		return Collections.singletonList(getCommand() + " > " + DEFAULT_COMMAND_LOG_FILE + " 2>&1");
+	}
+
 	public Pair<String,String> createLaunchScript(){
 		List<String> startupScript = new ArrayList<>();
 		
@@ -77,7 +162,7 @@ public abstract class Job {
 		FileTools.makeDirs(dir);
 		
 		startupScript.add("cd " + dir);
-		startupScript.add(getCommand() + " > " + DEFAULT_COMMAND_LOG_FILE + " 2>&1");
+		startupScript.addAll(getCommandScriptLines());
 
 		String startupScriptName = dir + File.separator + DEFAULT_SCRIPT_NAME + scriptExt;
 		FileTools.writeLinesToTextFile(startupScript, startupScriptName);
@@ -26,18 +26,33 @@
 package com.xilinx.rapidwright.util;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.stream.Collectors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Used to manage a batch of task jobs to run in parallel. 
  * 
+ * Jobs that report their exit through {@link Job#onExit()} (such as {@link LocalJob}s) are
+ * tracked through a completion queue, so that waiting jobs are launched as soon as a slot frees
+ * up. Other jobs are polled every {@link #POLL_INTERVAL_MS}. The order in which waiting jobs are
+ * launched is determined by a scheduler, see {@link #setScheduler(Comparator)}.
+ * 
  * Created on: Jan 26, 2018
  */
 public class JobQueue {
@@ -48,21 +63,45 @@ public class JobQueue {
 	
 	public static boolean USE_LSF_IF_AVAILABLE = true;
 
+	/** Interval at which jobs without exit notification are polled and the status is printed */
+	public static long POLL_INTERVAL_MS = 2000;
+
+	/** Launches jobs in the order in which they were added */
+	public static final Comparator<Job> FIFO = (a, b) -> 0;
+
+	/**
+	 * Launches jobs with the longest estimated runtime first (jobs without an estimate last),
+	 * which shortens the total runtime when jobs have very different runtimes.
+	 */
+	public static final Comparator<Job> LONGEST_ESTIMATED_RUNTIME_FIRST =
+			Comparator.comparingDouble((Job j) -> j.getEstimatedRuntime()).reversed();
+
 	private final boolean printJobStart;
 
 	private Queue<Job> waitingToRun;
+
+	private Comparator<Job> scheduler = FIFO;
+
+	/** Order in which jobs were added, to break ties of the scheduler */
+	private final Map<Job, Long> addOrder = new HashMap<>();
 	
 	private ConcurrentLinkedQueue<Job> running;
+
+	/** Jobs that have notified their exit, but are not yet moved to finished */
+	private final BlockingQueue<Job> exited = new LinkedBlockingQueue<>();
 	
 	private Queue<Job> finished;
 
+	/** Called from {@link #runAllToCompletion(int)} whenever a job has finished */
+	private Consumer<Job> finishedListener;
+
 	public static final String LSF_AVAILABLE_OPTION = "-lsf_available";
 	public static final String LSF_RESOURCE_OPTION = "-lsf_resource";
 	public static final String LSF_QUEUE_OPTION = "-lsf_queue";
 	
 	
 	public JobQueue(boolean printJobStart){
-		waitingToRun = new LinkedList<>();
+		waitingToRun = createWaitingQueue();
 		running = new ConcurrentLinkedQueue<>();
 		finished = new LinkedList<>();
 		this.printJobStart = printJobStart;
@@ -71,14 +110,75 @@ public class JobQueue {
 		this(true);
 	}
 	
+	private PriorityQueue<Job> createWaitingQueue() {
+		return new PriorityQueue<>(scheduler.thenComparing(addOrder::get));
+	}
+
+	/**
+	 * Sets the order in which waiting jobs are launched, such as {@link #FIFO} (the default) or
+	 * {@link #LONGEST_ESTIMATED_RUNTIME_FIRST}. Jobs that compare equal are launched in the order
+	 * in which they were added.
+	 * @param scheduler Comparator ordering jobs by launch priority
+	 */
+	public void setScheduler(Comparator<Job> scheduler) {
+		this.scheduler = Objects.requireNonNull(scheduler);
+		Queue<Job> waiting = waitingToRun;
+		waitingToRun = createWaitingQueue();
+		waitingToRun.addAll(waiting);
+	}
+
 	public boolean addJob(Job j){
-		return waitingToRun.add(Objects.requireNonNull(j));
+		addOrder.put(Objects.requireNonNull(j), (long) addOrder.size());
+		return waitingToRun.add(j);
 	}
 	
 	public boolean addRunningJob(Job j){
+		j.markStarted();
+		CompletableFuture<Job> exit = j.onExit();
+		if (exit != null) {
+			exit.thenRun(() -> exited.add(j));
+		}
 		return running.add(j);
 	}
 
+	private void finishJob(Job j) {
+		if (running.remove(j)) {
+			j.markFinished();
+			finished.add(j);
+			if (finishedListener != null) {
+				finishedListener.accept(j);
+			}
+		}
+	}
+
+	/**
+	 * Sets a listener that is notified of each finished job, before any further waiting jobs are
+	 * launched. The listener runs on the thread calling {@link #runAllToCompletion(int)} and may
+	 * call {@link #removeWaitingJobs(Predicate)}.
+	 * @param finishedListener The listener, or null to remove it
+	 */
+	public void setFinishedListener(Consumer<Job> finishedListener) {
+		this.finishedListener = finishedListener;
+	}
+
+	/**
+	 * Removes jobs that have not yet been launched.
+	 * @param filter Selects the waiting jobs to remove
+	 * @return Number of jobs removed
+	 */
+	public int removeWaitingJobs(Predicate<Job> filter) {
+		int count = waitingToRun.size();
+		waitingToRun.removeIf(filter);
+		return count - waitingToRun.size();
+	}
+
+	/**
+	 * @return All jobs that have finished so far, in order of completion
+	 */
+	public List<Job> getFinishedJobs() {
+		return Collections.unmodifiableList(new ArrayList<>(finished));
+	}
+
 	public boolean runAllToCompletion() {
 		return runAllToCompletion(isLSFAvailable() ? JobQueue.MAX_LSF_CONCURRENT_JOBS : JobQueue.MAX_LOCAL_CONCURRENT_JOBS);
 	}
@@ -86,21 +186,24 @@ public class JobQueue {
 	public boolean runAllToCompletion(int maxNumRunningJobs){
 		while(!waitingToRun.isEmpty() || !running.isEmpty()){
 
-			final Map<JobState, List<Job>> jobsByState = running.stream().collect(Collectors.groupingBy(Job::getJobState, ()->new EnumMap<>(JobState.class), Collectors.toList()));
-			final List<Job> exited = jobsByState.get(JobState.EXITED);
-			if (exited != null) {
-				for (Job job : exited) {
-					running.remove(job);
-					finished.add(job);
+			for (Job j = exited.poll(); j != null; j = exited.poll()) {
+				finishJob(j);
+			}
+			// Jobs with exit notification are known to be running, only poll the others
+			final Map<JobState, List<Job>> jobsByState = new EnumMap<>(JobState.class);
+			for (Job j : running) {
+				JobState state = j.onExit() == null ? j.getJobState() : JobState.RUNNING;
+				if (state == JobState.EXITED) {
+					finishJob(j);
+				} else {
+					jobsByState.computeIfAbsent(state, k -> new ArrayList<>()).add(j);
 				}
-				//Removing from map so they don't show up in our printout
-				jobsByState.remove(JobState.EXITED);
 			}
 			boolean launched = false;
 			while(!waitingToRun.isEmpty() && maxNumRunningJobs > running.size()){
 				Job j = waitingToRun.poll();
 				long pid = j.launchJob();
-				running.add(j);
+				addRunningJob(j);
 				if (printJobStart) {
 					System.out.println("Running job [" + pid + "] " + j.getCommand() + " in " + j.getRunDir());
 				}
@@ -115,13 +218,23 @@ public class JobQueue {
 				System.out.println(waitingToRun.size()+" not yet started...");
 			}
 
+			if (running.isEmpty()) {
+				continue;
+			}
 			try {
-				Thread.sleep(2000);
+				// Wakes up as soon as any job exits, otherwise polls again after the interval
+				Job j = exited.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+				if (j != null) {
+					finishJob(j);
+				}
 			} catch (InterruptedException e) {
 				killAllRunningJobs();
 				throw new RuntimeException("ERROR: Jobs killed due to InterruptedException");
 			}
 		}
+		if (printJobStart) {
+			printJobStatistics();
+		}
 		int failedCount = 0;
 		boolean success = true;
 		for(Job j : finished){
@@ -151,6 +264,35 @@ public class JobQueue {
 	}
 	
 	
+	/**
+	 * Prints the total and maximum wall time, CPU time and peak RSS of all finished jobs, as far
+	 * as they are known.
+	 */
+	public void printJobStatistics() {
+		double totalWall = 0;
+		double maxWall = 0;
+		double totalCPU = 0;
+		long maxRSS = -1;
+		int cpuCount = 0;
+		for (Job j : finished) {
+			totalWall += Math.max(0, j.getWallTime());
+			maxWall = Math.max(maxWall, j.getWallTime());
+			if (j.getCPUTime() >= 0) {
+				totalCPU += j.getCPUTime();
+				cpuCount++;
+			}
+			maxRSS = Math.max(maxRSS, j.getPeakRSS());
+		}
+		System.out.printf("Finished %d jobs: wall time %.1fs total, %.1fs max", finished.size(), totalWall, maxWall);
+		if (cpuCount > 0) {
+			System.out.printf(", CPU time %.1fs total (%d jobs)", totalCPU, cpuCount);
+		}
+		if (maxRSS >= 0) {
+			System.out.printf(", peak RSS %.1fMB max", maxRSS / 1024.0);
+		}
+		System.out.println();
+	}
+
 	public boolean killAllRunningJobs(){
 		for(Job j : running) {
 			j.killJob();
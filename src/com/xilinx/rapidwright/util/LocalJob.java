@@ -27,6 +27,14 @@ package com.xilinx.rapidwright.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 
 
@@ -37,10 +45,62 @@ import java.io.IOException;
  */
 public class LocalJob extends Job {
 
+	/** File in the run directory to which the shell writes the CPU times of the command */
+	public static final String CPU_TIMES_FILE = DEFAULT_COMMAND_NAME + ".times";
+
+	/** File in the run directory to which GNU time writes the peak RSS of the command */
+	public static final String PEAK_RSS_FILE = DEFAULT_COMMAND_NAME + ".rss";
+
+	private static final String GNU_TIME = "/usr/bin/time";
+
+	private static final boolean MEASURE_PEAK_RSS = System.getProperty("os.name").toLowerCase().contains("linux")
+			&& new File(GNU_TIME).canExecute();
+
+	private static final Pattern CPU_TIME_PATTERN = Pattern.compile("(\\d+)m([\\d.]+)s");
+
+	/** Threads that wait for processes to exit, one per running job */
+	private static final ExecutorService exitWaiters = Executors.newCachedThreadPool(r -> {
+		Thread t = new Thread(r, "LocalJob exit waiter");
+		t.setDaemon(true);
+		return t;
+	});
+
 	private Process p;
 	
-	private static int jobCount = 0;
-	
+	private static final AtomicInteger jobCount = new AtomicInteger();
+
+	private final CompletableFuture<Job> exitFuture = new CompletableFuture<>();
+
+	private double cpuTime = -1;
+
+	private long peakRSS = -1;
+
+	@Override
+	protected List<String> getCommandScriptLines() {
+		if (FileTools.isWindows()) {
+			return super.getCommandScriptLines();
+		}
+		List<String> lines = new ArrayList<>();
+		String command = MEASURE_PEAK_RSS ? wrapWithPeakRSS(getCommand()) : getCommand();
+		lines.add(command + " > " + DEFAULT_COMMAND_LOG_FILE + " 2>&1");
+		lines.add("rc=$?");
+		// The second line of output contains the user and system time of child processes
+		lines.add("times > " + CPU_TIMES_FILE);
+		lines.add("exit $rc");
+		return lines;
+	}
+
+	/**
+	 * Wraps a command so that GNU time writes its peak RSS to {@link #PEAK_RSS_FILE}. The command
+	 * is run by a separate shell, so that lists, pipelines, builtins and variable assignments
+	 * behave as they would without the wrapper.
+	 * @param command The shell command
+	 * @return The wrapped command
+	 */
+	static String wrapWithPeakRSS(String command) {
+		return GNU_TIME + " -f %M -o " + PEAK_RSS_FILE + " sh -c '" + command.replace("'", "'\\''") + "'";
+	}
+
 	/* (non-Javadoc)
 	 * @see com.xilinx.rapidwright.util.Job#launchJob()
 	 */
@@ -57,16 +117,95 @@ public class LocalJob extends Job {
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
+		markStarted();
 		setJobNumber(getProcessID());
+		if (p == null) {
+			markFinished();
+			exitFuture.complete(this);
+		} else {
+			final Process process = p;
+			exitWaiters.execute(() -> {
+				while (true) {
+					try {
+						process.waitFor();
+						break;
+					} catch (InterruptedException e) {
+						// Keep waiting, the process is still running
+					}
+				}
+				markFinished();
+				readStats();
+				exitFuture.complete(this);
+			});
+		}
 		return getJobNumber();
 	}
 
+	private void readStats() {
+		String dir = getRunDir() == null ? System.getProperty("user.dir") : getRunDir();
+		File times = new File(dir, CPU_TIMES_FILE);
+		if (times.exists()) {
+			cpuTime = parseCPUTime(FileTools.getLinesFromTextFile(times.getAbsolutePath()));
+		}
+		File rss = new File(dir, PEAK_RSS_FILE);
+		if (rss.exists()) {
+			peakRSS = parsePeakRSS(FileTools.getLinesFromTextFile(rss.getAbsolutePath()));
+		}
+	}
+
+	/**
+	 * Parses the output of the shell's 'times' builtin.
+	 * @param lines Output lines, the second of which holds the user and system time of children
+	 * @return User plus system CPU time in seconds, -1 if the output is not recognized
+	 */
+	static double parseCPUTime(List<String> lines) {
+		if (lines.size() < 2) {
+			return -1;
+		}
+		Matcher m = CPU_TIME_PATTERN.matcher(lines.get(1));
+		double total = 0;
+		int count = 0;
+		while (m.find()) {
+			total += Integer.parseInt(m.group(1)) * 60 + Double.parseDouble(m.group(2));
+			count++;
+		}
+		return count == 2 ? total : -1;
+	}
+
+	/**
+	 * Parses the peak RSS written by GNU time with format %M.
+	 * @param lines Output lines
+	 * @return Peak RSS in kilobytes, -1 if the output is not recognized
+	 */
+	static long parsePeakRSS(List<String> lines) {
+		// GNU time prefixes a line about the exit status if the command failed
+		if (lines.isEmpty() || !lines.get(lines.size() - 1).trim().matches("\\d+")) {
+			return -1;
+		}
+		return Long.parseLong(lines.get(lines.size() - 1).trim());
+	}
+
+	@Override
+	public CompletableFuture<Job> onExit() {
+		return exitFuture;
+	}
+
+	@Override
+	public double getCPUTime() {
+		return cpuTime;
+	}
+
+	@Override
+	public long getPeakRSS() {
+		return peakRSS;
+	}
+
 	/* (non-Javadoc)
 	 * @see com.xilinx.rapidwright.util.Job#getJobState()
 	 */
 	@Override
 	public JobState getJobState() {
-		return p.isAlive() ? JobState.RUNNING : JobState.EXITED;
+		return p != null && p.isAlive() ? JobState.RUNNING : JobState.EXITED;
 	}
 
 	/* (non-Javadoc)
@@ -74,34 +213,16 @@ public class LocalJob extends Job {
 	 */
 	@Override
 	public boolean jobWasSuccessful() {
-		return p.exitValue() == 0;
+		return p != null && p.exitValue() == 0;
 	}
 
-	
+	/**
+	 * Gets a unique ID for this job. The process ID is not available without reflective
+	 * access to JDK internals on Java 8, so a running count is used.
+	 * @return The job ID
+	 */
 	public long getProcessID(){
-		/* -- This technique uses reflective access to private members of protected JDK classes
-		 * -- and causes warnings and potentially future errors.  We will just use a running
-		 * -- count for unique IDs.
-		String className = p.getClass().getName();
-		if(className.equals("java.lang.UNIXProcess")){
-			try{
-				Field f = p.getClass().getDeclaredField("pid");
-				f.setAccessible(true);
-				return f.getInt(p);
-			}catch(Exception e){
-				return -1;
-			}
-		}else if(className.equals("java.lang.ProcessImpl") || className.equals("java.lang.Win32Process")){
-			try{
-				Field f = p.getClass().getDeclaredField("handle");
-				f.setAccessible(true);
-				return (int)f.getLong(p);
-			}catch(Exception e){
-				return -1;
-			}
-		}
-		*/
-		return ++jobCount;
+		return jobCount.incrementAndGet();
 	}
 
 	/* (non-Javadoc)
@@ -228,6 +228,10 @@ public class MessageGenerator{
 		return String.format("%-35s %10s\n", s, value);
 	}
 
+	public static String formatString(String s, String value) {
+		return String.format("%-35s %10s\n", s, value);
+	}
+
 	public static String formatString(String s, int value) {
 		return String.format("%-35s %10d\n", s, value);
 	}
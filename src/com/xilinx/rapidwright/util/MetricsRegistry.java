@@ -0,0 +1,396 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects machine-readable metrics of a run: timers, counters, gauges and series of records
+ * (such as one record per router iteration), which can be written as JSON or CSV.
+ *
+ * Names are hierarchical, with levels separated by '/' (for example "rwroute/iterations"). All
+ * methods are thread-safe and do nothing while the registry is disabled, so instrumented code
+ * can call them unconditionally.
+ *
+ * The global registry ({@link #getGlobal()}) is enabled by setting the environment variable
+ * {@link #RW_METRICS} to an output file name ending in .json or .csv, to which all metrics are
+ * written when the JVM exits. If {@link #RW_METRICS_SAMPLE_MS} is also set, heap usage, garbage
+ * collection and thread CPU time are sampled at that interval.
+ */
+public class MetricsRegistry {
+
+    /** Environment variable naming the file that the global metrics are written to on exit */
+    public static final String RW_METRICS = "RW_METRICS";
+
+    /** Environment variable setting the JVM sampling interval of the global metrics in milliseconds */
+    public static final String RW_METRICS_SAMPLE_MS = "RW_METRICS_SAMPLE_MS";
+
+    /** Name of the series recorded by {@link #startSampling(long)} */
+    public static final String JVM_SERIES = "jvm";
+
+    private static final MetricsRegistry GLOBAL = createGlobal();
+
+    private volatile boolean enabled;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    private final Map<String, Double> gauges = new ConcurrentHashMap<>();
+
+    private final Map<String, List<Map<String, Number>>> series = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService sampler;
+
+    private static class Timer {
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        private synchronized void add(long nanos) {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+    }
+
+    public MetricsRegistry(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    private static MetricsRegistry createGlobal() {
+        String fileName = System.getenv(RW_METRICS);
+        MetricsRegistry registry = new MetricsRegistry(fileName != null);
+        if (fileName != null) {
+            String sampleMs = System.getenv(RW_METRICS_SAMPLE_MS);
+            if (sampleMs != null) {
+                registry.startSampling(Long.parseLong(sampleMs));
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                registry.stopSampling();
+                registry.write(fileName);
+            }));
+        }
+        return registry;
+    }
+
+    /**
+     * Gets the registry used by RapidWright's own instrumentation, see {@link #RW_METRICS}.
+     * @return The global registry.
+     */
+    public static MetricsRegistry getGlobal() {
+        return GLOBAL;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Adds a measurement to a timer, which keeps the number of measurements, the total and the
+     * maximum time.
+     * @param name Hierarchical name of the timer.
+     * @param nanos Elapsed time in nanoseconds.
+     */
+    public void addTime(String name, long nanos) {
+        if (!enabled) return;
+        timers.computeIfAbsent(name, k -> new Timer()).add(nanos);
+    }
+
+    /**
+     * Adds the time elapsed since a start time to a timer.
+     * @param name Hierarchical name of the timer.
+     * @param startNanos Start time as returned by {@link System#nanoTime()}.
+     */
+    public void stopTimer(String name, long startNanos) {
+        if (!enabled) return;
+        addTime(name, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Adds the time elapsed since a start time to a timer and returns the current time, so that
+     * consecutive phases can be timed with a single variable.
+     * @param name Hierarchical name of the timer.
+     * @param startNanos Start time as returned by {@link System#nanoTime()}.
+     * @return The current time as returned by {@link System#nanoTime()}.
+     */
+    public long lap(String name, long startNanos) {
+        long now = System.nanoTime();
+        addTime(name, now - startNanos);
+        return now;
+    }
+
+    public void increment(String name, long delta) {
+        if (!enabled) return;
+        counters.computeIfAbsent(name, k -> new AtomicLong()).addAndGet(delta);
+    }
+
+    public void increment(String name) {
+        increment(name, 1);
+    }
+
+    /**
+     * Sets a gauge, which holds the last value set.
+     * @param name Hierarchical name of the gauge.
+     * @param value The current value.
+     */
+    public void setGauge(String name, double value) {
+        if (!enabled) return;
+        gauges.put(name, value);
+    }
+
+    /**
+     * Appends a record to a series, such as the statistics of one iteration of an algorithm.
+     * @param name Hierarchical name of the series.
+     * @param record Values of the record by column name, in column order.
+     */
+    public void addRecord(String name, Map<String, ? extends Number> record) {
+        if (!enabled) return;
+        List<Map<String, Number>> records = series.computeIfAbsent(name, k -> new ArrayList<>());
+        synchronized (records) {
+            records.add(new LinkedHashMap<>(record));
+        }
+    }
+
+    /**
+     * Starts recording heap usage, garbage collection and CPU time of all live threads as
+     * records of the series {@link #JVM_SERIES} at a fixed interval.
+     * @param periodMs Interval between samples in milliseconds.
+     */
+    public synchronized void startSampling(long periodMs) {
+        if (sampler != null) {
+            throw new RuntimeException("ERROR: Metrics sampling is already running");
+        }
+        long start = System.nanoTime();
+        sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "MetricsRegistry-sampler");
+            t.setDaemon(true);
+            return t;
+        });
+        sampler.scheduleAtFixedRate(() -> sampleJVM(start), 0, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopSampling() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+            sampler = null;
+        }
+    }
+
+    private void sampleJVM(long start) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long gcCount = 0;
+        long gcTime = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcTime += Math.max(0, gc.getCollectionTime());
+        }
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long cpuNanos = 0;
+        if (threads.isThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled()) {
+            for (long id : threads.getAllThreadIds()) {
+                cpuNanos += Math.max(0, threads.getThreadCpuTime(id));
+            }
+        }
+        Map<String, Number> record = new LinkedHashMap<>();
+        record.put("time_s", (System.nanoTime() - start) * 1e-9);
+        record.put("heap_used_bytes", memory.getHeapMemoryUsage().getUsed());
+        record.put("heap_committed_bytes", memory.getHeapMemoryUsage().getCommitted());
+        record.put("gc_count", gcCount);
+        record.put("gc_time_ms", gcTime);
+        record.put("thread_count", threads.getThreadCount());
+        record.put("thread_cpu_s", cpuNanos * 1e-9);
+        addRecord(JVM_SERIES, record);
+    }
+
+    /**
+     * Removes all metrics recorded so far.
+     */
+    public void clear() {
+        timers.clear();
+        counters.clear();
+        gauges.clear();
+        series.clear();
+    }
+
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static String format(Number n) {
+        if (n instanceof Double || n instanceof Float) {
+            double d = n.doubleValue();
+            return Double.isFinite(d) ? Double.toString(d) : "null";
+        }
+        return n.toString();
+    }
+
+    private static <T> List<Map.Entry<String, T>> sorted(Map<String, T> map) {
+        List<Map.Entry<String, T>> entries = new ArrayList<>(map.entrySet());
+        entries.sort(Map.Entry.comparingByKey());
+        return entries;
+    }
+
+    /**
+     * Writes all metrics as a JSON object with the members "timers", "counters", "gauges" and
+     * "series", each mapping metric names to values. Times are in seconds.
+     * @param w The writer to write to.
+     * @throws IOException If writing fails.
+     */
+    public void writeJSON(Writer w) throws IOException {
+        w.write("{\n  \"timers\": {");
+        String sep = "\n";
+        for (Map.Entry<String, Timer> e : sorted(timers)) {
+            Timer t = e.getValue();
+            synchronized (t) {
+                w.write(sep + "    " + quote(e.getKey()) + ": {\"count\": " + t.count + ", \"total_s\": "
+                        + format(t.totalNanos * 1e-9) + ", \"max_s\": " + format(t.maxNanos * 1e-9) + "}");
+            }
+            sep = ",\n";
+        }
+        w.write("\n  },\n  \"counters\": {");
+        sep = "\n";
+        for (Map.Entry<String, AtomicLong> e : sorted(counters)) {
+            w.write(sep + "    " + quote(e.getKey()) + ": " + e.getValue().get());
+            sep = ",\n";
+        }
+        w.write("\n  },\n  \"gauges\": {");
+        sep = "\n";
+        for (Map.Entry<String, Double> e : sorted(gauges)) {
+            w.write(sep + "    " + quote(e.getKey()) + ": " + format(e.getValue()));
+            sep = ",\n";
+        }
+        w.write("\n  },\n  \"series\": {");
+        sep = "\n";
+        for (Map.Entry<String, List<Map<String, Number>>> e : sorted(series)) {
+            w.write(sep + "    " + quote(e.getKey()) + ": [");
+            String recordSep = "\n";
+            synchronized (e.getValue()) {
+                for (Map<String, Number> record : e.getValue()) {
+                    StringBuilder sb = new StringBuilder("{");
+                    for (Map.Entry<String, Number> v : record.entrySet()) {
+                        if (sb.length() > 1) sb.append(", ");
+                        sb.append(quote(v.getKey())).append(": ").append(format(v.getValue()));
+                    }
+                    w.write(recordSep + "      " + sb + "}");
+                    recordSep = ",\n";
+                }
+            }
+            w.write("\n    ]");
+            sep = ",\n";
+        }
+        w.write("\n  }\n}\n");
+    }
+
+    /**
+     * Writes all metrics as CSV with the columns type, name, index, field and value. Timers have
+     * the fields count, total_s and max_s; each record of a series has one row per column, with
+     * the position of the record in the series as the index.
+     * @param w The writer to write to.
+     * @throws IOException If writing fails.
+     */
+    public void writeCSV(Writer w) throws IOException {
+        w.write("type,name,index,field,value\n");
+        for (Map.Entry<String, Timer> e : sorted(timers)) {
+            Timer t = e.getValue();
+            String name = csv(e.getKey());
+            synchronized (t) {
+                w.write("timer," + name + ",,count," + t.count + "\n");
+                w.write("timer," + name + ",,total_s," + format(t.totalNanos * 1e-9) + "\n");
+                w.write("timer," + name + ",,max_s," + format(t.maxNanos * 1e-9) + "\n");
+            }
+        }
+        for (Map.Entry<String, AtomicLong> e : sorted(counters)) {
+            w.write("counter," + csv(e.getKey()) + ",,value," + e.getValue().get() + "\n");
+        }
+        for (Map.Entry<String, Double> e : sorted(gauges)) {
+            w.write("gauge," + csv(e.getKey()) + ",,value," + format(e.getValue()) + "\n");
+        }
+        for (Map.Entry<String, List<Map<String, Number>>> e : sorted(series)) {
+            String name = csv(e.getKey());
+            synchronized (e.getValue()) {
+                int index = 0;
+                for (Map<String, Number> record : e.getValue()) {
+                    for (Map.Entry<String, Number> v : record.entrySet()) {
+                        w.write("series," + name + "," + index + "," + csv(v.getKey()) + "," + format(v.getValue()) + "\n");
+                    }
+                    index++;
+                }
+            }
+        }
+    }
+
+    private static String csv(String s) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0) {
+            return s;
+        }
+        return "\"" + s.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Writes all metrics to a file, as CSV if the name ends in .csv and as JSON otherwise.
+     * @param fileName Name of the output file.
+     */
+    public void write(String fileName) {
+        try (BufferedWriter w = Files.newBufferedWriter(Paths.get(fileName))) {
+            if (fileName.toLowerCase().endsWith(".csv")) {
+                writeCSV(w);
+            } else {
+                writeJSON(w);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("ERROR: Couldn't write metrics to " + fileName, e);
+        }
+    }
+}
@@ -42,6 +42,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
 
 import org.jetbrains.annotations.NotNull;
 
@@ -293,6 +294,38 @@ public class ParallelismTools {
         invokeAll(runnables);
     }
 
+    /**
+     * Run the specified task on every index in the range [0, count). The range is
+     * split into contiguous chunks (a few per thread) that are executed in parallel,
+     * and this method blocks until all chunks are complete.
+     * @param count Number of indices.
+     * @param task The task that should be executed for each index.
+     */
+    public static void invokeAllRange(int count, IntConsumer task) {
+        if (count <= 0) {
+            return;
+        }
+        if (!getParallel()) {
+            for (int i = 0; i < count; i++) {
+                task.accept(i);
+            }
+            return;
+        }
+        final int chunks = maxParallelism() * 4;
+        final int chunkSize = Math.max(1, (count + chunks - 1) / chunks);
+        List<Runnable> runnables = new ArrayList<>();
+        for (int start = 0; start < count; start += chunkSize) {
+            final int begin = start;
+            final int end = Math.min(count, start + chunkSize);
+            runnables.add(() -> {
+                for (int i = begin; i < end; i++) {
+                    task.accept(i);
+                }
+            });
+        }
+        invokeAll(runnables.toArray(new Runnable[0]));
+    }
+
     /**
      * Given a list of tasks-without-return-value, block until all tasks
      * have been completed.
@@ -25,12 +25,17 @@
  */
 package com.xilinx.rapidwright.util;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.xilinx.rapidwright.design.ConstraintGroup;
 import com.xilinx.rapidwright.design.Design;
@@ -42,6 +47,12 @@ import joptsimple.OptionSet;
 /**
  * This class is designed to run multiple instances of Vivado with the goal
  * of achieving a better result than what is produced on average.
+ * 
+ * Each run directory records a key of the run (see {@link #getRunKey(String, String, PlacerDirective,
+ * RouterDirective, String, PBlock)}) once it has completed. When resuming, runs whose key matches
+ * are not launched again, so that an interrupted sweep can be restarted with the same arguments.
+ * Optionally, the remaining runs of a pblock are dropped once enough of its runs meet timing (see
+ * {@link #setEarlyExitCount(int)}).
  * Created on: Mar 20, 2018
  */
 public class PerformanceExplorer {
@@ -50,6 +61,9 @@ public class PerformanceExplorer {
 	private static final String PLACED_TIMING_RESULT = "place_timing.twr";
 	private static final String ROUTED_TIMING_RESULT = "route_timing.twr";
 	private static final String RUN_TCL_NAME = "run.tcl";
+	private static final String RUN_KEY_NAME = "run.key";
+	private static final String ROUTED_DCP_NAME = "routed.dcp";
+	private static final String RESULTS_NAME = "results.txt";
 	private static final double DEFAULT_MIN_CLK_UNCERT = -0.100;
 	private static final double DEFAULT_MAX_CLK_UNCERT = 0.250;
 	private static final double DEFAULT_STEP_CLK_UNCERT = 0.025;
@@ -58,6 +72,8 @@ public class PerformanceExplorer {
 	private static final String DEFAULT_VIVADO = "vivado";
 	private static final boolean DEFAULT_CONTAIN_ROUTING = true;
 	private static final boolean DEFAULT_ADD_EDIF_METADATA = true;
+	private static final boolean DEFAULT_RESUME = true;
+	private static final int DEFAULT_EARLY_EXIT_COUNT = 0;
 
 	private static final DecimalFormat df = new DecimalFormat("#.###");
 	
@@ -89,6 +105,12 @@ public class PerformanceExplorer {
 
 	private String vivadoPath = DEFAULT_VIVADO;
 	
+	private String inputDCP;
+	
+	private boolean resume = DEFAULT_RESUME;
+	
+	private int earlyExitCount = DEFAULT_EARLY_EXIT_COUNT;
+	
 	public PerformanceExplorer(Design d, String testDir, String clkName, double targetPeriod){
 		init(d, testDir, clkName, targetPeriod, null);
 	}
@@ -256,6 +278,125 @@ public class PerformanceExplorer {
 		this.addEDIFAndMetadata = addEDIFAndMetadata;
 	}
 
+	public String getInputDCP() {
+		return inputDCP;
+	}
+
+	/**
+	 * Sets the checkpoint the design was read from. If set, the run keys are computed from this
+	 * file instead of the checkpoint written to the run directory.
+	 * @param inputDCP Path of the input checkpoint
+	 */
+	public void setInputDCP(String inputDCP) {
+		this.inputDCP = inputDCP;
+	}
+
+	public boolean isResume() {
+		return resume;
+	}
+
+	/**
+	 * Sets whether runs that have already completed with the same key are skipped.
+	 * @param resume True to skip completed runs (the default), false to rerun everything
+	 */
+	public void setResume(boolean resume) {
+		this.resume = resume;
+	}
+
+	public int getEarlyExitCount() {
+		return earlyExitCount;
+	}
+
+	/**
+	 * Sets the number of runs of a pblock that have to meet timing before its remaining runs,
+	 * which can no longer change the outcome of the sweep, are dropped. Runs that were already
+	 * launched are completed.
+	 * @param earlyExitCount Number of runs meeting timing, or 0 to always complete all runs
+	 */
+	public void setEarlyExitCount(int earlyExitCount) {
+		this.earlyExitCount = earlyExitCount;
+	}
+
+	/**
+	 * Gets the version of the Vivado executable used to run jobs.
+	 * @return The version line reported by Vivado, or the path to Vivado if it couldn't be run.
+	 */
+	public String getToolVersion() {
+		for(String line : FileTools.execCommandGetOutput(true, vivadoPath, "-version")){
+			if(line.startsWith("Vivado ")){
+				return line.trim();
+			}
+		}
+		return vivadoPath;
+	}
+
+	/**
+	 * Computes the key identifying the result of a run, which is an MD5 hash of all inputs that
+	 * determine its outcome.
+	 * @param dcpChecksum Checksum of the input checkpoint
+	 * @param toolVersion Version of Vivado
+	 * @param p Placer directive
+	 * @param r Router directive
+	 * @param clockUncertainty Clock uncertainty during placement (ns)
+	 * @param pblock The pblock the design is constrained to, or null
+	 * @return The key of the run
+	 */
+	public String getRunKey(String dcpChecksum, String toolVersion, PlacerDirective p, 
+			RouterDirective r, String clockUncertainty, PBlock pblock){
+		StringBuilder sb = new StringBuilder();
+		sb.append(dcpChecksum).append('\n');
+		sb.append(toolVersion).append('\n');
+		sb.append(clkName).append('\n');
+		sb.append(pblock == null ? "" : pblock.toString()).append('\n');
+		sb.append(pblock != null && containRouting).append('\n');
+		sb.append(addEDIFAndMetadata).append('\n');
+		sb.append(p.name()).append('\n');
+		sb.append(r.name()).append('\n');
+		sb.append(clockUncertainty).append('\n');
+		return Installer.calculateMD5OfStream(new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Checks if a run has completed with the provided key.
+	 * @param instDirectory Directory of the run
+	 * @param key Expected key of the run
+	 * @return True if the key and all results of the run are present, false otherwise.
+	 */
+	public static boolean isRunComplete(String instDirectory, String key){
+		File keyFile = new File(instDirectory, RUN_KEY_NAME);
+		if(!keyFile.exists() || !new File(instDirectory, ROUTED_DCP_NAME).exists() 
+				|| !new File(instDirectory, ROUTED_TIMING_RESULT).exists()){
+			return false;
+		}
+		List<String> lines = FileTools.getLinesFromTextFile(keyFile.getAbsolutePath());
+		return !lines.isEmpty() && lines.get(0).trim().equals(key);
+	}
+
+	/**
+	 * Gets the worst slack from a report_timing result file.
+	 * @param timingFile Name of the report file
+	 * @return The slack in ns, or null if the file doesn't exist or contains no slack.
+	 */
+	public static Double getWorstSlack(String timingFile){
+		if(!new File(timingFile).exists()){
+			return null;
+		}
+		for(String line : FileTools.getLinesFromTextFile(timingFile)){
+			line = line.trim();
+			if(line.startsWith("Slack")){
+				String[] tokens = line.split("\\s+");
+				if(tokens.length > 3){
+					try{
+						return Double.parseDouble(tokens[3].replace("ns", ""));
+					} catch(NumberFormatException e){
+						return null;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
 	public ArrayList<String> createTclScript(String initialDcp, String instDirectory, 
 			PlacerDirective p, RouterDirective r, String clockUncertainty, PBlock pblock){
 		ArrayList<String> lines = new ArrayList<>();
@@ -276,11 +417,11 @@ public class PerformanceExplorer {
 		lines.add("report_timing -file "+instDirectory + File.separator+PLACED_TIMING_RESULT);
 		lines.add("route_design -directive " + r.name());
 		lines.add("report_timing -file "+instDirectory + File.separator+ROUTED_TIMING_RESULT);
-		lines.add("write_checkpoint -force " + instDirectory + File.separator + "routed.dcp");
+		lines.add("write_checkpoint -force " + instDirectory + File.separator + ROUTED_DCP_NAME);
 		if(addEDIFAndMetadata){
 			lines.add("write_edif -force " + instDirectory + File.separator + "routed.edf");
 			lines.add("source " + FileTools.getRapidWrightPath() + File.separator + "tcl" + File.separator + "rapidwright.tcl");
-			lines.add("generate_metadata "+ instDirectory + File.separator + "routed.dcp false 0");
+			lines.add("generate_metadata "+ instDirectory + File.separator + ROUTED_DCP_NAME + " false 0");
 		}
 		for (int i = 0 ; i < lines.size(); i++){
 			lines.set(i, lines.get(i).replace('\\', '/'));
@@ -311,6 +452,8 @@ public class PerformanceExplorer {
 		}
 		
 		design.writeCheckpoint(dcpName); 
+		String dcpChecksum = Installer.calculateMD5OfFile(inputDCP == null ? dcpName : inputDCP);
+		String toolVersion = getToolVersion();
 		JobQueue jobs = new JobQueue();
 		
 		if(pblocks == null){
@@ -318,6 +461,12 @@ public class PerformanceExplorer {
 			pblocks.add(null);
 		}
 		
+		// Run directory and key of every run and the pblock index of each launched one
+		Map<String, String> results = new HashMap<>();
+		Map<String, String> keys = new HashMap<>();
+		Map<Job, Integer> jobPBlocks = new HashMap<>();
+		int[] metTiming = new int[pblocks.size()];
+		int cached = 0;
 		for(int pb=0; pb < pblocks.size(); pb++){
 			PBlock pblock = pblocks.get(pb);
 			for(PlacerDirective p : getPlacerDirectives()){
@@ -328,29 +477,96 @@ public class PerformanceExplorer {
 						if(pblock != null){
 							uniqueID = uniqueID + "_pblock" + pb;
 						}
-						System.out.println(uniqueID);
 						String instDir = runDirectory + File.separator + uniqueID;
+						results.put(uniqueID, instDir);
+						String key = getRunKey(dcpChecksum, toolVersion, p, r, roundedC, pblock);
+						keys.put(uniqueID, key);
+						if(resume && isRunComplete(instDir, key)){
+							System.out.println(uniqueID + " (completed)");
+							Double slack = getWorstSlack(instDir + File.separator + ROUTED_TIMING_RESULT);
+							if(slack != null && slack >= 0) metTiming[pb]++;
+							cached++;
+							continue;
+						}
+						System.out.println(uniqueID);
 						FileTools.makeDir(instDir);
+						// Don't leave results of an earlier sweep behind if this run fails or is dropped
+						new File(instDir, RUN_KEY_NAME).delete();
+						new File(instDir, ROUTED_TIMING_RESULT).delete();
 						ArrayList<String> tcl = createTclScript(dcpName, instDir, p, r, roundedC, pblock);
+						// Only record the key once all results are written
+						String keyFile = (instDir + File.separator + RUN_KEY_NAME).replace('\\', '/');
+						tcl.add("set key_file [open " + keyFile + " w]");
+						tcl.add("puts $key_file " + key);
+						tcl.add("close $key_file");
 						String scriptName = instDir + File.separator + RUN_TCL_NAME;
 						FileTools.writeLinesToTextFile(tcl, scriptName);
 						
 						Job j = JobQueue.createJob();
 						j.setRunDir(instDir);
 						j.setCommand(getVivadoPath() + " -mode batch -source " + scriptName);
-						@SuppressWarnings("unused")
-						long id = j.launchJob();
-						jobs.addRunningJob(j);
+						jobs.addJob(j);
+						jobPBlocks.put(j, pb);
 					}
 				}
 			}			
 		}
+		if(cached > 0){
+			System.out.println("Skipping " + cached + " completed runs");
+		}
+		
+		if(earlyExitCount > 0){
+			for(int pb=0; pb < pblocks.size(); pb++){
+				final int pblockIdx = pb;
+				if(metTiming[pb] >= earlyExitCount){
+					jobs.removeWaitingJobs(j -> jobPBlocks.get(j) == pblockIdx);
+				}
+			}
+			jobs.setFinishedListener(j -> {
+				int pb = jobPBlocks.get(j);
+				Double slack = getWorstSlack(j.getRunDir() + File.separator + ROUTED_TIMING_RESULT);
+				if(slack == null || slack < 0 || ++metTiming[pb] != earlyExitCount) return;
+				int removed = jobs.removeWaitingJobs(w -> jobPBlocks.get(w) == pb);
+				if(removed > 0){
+					System.out.println(earlyExitCount + " runs met timing, dropping " + removed 
+							+ " remaining runs" + (pblocks.get(pb) == null ? "" : " of pblock " + pb));
+				}
+			});
+		}
 		
 		boolean success = jobs.runAllToCompletion();
+		writeResults(results, keys);
 
 		System.out.println("Performance Explorer " + (success ? "Finished Successfully." : "Failed!"));
 	}
 	
+	/**
+	 * Writes the worst slack of all runs (best first) to the results file in the run directory. 
+	 * Runs without a result (or whose key doesn't match the current sweep) were either dropped or
+	 * failed.
+	 */
+	void writeResults(Map<String, String> runs, Map<String, String> keys){
+		Map<String, Double> slacks = new HashMap<>();
+		for(Map.Entry<String, String> e : runs.entrySet()){
+			String instDir = e.getValue();
+			Double slack = isRunComplete(instDir, keys.get(e.getKey())) ? 
+					getWorstSlack(instDir + File.separator + ROUTED_TIMING_RESULT) : null;
+			slacks.put(e.getKey(), slack);
+		}
+		List<String> ids = new ArrayList<>(runs.keySet());
+		ids.sort(Comparator.comparing((String id) -> slacks.get(id), 
+				Comparator.nullsLast(Comparator.reverseOrder())).thenComparing(id -> id));
+		ArrayList<String> lines = new ArrayList<>();
+		for(String id : ids){
+			Double slack = slacks.get(id);
+			lines.add(id + " " + (slack == null ? "N/A" : printNS(slack)));
+		}
+		FileTools.writeLinesToTextFile(lines, runDirectory + File.separator + RESULTS_NAME);
+		if(!ids.isEmpty() && slacks.get(ids.get(0)) != null){
+			System.out.println("Best run: " + lines.get(0));
+		}
+	}
+	
 	
 	private static final String INPUT_DCP_OPT = "i";
 	private static final String PBLOCK_FILE_OPT = "b";
@@ -368,6 +584,8 @@ public class PerformanceExplorer {
 	private static final String RUN_DIR_OPT = "d";
 	private static final String VIVADO_PATH_OPT = "y";
 	private static final String MAX_CONCURRENT_JOBS_OPT = "z";
+	private static final String RESUME_OPT = "e";
+	private static final String EARLY_EXIT_OPT = "n";
 	
 	private static OptionParser createOptionParser(){
 		// Defaults		
@@ -389,6 +607,8 @@ public class PerformanceExplorer {
 			accepts(VIVADO_PATH_OPT).withOptionalArg().defaultsTo(DEFAULT_VIVADO).describedAs("Specifies vivado path");
 			accepts(CONTAIN_ROUTING_OPT).withOptionalArg().ofType(Boolean.class).defaultsTo(DEFAULT_CONTAIN_ROUTING).describedAs("Sets attribute on pblock to contain routing");
 			accepts(MAX_CONCURRENT_JOBS_OPT).withOptionalArg().ofType(Integer.class).defaultsTo(JobQueue.MAX_LOCAL_CONCURRENT_JOBS).describedAs("Max number of concurrent job when run locally");
+			accepts(RESUME_OPT).withOptionalArg().ofType(Boolean.class).defaultsTo(DEFAULT_RESUME).describedAs("Skip runs that have already completed with the same inputs");
+			accepts(EARLY_EXIT_OPT).withOptionalArg().ofType(Integer.class).defaultsTo(DEFAULT_EARLY_EXIT_COUNT).describedAs("Drop remaining runs of a pblock once this many met timing (0 = never)");
 			acceptsAll( Arrays.asList(HELP_OPT, "?"), "Print Help" ).forHelp();			
 		}};
 		
@@ -431,6 +651,7 @@ public class PerformanceExplorer {
 		
 		Design d = Design.readCheckpoint(dcpInputName);
 		PerformanceExplorer pe = new PerformanceExplorer(d, runDir, clkName, targetPeriod);
+		pe.setInputDCP(dcpInputName);
 
 		if(opts.hasArgument(MAX_CONCURRENT_JOBS_OPT)){
 			JobQueue.MAX_LOCAL_CONCURRENT_JOBS = (int) opts.valueOf(MAX_CONCURRENT_JOBS_OPT);
@@ -452,6 +673,8 @@ public class PerformanceExplorer {
 		pe.setVivadoPath((String)opts.valueOf(VIVADO_PATH_OPT));
 		pe.setContainRouting((boolean)opts.valueOf(CONTAIN_ROUTING_OPT));
 		pe.setAddEDIFAndMetadata((boolean)opts.valueOf(ADD_EDIF_METADATA_OPT));
+		pe.setResume((boolean)opts.valueOf(RESUME_OPT));
+		pe.setEarlyExitCount((int)opts.valueOf(EARLY_EXIT_OPT));
 
 		
 		if(opts.hasArgument(PBLOCK_FILE_OPT)){
@@ -23,8 +23,13 @@
 
 package com.xilinx.rapidwright.util;
 
+import java.util.ArrayDeque;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
 
 import com.xilinx.rapidwright.bitstream.Bitstream;
 import com.xilinx.rapidwright.bitstream.CRC;
@@ -49,6 +54,12 @@ import com.xilinx.rapidwright.tests.CodePerfTracker;
  *     The clock track used must also be the same among the regions.
  *  7) The clocks in each region must driven by BUFG in the region or driven from the static region.
  *     In the later case, only one clock route per clock is allowed to each region and Condition 6 must be met.
+ *
+ * Many relocated variants of one bitstream can be produced with
+ * {@link #relocate(Bitstream, Series, List, ObjIntConsumer)}. Relocation only changes FAR packets, so all variants
+ * share the (unmodified) frame data packets of the source bitstream, and their CRCs are derived from the CRCs of the
+ * source with {@link BitstreamCRC} instead of being recomputed over all frames. On the command line, this is
+ * enabled with -batch.
  */
 
 public class RelocateBitstreamByRow {
@@ -61,20 +72,23 @@ public class RelocateBitstreamByRow {
 	 * @param rowOffset The number of row to relocate. + means relocate upward
 	 */
 	public static void relocate (Bitstream bitstream, Series series, int rowOffset) {
+		bitstream.setPackets(relocate(bitstream.getPackets(), series, rowOffset));
+	}
 
+	/**
+	 * Relocate the given packets by the given number of clock region rows.
+	 * @return The relocated packets, sharing all unchanged packets with the given ones
+	 */
+	static List<Packet> relocate (Iterable<Packet> packets, Series series, int rowOffset) {
 		List<Packet> newPackets = new ArrayList<>();
-		for (Packet packet : bitstream.getPackets()) {
+		for (Packet packet : packets) {
 			if (packet.isTypeOnePacket() && (packet.getRegister() == RegisterType.FAR)) {
 				if (packet.getWordCount() == 1) {
 					int [] data = packet.getData();
 					int blkType = FAR.getBlockType(data[0],series);
-					int rowAddr = FAR.getRowAddress(data[0], series);
 
 					if ((blkType == 0) || (blkType == 1)) {
-						int newRowAddr = rowAddr + rowOffset;
-						// there is no FAR.setRowAddress()
-						int newData = (data[0] & ~series.getRowMask()) | (newRowAddr << series.getRowLSB());
-						newPackets.add(new Packet(packet.getHeader(), newData));
+						newPackets.add(new Packet(packet.getHeader(), relocateFAR(data[0], series, rowOffset)));
 					} else {
 						newPackets.add(packet);
 					}
@@ -83,8 +97,147 @@ public class RelocateBitstreamByRow {
 				newPackets.add(packet);
 			}
 		}
+		return newPackets;
+	}
 
-		bitstream.setPackets(newPackets);
+	/**
+	 * Relocate a FAR value by the given number of clock region rows.
+	 * Only the FARs of CLB and BRAM content frames (block type 0 and 1) are relocated.
+	 * @return The relocated FAR value
+	 */
+	private static int relocateFAR(int far, Series series, int rowOffset) {
+		int blkType = FAR.getBlockType(far, series);
+		if ((blkType == 0) || (blkType == 1)) {
+			int newRowAddr = FAR.getRowAddress(far, series) + rowOffset;
+			// there is no FAR.setRowAddress()
+			return (far & ~series.getRowMask()) | (newRowAddr << series.getRowLSB());
+		}
+		return far;
+	}
+
+	/**
+	 * Relocate the given partial bitstream by each of the given numbers of clock region rows, with updated CRCs.
+	 * The CRCs of the given bitstream are updated first, as done by {@link #updateCRC(Bitstream)}.
+	 * Variants are computed in parallel but passed to the consumer one at a time, in the order of rowOffsets.
+	 * At most as many variants as there are processors are held in memory.
+	 * @param bitstream  Bitstream to relocate. Its packets are restored (with updated CRCs) when done
+	 * @param series     The device series
+	 * @param rowOffsets The numbers of rows to relocate. + means relocate upward
+	 * @param consumer   Called with the given bitstream holding the packets of each variant and the row offset
+	 */
+	public static void relocate (Bitstream bitstream, Series series, List<Integer> rowOffsets, ObjIntConsumer<Bitstream> consumer) {
+		updateCRC(bitstream);
+		List<Packet> source = new ArrayList<>(bitstream.getPackets());
+		CRCEvents events = new CRCEvents(source);
+
+		int window = Math.max(1, ParallelismTools.maxParallelism());
+		Deque<Future<List<Packet>>> pending = new ArrayDeque<>();
+		int next = 0;
+		try {
+			for (int i = 0; i < rowOffsets.size(); i++) {
+				while (next < rowOffsets.size() && next - i < window) {
+					int rowOffset = rowOffsets.get(next++);
+					pending.add(ParallelismTools.submit(() -> events.relocate(source, series, rowOffset)));
+				}
+				bitstream.setPackets(ParallelismTools.get(pending.poll()));
+				consumer.accept(bitstream, rowOffsets.get(i));
+			}
+		} finally {
+			bitstream.setPackets(source);
+		}
+	}
+
+	/**
+	 * Relocate the given partial bitstream by each of the given numbers of clock region rows and write each
+	 * variant to a file as soon as it is ready. See {@link #relocate(Bitstream, Series, List, ObjIntConsumer)}.
+	 * @param bitstream      Bitstream to relocate
+	 * @param series         The device series
+	 * @param rowOffsets     The numbers of rows to relocate. + means relocate upward
+	 * @param outputFileName Gives the name of the output bitstream for a row offset
+	 */
+	public static void relocateToFiles (Bitstream bitstream, Series series, List<Integer> rowOffsets, IntFunction<String> outputFileName) {
+		relocate(bitstream, series, rowOffsets, (b, rowOffset) -> b.writeBitstream(outputFileName.apply(rowOffset)));
+	}
+
+	/**
+	 * The packets that relocation changes or that affect CRCs, in the order of the bitstream, with the number of
+	 * words fed to the CRC before each of them. Follows the same CRC reset rules as {@link #updateCRC(Bitstream)}.
+	 */
+	static class CRCEvents {
+		static final byte FAR_WRITE = 0;
+		static final byte CRC_WRITE = 1;
+		static final byte CRC_RESET = 2;
+
+		final List<Integer> packetIdx = new ArrayList<>();
+		final List<Byte> kinds = new ArrayList<>();
+		final List<Long> wordPos = new ArrayList<>();
+
+		CRCEvents(List<Packet> packets) {
+			long fed = 0;
+			boolean previousCRCWrite = true;
+			for (int i = 0; i < packets.size(); i++) {
+				Packet packet = packets.get(i);
+				if (packet.isTypeOnePacket() && (packet.getRegister() == RegisterType.CRC) && (packet.getOpCode() == OpCode.WRITE)) {
+					previousCRCWrite = true;
+					add(i, CRC_WRITE, fed);
+					continue;
+				}
+				if (previousCRCWrite && packet.isTypeOnePacket() && (packet.getRegister() == RegisterType.CRC) && (packet.getOpCode() == OpCode.NOP)) {
+					add(i, CRC_RESET, fed);
+				} else if (packet.isTypeOnePacket() && (packet.getRegister() == RegisterType.FAR)
+						&& (packet.getOpCode() == OpCode.WRITE) && (packet.getWordCount() == 1)) {
+					add(i, FAR_WRITE, fed);
+				}
+				previousCRCWrite = false;
+				if (packet.getOpCode() == OpCode.WRITE) {
+					fed += packet.getWordCount();
+				}
+			}
+		}
+
+		private void add(int idx, byte kind, long pos) {
+			packetIdx.add(idx);
+			kinds.add(kind);
+			wordPos.add(pos);
+		}
+
+		/**
+		 * Create the packets of a relocated variant. Only FAR and CRC packets are replaced, all others are shared.
+		 */
+		List<Packet> relocate(List<Packet> source, Series series, int rowOffset) {
+			List<Packet> packets = new ArrayList<>(source);
+			// Difference between the CRC of the variant and the source after pos words
+			int delta = 0;
+			long pos = 0;
+			for (int e = 0; e < kinds.size(); e++) {
+				int idx = packetIdx.get(e);
+				long eventPos = wordPos.get(e);
+				Packet packet = source.get(idx);
+				switch (kinds.get(e)) {
+					case FAR_WRITE:
+						int far = packet.getData()[0];
+						int newFar = relocateFAR(far, series, rowOffset);
+						delta = BitstreamCRC.shift(delta, eventPos - pos + 1) ^ BitstreamCRC.getWordDelta(far ^ newFar);
+						pos = eventPos + 1;
+						if (newFar != far) {
+							packets.set(idx, new Packet(packet.getHeader(), newFar));
+						}
+						break;
+					case CRC_WRITE:
+						delta = BitstreamCRC.shift(delta, eventPos - pos);
+						pos = eventPos;
+						if (delta != 0) {
+							packets.set(idx, new Packet(packet.getHeader(), packet.getData()[0] ^ delta));
+						}
+						break;
+					default:
+						delta = 0;
+						pos = eventPos;
+						break;
+				}
+			}
+			return packets;
+		}
 	}
 
 
@@ -94,12 +247,20 @@ public class RelocateBitstreamByRow {
 	 * @param target    Bitstream to update CRC for
 	 */
 	public static void updateCRC (Bitstream target) {
+		target.setPackets(updateCRC(target.getPackets()));
+	}
+
+	/**
+	 * Update multiple CRC within the given packets, see {@link #updateCRC(Bitstream)}.
+	 * @return The packets with updated CRC packets
+	 */
+	static List<Packet> updateCRC (Iterable<Packet> packets) {
 		// Separating CRC computing out to simplify the code. Can combine with the two loopsreplaceContent if needed.
 		// TODO: update the packets itself to reduce memory usage.
 		List<Packet> newPackets = new ArrayList<>();
 		CRC CRCComputer = new CRC();
 		boolean previousCRCWrite = true;
-		for (Packet packet : target.getPackets()) {
+		for (Packet packet : packets) {
 			if (packet.isTypeOnePacket() && (packet.getRegister() == RegisterType.CRC) && (packet.getOpCode() == OpCode.WRITE)) {
 				//write to CRC is not included.
 				previousCRCWrite = true;
@@ -116,8 +277,7 @@ public class RelocateBitstreamByRow {
 				newPackets.add(packet);
 			}
 		}
-
-		target.setPackets(newPackets);
+		return newPackets;
 	}
 
 
@@ -141,6 +301,9 @@ public class RelocateBitstreamByRow {
 				"  -fr   <name of the intput bitstream (with extension)>",
 				"  -to   <name of the output bitstream (with extension)>",
 				"        <number of rows to move. +2 is up 2 rows, -2 is down 2 rows>",
+				"        -to can be repeated to write several relocated bitstreams at once",
+				"  -batch  <optional, derive the CRCs of all relocated bitstreams from the input bitstream",
+				"           instead of recomputing them for each one>",
 				"  -series <optional option to specify the FPGA series. The valid options are US+, UltraScale+, US and UltraScale>"
 				);
 /*  Example
@@ -170,9 +333,10 @@ public class RelocateBitstreamByRow {
 
 
 		String inBit  = null;
-		String outBit = null;
-		int rowOffset = 0;
+		List<String> outBits = new ArrayList<>();
+		List<Integer> rowOffsets = new ArrayList<>();
 		Series series = null;
+		boolean batch = false;
 
 		// Collect command line arguments
 		int i = 0;
@@ -182,15 +346,18 @@ public class RelocateBitstreamByRow {
 					inBit = args[++i];
 					break;
 				case "-to":
-					outBit  = args[++i];
-					if (i < args.length) {
-						rowOffset   = Integer.parseInt(args[++i]);
+					outBits.add(args[++i]);
+					if (i + 1 < args.length) {
+						rowOffsets.add(Integer.parseInt(args[++i]));
 					} else {
 						System.out.println("Missing value for option -to.");
 						System.out.println(usage);
 						System.exit(1);
 					}
 					break;
+				case "-batch":
+					batch = true;
+					break;
 				case "-series":
 					String seriesText = args[++i].toUpperCase();
 					if (seriesText.equals("US+") || seriesText.equals("ULTRASCALE+"))
@@ -212,15 +379,25 @@ public class RelocateBitstreamByRow {
 			i++;
 		}
 
+		if (inBit == null || outBits.isEmpty()) {
+			System.out.println("Options -fr and -to are required.");
+			System.out.println(usage);
+			System.exit(1);
+		}
+
 
 		CodePerfTracker t = new CodePerfTracker("Elapsed time", false);
 
 		// Report collected arguments
 		System.out.println("RelocateBitstreamByRow");
 		System.out.println("  -fr " + inBit);
-		System.out.println("  -to " + outBit + " " + rowOffset);
+		for (int j = 0; j < outBits.size(); j++) {
+			System.out.println("  -to " + outBits.get(j) + " " + rowOffsets.get(j));
+		}
 		if (series != null)
 			System.out.println("  -series " + series.name());
+		if (batch)
+			System.out.println("  -batch");
 		System.out.println();
 
 
@@ -233,14 +410,25 @@ public class RelocateBitstreamByRow {
 			System.out.println("  -series is not set. The series inferred from " + inBit + " is " + series.name());
 		}
 
-		t.stop().start("Relocate the bitstream");
-		relocate (bitstream, series, rowOffset);
+		if (!batch) {
+			List<Packet> source = new ArrayList<>(bitstream.getPackets());
+			for (int j = 0; j < outBits.size(); j++) {
+				bitstream.setPackets(source);
+				t.stop().start("Relocate the bitstream");
+				relocate (bitstream, series, rowOffsets.get(j));
 
-		t.stop().start("Update CRC");
-		updateCRC(bitstream);
+				t.stop().start("Update CRC");
+				updateCRC(bitstream);
 
-		t.stop().start("Write bitstream");
-		bitstream.writeBitstream(outBit);
+				t.stop().start("Write bitstream");
+				bitstream.writeBitstream(outBits.get(j));
+			}
+		} else {
+			t.stop().start("Relocate and write " + outBits.size() + " bitstreams");
+			// Relocate by the offsets in order, the consumer maps them back to the output names
+			Deque<String> names = new ArrayDeque<>(outBits);
+			relocate(bitstream, series, rowOffsets, (b, rowOffset) -> b.writeBitstream(names.poll()));
+		}
 
 		t.stop().printSummary();
 	}
@@ -38,6 +38,10 @@ import com.xilinx.rapidwright.bitstream.Packet;
 import com.xilinx.rapidwright.bitstream.RegisterType;
 import com.xilinx.rapidwright.tests.CodePerfTracker;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -47,11 +51,13 @@ import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 
 
@@ -69,14 +75,20 @@ import java.util.function.Function;
  * Thus, a partial bitstream can be written for a PR covering either of them so that a "NO OP" config bits can be extracted.
  * The extracted bits is later used to replace corresponding bits in the bitstream generated with HDIO before subsequent relocation.
  * In particular, the section covering a hard block column, eg., PCIE, that are
+ *
+ * Frames are kept in a {@link FrameTemplateMap} keyed by packed (row, column, minor) addresses.
+ * Finding the packets to operate on requires tracking the FAR through the packets in order, but
+ * once found, the frames of different config rows are extracted or replaced in parallel.
+ * Templates are saved in the binary format of {@link FrameTemplateMap}; templates saved with Kryo
+ * by earlier versions can still be loaded.
  */
 public class ReplaceFrameData {
 
 	/** "NO OP" bits for config row and column, collectively called Address */
-	private Map<Address, int[]> templateData;
+	private FrameTemplateMap templateData;
 
 	public ReplaceFrameData() {
-		templateData = new HashMap<>();
+		templateData = new FrameTemplateMap();
 	}
 
 	/**
@@ -115,7 +127,7 @@ public class ReplaceFrameData {
 	 */
 	public void extract(Bitstream b, List<Integer> rows, List<Integer> cols) {
 		FrameDataProcessor processor = new FrameDataProcessor(b);
-		processor.processPackets(rows, cols,
+		processor.processPackets(rows, cols, true,
 				(frameData, addr, data, frameIdx, wordsPerFrame) -> {
 					updateTemplateData(frameData, addr, data, frameIdx, wordsPerFrame);
 				}
@@ -133,7 +145,7 @@ public class ReplaceFrameData {
 	public void replace(Bitstream b, List<Integer> rows, List<Integer> cols) {
 		FrameDataProcessor processor = new FrameDataProcessor(b);
 		processor.setFrameData(templateData);
-		processor.processPackets(rows, cols,
+		processor.processPackets(rows, cols, false,
 				(frameData, addr, data, frameIdx, wordsPerFrame) -> {
 					updatePacketData(frameData, addr, data, frameIdx, wordsPerFrame);
 				}
@@ -141,17 +153,11 @@ public class ReplaceFrameData {
 	}
 
 	/**
-	 * Save the "NO OP" frame data to a file
+	 * Save the "NO OP" frame data to a file in the binary template format.
 	 */
 	public void save(String filename) {
-		try {
-			Output output = new Output(new FileOutputStream(filename));
-			Kryo kryo = new Kryo();
-			kryo.register(HashMap.class, new MapSerializer());
-			kryo.register(Address.class);
-			kryo.register(int[].class);
-			kryo.writeClassAndObject(output, templateData);
-			output.close();
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+			templateData.write(out);
 		} catch (IOException e) {
 			System.out.println("Cannot save to file " + filename);
 			e.printStackTrace();
@@ -159,17 +165,37 @@ public class ReplaceFrameData {
 	}
 
 	/**
-	 * Load the "NO OP" frame data from a file.
+	 * Load the "NO OP" frame data from a file, either in the binary template format or in the
+	 * Kryo format of earlier versions.
 	 */
 	public void load(String filename) {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename)))) {
+			if (in.readInt() == FrameTemplateMap.MAGIC) {
+				templateData = FrameTemplateMap.read(in);
+				return;
+			}
+		} catch (IOException e) {
+			System.out.println("Cannot read from file " + filename);
+			e.printStackTrace();
+			return;
+		}
+		loadKryo(filename);
+	}
+
+	private void loadKryo(String filename) {
 		try {
 			Input input = new Input(new FileInputStream(filename));
 			Kryo kryo = new Kryo();
 			kryo.register(HashMap.class, new MapSerializer());
 			kryo.register(Address.class);
 			kryo.register(int[].class);
-			templateData = (Map<Address, int[]>) kryo.readClassAndObject(input);
+			Map<Address, int[]> legacyData = (Map<Address, int[]>) kryo.readClassAndObject(input);
 			input.close();
+			templateData = new FrameTemplateMap(legacyData.size());
+			for (Map.Entry<Address, int[]> entry : legacyData.entrySet()) {
+				Address addr = entry.getKey();
+				templateData.put(FrameTemplateMap.getKey(addr.row, addr.col, addr.minor), entry.getValue());
+			}
 		} catch (IOException e) {
 			System.out.println("Cannot read from file " + filename);
 			e.printStackTrace();
@@ -181,13 +207,14 @@ public class ReplaceFrameData {
 	 * @param inc The number of rows to increment
 	 */
 	public void incTemplateDataRowIndex(int inc) {
-		Map<Address, int[]>  newFrameData = new HashMap<>();
-		for (Map.Entry<Address, int[]> entry : templateData.entrySet()) {
-			Address addr = entry.getKey();
-			Address newAddr = new Address(addr.row + inc, addr.col, addr.minor);
-			newFrameData.put(newAddr, entry.getValue());
-		}
-		templateData = newFrameData;
+		templateData = templateData.withRowOffset(inc);
+	}
+
+	/**
+	 * @return The number of "NO OP" frames extracted or loaded.
+	 */
+	public int getTemplateFrameCount() {
+		return templateData.size();
 	}
 
 	/**
@@ -197,12 +224,12 @@ public class ReplaceFrameData {
 		/**
 		 * Operate on template or packet data.
 		 * @param frameData      A map of frame data for some config rows and columns. It can be read or written
-		 * @param addr           The current frame address
+		 * @param addr           The current frame address, packed by {@link FrameTemplateMap#getKey(int, int, int)}
 		 * @param data           The data of the whole packet
 		 * @param frameIdx       The frame index in the packet
 		 * @param wordsPerFrame  The number of words per frame
 		 */
-		void operate (Map<Address, int[]> frameData, Address addr, int[] data, int frameIdx, int wordsPerFrame);
+		void operate (FrameTemplateMap frameData, long addr, int[] data, int frameIdx, int wordsPerFrame);
 	}
 
 	/**
@@ -210,7 +237,7 @@ public class ReplaceFrameData {
 	 * @param frameData      The frame data to be updated
 	 * @param data           The source of data to update frameData
 	 */
-	private void updateTemplateData(Map<Address, int[]> frameData, Address addr, int[] data, int frameIdx, int wordsPerFrame) {
+	private void updateTemplateData(FrameTemplateMap frameData, long addr, int[] data, int frameIdx, int wordsPerFrame) {
 		frameData.put(addr,Arrays.copyOfRange(data, frameIdx*wordsPerFrame, (frameIdx+1)*wordsPerFrame));
 	}
 
@@ -219,9 +246,10 @@ public class ReplaceFrameData {
 	 * @param frameData      The source to update data
 	 * @param data           The packet data to be updated
 	 */
-	private void updatePacketData(Map<Address, int[]> frameData, Address addr, int[] data, int frameIdx, int wordsPerFrame) {
-		if (frameData.containsKey(addr)) {
-			System.arraycopy(frameData.get(addr),0,data,frameIdx*wordsPerFrame,wordsPerFrame);
+	private void updatePacketData(FrameTemplateMap frameData, long addr, int[] data, int frameIdx, int wordsPerFrame) {
+		int[] frame = frameData.get(addr);
+		if (frame != null) {
+			System.arraycopy(frame,0,data,frameIdx*wordsPerFrame,wordsPerFrame);
 		}
 	}
 
@@ -256,7 +284,7 @@ public class ReplaceFrameData {
 
 
 	/**
-	 * Represent frame address
+	 * Represent frame address, only used to load templates saved with Kryo
 	 */
 	// Without static, can't serialize
 	private static class Address {
@@ -303,12 +331,12 @@ public class ReplaceFrameData {
 		private final Map<BlockType, int[][]> frameCounts; //array[rowIdx][colIdx]
 		private Bitstream b;
 		private FAR far;
-		private Map<Address, int[]>  frameData;
+		private FrameTemplateMap frameData;
 
 
 		private FrameDataProcessor(Bitstream b) {
 			this.b = b;
-			frameData = new HashMap<>();
+			frameData = new FrameTemplateMap();
 			frameCounts = new EnumMap<>(BlockType.class);
 			// todo: replace with empty cArray to be faster.  Took 1.3 sec out of 1.8 sec total
 			ConfigArray cfgArray = b.getConfigArray();
@@ -324,10 +352,14 @@ public class ReplaceFrameData {
 		 * Process each packet if its content cover the given row and column addresses.
 		 * Every minor address of the given column will be extracted.
 		 * Every occurrence of the given address will be recorded. Effective, only the last occurrence is recorded.
-		 * @param rows  list of row indices to extract
-		 * @param cols  list of col indices to extract
+		 * Packets are found in order, then the packets of each row are processed (in order) as a separate task.
+		 * @param rows       list of row indices to extract
+		 * @param cols       list of col indices to extract
+		 * @param writeFrame true if op writes to the frame data. Each task then writes to its own map, which are merged
+		 *                   into the frame data at the end. Otherwise, op reads the frame data and may write to packets.
+		 * @param op         Operation to perform
 		 */
-		private void processPackets(List<Integer> rows, List<Integer> cols, OpOnFrame op) {
+		private void processPackets(List<Integer> rows, List<Integer> cols, boolean writeFrame, OpOnFrame op) {
 			Collections.sort(cols);
 			TreeSet<Integer> targetColumns = new TreeSet<>(cols);
 			Set<Integer> targetRows = new HashSet<>(rows);
@@ -337,6 +369,7 @@ public class ReplaceFrameData {
 			// 1) ONE FDRI WRITE 186     # type one packet
 			// 2) TWO null WRITE 340287  # type two packet that come after ONE FDRI WRITE 0
             // Thus, need to keep FAR from FAR packet.
+			Map<Integer, List<PacketSpan>> spansByRow = new LinkedHashMap<>();
 			for (Packet packet : b.getPackets()) {
 				if (packet.isTypeOnePacket() && (packet.getRegister() == RegisterType.FAR)
 						&& (packet.getOpCode() == OpCode.WRITE) && (packet.getWordCount() == 1)) {
@@ -354,49 +387,64 @@ public class ReplaceFrameData {
 						// Use List to process in order with indexing to match endIndices
 						List<Integer> colToExtract = new ArrayList<>(targetColumns.subSet(beginColumn, beginColumn + numFrames.size() - 1));
 						if (!colToExtract.isEmpty()) {
-							processColumns(far, packet, colToExtract, numFrames, wordsPerFrame, op);
+							spansByRow.computeIfAbsent(far.getRow(), k -> new ArrayList<>())
+									.add(new PacketSpan(far, packet, colToExtract, numFrames));
 						}
 					}
 				}
 			}
+
+			List<Future<FrameTemplateMap>> futures = new ArrayList<>(spansByRow.size());
+			for (List<PacketSpan> spans : spansByRow.values()) {
+				futures.add(ParallelismTools.submit(() -> {
+					FrameTemplateMap rowData = writeFrame ? new FrameTemplateMap() : frameData;
+					for (PacketSpan span : spans) {
+						processColumns(span, rowData, op);
+					}
+					return rowData;
+				}));
+			}
+			for (Future<FrameTemplateMap> future : futures) {
+				FrameTemplateMap rowData = ParallelismTools.get(future);
+				if (writeFrame) {
+					frameData.putAll(rowData);
+				}
+			}
 		}
 
 		/**
 		 * Process a packet using the given operation for the specified columns.
-		 * @param far            The FAR corresponding to the data packet
-		 * @param packet         A data packet to operate on
-		 * @param colToOperate   A list of target columns
-		 * @param numFrames      A list specifying number of frame each column in the packet
-		 * @param wordsPerFrame  The number of words per frame
+		 * @param span           The data packet to operate on, with its FAR and target columns
+		 * @param frameData      The frame data to pass to the operation
 		 * @param op             Operation to perform
 		 */
-		private void processColumns(FAR far, Packet packet, List<Integer> colToOperate, List<Integer> numFrames, int wordsPerFrame, OpOnFrame op) {
-			int firstCol = far.getColumn();
-			int row = far.getRow();
+		private void processColumns(PacketSpan span, FrameTemplateMap frameData, OpOnFrame op) {
+			int firstCol = span.col;
+			int row = span.row;
+			List<Integer> numFrames = span.numFrames;
+			int[] data = span.packet.getData();
 
-			for (int col : colToOperate) {
+			for (int col : span.colToOperate) {
 				int minor = 0;
 				if (col == firstCol) {
 					// Only the first col can have non-zero minor
-					minor = far.getMinor();
+					minor = span.minor;
 				}
 				int i = col - firstCol;
 				// Copy each minor not numFrames because the minor of the first col can be non-zero.
 				// TODO: it can be optimized by do this for the first column, and copy for the whole numFrames for the rest.
-				int[] data = packet.getData();
 				for (int j = numFrames.get(i); j < numFrames.get(i+1); j++, minor++) {
-					Address addr = new Address(row, col, minor);
-					op.operate(frameData, addr, data, j, wordsPerFrame);
+					op.operate(frameData, FrameTemplateMap.getKey(row, col, minor), data, j, wordsPerFrame);
 				}
-				packet.setData(data);
 			}
+			span.packet.setData(data);
 		}
 
-		private Map<Address, int[]>  getFrameData() {
+		private FrameTemplateMap getFrameData() {
 			return frameData;
 		}
 
-		private void  setFrameData(Map<Address, int[]> frameData) {
+		private void setFrameData(FrameTemplateMap frameData) {
 			this.frameData = frameData;
 		}
 
@@ -471,6 +519,27 @@ public class ReplaceFrameData {
 			return numFrames;
 		}
 
+		/**
+		 * A data packet to process, with the frame address it starts at (FAR is tracked serially).
+		 */
+		private class PacketSpan {
+			final Packet packet;
+			final int row;
+			final int col;
+			final int minor;
+			final List<Integer> colToOperate;
+			final List<Integer> numFrames;
+
+			private PacketSpan(FAR far, Packet packet, List<Integer> colToOperate, List<Integer> numFrames) {
+				this.packet = packet;
+				this.row = far.getRow();
+				this.col = far.getColumn();
+				this.minor = far.getMinor();
+				this.colToOperate = colToOperate;
+				this.numFrames = numFrames;
+			}
+		}
+
 		/**
 		 * Advance the given FAR to the next row.
 		 * @param far The FAR to work on. It will be updated
@@ -97,6 +97,32 @@ public class RuntimeTrackerTree {
 		return this.root.getName();
 	}
 	
+	/**
+	 * Adds the times of all runtime trackers in the tree to a metrics registry as timers, 
+	 * named by their path from the root, e.g. "rwroute/Route design/Routing".
+	 * @param metrics The registry to add to.
+	 * @param prefix Prefix of the timer names.
+	 */
+	public void exportMetrics(MetricsRegistry metrics, String prefix) {
+		exportMetrics(metrics, this.root, prefix);
+	}
+	
+	private static void exportMetrics(MetricsRegistry metrics, RuntimeTracker tracker, String prefix) {
+		String name = tracker.getName();
+		name = prefix + "/" + (name.endsWith(":") ? name.substring(0, name.length() - 1) : name);
+		long time = tracker.getTime();
+		if(tracker.getChildren() != null) {
+			long childTime = 0;
+			for(RuntimeTracker child : tracker.getChildren()) {
+				exportMetrics(metrics, child, name);
+				childTime += child.getTime();
+			}
+			// The root is only summed up when printed
+			if(tracker.getLevel() == 0 && time == 0) time = childTime;
+		}
+		metrics.addTime(name, time);
+	}
+	
 	@Override
 	public String toString() {
 		if(verbose) {
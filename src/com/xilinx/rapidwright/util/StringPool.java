@@ -22,20 +22,195 @@
  
 package com.xilinx.rapidwright.util;
 
+import java.lang.ref.WeakReference;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Deduplicate Strings for optimized memory usage
+ *
+ * Besides the unbounded pools, there are pools that hold their entries weakly (so that strings
+ * are released once nothing else references them) or that evict the least recently used entries
+ * beyond a maximum size. These thread safe pools can be split into shards, each guarded by its own
+ * lock, to reduce contention between threads. All pools count hits (strings already in the pool)
+ * and misses (strings added).
  */
 public class StringPool {
 
-    private final Map<String,String> stringPool;
+    private static volatile StringPool sharedWeakPool;
+
+    private final Shard[] shards;
+
+    private final int shardMask;
+
+    private abstract static class Shard {
+        abstract String intern(String s);
+
+        abstract long getHits();
+
+        abstract long getMisses();
+
+        abstract int size();
+
+        abstract void clear();
+    }
+
+    /** Shard backed by a map from each string to itself, optionally guarded by its own lock */
+    private static class MapShard extends Shard {
+        private final Map<String, String> map;
+        private final boolean locked;
+        private long hits;
+        private long misses;
+
+        MapShard(Map<String, String> map, boolean locked) {
+            this.map = map;
+            this.locked = locked;
+        }
+
+        private String internUnlocked(String s) {
+            String existing = map.get(s);
+            if (existing != null) {
+                hits++;
+                return existing;
+            }
+            misses++;
+            map.put(s, s);
+            return s;
+        }
+
+        @Override
+        String intern(String s) {
+            if (!locked) {
+                return internUnlocked(s);
+            }
+            synchronized (this) {
+                return internUnlocked(s);
+            }
+        }
+
+        @Override
+        synchronized long getHits() {
+            return hits;
+        }
 
-    private StringPool(Map<String, String> stringPool) {
-        this.stringPool = stringPool;
+        @Override
+        synchronized long getMisses() {
+            return misses;
+        }
+
+        @Override
+        synchronized int size() {
+            return map.size();
+        }
+
+        @Override
+        synchronized void clear() {
+            map.clear();
+        }
+    }
+
+    /** Lock-free shard backed by a {@link ConcurrentHashMap} */
+    private static class ConcurrentShard extends Shard {
+        private final ConcurrentHashMap<String, String> map = new ConcurrentHashMap<>();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        @Override
+        String intern(String s) {
+            String existing = map.get(s);
+            if (existing == null) {
+                existing = map.putIfAbsent(s, s);
+                if (existing == null) {
+                    misses.increment();
+                    return s;
+                }
+            }
+            hits.increment();
+            return existing;
+        }
+
+        @Override
+        long getHits() {
+            return hits.sum();
+        }
+
+        @Override
+        long getMisses() {
+            return misses.sum();
+        }
+
+        @Override
+        int size() {
+            return map.size();
+        }
+
+        @Override
+        void clear() {
+            map.clear();
+        }
+    }
+
+    /** Shard that only holds weak references to its strings */
+    private static class WeakShard extends Shard {
+        private final WeakHashMap<String, WeakReference<String>> map = new WeakHashMap<>();
+        private long hits;
+        private long misses;
+
+        @Override
+        synchronized String intern(String s) {
+            WeakReference<String> ref = map.get(s);
+            String existing = ref == null ? null : ref.get();
+            if (existing != null) {
+                hits++;
+                return existing;
+            }
+            misses++;
+            map.put(s, new WeakReference<>(s));
+            return s;
+        }
+
+        @Override
+        synchronized long getHits() {
+            return hits;
+        }
+
+        @Override
+        synchronized long getMisses() {
+            return misses;
+        }
+
+        @Override
+        synchronized int size() {
+            return map.size();
+        }
+
+        @Override
+        synchronized void clear() {
+            map.clear();
+        }
+    }
+
+    private StringPool(Shard[] shards) {
+        if (Integer.bitCount(shards.length) != 1) {
+            throw new RuntimeException("ERROR: Number of shards must be a power of two");
+        }
+        this.shards = shards;
+        this.shardMask = shards.length - 1;
+    }
+
+    private StringPool(Shard shard) {
+        this(new Shard[] {shard});
+    }
+
+    private static int roundUpToPowerOfTwo(int shards) {
+        if (shards < 1) {
+            throw new RuntimeException("ERROR: Number of shards must be positive: " + shards);
+        }
+        return shards == 1 ? 1 : Integer.highestOneBit(shards - 1) << 1;
     }
 
     /**
@@ -43,7 +218,7 @@ public class StringPool {
      * @return a thread safe StringPool
      */
     public static StringPool concurrentPool() {
-        return new StringPool(new ConcurrentHashMap<>());
+        return new StringPool(new ConcurrentShard());
     }
 
     /**
@@ -51,11 +226,124 @@ public class StringPool {
      * @return a non thread safe StringPool
      */
     public static StringPool singleThreadedPool() {
-        return new StringPool(new HashMap<>());
+        return new StringPool(new MapShard(new HashMap<>(), false));
+    }
+
+    /**
+     * Create a new thread safe StringPool that only holds weak references to its strings, so
+     * that strings are released once they are no longer used elsewhere.
+     * @param shards Number of independently locked shards, rounded up to a power of two
+     * @return a thread safe StringPool with weak entries
+     */
+    public static StringPool weakPool(int shards) {
+        Shard[] s = new Shard[roundUpToPowerOfTwo(shards)];
+        for (int i = 0; i < s.length; i++) {
+            s[i] = new WeakShard();
+        }
+        return new StringPool(s);
+    }
+
+    /**
+     * Create a new thread safe StringPool that evicts the least recently used strings once it
+     * holds more than a maximum number of strings. The limit applies to each shard, so that the
+     * pool holds at most about maxSize strings.
+     * @param maxSize Maximum number of strings in the pool
+     * @param shards Number of independently locked shards, rounded up to a power of two
+     * @return a thread safe, size-bounded StringPool
+     */
+    public static StringPool boundedPool(int maxSize, int shards) {
+        Shard[] s = new Shard[roundUpToPowerOfTwo(shards)];
+        int maxShardSize = Math.max(1, maxSize / s.length);
+        for (int i = 0; i < s.length; i++) {
+            s[i] = new MapShard(new LinkedHashMap<String, String>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > maxShardSize;
+                }
+            }, true);
+        }
+        return new StringPool(s);
+    }
+
+    /**
+     * Gets a weak pool shared by the whole process, e.g. to deduplicate strings between netlists
+     * in a long running session without retaining netlists that are no longer used.
+     * @return the shared weak StringPool
+     */
+    public static StringPool sharedWeakPool() {
+        if (sharedWeakPool == null) {
+            synchronized (StringPool.class) {
+                if (sharedWeakPool == null) {
+                    sharedWeakPool = weakPool(ParallelismTools.maxParallelism());
+                }
+            }
+        }
+        return sharedWeakPool;
     }
 
     public String uniquifyName(String tmpName) {
-        return stringPool.computeIfAbsent(tmpName, Function.identity());
+        if (shardMask == 0) {
+            return shards[0].intern(tmpName);
+        }
+        int h = tmpName.hashCode();
+        return shards[(h ^ (h >>> 16)) & shardMask].intern(tmpName);
+    }
+
+    /**
+     * @return Number of lookups that found the string already in the pool
+     */
+    public long getHits() {
+        long hits = 0;
+        for (Shard shard : shards) {
+            hits += shard.getHits();
+        }
+        return hits;
     }
 
+    /**
+     * @return Number of lookups that added the string to the pool
+     */
+    public long getMisses() {
+        long misses = 0;
+        for (Shard shard : shards) {
+            misses += shard.getMisses();
+        }
+        return misses;
+    }
+
+    /**
+     * @return Fraction of lookups that found the string already in the pool, 0 if there were none
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Gets the number of strings in the pool. For weak pools, this includes strings that have
+     * been released but not yet removed.
+     * @return Number of strings in the pool
+     */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    /**
+     * Removes all strings from the pool. Hit and miss counts are kept.
+     */
+    public void clear() {
+        for (Shard shard : shards) {
+            shard.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StringPool [size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses() + "]";
+    }
 }
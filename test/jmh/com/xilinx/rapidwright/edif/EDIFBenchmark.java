@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.edif;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.xilinx.rapidwright.support.SyntheticDesigns;
+import com.xilinx.rapidwright.util.StringPool;
+
+/**
+ * Throughput of reading and writing EDIF netlists, in both text and binary form. Besides the
+ * invocation rate, the auxiliary counters report tokens/sec and bytes/sec.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EDIFBenchmark {
+
+    /** Number of leaf instances in the synthetic netlist, each has four primitives */
+    @Param({"2000", "20000"})
+    public int leafInstances;
+
+    private static final Path EDIF_PATH = Paths.get("synth_top.edf");
+
+    private EDIFNetlist netlist;
+    private byte[] edif;
+    private Path binaryEDIF;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long tokens;
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            tokens = 0;
+            bytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        netlist = SyntheticDesigns.createNetlist(leafInstances);
+        edif = SyntheticDesigns.toEDIFBytes(netlist);
+        binaryEDIF = Files.createTempFile("synth_top", ".bedf");
+        BinaryEDIFWriter.writeBinaryEDIF(binaryEDIF, netlist);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(binaryEDIF);
+    }
+
+    @Benchmark
+    public void tokenize(Counters counters) throws IOException {
+        try (EDIFTokenizer tokenizer = new EDIFTokenizer(EDIF_PATH, new ByteArrayInputStream(edif),
+                StringPool.singleThreadedPool())) {
+            while (tokenizer.getOptionalNextTokenString(true) != null) {
+                counters.tokens++;
+            }
+        }
+        counters.bytes += edif.length;
+    }
+
+    @Benchmark
+    public EDIFNetlist parallelParse(Counters counters) throws IOException {
+        try (ParallelEDIFParser parser = new ParallelEDIFParser(EDIF_PATH, edif.length,
+                () -> new ByteArrayInputStream(edif))) {
+            EDIFNetlist parsed = parser.parseEDIFNetlist();
+            counters.bytes += edif.length;
+            return parsed;
+        }
+    }
+
+    @Benchmark
+    public byte[] writeEDIF(Counters counters) {
+        byte[] out = SyntheticDesigns.toEDIFBytes(netlist);
+        counters.bytes += out.length;
+        return out;
+    }
+
+    @Benchmark
+    public int writeBinaryEDIF(Counters counters) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(edif.length / 4);
+        BinaryEDIFWriter.writeBinaryEDIF(out, netlist);
+        counters.bytes += out.size();
+        return out.size();
+    }
+
+    @Benchmark
+    public EDIFNetlist readBinaryEDIF(Counters counters) throws IOException {
+        EDIFNetlist read = BinaryEDIFReader.readBinaryEDIF(binaryEDIF);
+        counters.bytes += Files.size(binaryEDIF);
+        return read;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.interchange;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.support.SyntheticDesigns;
+
+/**
+ * Time to write and read the physical netlist of a placed and routed synthetic adder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PhysNetlistBenchmark {
+
+    @Param({"64", "512"})
+    public int adderWidth;
+
+    private Design design;
+    private Path writeFile;
+    private Path readFile;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        design = SyntheticDesigns.createAdderDesign(adderWidth, true);
+        writeFile = Files.createTempFile("adder", ".phys");
+        readFile = Files.createTempFile("adder", ".phys");
+        PhysNetlistWriter.writePhysNetlist(design, readFile.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(writeFile);
+        Files.deleteIfExists(readFile);
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        PhysNetlistWriter.writePhysNetlist(design, writeFile.toString());
+    }
+
+    @Benchmark
+    public Design read() throws IOException {
+        return PhysNetlistReader.readPhysNetlist(readFile.toString(), design.getNetlist());
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.placer.blockplacer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.design.Module;
+import com.xilinx.rapidwright.design.ModuleImpls;
+import com.xilinx.rapidwright.design.ModuleImplsInst;
+import com.xilinx.rapidwright.design.ModulePlacement;
+import com.xilinx.rapidwright.support.SyntheticDesigns;
+
+/**
+ * Move evaluation of the {@link AbstractOverlapCache} implementations on instances of a synthetic
+ * adder module: a random instance is moved to a random placement, checked with
+ * {@link AbstractOverlapCache#isValidPlacement(ModuleImplsInst)} and moved back if invalid.
+ * The number of instances and the adder width (and with it the height of the module) are varied,
+ * with {@link ExhaustiveOverlapCache} as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OverlapCacheBenchmark {
+
+    @Param({"50", "200", "1000"})
+    public int instances;
+
+    @Param({"16", "128"})
+    public int adderWidth;
+
+    @Param({"Exhaustive", "RegionBased", "IntervalTree"})
+    public String cacheType;
+
+    private final List<ModuleImplsInst> insts = new ArrayList<>();
+    private List<ModulePlacement> placements;
+    private AbstractOverlapCache cache;
+    private Random rand;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Design design = SyntheticDesigns.createAdderDesign(adderWidth, false);
+        ModuleImpls impls = new ModuleImpls();
+        impls.add(new Module(design));
+        placements = new ArrayList<>(impls.getAllPlacements());
+        rand = new Random(42);
+        for (int i = 0; i < instances; i++) {
+            ModuleImplsInst mii = new ModuleImplsInst("adder" + i, impls);
+            mii.place(placements.get(rand.nextInt(placements.size())));
+            insts.add(mii);
+        }
+        if (cacheType.equals("Exhaustive")) {
+            cache = new ExhaustiveOverlapCache(insts);
+        } else if (cacheType.equals("RegionBased")) {
+            cache = new RegionBasedOverlapCache(design.getDevice(), insts);
+        } else if (cacheType.equals("IntervalTree")) {
+            cache = new IntervalTreeOverlapCache(insts);
+        } else {
+            throw new RuntimeException("ERROR: Unknown overlap cache " + cacheType);
+        }
+    }
+
+    @Benchmark
+    public boolean isValidPlacement() {
+        ModuleImplsInst mii = insts.get(rand.nextInt(insts.size()));
+        ModulePlacement newPlacement = placements.get(rand.nextInt(placements.size()));
+        ModulePlacement oldPlacement = mii.getPlacement();
+
+        cache.unplace(mii);
+        mii.place(newPlacement);
+        cache.place(mii);
+        if (cache.isValidPlacement(mii)) {
+            return true;
+        }
+        cache.unplace(mii);
+        mii.place(oldPlacement);
+        cache.place(mii);
+        return false;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.rwroute;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.xilinx.rapidwright.device.Device;
+import com.xilinx.rapidwright.device.Node;
+import com.xilinx.rapidwright.device.Tile;
+import com.xilinx.rapidwright.device.TileTypeEnum;
+import com.xilinx.rapidwright.router.RouteThruHelper;
+import com.xilinx.rapidwright.support.SyntheticDesigns;
+
+/**
+ * Expansion of the routing graph as done by RWRoute: creating the children of all nodes that
+ * start in a square region of interconnect tiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoutableNodeBenchmark {
+
+    /** Width and height of the region of interconnect tiles, in tiles */
+    @Param({"4", "16"})
+    public int regionSize;
+
+    private RouteThruHelper routeThruHelper;
+    private final List<Node> nodes = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Device device = Device.getDevice(SyntheticDesigns.PART);
+        routeThruHelper = new RouteThruHelper(device);
+        int intTiles = 0;
+        for (int col = device.getColumns() / 2; col < device.getColumns() && intTiles < regionSize * regionSize; col++) {
+            int rowTiles = 0;
+            for (int row = device.getRows() / 2; row < device.getRows() && rowTiles < regionSize; row++) {
+                Tile tile = device.getTile(row, col);
+                if (tile == null || tile.getTileTypeEnum() != TileTypeEnum.INT) {
+                    continue;
+                }
+                rowTiles++;
+                intTiles++;
+                for (int wire = 0; wire < tile.getWireCount(); wire++) {
+                    Node node = Node.getNode(tile, wire);
+                    // Only count each node once, at its base wire
+                    if (node != null && node.getTile() == tile && node.getWire() == wire) {
+                        nodes.add(node);
+                    }
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public int setChildren() {
+        Map<Node, Routable> created = new HashMap<>();
+        Set<Node> reserved = Collections.emptySet();
+        int index = 0;
+        for (Node node : nodes) {
+            RoutableNode rnode = new RoutableNode(index++, node, RoutableType.WIRE);
+            index = rnode.setChildren(index, created, reserved, routeThruHelper);
+        }
+        return index;
+    }
+}
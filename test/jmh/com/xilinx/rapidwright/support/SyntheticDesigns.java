@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.support;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.device.Device;
+import com.xilinx.rapidwright.edif.EDIFCell;
+import com.xilinx.rapidwright.edif.EDIFCellInst;
+import com.xilinx.rapidwright.edif.EDIFDirection;
+import com.xilinx.rapidwright.edif.EDIFNet;
+import com.xilinx.rapidwright.edif.EDIFNetlist;
+import com.xilinx.rapidwright.edif.EDIFPort;
+import com.xilinx.rapidwright.edif.EDIFTools;
+import com.xilinx.rapidwright.examples.AddSubGenerator;
+
+/**
+ * Small designs generated in-process for the JMH benchmarks, so that they do not depend on
+ * checked-out DCPs. Device-based designs only need the device file of {@link #PART}.
+ */
+public class SyntheticDesigns {
+
+    /** A small UltraScale+ part, as used by the block placer tests */
+    public static final String PART = "xcvu3p-ffvc1517-2-i";
+
+    private static final int PRIMS_PER_LEAF = 4;
+
+    /**
+     * Creates a netlist of a chain of leaf cells, each of which contains a few primitive
+     * instances with properties.
+     * @param leafInstances Number of leaf instances in the top cell.
+     * @return The netlist.
+     */
+    public static EDIFNetlist createNetlist(int leafInstances) {
+        EDIFNetlist netlist = EDIFTools.createNewNetlist("synth_top", false);
+        EDIFCell prim = new EDIFCell(netlist.getWorkLibrary(), "prim");
+        prim.createPort("I0", EDIFDirection.INPUT, 1);
+        prim.createPort("I1", EDIFDirection.INPUT, 1);
+        prim.createPort("O", EDIFDirection.OUTPUT, 1);
+
+        EDIFCell leaf = new EDIFCell(netlist.getWorkLibrary(), "leaf");
+        EDIFPort leafA = leaf.createPort("A", EDIFDirection.INPUT, 1);
+        EDIFPort leafB = leaf.createPort("B", EDIFDirection.INPUT, 1);
+        EDIFPort leafO = leaf.createPort("O", EDIFDirection.OUTPUT, 1);
+        EDIFNet b = leaf.createNet("b");
+        b.createPortInst(leafB);
+        EDIFNet prev = leaf.createNet("a");
+        prev.createPortInst(leafA);
+        for (int i = 0; i < PRIMS_PER_LEAF; i++) {
+            EDIFCellInst ci = leaf.createChildCellInst("p" + i, prim);
+            ci.addProperty("INIT", "64'h" + Long.toHexString(0x9E3779B97F4A7C15L * (i + 1)).toUpperCase());
+            prev.createPortInst("I0", ci);
+            b.createPortInst("I1", ci);
+            prev = leaf.createNet("n" + i);
+            prev.createPortInst("O", ci);
+        }
+        prev.createPortInst(leafO);
+
+        EDIFCell top = netlist.getTopCell();
+        EDIFPort topIn = top.createPort("in", EDIFDirection.INPUT, 1);
+        EDIFPort topOut = top.createPort("out", EDIFDirection.OUTPUT, 1);
+        EDIFNet in = top.createNet("in");
+        in.createPortInst(topIn);
+        prev = in;
+        for (int i = 0; i < leafInstances; i++) {
+            EDIFCellInst ci = top.createChildCellInst("leaf" + i, leaf);
+            prev.createPortInst("A", ci);
+            in.createPortInst("B", ci);
+            prev = top.createNet("chain" + i);
+            prev.createPortInst("O", ci);
+        }
+        prev.createPortInst(topOut);
+        return netlist;
+    }
+
+    /**
+     * @param netlist The netlist to export.
+     * @return The EDIF text of the netlist.
+     */
+    public static byte[] toEDIFBytes(EDIFNetlist netlist) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            netlist.exportEDIF(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Creates a placed (and optionally routed) adder with input and output flops.
+     * @param width Width of the adder in bits.
+     * @param route Whether to route the adder.
+     * @return The design.
+     */
+    public static Design createAdderDesign(int width, boolean route) {
+        Design design = new Design("adder" + width, PART);
+        Device device = design.getDevice();
+        AddSubGenerator.createAddSub(design, device.getSite("SLICE_X10Y10"), width, false, true, route);
+        return design;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.xilinx.rapidwright.device.Device;
+import com.xilinx.rapidwright.device.Node;
+import com.xilinx.rapidwright.device.Tile;
+import com.xilinx.rapidwright.device.TileTypeEnum;
+import com.xilinx.rapidwright.rwroute.RoutableNode;
+import com.xilinx.rapidwright.support.SyntheticDesigns;
+import com.xilinx.rapidwright.timing.delayestimator.DelayEstimatorBase;
+import com.xilinx.rapidwright.timing.delayestimator.InterconnectInfo;
+
+/**
+ * Node delay lookups as done by RWRoute for every expanded exit node, either served from the node
+ * delay cache of {@link DelayEstimatorBase} or computed from the wire name and intent code.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DelayEstimatorBenchmark {
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    /** Width and height of the region of interconnect tiles, in tiles */
+    private static final int REGION_SIZE = 16;
+
+    private DelayEstimatorBase<InterconnectInfo> estimator;
+    private final List<Node> nodes = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Device device = Device.getDevice(SyntheticDesigns.PART);
+        estimator = new DelayEstimatorBase<>(device, new InterconnectInfo(), false, 0);
+        for (int col = device.getColumns() / 2, cols = 0; col < device.getColumns() && cols < REGION_SIZE; col++) {
+            int rowTiles = 0;
+            for (int row = device.getRows() / 2; row < device.getRows() && rowTiles < REGION_SIZE; row++) {
+                Tile tile = device.getTile(row, col);
+                if (tile == null || tile.getTileTypeEnum() != TileTypeEnum.INT) {
+                    continue;
+                }
+                rowTiles++;
+                for (int wire = 0; wire < tile.getWireCount(); wire++) {
+                    Node node = Node.getNode(tile, wire);
+                    // Only count each node once, at its base wire
+                    if (node != null && node.getTile() == tile && node.getWire() == wire
+                            && RoutableNode.isExitNode(node)) {
+                        nodes.add(node);
+                    }
+                }
+            }
+            if (rowTiles > 0) {
+                cols++;
+            }
+        }
+    }
+
+    /**
+     * @return Sum of the delays of all nodes, in ps.
+     */
+    @Benchmark
+    public long getDelayOf() {
+        long sum = 0;
+        if (cached) {
+            for (Node node : nodes) {
+                sum += estimator.getDelayOf(node);
+            }
+        } else {
+            for (Node node : nodes) {
+                sum += estimator.calcDelayOf(node);
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Arrival time propagation over a synthetic, layered timing graph (no design or device needed).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimingGraphBenchmark {
+
+    /** Number of vertices per logic level */
+    @Param({"1000", "10000"})
+    public int width;
+
+    /** Number of logic levels */
+    @Param({"20"})
+    public int depth;
+
+    private static final int FANOUT = 3;
+
+    private TimingGraph graph;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random rand = new Random(42);
+        graph = new TimingGraph(null);
+        List<TimingVertex> prevLevel = new ArrayList<>();
+        for (int level = 0; level < depth; level++) {
+            List<TimingVertex> currLevel = new ArrayList<>(width);
+            for (int i = 0; i < width; i++) {
+                TimingVertex v = new TimingVertex("v" + level + "_" + i, level == depth - 1);
+                graph.addVertex(v);
+                currLevel.add(v);
+            }
+            for (TimingVertex src : prevLevel) {
+                for (int f = 0; f < FANOUT; f++) {
+                    TimingVertex dst = currLevel.get(rand.nextInt(width));
+                    if (graph.containsEdge(src, dst)) {
+                        continue;
+                    }
+                    TimingEdge e = new TimingEdge(graph, src, dst);
+                    graph.addEdge(src, dst, e);
+                    e.setLogicDelay(50 + rand.nextInt(100));
+                    e.setNetDelay(rand.nextInt(500));
+                }
+            }
+            prevLevel = currLevel;
+        }
+        graph.setOrderedTimingVertexLists();
+    }
+
+    @Benchmark
+    public void computeArrivalTimes() {
+        graph.resetRequiredAndArrivalTime();
+        graph.computeArrivalTimesTopologicalOrder();
+    }
+}
@@ -35,6 +35,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import java.util.HashSet;
+import java.util.List;
 
 public class TestModuleInst {
     @ParameterizedTest
@@ -187,4 +188,48 @@ public class TestModuleInst {
             Assertions.assertFalse(mi3.isPlaced());
         }
     }
+
+    @Test
+    public void testModuleFootprintMatchesPlace() {
+        String dcpPath = RapidWrightDCP.getString("picoblaze_ooc_X10Y235.dcp");
+        Design design = Design.readCheckpoint(dcpPath, CodePerfTracker.SILENT);
+
+        Design emptyDesign = new Design("emptyDesign", design.getPartName());
+
+        Module module = new Module(design, false);
+        design = null;
+
+        ModuleInst mi = emptyDesign.createModuleInst("inst", module);
+        List<Site> validSites = mi.getAllValidPlacements();
+        Assertions.assertTrue(validSites.contains(module.getAnchor()));
+        // Querying valid placements must not move the instance
+        Assertions.assertEquals(module.getAnchor(), mi.getAnchor().getSite());
+
+        ModuleFootprint footprint = new ModuleFootprint(module);
+        HashSet<Site> validSet = new HashSet<>(validSites);
+        Tile st = module.getAnchor().getTile();
+        for (int dy = -20; dy <= 20; dy += 5) {
+            Tile dt = st.getTileXYNeighbor(0, dy);
+            if (dt == null) continue;
+            Site ds = module.getAnchor().getCorrespondingSite(module.getAnchor().getSiteTypeEnum(), dt);
+            if (ds == null) continue;
+            boolean placed = mi.place(ds);
+            Assertions.assertEquals(placed, footprint.isValidAnchor(ds));
+            Assertions.assertEquals(placed, validSet.contains(ds));
+        }
+    }
+
+    @Test
+    public void testModuleFootprintSetsValidPlacements() {
+        String dcpPath = RapidWrightDCP.getString("picoblaze_ooc_X10Y235.dcp");
+        Design design = Design.readCheckpoint(dcpPath, CodePerfTracker.SILENT);
+        Module module = new Module(design, false);
+
+        List<Site> validSites = ModuleFootprint.calculateAllValidPlacements(module, design.getDevice());
+        Assertions.assertTrue(validSites.contains(module.getAnchor()));
+        // Placers read the valid placements back from the module
+        Assertions.assertEquals(validSites, module.getAllValidPlacements());
+        Assertions.assertEquals(new ModuleFootprint(module).calculateValidAnchors(design.getDevice()),
+                module.getAllValidPlacements());
+    }
 }
@@ -25,8 +25,10 @@ package com.xilinx.rapidwright.design;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -185,6 +187,35 @@ public class TestRelocationTools {
         );
     }
 
+    @ParameterizedTest(name = "Relocate PicoBlaze4 OOC batched ''{0}'' ({1},{2})")
+    @MethodSource("testPicoblaze4OOC")
+    public void testPicoblaze4OOCBatched(String instanceName, int colOffset, int rowOffset, boolean expectSuccess) {
+        Design design1 = Design.readCheckpoint(Picoblaze4OOCdcp, CodePerfTracker.SILENT);
+
+        // A dry-run must report the outcome without touching the design
+        Map<String,Site> sitesBefore = new HashMap<>();
+        for (SiteInst si : design1.getSiteInsts()) {
+            sitesBefore.put(si.getName(), si.getSite());
+        }
+        Assertions.assertEquals(expectSuccess,
+                RelocationTools.relocateBatched(design1, instanceName, colOffset, rowOffset, true));
+        for (SiteInst si : design1.getSiteInsts()) {
+            Assertions.assertEquals(sitesBefore.get(si.getName()), si.getSite());
+        }
+
+        Assertions.assertEquals(expectSuccess,
+                RelocationTools.relocateBatched(design1, instanceName, colOffset, rowOffset, false));
+
+        Design design2 = Design.readCheckpoint(Picoblaze4OOCdcp, CodePerfTracker.SILENT);
+        Collection<ModuleInst> moduleInsts;
+        if (instanceName.isEmpty()) {
+            moduleInsts = design2.getModuleInsts();
+        } else {
+            moduleInsts = Arrays.asList(design2.getModuleInst(instanceName));
+        }
+        relocateModuleInstsAndCompare(colOffset, rowOffset, expectSuccess, design1, design2, moduleInsts);
+    }
+
     @ParameterizedTest(name = "Relocate PicoBlaze4 OOC PBlock ''{0}'' ({1},{2})")
     @MethodSource()
     public void testPicoblaze4OOC_PBlock(PBlock pblock, int colOffset, int rowOffset, boolean expectSuccess) {
@@ -233,6 +264,32 @@ public class TestRelocationTools {
                 expectSuccess);
     }
 
+    @ParameterizedTest(name = "Relocate MicroBlazeAndILA batched ''{0}'' ({1},{2})")
+    @MethodSource("testMicroBlazeAndILA")
+    public void testMicroBlazeAndILABatched(String instanceName, int colOffset, int rowOffset, boolean expectSuccess) {
+        String dcpPath = RapidWrightDCP.getString("microblazeAndILA_3pblocks.dcp");
+
+        Design design1 = Design.readCheckpoint(dcpPath, CodePerfTracker.SILENT);
+        Assertions.assertEquals(expectSuccess,
+                RelocationTools.relocate(design1, instanceName, colOffset, rowOffset));
+
+        Design design2 = Design.readCheckpoint(dcpPath, CodePerfTracker.SILENT);
+        Assertions.assertEquals(expectSuccess,
+                RelocationTools.relocateBatched(design2, instanceName, colOffset, rowOffset, false));
+        if (!expectSuccess) {
+            return;
+        }
+
+        // Clock net PIPs that cannot be moved must be left in place, just as relocate() does
+        for (Net n1 : design1.getNets()) {
+            Net n2 = design2.getNet(n1.getName());
+            Assertions.assertNotNull(n2);
+            Set<String> pips1 = n1.getPIPs().stream().map(PIP::toString).collect(Collectors.toSet());
+            Set<String> pips2 = n2.getPIPs().stream().map(PIP::toString).collect(Collectors.toSet());
+            Assertions.assertEquals(pips1, pips2, n1.getName());
+        }
+    }
+
     public static Stream<Arguments> testMicroBlazeAndILA() {
         return Stream.of(
                   Arguments.of("", 0, 5, true)
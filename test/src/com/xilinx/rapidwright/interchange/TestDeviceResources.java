@@ -24,11 +24,22 @@ package com.xilinx.rapidwright.interchange;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
+import org.capnproto.PrimitiveList;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import com.xilinx.rapidwright.device.Device;
+import com.xilinx.rapidwright.device.Node;
+import com.xilinx.rapidwright.device.PIP;
+import com.xilinx.rapidwright.device.Tile;
+import com.xilinx.rapidwright.device.Wire;
 import com.xilinx.rapidwright.tests.CodePerfTracker;
 
 public class TestDeviceResources {
@@ -44,6 +55,91 @@ public class TestDeviceResources {
         Device.releaseDeviceReferences();
         DeviceResourcesVerifier.verifyDeviceResources(capnProtoFile.toString(), TEST_DEVICE);
     }
+
+    @Test
+    public void testMappedDeviceResources(@TempDir Path tempDir) throws IOException {
+        Path capnProtoFile = tempDir.resolve(TEST_DEVICE + ".device");
+        Device device = Device.getDevice(TEST_DEVICE);
+        DeviceResourcesWriter.writeDeviceResourcesFile(
+                TEST_DEVICE, device, CodePerfTracker.SILENT, capnProtoFile.toString());
+
+        try (MappedDeviceResources devRes = MappedDeviceResources.open(capnProtoFile.toString())) {
+            Assertions.assertEquals(-1, devRes.getTileIndex("NOT_A_TILE"));
+            List<Tile> tiles = new ArrayList<>();
+            Tile[] allTiles = device.getAllTiles().toArray(new Tile[0]);
+            for(int t=0; t < allTiles.length; t += allTiles.length / 16) {
+                tiles.add(allTiles[t]);
+            }
+            // Make sure that reversed bidirectional PIPs are covered
+            Tile bidirTile = null;
+            for(Tile tile : allTiles) {
+                if(tile.getPIPs().stream().anyMatch(PIP::isBidirectional)) {
+                    bidirTile = tile;
+                    break;
+                }
+            }
+            Assertions.assertNotNull(bidirTile);
+            tiles.add(bidirTile);
+
+            int reversedPIPs = 0;
+            for(Tile tile : tiles) {
+                String tileName = tile.getName();
+                DeviceResources.Device.Tile.Reader tileReader = devRes.getTile(tileName);
+                PrimitiveList.Int.Reader ttWires = devRes.getDevice().getTileTypeList().get(tileReader.getType()).getWires();
+                Assertions.assertEquals(tileName, devRes.getString(tileReader.getName()));
+                Assertions.assertEquals(tile.getRow(), tileReader.getRow());
+                Assertions.assertEquals(tile.getColumn(), tileReader.getCol());
+
+                for(int i=0; i < tile.getWireCount(); i++) {
+                    int wireIndex = devRes.getWireIndex(tileName, tile.getWireName(i));
+                    Assertions.assertNotEquals(-1, wireIndex);
+
+                    Node node = Node.getNode(tile, i);
+                    int nodeIndex = devRes.getNodeIndex(wireIndex);
+                    if(node == null) {
+                        Assertions.assertEquals(-1, nodeIndex);
+                    } else {
+                        Set<String> expectedWires = new HashSet<>();
+                        for(Wire wire : node.getAllWiresInNode()) {
+                            expectedWires.add(wire.getTile().getName() + "/" + wire.getWireName());
+                        }
+                        Set<String> foundWires = new HashSet<>();
+                        for(int w : devRes.getNodeWires(nodeIndex)) {
+                            DeviceResources.Device.Wire.Reader wire = devRes.getWire(w);
+                            foundWires.add(devRes.getString(wire.getTile()) + "/" + devRes.getString(wire.getWire()));
+                        }
+                        Assertions.assertEquals(expectedWires, foundWires);
+                    }
+
+                    List<String> expectedPIPs = new ArrayList<>();
+                    for(PIP pip : tile.getPIPs()) {
+                        String start = tile.getWireName(pip.getStartWireIndex());
+                        String end = tile.getWireName(pip.getEndWireIndex());
+                        if(pip.getStartWireIndex() == i) {
+                            expectedPIPs.add(start + "->" + end);
+                        }
+                        if(pip.isBidirectional() && pip.getEndWireIndex() == i) {
+                            expectedPIPs.add(end + "->" + start);
+                        }
+                    }
+                    List<String> foundPIPs = new ArrayList<>();
+                    for(MappedDeviceResources.DownhillPIP pip : devRes.getDownhillPIPs(wireIndex)) {
+                        Assertions.assertEquals(tile.getWireName(i), devRes.getString(ttWires.get(pip.getStartWire())));
+                        foundPIPs.add(devRes.getString(ttWires.get(pip.getStartWire())) + "->"
+                                + devRes.getString(ttWires.get(pip.getEndWire())));
+                        if(pip.isReversed()) {
+                            Assertions.assertFalse(pip.getPIP().getDirectional());
+                            reversedPIPs++;
+                        }
+                    }
+                    Collections.sort(expectedPIPs);
+                    Collections.sort(foundPIPs);
+                    Assertions.assertEquals(expectedPIPs, foundPIPs);
+                }
+            }
+            Assertions.assertTrue(reversedPIPs > 0);
+        }
+    }
     
 
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.interchange;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.edif.EDIFCell;
+import com.xilinx.rapidwright.edif.EDIFCellInst;
+import com.xilinx.rapidwright.edif.EDIFLibrary;
+import com.xilinx.rapidwright.edif.EDIFNet;
+import com.xilinx.rapidwright.edif.EDIFNetlist;
+import com.xilinx.rapidwright.edif.EDIFPort;
+import com.xilinx.rapidwright.edif.EDIFPortInst;
+import com.xilinx.rapidwright.support.RapidWrightDCP;
+import com.xilinx.rapidwright.util.ParallelismTools;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class TestLogNetlistWriter {
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void testLogNetlistRoundTrip(boolean parallel, @TempDir Path tempDir) throws IOException {
+        Design design = Design.readCheckpoint(RapidWrightDCP.getString("routethru_luts.dcp"));
+        EDIFNetlist before = design.getNetlist();
+        final Path interchangePath = tempDir.resolve("routethru_luts.netlist");
+
+        EDIFNetlist after;
+        try {
+            ParallelismTools.setParallel(parallel);
+            LogNetlistWriter.writeLogNetlist(before, interchangePath.toString());
+            after = LogNetlistReader.readLogNetlist(interchangePath.toString());
+        } finally {
+            ParallelismTools.setParallel(false);
+        }
+
+        Assertions.assertEquals(before.getLibraries().size(), after.getLibraries().size());
+        Assertions.assertEquals(before.getTopCell().getName(), after.getTopCell().getName());
+        Assertions.assertEquals(before.getAllLeafCellInstances().size(),
+                                after.getAllLeafCellInstances().size());
+        Assertions.assertEquals(before.getTopCell().getNets().size(),
+                                after.getTopCell().getNets().size());
+
+        for (EDIFLibrary lib : before.getLibraries()) {
+            EDIFLibrary afterLib = after.getLibrary(lib.getName());
+            Assertions.assertNotNull(afterLib, lib.getName());
+            for (EDIFCell cell : lib.getCells()) {
+                EDIFCell afterCell = afterLib.getCell(cell.getLegalEDIFName());
+                Assertions.assertNotNull(afterCell, cell.getName());
+                Assertions.assertEquals(describe(cell), describe(afterCell), cell.getName());
+            }
+        }
+    }
+
+    /**
+     * Lists the ports, instances and net connections of a cell in a canonical order
+     */
+    private static List<String> describe(EDIFCell cell) {
+        List<String> lines = new ArrayList<>();
+        for (EDIFPort port : cell.getPorts()) {
+            lines.add("port " + port.getName() + " " + port.getDirection() + " " + port.getWidth());
+        }
+        for (EDIFCellInst inst : cell.getCellInsts()) {
+            lines.add("inst " + inst.getName() + " " + inst.getCellType().getLibrary().getName()
+                    + ":" + inst.getCellType().getName());
+        }
+        for (EDIFNet net : cell.getNets()) {
+            List<String> portInsts = new ArrayList<>();
+            for (EDIFPortInst portInst : net.getPortInsts()) {
+                portInsts.add((portInst.getCellInst() == null ? "" : portInst.getCellInst().getName())
+                        + "/" + portInst.getName());
+            }
+            Collections.sort(portInsts);
+            lines.add("net " + net.getName() + " " + portInsts);
+        }
+        Collections.sort(lines);
+        return lines;
+    }
+}
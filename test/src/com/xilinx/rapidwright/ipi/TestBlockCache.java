@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.ipi;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.design.Module;
+import com.xilinx.rapidwright.design.ModuleImpls;
+import com.xilinx.rapidwright.examples.AddSubGenerator;
+
+public class TestBlockCache {
+
+    @Test
+    public void testChecksumKey(@TempDir Path tempDir) throws IOException {
+        Path a = tempDir.resolve("a.edf");
+        Path b = tempDir.resolve("b.dcp");
+        Files.write(a, "netlist".getBytes());
+        Files.write(b, "placed and routed".getBytes());
+
+        String key = BlockCreator.getMD5Checksum(Arrays.asList(a.toString(), b.toString()), "1");
+        Assertions.assertEquals(32, key.length());
+        Assertions.assertEquals(key, BlockCreator.getMD5Checksum(Arrays.asList(a.toString(), b.toString()), "1"));
+        Assertions.assertNotEquals(key, BlockCreator.getMD5Checksum(Arrays.asList(a.toString(), b.toString()), "2"));
+        Assertions.assertNotEquals(key, BlockCreator.getMD5Checksum(Collections.singletonList(a.toString()), "1"));
+
+        Files.write(b, "placed and routed again".getBytes());
+        Assertions.assertNotEquals(key, BlockCreator.getMD5Checksum(Arrays.asList(a.toString(), b.toString()), "1"));
+    }
+
+    private static String key(char c) {
+        char[] key = new char[32];
+        Arrays.fill(key, c);
+        return new String(key);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction(@TempDir Path tempDir) throws IOException {
+        byte[] data = new byte[1000];
+        String oldest = key('a');
+        String older = key('b');
+        String newest = key('c');
+        String[] keys = {oldest, older, newest};
+        for (int i = 0; i < keys.length; i++) {
+            Path entry = Files.createDirectory(tempDir.resolve(keys[i]));
+            Files.write(entry.resolve("block.dat"), data);
+            Files.write(entry.resolve("block.kryo"), data);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(1000000L * (i + 1)));
+        }
+        // Other directories (such as Vivado run directories) and incomplete entries are never evicted
+        Path runDir = Files.createDirectory(tempDir.resolve("ip_run"));
+        Files.write(runDir.resolve("block.dat"), data);
+        Files.write(runDir.resolve("block.kryo"), data);
+        Files.setLastModifiedTime(runDir, FileTime.fromMillis(0));
+        Path incomplete = Files.createDirectory(tempDir.resolve(key('d')));
+        Files.write(incomplete.resolve("block.dat"), data);
+        Files.setLastModifiedTime(incomplete, FileTime.fromMillis(0));
+
+        BlockCache cache = new BlockCache(tempDir, 4500);
+        Assertions.assertTrue(cache.contains(oldest));
+        Assertions.assertEquals(-1, cache.getSizeBytes());
+
+        cache.evict();
+        Assertions.assertFalse(cache.contains(oldest));
+        Assertions.assertTrue(cache.contains(older));
+        Assertions.assertTrue(cache.contains(newest));
+        Assertions.assertEquals(4000, cache.getSizeBytes());
+
+        // Even if too large, the most recently used entry is kept
+        new BlockCache(tempDir, 0).evict();
+        Assertions.assertFalse(cache.contains(older));
+        Assertions.assertTrue(cache.contains(newest));
+        Assertions.assertNull(cache.get("missing", "inst"));
+        Assertions.assertTrue(Files.isDirectory(runDir));
+        Assertions.assertTrue(Files.isDirectory(incomplete));
+    }
+
+    @Test
+    public void testPutGetRoundTrip(@TempDir Path tempDir) {
+        Design design = new Design("adder", "xcvu3p-ffvc1517-2-i");
+        AddSubGenerator.createAddSub(design, design.getDevice().getSite("SLICE_X10Y10"), 16, false, true, true);
+        Module module = new Module(design);
+        ModuleImpls modImpls = new ModuleImpls();
+        modImpls.add(module);
+
+        BlockCache cache = new BlockCache(tempDir, Long.MAX_VALUE);
+        String key = key('e');
+        Assertions.assertNull(cache.get(key, "adder_inst"));
+        cache.put(key, modImpls, design.getNetlist());
+        Assertions.assertTrue(cache.contains(key));
+        long size = cache.getSizeBytes();
+        Assertions.assertTrue(size > 0);
+
+        ModuleImpls cached = cache.get(key, "adder_inst");
+        Assertions.assertNotNull(cached);
+        Assertions.assertEquals(1, cached.size());
+        Module cachedModule = cached.get(0);
+        Assertions.assertEquals("adder_inst", cachedModule.getName());
+        Assertions.assertEquals(module.getAnchor().getName(), cachedModule.getAnchor().getName());
+        Assertions.assertEquals(module.getSiteInsts().size(), cachedModule.getSiteInsts().size());
+        Assertions.assertEquals(module.getNets().size(), cachedModule.getNets().size());
+        Assertions.assertEquals(module.getPorts().size(), cachedModule.getPorts().size());
+        Assertions.assertEquals(design.getNetlist().getTopCell().getCellInsts().size(),
+                cachedModule.getNetlist().getTopCell().getCellInsts().size());
+
+        // Storing the same key again keeps the existing entry
+        cache.put(key, modImpls, design.getNetlist());
+        Assertions.assertEquals(size, cache.getSizeBytes());
+    }
+}
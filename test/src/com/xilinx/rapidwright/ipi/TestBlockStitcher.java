@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.ipi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.design.Module;
+import com.xilinx.rapidwright.design.ModuleFootprint;
+import com.xilinx.rapidwright.design.ModuleInst;
+import com.xilinx.rapidwright.design.Net;
+import com.xilinx.rapidwright.design.SitePinInst;
+import com.xilinx.rapidwright.device.Site;
+import com.xilinx.rapidwright.edif.EDIFCell;
+import com.xilinx.rapidwright.edif.EDIFNet;
+import com.xilinx.rapidwright.edif.EDIFPort;
+import com.xilinx.rapidwright.support.RapidWrightDCP;
+import com.xilinx.rapidwright.tests.CodePerfTracker;
+
+public class TestBlockStitcher {
+
+    /**
+     * Creates a design with two placed instances of the PicoBlaze module. Each input of the
+     * module is driven by a top-level port shared by both instances, and the outputs of the
+     * first instance drive top-level output ports.
+     */
+    private static Design createDesign() {
+        Design picoblaze = Design.readCheckpoint(RapidWrightDCP.getString("picoblaze_ooc_X10Y235.dcp"),
+                CodePerfTracker.SILENT);
+        Module module = new Module(picoblaze, false);
+
+        Design design = new Design("top", picoblaze.getPartName());
+        ModuleInst mi0 = design.createModuleInst("inst0", module);
+        ModuleInst mi1 = design.createModuleInst("inst1", module);
+        Assertions.assertTrue(mi0.placeOnOriginalAnchor());
+        for (Site site : ModuleFootprint.calculateAllValidPlacements(module, design.getDevice())) {
+            if (mi1.place(site, false, false)) {
+                break;
+            }
+        }
+        Assertions.assertTrue(mi1.isPlaced());
+
+        EDIFCell top = design.getNetlist().getTopCell();
+        for (EDIFPort port : module.getNetlist().getTopCell().getPorts()) {
+            EDIFPort topPort = top.createPort(port.getName(), port.getDirection(), port.getWidth());
+            for (int i = 0; i < port.getWidth(); i++) {
+                EDIFNet net = top.createNet(port.isBus() ? port.getBusName() + "[" + i + "]" : port.getName());
+                if (port.isBus()) {
+                    net.createPortInst(topPort, i);
+                    net.createPortInst(port, i, mi0.getCellInst());
+                    if (port.isInput()) {
+                        net.createPortInst(port, i, mi1.getCellInst());
+                    }
+                } else {
+                    net.createPortInst(topPort);
+                    net.createPortInst(port, mi0.getCellInst());
+                    if (port.isInput()) {
+                        net.createPortInst(port, mi1.getCellInst());
+                    }
+                }
+            }
+        }
+        return design;
+    }
+
+    /**
+     * @return The sorted pins of each physical net by name.
+     */
+    private static Map<String, List<String>> getNetPins(Design design) {
+        Map<String, List<String>> netPins = new TreeMap<>();
+        for (Net net : design.getNets()) {
+            List<String> pins = new ArrayList<>();
+            for (SitePinInst pin : net.getPins()) {
+                pins.add(pin.getSiteInstName() + "/" + pin.getName());
+            }
+            Collections.sort(pins);
+            netPins.put(net.getName(), pins);
+        }
+        return netPins;
+    }
+
+    private static Map<String, List<String>> stitch(boolean indexed) {
+        Design design = createDesign();
+        int netsBefore = design.getNets().size();
+        BlockStitcher stitcher = new BlockStitcher();
+        stitcher.setIndexedStitching(indexed);
+        stitcher.stitchDesign(design, null);
+        // The inputs of both instances share top-level ports, so their nets must have been merged
+        Assertions.assertTrue(design.getNets().size() < netsBefore);
+        return getNetPins(design);
+    }
+
+    @Test
+    public void testIndexedStitchingMatchesNameBased() {
+        Assertions.assertEquals(stitch(false), stitch(true));
+    }
+}
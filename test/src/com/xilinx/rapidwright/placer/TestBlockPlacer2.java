@@ -23,10 +23,15 @@
 package com.xilinx.rapidwright.placer;
 
 import java.io.File;
+import java.util.List;
 
+import com.xilinx.rapidwright.design.AbstractModuleInst;
 import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.design.ModuleImplsInst;
 import com.xilinx.rapidwright.examples.PicoBlazeArray;
 import com.xilinx.rapidwright.placer.blockplacer.BlockPlacer2;
+import com.xilinx.rapidwright.placer.blockplacer.BlockPlacer2Impls;
+import com.xilinx.rapidwright.placer.blockplacer.IntervalTreeOverlapCache;
 import com.xilinx.rapidwright.support.LargeTest;
 import com.xilinx.rapidwright.support.RapidWrightDCP;
 import com.xilinx.rapidwright.tests.CodePerfTracker;
@@ -36,13 +41,23 @@ import org.junit.jupiter.api.Test;
 @LargeTest
 public class TestBlockPlacer2 {
 
-    private void placeSomePicoBlazeArray(PicoBlazeArray.PicoBlazeArrayCreator<?> arrayCreator) {
+    /**
+     * Places the instances of a PicoBlaze array design.
+     */
+    private interface PlacementRun<T extends AbstractModuleInst<?, T>> {
+        /**
+         * @return The final placement cost.
+         */
+        double place(Design design, PicoBlazeArray.PicoBlazeArrayCreator<T> arrayCreator);
+    }
+
+    private <T extends AbstractModuleInst<?, T>> void placeSomePicoBlazeArray(
+            PicoBlazeArray.PicoBlazeArrayCreator<T> arrayCreator, PlacementRun<T> placementRun) {
         CodePerfTracker t = new CodePerfTracker("PicoBlazeArray Test");
         File srcDir = RapidWrightDCP.getPath("PicoBlazeArray").toFile();
         Design design = arrayCreator.createDesign(srcDir, "xcvu3p-ffvc1517-2-i", t);
 
-        BlockPlacer2<?, ?, ?, ?> placer = arrayCreator.createPlacer(design, null);
-        double cost = placer.placeDesign(false);
+        double cost = placementRun.place(design, arrayCreator);
 
         Assertions.assertTrue(cost < 400000);
 
@@ -53,6 +68,22 @@ public class TestBlockPlacer2 {
 
     }
 
+    private <T extends AbstractModuleInst<?, T>> void placeSomePicoBlazeArray(
+            PicoBlazeArray.PicoBlazeArrayCreator<T> arrayCreator) {
+        placeSomePicoBlazeArray(arrayCreator, (design, creator) -> {
+            BlockPlacer2<?, ?, ?, ?> placer = creator.createPlacer(design, null);
+            double cost = placer.placeDesign(false);
+            Assertions.assertTrue(placer.getMovesPerSecond() > 0);
+            return cost;
+        });
+    }
+
+    private static void assertAllPlaced(List<ModuleImplsInst> instances) {
+        for (ModuleImplsInst mii : instances) {
+            Assertions.assertNotNull(mii.getPlacement());
+        }
+    }
+
     @Test
     public void placePicoBlazeArrayModules() {
         placeSomePicoBlazeArray(PicoBlazeArray.makeModuleCreator());
@@ -62,4 +93,33 @@ public class TestBlockPlacer2 {
     public void placePicoBlazeArrayImpls() {
         placeSomePicoBlazeArray(PicoBlazeArray.makeImplsCreator());
     }
+
+    @Test
+    public void placePicoBlazeArrayImplsIntervalTree() {
+        placeSomePicoBlazeArray(PicoBlazeArray.makeImplsCreator(), (design, creator) -> {
+            BlockPlacer2Impls placer = new BlockPlacer2Impls(design, creator.getInstances(), true, null,
+                    new IntervalTreeOverlapCache(creator.getInstances()));
+            return placer.placeDesign(false);
+        });
+    }
+
+    @Test
+    public void placePicoBlazeArrayImplsAnalytical() {
+        placeSomePicoBlazeArray(PicoBlazeArray.makeImplsCreator(), (design, creator) -> {
+            BlockPlacer2Impls placer = new BlockPlacer2Impls(design, creator.getInstances(), true, null);
+            placer.setAnalyticalPlacement(true);
+            double cost = placer.placeDesign(false);
+            assertAllPlaced(creator.getInstances());
+            return cost;
+        });
+    }
+
+    @Test
+    public void placePicoBlazeArrayImplsMultiStart() {
+        placeSomePicoBlazeArray(PicoBlazeArray.makeImplsCreator(), (design, creator) -> {
+            double cost = BlockPlacer2Impls.placeDesignMultiStart(design, creator.getInstances(), true, 2, 3);
+            assertAllPlaced(creator.getInstances());
+            return cost;
+        });
+    }
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.placer.blockplacer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.design.Module;
+import com.xilinx.rapidwright.design.ModuleImpls;
+import com.xilinx.rapidwright.design.ModuleImplsInst;
+import com.xilinx.rapidwright.design.SimpleTileRectangle;
+import com.xilinx.rapidwright.examples.AddSubGenerator;
+
+public class TestImplsPath {
+
+    /**
+     * Port at a fixed offset from the location of its instance, which the test sets directly.
+     * Instances without a location are unplaced.
+     */
+    private static class TestPort extends ImplsInstancePort.InstPort {
+        private final Map<ModuleImplsInst, int[]> locations;
+        private final int column;
+        private final int row;
+        private final int width;
+        private final int height;
+
+        TestPort(ModuleImplsInst instance, Map<ModuleImplsInst, int[]> locations, Random rand) {
+            super(instance, "p");
+            this.locations = locations;
+            column = rand.nextInt(3);
+            row = rand.nextInt(3);
+            width = rand.nextInt(2);
+            height = rand.nextInt(2);
+        }
+
+        TestPort(TestPort other) {
+            super(other.getInstance(), "p");
+            locations = other.locations;
+            column = other.column;
+            row = other.row;
+            width = other.width;
+            height = other.height;
+        }
+
+        @Override
+        public void enterToRect(SimpleTileRectangle rect) {
+            int[] loc = locations.get(getInstance());
+            if (loc != null) {
+                rect.extendTo(new SimpleTileRectangle(loc[0] + column, loc[0] + column + width,
+                        loc[1] + row, loc[1] + row + height));
+            }
+        }
+    }
+
+    private static int[] randomLocation(Random rand) {
+        return rand.nextInt(10) == 0 ? null : new int[]{rand.nextInt(10), rand.nextInt(10)};
+    }
+
+    private static void setLocation(Map<ModuleImplsInst, int[]> locations, ModuleImplsInst mii, int[] loc) {
+        if (loc == null) {
+            locations.remove(mii);
+        } else {
+            locations.put(mii, loc);
+        }
+    }
+
+    @Test
+    public void testIncrementalLengthMatchesRecalculation() {
+        Design design = new Design("adder", "xcvu3p-ffvc1517-2-i");
+        AddSubGenerator.createAddSub(design, design.getDevice().getSite("SLICE_X10Y10"), 8, false, true, false);
+        ModuleImpls impls = new ModuleImpls();
+        impls.add(new Module(design));
+
+        Random rand = new Random(1);
+        List<ModuleImplsInst> instances = new ArrayList<>();
+        Map<ModuleImplsInst, int[]> locations = new HashMap<>();
+        for (int i = 0; i < 6; i++) {
+            ModuleImplsInst mii = new ModuleImplsInst("inst" + i, impls);
+            instances.add(mii);
+            setLocation(locations, mii, randomLocation(rand));
+        }
+
+        // Each path is paired with a reference path on the same locations that is always recalculated
+        List<ImplsPath> paths = new ArrayList<>();
+        List<ImplsPath> references = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            ImplsPath path = new ImplsPath("path" + i);
+            ImplsPath reference = new ImplsPath("reference" + i);
+            // Some paths get more than 30 ports to cover the fan-out penalty
+            int portCount = 1 + rand.nextInt(40);
+            for (int j = 0; j < portCount; j++) {
+                TestPort port = new TestPort(instances.get(rand.nextInt(instances.size())), locations, rand);
+                path.addPort(port);
+                reference.addPort(new TestPort(port));
+            }
+            path.calculateLength();
+            paths.add(path);
+            references.add(reference);
+        }
+
+        for (int step = 0; step < 5000; step++) {
+            ModuleImplsInst moved0 = instances.get(rand.nextInt(instances.size()));
+            ModuleImplsInst moved1 = rand.nextBoolean() ? instances.get(rand.nextInt(instances.size())) : null;
+            if (moved1 == moved0) {
+                moved1 = null;
+            }
+            int[] old0 = locations.get(moved0);
+            int[] old1 = moved1 != null ? locations.get(moved1) : null;
+
+            int[] lengthsBefore = new int[paths.size()];
+            for (int i = 0; i < paths.size(); i++) {
+                paths.get(i).saveState();
+                lengthsBefore[i] = paths.get(i).getLength();
+            }
+
+            setLocation(locations, moved0, randomLocation(rand));
+            if (moved1 != null) {
+                setLocation(locations, moved1, randomLocation(rand));
+            }
+            for (int i = 0; i < paths.size(); i++) {
+                paths.get(i).updateLength(moved0, moved1);
+                references.get(i).calculateLength();
+                Assertions.assertEquals(references.get(i).getLength(), paths.get(i).getLength(),
+                        "Length of path " + i + " after move " + step);
+            }
+
+            if (rand.nextBoolean()) {
+                // Undo the move
+                setLocation(locations, moved0, old0);
+                if (moved1 != null) {
+                    setLocation(locations, moved1, old1);
+                }
+                for (int i = 0; i < paths.size(); i++) {
+                    paths.get(i).restoreState();
+                    references.get(i).calculateLength();
+                    Assertions.assertEquals(lengthsBefore[i], paths.get(i).getLength());
+                    Assertions.assertEquals(references.get(i).getLength(), paths.get(i).getLength(),
+                            "Length of path " + i + " after undoing move " + step);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.placer.blockplacer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.design.Module;
+import com.xilinx.rapidwright.design.ModuleImpls;
+import com.xilinx.rapidwright.design.ModuleImplsInst;
+import com.xilinx.rapidwright.design.ModulePlacement;
+import com.xilinx.rapidwright.examples.AddSubGenerator;
+
+public class TestIntervalTreeOverlapCache {
+
+    private static Module createAdder(int width) {
+        Design design = new Design("adder" + width, "xcvu3p-ffvc1517-2-i");
+        AddSubGenerator.createAddSub(design, design.getDevice().getSite("SLICE_X10Y10"), width, false, true, false);
+        return new Module(design);
+    }
+
+    @Test
+    public void testMatchesExhaustiveOverlapCache() {
+        ModuleImpls impls = new ModuleImpls();
+        impls.add(createAdder(16));
+        impls.add(createAdder(64));
+        // Only use placements in a small region, so that instances frequently overlap
+        List<ModulePlacement> placements = new ArrayList<>();
+        for (ModulePlacement p : impls.getAllPlacements()) {
+            if (p.placement.getInstanceX() < 8 && p.placement.getInstanceY() < 60) {
+                placements.add(p);
+            }
+        }
+        Assertions.assertFalse(placements.isEmpty());
+
+        Random rand = new Random(42);
+        List<ModuleImplsInst> instances = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            ModuleImplsInst mii = new ModuleImplsInst("adder" + i, impls);
+            if (rand.nextBoolean()) {
+                mii.place(placements.get(rand.nextInt(placements.size())));
+            }
+            instances.add(mii);
+        }
+        AbstractOverlapCache exhaustive = new ExhaustiveOverlapCache(instances);
+        AbstractOverlapCache intervalTree = new IntervalTreeOverlapCache(instances);
+
+        int invalid = 0;
+        for (int i = 0; i < 5000; i++) {
+            ModuleImplsInst mii = instances.get(rand.nextInt(instances.size()));
+            if (rand.nextInt(4) == 0) {
+                exhaustive.unplace(mii);
+                intervalTree.unplace(mii);
+                mii.unplace();
+            } else {
+                exhaustive.unplace(mii);
+                intervalTree.unplace(mii);
+                mii.place(placements.get(rand.nextInt(placements.size())));
+                exhaustive.place(mii);
+                intervalTree.place(mii);
+            }
+
+            for (ModuleImplsInst other : instances) {
+                boolean valid = exhaustive.isValidPlacement(other);
+                Assertions.assertEquals(valid, intervalTree.isValidPlacement(other),
+                        "Mismatch for " + other + " after move " + i);
+                if (!valid) {
+                    invalid++;
+                }
+            }
+        }
+        // Make sure that the sequence actually exercised overlapping placements
+        Assertions.assertTrue(invalid > 0);
+        intervalTree.printStats();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.placer.blockplacer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestQuadraticPlacer {
+
+    @Test
+    public void testChainBetweenFixedPins() {
+        // fixed(0,0) - c0 - c1 - c2 - fixed(40,20): cells end up evenly spaced
+        QuadraticPlacer qp = new QuadraticPlacer(3);
+        qp.addNet(new int[]{0}, 1, new double[]{0}, new double[]{0}, 1);
+        qp.addNet(new int[]{0, 1}, 2, new double[0], new double[0], 0);
+        qp.addNet(new int[]{1, 2}, 2, new double[0], new double[0], 0);
+        qp.addNet(new int[]{2}, 1, new double[]{40}, new double[]{20}, 1);
+        double[] x = new double[3];
+        double[] y = new double[3];
+        qp.solve(x, y, 100);
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(10 * (i + 1), x[i], 1e-4);
+            Assertions.assertEquals(5 * (i + 1), y[i], 1e-4);
+        }
+    }
+
+    @Test
+    public void testLargeNetUsesStar() {
+        int cells = QuadraticPlacer.MAX_CLIQUE_SIZE + 4;
+        QuadraticPlacer qp = new QuadraticPlacer(cells);
+        int[] all = new int[cells];
+        for (int i = 0; i < cells; i++) {
+            all[i] = i;
+            qp.addAnchor(i, i, 0, 1.0);
+        }
+        qp.addNet(all, cells, new double[]{100}, new double[]{100}, 1);
+        Assertions.assertEquals(cells + 1, qp.getVariableCount());
+
+        double[] x = new double[cells];
+        double[] y = new double[cells];
+        qp.solve(x, y, 1000);
+        double meanX = 0;
+        for (int i = 0; i < cells; i++) {
+            // Pulled away from the anchors towards the fixed pin, but not past it
+            Assertions.assertTrue(y[i] > 0 && y[i] < 100);
+            meanX += x[i] / cells;
+        }
+        Assertions.assertTrue(meanX > (cells - 1) / 2.0);
+        // Order along the anchors is preserved
+        for (int i = 1; i < cells; i++) {
+            Assertions.assertTrue(x[i] > x[i - 1]);
+        }
+    }
+
+    @Test
+    public void testUnconnectedCell() {
+        QuadraticPlacer qp = new QuadraticPlacer(2);
+        qp.addAnchor(0, 1, 1, 1.0);
+        Assertions.assertThrows(RuntimeException.class, () -> qp.solve(new double[2], new double[2], 10));
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.rwroute;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestRouteSearchStats {
+
+    @Test
+    public void testBuckets() {
+        Assertions.assertEquals(0, RouteSearchStats.getBucket(0));
+        Assertions.assertEquals(1, RouteSearchStats.getBucket(1));
+        Assertions.assertEquals(1, RouteSearchStats.getBucket(2));
+        Assertions.assertEquals(2, RouteSearchStats.getBucket(3));
+        Assertions.assertEquals(2, RouteSearchStats.getBucket(6));
+        Assertions.assertEquals(3, RouteSearchStats.getBucket(7));
+        Assertions.assertEquals(RouteSearchStats.NUM_BUCKETS - 1, RouteSearchStats.getBucket(Short.MAX_VALUE));
+        Assertions.assertEquals("3-6", RouteSearchStats.getBucketName(2));
+        Assertions.assertEquals("127+", RouteSearchStats.getBucketName(RouteSearchStats.NUM_BUCKETS - 1));
+    }
+
+    @Test
+    public void testCounting() {
+        RouteSearchStats iteration = new RouteSearchStats();
+        iteration.startConnection(1);
+        iteration.increment(RouteSearchStats.PUSHED);
+        iteration.updateQueueSize(5);
+        iteration.startConnection(20);
+        iteration.increment(RouteSearchStats.PUSHED);
+        iteration.increment(RouteSearchStats.POPPED);
+        iteration.updateQueueSize(3);
+
+        Assertions.assertEquals(2, iteration.get(RouteSearchStats.CONNECTIONS));
+        Assertions.assertEquals(2, iteration.get(RouteSearchStats.PUSHED));
+        Assertions.assertEquals(1, iteration.get(4, RouteSearchStats.POPPED));
+        Assertions.assertEquals(5, iteration.get(RouteSearchStats.QUEUE_MAX));
+        Assertions.assertEquals(3, iteration.get(4, RouteSearchStats.QUEUE_MAX));
+
+        RouteSearchStats total = new RouteSearchStats();
+        total.add(iteration);
+        total.add(iteration);
+        Assertions.assertEquals(4, total.get(RouteSearchStats.PUSHED));
+        Assertions.assertEquals(5, total.get(RouteSearchStats.QUEUE_MAX));
+
+        iteration.reset();
+        Assertions.assertEquals(0, iteration.get(RouteSearchStats.PUSHED));
+        Assertions.assertEquals(4, total.get(RouteSearchStats.PUSHED));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.xilinx.rapidwright.util.FileTools;
+
+public class TestDelayModelSourceFromBinary {
+
+    private static void assertSameEntries(List<DelayEntry> expected, List<DelayEntry> actual) {
+        Assertions.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            DelayEntry e = expected.get(i);
+            DelayEntry a = actual.get(i);
+            Assertions.assertEquals(e.scope, a.scope);
+            Assertions.assertEquals(e.fr, a.fr);
+            Assertions.assertEquals(e.to, a.to);
+            Assertions.assertEquals(e.delay, a.delay);
+            Assertions.assertEquals(e.config, a.config);
+        }
+    }
+
+    @Test
+    public void testRoundTrip(@TempDir Path tempDir) throws IOException {
+        String fileName = TimingModel.TIMING_DATA_DIR + "/ultrascaleplus/intrasite_delay_terms.txt";
+        DelayModelSourceFromText text = new DelayModelSourceFromText(fileName);
+        Assertions.assertFalse(text.getLogicDelayEntries().isEmpty());
+        Assertions.assertFalse(text.getIntraSiteDelayEntries().isEmpty());
+
+        long checksum = DelayModelSourceFromBinary.getChecksum(new File(FileTools.getRapidWrightPath(), fileName));
+        File binaryFile = tempDir.resolve("intrasite_delay_terms.bin").toFile();
+        DelayModelSourceFromBinary.write(text, checksum, binaryFile);
+
+        DelayModelSourceFromBinary binary = DelayModelSourceFromBinary.read(binaryFile, checksum);
+        Assertions.assertNotNull(binary);
+        assertSameEntries(text.getLogicDelayEntries(), binary.getLogicDelayEntries());
+        assertSameEntries(text.getIntraSiteDelayEntries(), binary.getIntraSiteDelayEntries());
+        Assertions.assertEquals(text.getConfigCodeMap(), binary.getConfigCodeMap());
+
+        // Stale or missing files are not used
+        Assertions.assertNull(DelayModelSourceFromBinary.read(binaryFile, checksum + 1));
+        Assertions.assertNull(DelayModelSourceFromBinary.read(tempDir.resolve("missing.bin").toFile(), checksum));
+    }
+
+    @Test
+    public void testDelayModelPerSeries() {
+        DelayModel model = DelayModelBuilder.getDelayModel("ultrascaleplus");
+        Assertions.assertSame(model, DelayModelBuilder.getDelayModel("ultrascaleplus"));
+        Assertions.assertEquals(150, model.getLogicDelay(model.getBELIndex("A6LUT"), "A1", "O6"));
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.rwroute.Connection;
+import com.xilinx.rapidwright.rwroute.NetWrapper;
+
+public class TestMultiCornerTiming {
+
+    @Test
+    public void testWorstCorner() {
+        TimingGraphFixture fixture = new TimingGraphFixture();
+        TimingGraph graph = fixture.graph;
+        TimingEdge cd = fixture.cd;
+        TimingEdge be = fixture.be;
+
+        List<TimingCorner> corners = TimingCorner.parseCorners("nominal:1:1,slowNet:1:2,fastClock:1:1:40");
+        MultiCornerTiming timing = new MultiCornerTiming(graph, corners);
+        timing.update();
+
+        Assertions.assertEquals(50, timing.getMaxDelay(0));
+        Assertions.assertEquals(85, timing.getMaxDelay(1));
+        Assertions.assertEquals(85, timing.getDelay(1, be));
+        Assertions.assertEquals(20, timing.getArrivalTime(1, fixture.c));
+        Assertions.assertEquals(85, timing.getRequiredTime(1, fixture.d));
+
+        Assertions.assertEquals(0, timing.getSlack(0, cd));
+        Assertions.assertEquals(5, timing.getSlack(0, be));
+        Assertions.assertEquals(35, timing.getSlack(1, cd));
+        Assertions.assertEquals(0, timing.getSlack(1, be));
+        Assertions.assertEquals(-10, timing.getSlack(2, cd));
+
+        Assertions.assertEquals(2, timing.getWorstCorner(Collections.singletonList(cd)));
+        Assertions.assertEquals(2, timing.getWorstCorner(Arrays.asList(cd, be)));
+        Assertions.assertEquals(-10, timing.getSlack(2, Arrays.asList(cd, be)));
+
+        MultiCornerTiming corners01 = new MultiCornerTiming(graph, corners.subList(0, 2));
+        corners01.update();
+        Assertions.assertEquals(0, corners01.getWorstCorner(Collections.singletonList(cd)));
+        Assertions.assertEquals(1, corners01.getWorstCorner(Collections.singletonList(be)));
+
+        // Delay changes are picked up by the next update
+        be.setNetDelay(0);
+        timing.update();
+        Assertions.assertEquals(50, timing.getMaxDelay(1));
+        Assertions.assertEquals(0, timing.getSlack(1, cd));
+    }
+
+    @Test
+    public void testCriticality() {
+        TimingManager manager = new TimingManager(new Design("test", "xcvu3p"), false);
+        TimingGraph graph = manager.getTimingGraph();
+        TimingGraphFixture fixture = new TimingGraphFixture(graph);
+        TimingEdge cd = fixture.cd;
+        TimingEdge be = fixture.be;
+        graph.superSink = new TimingVertex("superSink");
+        graph.addVertex(graph.superSink);
+        TimingGraphFixture.addEdge(graph, fixture.d, graph.superSink, 0, 0);
+        TimingGraphFixture.addEdge(graph, fixture.e, graph.superSink, 0, 0);
+
+        NetWrapper net = new NetWrapper(0, null);
+        Connection cdConnection = new Connection(0, null, null, net);
+        cdConnection.setTimingEdges(Collections.singletonList(cd));
+        Connection beConnection = new Connection(1, null, null, net);
+        beConnection.setTimingEdges(Collections.singletonList(be));
+        List<Connection> connections = Arrays.asList(cdConnection, beConnection);
+        float maxCriticality = 0.99f;
+
+        // A single corner without requirement matches the nominal analysis
+        manager.setTimingCorners(TimingCorner.parseCorners("nominal:1:1"));
+        float maxDelay = manager.calculateArrivalRequireTimes().getFirst();
+        Assertions.assertEquals(50, maxDelay);
+        manager.calculateCriticality(connections, maxCriticality, 3, maxDelay);
+        Assertions.assertEquals(maxCriticality, cdConnection.getCriticality(), 1e-6);
+        Assertions.assertEquals(Math.pow(1 - 5 / 50.0, 3) * maxCriticality, beConnection.getCriticality(), 1e-6);
+
+        // Negative slacks in a corner with a tight requirement are limited to maxCriticality
+        manager.setTimingCorners(TimingCorner.parseCorners("nominal:1:1,fastClock:1:1:20"));
+        manager.calculateArrivalRequireTimes();
+        Assertions.assertEquals(-30, manager.getMultiCornerTiming().getSlack(1, cd));
+        manager.calculateCriticality(connections, maxCriticality, 3, maxDelay);
+        Assertions.assertEquals(maxCriticality, cdConnection.getCriticality(), 1e-6);
+        Assertions.assertEquals(maxCriticality, beConnection.getCriticality(), 1e-6);
+
+        // Slacks larger than the max delay are normalized by the requirement
+        manager.setTimingCorners(TimingCorner.parseCorners("relaxed:1:1:200"));
+        manager.calculateArrivalRequireTimes();
+        manager.calculateCriticality(connections, maxCriticality, 1.5f, maxDelay);
+        Assertions.assertEquals(Math.pow(1 - 150 / 200.0, 1.5) * maxCriticality, cdConnection.getCriticality(), 1e-6);
+        Assertions.assertEquals(Math.pow(1 - 155 / 200.0, 1.5) * maxCriticality, beConnection.getCriticality(), 1e-6);
+        for (Connection connection : connections) {
+            Assertions.assertTrue(connection.getCriticality() >= 0 && connection.getCriticality() <= maxCriticality);
+        }
+    }
+
+    @Test
+    public void testParseCorners() {
+        List<TimingCorner> corners = TimingCorner.parseCorners("slow:1.0:1.2, fast:0.7:0.8:2500");
+        Assertions.assertEquals(2, corners.size());
+        Assertions.assertEquals("slow", corners.get(0).getName());
+        Assertions.assertEquals(1.2f, corners.get(0).getNetDelayFactor());
+        Assertions.assertFalse(corners.get(0).hasRequirement());
+        Assertions.assertEquals("fast", corners.get(1).getName());
+        Assertions.assertEquals(2500f, corners.get(1).getRequirement());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TimingCorner.parseCorners("slow:1.0"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TimingCorner.parseCorners("zero:0:1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TimingCorner.parseCorners("mode:1:1:0"));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.xilinx.rapidwright.device.SiteTypeEnum;
+
+public class TestSmallDelayModel {
+
+    private static SmallDelayModel getModel() {
+        String fileName = TimingModel.TIMING_DATA_DIR + "/ultrascaleplus/intrasite_delay_terms.txt";
+        return new SmallDelayModel(new DelayModelSourceFromText(fileName));
+    }
+
+    @Test
+    public void testIntraSiteDelay() {
+        SmallDelayModel model = getModel();
+        Assertions.assertEquals(Short.valueOf((short) 0), model.getIntraSiteDelay(SiteTypeEnum.SLICEL, "A6", "A6LUT/A6"));
+        Assertions.assertEquals(SmallDelayModel.UNKNOWN_DELAY, (short) model.getIntraSiteDelay(SiteTypeEnum.SLICEM, "A6", "AFF/D"));
+        Assertions.assertNull(model.getIntraSiteDelay(SiteTypeEnum.BUFGCE, "A6", "A6LUT/A6"));
+
+        int siteIdx = model.getSiteIndex(SiteTypeEnum.SLICEM);
+        Assertions.assertEquals(model.getSiteIndex(SiteTypeEnum.SLICEL), siteIdx);
+        Assertions.assertEquals(-1, model.getSiteIndex(SiteTypeEnum.BUFGCE));
+        int fr = model.getIntraSiteFromPinId("A6");
+        int to = model.getIntraSiteToPinId("A6LUT/A6");
+        Assertions.assertEquals(0, model.getIntraSiteDelay(siteIdx, fr, to));
+        Assertions.assertEquals(-1, model.getIntraSiteToPinId("NOT_A_PIN"));
+        Assertions.assertEquals(SmallDelayModel.UNKNOWN_DELAY, model.getIntraSiteDelay(siteIdx, fr, -1));
+    }
+
+    @Test
+    public void testLogicDelay() {
+        SmallDelayModel model = getModel();
+        short lut = model.getBELIndex("C6LUT");
+        Assertions.assertEquals(lut, model.getBELIndex("A6LUT"));
+        Assertions.assertEquals(150, model.getLogicDelay(lut, "A1", "O6"));
+        Assertions.assertEquals(SmallDelayModel.UNKNOWN_DELAY, model.getLogicDelay(lut, "A1", "A2"));
+        Assertions.assertEquals(SmallDelayModel.UNKNOWN_DELAY, model.getLogicDelay(lut, null, "O6"));
+
+        int fr = model.getLogicFromPinId(lut, "A2");
+        int to = model.getLogicToPinId(lut, "O6");
+        Assertions.assertEquals(125, model.getLogicDelay(lut, fr, to, 0));
+        Assertions.assertEquals(-1, model.getLogicToPinId(lut, "A2"));
+
+        // Every arc must give the same result through both APIs, for any config
+        short carry = model.getBELIndex("CARRY8");
+        int config = model.getEncodedConfigCode("CARRY8:CYINIT_BOT:GND")
+                | model.getEncodedConfigCode("CARRY8:CARRY_TYPE:SINGLE_CY8");
+        for (String in : new String[] {"AX", "CIN", "S0", "DI0"}) {
+            for (String out : new String[] {"CO7", "O0", "O7"}) {
+                Assertions.assertEquals(model.getLogicDelay(carry, in, out, config), model.getLogicDelay(carry,
+                        model.getLogicFromPinId(carry, in), model.getLogicToPinId(carry, out), config));
+            }
+        }
+    }
+}
@@ -20,9 +20,17 @@
  
 package com.xilinx.rapidwright.timing;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.design.Net;
+import com.xilinx.rapidwright.design.SitePinInst;
 import com.xilinx.rapidwright.device.Device;
 import com.xilinx.rapidwright.device.Tile;
+import com.xilinx.rapidwright.support.RapidWrightDCP;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
@@ -49,4 +57,39 @@ public class TestTimingModel {
         Assertions.assertEquals(expectedCol,tile.getColumn());
         Assertions.assertEquals(expectedRow,tile.getRow());
     }
+
+    private static List<Float> calcAllDelays(TimingModel model, Design design) {
+        List<Float> delays = new ArrayList<>();
+        for (Net net : design.getNets()) {
+            SitePinInst source = net.getSource();
+            if (source == null || !net.hasPIPs() || net.isClockNet() || net.isStaticNet()) continue;
+            for (SitePinInst sink : net.getSinkPins()) {
+                delays.add(model.calcDelay(source, sink, net));
+            }
+        }
+        return delays;
+    }
+
+    @Test
+    public void testGroupCache() {
+        Design design = RapidWrightDCP.loadDCP("picoblaze_ooc_X10Y235.dcp");
+        TimingModel model = new TimingModel(design.getDevice());
+        model.build();
+
+        model.setGroupCacheSize(0);
+        List<Float> expected = calcAllDelays(model, design);
+        Assertions.assertFalse(expected.isEmpty());
+        Assertions.assertEquals(0, model.getGroupCacheHits() + model.getGroupCacheMisses());
+
+        model.setGroupCacheSize(TimingModel.DEFAULT_GROUP_CACHE_SIZE);
+        Assertions.assertEquals(expected, calcAllDelays(model, design));
+        long hits = model.getGroupCacheHits();
+        long misses = model.getGroupCacheMisses();
+        Assertions.assertTrue(misses > 0);
+
+        // All paths are cached now
+        Assertions.assertEquals(expected, calcAllDelays(model, design));
+        Assertions.assertEquals(misses, model.getGroupCacheMisses());
+        Assertions.assertEquals(hits + expected.size(), model.getGroupCacheHits());
+    }
 }
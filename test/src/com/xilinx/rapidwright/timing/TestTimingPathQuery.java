@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestTimingPathQuery {
+
+    @Test
+    public void testWorstPaths() {
+        TimingPathQuery query = new TimingPathQuery(new TimingGraphFixture().graph);
+        List<TimingVertex> endpoints = query.getEndpoints();
+        Assertions.assertEquals(2, endpoints.size());
+
+        List<TimingPathQuery.Path> paths = query.getWorstPaths(endpoints, 10);
+        float[] delays = new float[paths.size()];
+        for (int i = 0; i < delays.length; i++) {
+            delays[i] = paths.get(i).getDelay();
+        }
+        Assertions.assertArrayEquals(new float[] {50, 45, 40, 25, 15}, delays);
+
+        TimingVertex d = endpoints.stream().filter((v) -> v.getName().equals("d")).findFirst().get();
+        TimingPathQuery.Path worst = query.getWorstPaths(Collections.singletonList(d), 1).get(0);
+        Assertions.assertEquals(2, worst.getLength());
+        Assertions.assertEquals(worst.getEdges().size() + 1, worst.getVertices().size());
+        Assertions.assertEquals(50.0, worst.toGraphPath().getWeight());
+
+        Map<String, List<TimingPathQuery.Path>> byClock = query.getWorstPathsByClock(1);
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("clk0", "clk1")), byClock.keySet());
+        Assertions.assertEquals("b", byClock.get("clk0").get(0).getStartVertex().getName());
+        Assertions.assertEquals("e", byClock.get("clk1").get(0).getEndVertex().getName());
+    }
+
+    @Test
+    public void testSlacks() throws IOException {
+        TimingPathQuery query = new TimingPathQuery(new TimingGraphFixture().graph);
+        List<TimingVertex> endpoints = query.getEndpoints();
+        TimingPathQuery.SlackHistogram histogram = query.getSlackHistogram(endpoints, 45, 10);
+        Assertions.assertEquals(-5, histogram.getWorstSlack());
+        Assertions.assertEquals(-5, histogram.getTotalNegativeSlack());
+        Assertions.assertEquals(1, histogram.getFailingEndpoints());
+        Assertions.assertEquals(-10, histogram.getBinStart(0));
+        Assertions.assertEquals(1, histogram.getCount(0));
+        Assertions.assertEquals(1, histogram.getCount(histogram.getBinCount() - 1));
+
+        StringWriter csv = new StringWriter();
+        query.writeWorstPathsCSV(csv, endpoints, 2, 45);
+        String[] lines = csv.toString().split("\n");
+        Assertions.assertEquals(3, lines.length);
+        Assertions.assertEquals("1,b,d,clk0,50.0,-5.0,2", lines[1]);
+        Assertions.assertEquals("2,b,e,clk1,45.0,0.0,1", lines[2]);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+/**
+ * A small timing graph shared by the timing tests:
+ *
+ * a -10-> c -30-> d (clk0)
+ * b -20-> c -5--> e (clk1)
+ * b -5+40-> e (logic + net delay)
+ */
+final class TimingGraphFixture {
+    final TimingGraph graph;
+    final TimingVertex a, b, c, d, e;
+    final TimingEdge cd, be;
+
+    /**
+     * Adds the vertices and edges of the fixture to a graph.
+     * @param graph The graph, which may already contain other vertices
+     */
+    TimingGraphFixture(TimingGraph graph) {
+        this.graph = graph;
+        a = addVertex(graph, "a", null);
+        b = addVertex(graph, "b", null);
+        c = addVertex(graph, "c", null);
+        d = addVertex(graph, "d", "clk0");
+        e = addVertex(graph, "e", "clk1");
+        addEdge(graph, a, c, 10, 0);
+        addEdge(graph, b, c, 20, 0);
+        cd = addEdge(graph, c, d, 30, 0);
+        addEdge(graph, c, e, 5, 0);
+        be = addEdge(graph, b, e, 5, 40);
+    }
+
+    TimingGraphFixture() {
+        this(new TimingGraph(null));
+    }
+
+    static TimingVertex addVertex(TimingGraph graph, String name, String clock) {
+        TimingVertex v = new TimingVertex(name);
+        if (clock != null) {
+            v.setClockName(clock);
+        }
+        graph.addVertex(v);
+        return v;
+    }
+
+    static TimingEdge addEdge(TimingGraph graph, TimingVertex u, TimingVertex v, float logicDelay, float netDelay) {
+        TimingEdge e = new TimingEdge(graph, u, v);
+        graph.addEdge(u, v, e);
+        e.setLogicDelay(logicDelay);
+        e.setNetDelay(netDelay);
+        return e;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing.delayestimator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.xilinx.rapidwright.device.Device;
+import com.xilinx.rapidwright.device.Node;
+import com.xilinx.rapidwright.device.Tile;
+import com.xilinx.rapidwright.device.TileTypeEnum;
+import com.xilinx.rapidwright.rwroute.RoutableNode;
+
+public class TestDelayEstimatorBase {
+
+    private static void assertCachedNodeDelays(Device device, DelayEstimatorBase<InterconnectInfo> estimator) {
+        int checked = 0;
+        for (int row = device.getRows() / 2; row < device.getRows() && checked < 10000; row++) {
+            Tile tile = device.getTile(row, device.getColumns() / 2);
+            if (tile == null || tile.getTileTypeEnum() != TileTypeEnum.INT) {
+                continue;
+            }
+            for (int wire = 0; wire < tile.getWireCount(); wire++) {
+                Node node = Node.getNode(tile, wire);
+                if (node == null || !RoutableNode.isExitNode(node)) {
+                    continue;
+                }
+                Assertions.assertEquals(estimator.calcDelayOf(node), estimator.getDelayOf(node), node.toString());
+                checked++;
+            }
+        }
+        Assertions.assertTrue(checked > 0);
+    }
+
+    @Test
+    public void testCachedNodeDelays(@TempDir Path tempDir) throws IOException {
+        Device device = Device.getDevice("xcvu3p");
+        File cacheFile = tempDir.resolve(device.getName() + "_node_delay_cache.dat").toFile();
+        DelayEstimatorBase<InterconnectInfo> estimator = new DelayEstimatorBase<>(device, new InterconnectInfo(),
+                false, 0, tempDir.toFile());
+        Assertions.assertTrue(cacheFile.exists());
+        assertCachedNodeDelays(device, estimator);
+
+        // Classes read back from the cache file must give the same delays
+        DelayEstimatorBase<InterconnectInfo> cachedEstimator = new DelayEstimatorBase<>(device, new InterconnectInfo(),
+                false, 0, tempDir.toFile());
+        assertCachedNodeDelays(device, cachedEstimator);
+
+        estimator.writeNodeDelayCache(cacheFile);
+        Assertions.assertTrue(estimator.readNodeDelayCache(cacheFile));
+
+        Device other = Device.getDevice("xcvu5p");
+        DelayEstimatorBase<InterconnectInfo> otherEstimator = new DelayEstimatorBase<>(other, new InterconnectInfo(),
+                false, 0, tempDir.toFile());
+        Assertions.assertFalse(otherEstimator.readNodeDelayCache(cacheFile));
+    }
+
+    @Test
+    public void testSerialization(@TempDir Path tempDir) throws IOException, ClassNotFoundException {
+        Device device = Device.getDevice("xcvu3p");
+        DelayEstimatorBase<InterconnectInfo> estimator = new DelayEstimatorBase<>(device, new InterconnectInfo(),
+                false, 0, tempDir.toFile());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(estimator);
+        }
+        DelayEstimatorBase<InterconnectInfo> copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            @SuppressWarnings("unchecked")
+            DelayEstimatorBase<InterconnectInfo> read = (DelayEstimatorBase<InterconnectInfo>) in.readObject();
+            copy = read;
+        }
+
+        InterconnectInfo.NodeGroupType[] types = {
+                InterconnectInfo.NodeGroupType.VERT_SINGLE, InterconnectInfo.NodeGroupType.VERT_LONG,
+                InterconnectInfo.NodeGroupType.HORT_DOUBLE, InterconnectInfo.NodeGroupType.HORT_QUAD};
+        for (InterconnectInfo.NodeGroupType type : types) {
+            for (short begin = 10; begin < 20; begin++) {
+                short end = (short) (begin + type.length());
+                Assertions.assertEquals(estimator.calcNodeGroupDelay(type, begin, end, null),
+                        copy.calcNodeGroupDelay(type, begin, end, null), type.name());
+            }
+        }
+    }
+}
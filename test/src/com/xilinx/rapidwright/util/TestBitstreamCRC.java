@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.xilinx.rapidwright.bitstream.OpCode;
+import com.xilinx.rapidwright.bitstream.Packet;
+import com.xilinx.rapidwright.bitstream.RegisterType;
+import com.xilinx.rapidwright.device.Series;
+
+public class TestBitstreamCRC {
+
+    /** Bit-serial reference: 32 data bits then 5 address bits, LSB first */
+    private static int updateBitwise(int crc, int register, int word) {
+        long value = ((long) (register & 0x1F) << 32) | (word & 0xFFFFFFFFL);
+        for (int i = 0; i < 37; i++, value >>>= 1) {
+            boolean feedback = ((value ^ crc) & 1) != 0;
+            crc >>>= 1;
+            if (feedback) {
+                crc ^= BitstreamCRC.POLYNOMIAL;
+            }
+        }
+        return crc;
+    }
+
+    private static int compute(int[] registers, int[] words) {
+        BitstreamCRC crc = new BitstreamCRC();
+        for (int i = 0; i < words.length; i++) {
+            crc.update(registers[i], words, i, 1);
+        }
+        return crc.getValue();
+    }
+
+    @Test
+    public void testMatchesBitwise() {
+        Random random = new Random(0);
+        int crc = 0;
+        int expected = 0;
+        for (int i = 0; i < 10000; i++) {
+            int register = random.nextInt(32);
+            int word = random.nextInt();
+            crc = BitstreamCRC.update(crc, register, word);
+            expected = updateBitwise(expected, register, word);
+        }
+        Assertions.assertEquals(expected, crc);
+    }
+
+    @Test
+    public void testIncrementalUpdate() {
+        Random random = new Random(1);
+        int n = 50000;
+        int[] registers = new int[n];
+        int[] words = new int[n];
+        for (int i = 0; i < n; i++) {
+            registers[i] = random.nextInt(32);
+            words[i] = random.nextInt();
+        }
+        int original = compute(registers, words);
+
+        int first = 123;
+        int second = 45678;
+        int[] changed = words.clone();
+        changed[first] ^= 0x00420000;
+        changed[second] ^= 0x00010000;
+
+        // Propagate the first change up to and through the second, then to the end
+        int delta = BitstreamCRC.getWordDelta(0x00420000);
+        delta = BitstreamCRC.shift(delta, second - first) ^ BitstreamCRC.getWordDelta(0x00010000);
+        delta = BitstreamCRC.shift(delta, n - second - 1);
+        Assertions.assertEquals(compute(registers, changed), original ^ delta);
+        Assertions.assertEquals(0, BitstreamCRC.shift(0, n));
+    }
+
+    private static final int CRC = 0;
+    private static final int FAR = 1;
+    private static final int FDRI = 2;
+    private static final int CMD = 4;
+    private static final int OP_NOP = 0;
+    private static final int OP_WRITE = 2;
+
+    /** Type 1 packet carrying a single word */
+    private static Packet packet(int opCode, int register, int word) {
+        return new Packet((1 << 29) | (opCode << 27) | (register << 13) | 1, word);
+    }
+
+    private static int far(Series series, int blockType, int row, int column) {
+        return (blockType << 24) | (row << series.getRowLSB()) | (column << 8);
+    }
+
+    @Test
+    public void testBatchedRelocationMatchesRecomputedCRC() {
+        Series series = Series.UltraScalePlus;
+        Random random = new Random(2);
+        List<Packet> packets = new ArrayList<>();
+        packets.add(packet(OP_WRITE, CMD, 7));
+        for (int region = 0; region < 3; region++) {
+            for (int blockType = 0; blockType < 3; blockType++) {
+                packets.add(packet(OP_WRITE, FAR, far(series, blockType, 4 + region, 10 + blockType)));
+                for (int i = 0; i < 20; i++) {
+                    packets.add(packet(OP_WRITE, FDRI, random.nextInt()));
+                }
+            }
+            packets.add(packet(OP_WRITE, CRC, 0));
+            if (region == 1) {
+                // A NOP right after a CRC write resets the CRC
+                packets.add(packet(OP_NOP, CRC, 0));
+            }
+        }
+        packets.add(packet(OP_WRITE, CMD, 13));
+        packets.add(packet(OP_WRITE, CRC, 0));
+        Assertions.assertEquals(RegisterType.FAR, packets.get(1).getRegister());
+        Assertions.assertEquals(OpCode.WRITE, packets.get(1).getOpCode());
+        Assertions.assertEquals(1, packets.get(1).getWordCount());
+
+        List<Packet> source = RelocateBitstreamByRow.updateCRC(packets);
+        RelocateBitstreamByRow.CRCEvents events = new RelocateBitstreamByRow.CRCEvents(source);
+        for (int rowOffset : new int[]{-2, -1, 0, 1, 3}) {
+            List<Packet> expected = RelocateBitstreamByRow.updateCRC(
+                    RelocateBitstreamByRow.relocate(packets, series, rowOffset));
+            List<Packet> batched = events.relocate(source, series, rowOffset);
+            Assertions.assertEquals(expected.size(), batched.size());
+            int crcPackets = 0;
+            int changedFARs = 0;
+            for (int i = 0; i < expected.size(); i++) {
+                Packet e = expected.get(i);
+                Packet b = batched.get(i);
+                Assertions.assertEquals(e.getHeader(), b.getHeader());
+                Assertions.assertArrayEquals(e.getData(), b.getData(), "Packet " + i + " for row offset " + rowOffset);
+                if (e.getRegister() == RegisterType.CRC && e.getOpCode() == OpCode.WRITE) {
+                    crcPackets++;
+                } else if (e.getRegister() == RegisterType.FAR && e.getData()[0] != source.get(i).getData()[0]) {
+                    changedFARs++;
+                }
+            }
+            Assertions.assertEquals(4, crcPackets);
+            Assertions.assertEquals(rowOffset == 0 ? 0 : 6, changedFARs);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestFrameTemplateMap {
+
+    @Test
+    public void testKeyPacking() {
+        long key = FrameTemplateMap.getKey(5, 193, 75);
+        Assertions.assertEquals(5, FrameTemplateMap.getRow(key));
+        Assertions.assertEquals(193, FrameTemplateMap.getCol(key));
+        Assertions.assertEquals(75, FrameTemplateMap.getMinor(key));
+
+        long negative = FrameTemplateMap.getKey(-2, 0xFFFF, 0);
+        Assertions.assertEquals(-2, FrameTemplateMap.getRow(negative));
+        Assertions.assertEquals(0xFFFF, FrameTemplateMap.getCol(negative));
+        Assertions.assertThrows(RuntimeException.class, () -> FrameTemplateMap.getKey(0, 0x10000, 0));
+    }
+
+    @Test
+    public void testPutGetAndResize() {
+        FrameTemplateMap map = new FrameTemplateMap(4);
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 50; col++) {
+                for (int minor = 0; minor < 10; minor++) {
+                    map.put(FrameTemplateMap.getKey(row, col, minor), new int[] {row, col, minor});
+                }
+            }
+        }
+        Assertions.assertEquals(2000, map.size());
+        Assertions.assertArrayEquals(new int[] {3, 42, 7}, map.get(FrameTemplateMap.getKey(3, 42, 7)));
+        Assertions.assertNull(map.get(FrameTemplateMap.getKey(4, 0, 0)));
+
+        // The last put wins
+        map.put(FrameTemplateMap.getKey(3, 42, 7), new int[] {0, 0, 0});
+        Assertions.assertEquals(2000, map.size());
+        Assertions.assertArrayEquals(new int[] {0, 0, 0}, map.get(FrameTemplateMap.getKey(3, 42, 7)));
+
+        FrameTemplateMap moved = map.withRowOffset(4);
+        Assertions.assertEquals(2000, moved.size());
+        Assertions.assertFalse(moved.containsKey(FrameTemplateMap.getKey(0, 1, 2)));
+        Assertions.assertArrayEquals(new int[] {0, 1, 2}, moved.get(FrameTemplateMap.getKey(4, 1, 2)));
+    }
+
+    @Test
+    public void testBinaryFormat() throws IOException {
+        FrameTemplateMap map = new FrameTemplateMap();
+        map.put(FrameTemplateMap.getKey(1, 192, 3), new int[] {1, 2, 3});
+        map.put(FrameTemplateMap.getKey(0, 191, 0), new int[] {-1, 0, Integer.MAX_VALUE});
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        map.write(new DataOutputStream(bytes));
+        Assertions.assertEquals(16 + 2 * (8 + 3 * 4), bytes.size());
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        Assertions.assertEquals(FrameTemplateMap.MAGIC, in.readInt());
+        FrameTemplateMap read = FrameTemplateMap.read(in);
+        Assertions.assertArrayEquals(map.getKeys(), read.getKeys());
+        for (long key : map.getKeys()) {
+            Assertions.assertArrayEquals(map.get(key), read.get(key));
+        }
+
+        map.put(FrameTemplateMap.getKey(2, 0, 0), new int[] {1});
+        Assertions.assertThrows(RuntimeException.class, () -> map.write(new DataOutputStream(new ByteArrayOutputStream())));
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.util;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestJobQueue {
+
+    /** A job that exits as soon as it is launched, recording the launch order */
+    private static class ImmediateJob extends Job {
+        private final List<ImmediateJob> launched;
+        private final CompletableFuture<Job> exit = new CompletableFuture<>();
+
+        ImmediateJob(String name, double estimatedRuntime, List<ImmediateJob> launched) {
+            this.launched = launched;
+            setCommand(name);
+            setEstimatedRuntime(estimatedRuntime);
+        }
+
+        @Override
+        public long launchJob() {
+            launched.add(this);
+            exit.complete(this);
+            return launched.size();
+        }
+
+        @Override
+        public CompletableFuture<Job> onExit() {
+            return exit;
+        }
+
+        @Override
+        public JobState getJobState() {
+            return exit.isDone() ? JobState.EXITED : JobState.RUNNING;
+        }
+
+        @Override
+        public boolean jobWasSuccessful() {
+            return exit.isDone();
+        }
+
+        @Override
+        public void killJob() {
+        }
+    }
+
+    private static List<String> runInOrder(JobQueue q, List<ImmediateJob> launched) {
+        Assertions.assertTrue(q.runAllToCompletion(1));
+        Assertions.assertEquals(launched, q.getFinishedJobs());
+        return launched.stream().map(Job::getCommand).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testFIFO() {
+        List<ImmediateJob> launched = new ArrayList<>();
+        JobQueue q = new JobQueue(false);
+        q.addJob(new ImmediateJob("a", 1, launched));
+        q.addJob(new ImmediateJob("b", 3, launched));
+        q.addJob(new ImmediateJob("c", 2, launched));
+        Assertions.assertEquals(Arrays.asList("a", "b", "c"), runInOrder(q, launched));
+    }
+
+    @Test
+    public void testLongestEstimatedRuntimeFirst() {
+        List<ImmediateJob> launched = new ArrayList<>();
+        JobQueue q = new JobQueue(false);
+        q.addJob(new ImmediateJob("a", 1, launched));
+        q.addJob(new ImmediateJob("unknown", -1, launched));
+        q.addJob(new ImmediateJob("b", 3, launched));
+        q.addJob(new ImmediateJob("c", 2, launched));
+        q.addJob(new ImmediateJob("d", 3, launched));
+        // Switching the scheduler reorders jobs that are already waiting, ties keep the add order
+        q.setScheduler(JobQueue.LONGEST_ESTIMATED_RUNTIME_FIRST);
+        Assertions.assertEquals(Arrays.asList("b", "d", "c", "a", "unknown"), runInOrder(q, launched));
+    }
+
+    @Test
+    public void testCompletionWithoutPolling(@TempDir Path tempDir) {
+        Assumptions.assumeFalse(FileTools.isWindows());
+        long pollInterval = JobQueue.POLL_INTERVAL_MS;
+        // Only exit notifications can finish these jobs in time
+        JobQueue.POLL_INTERVAL_MS = 600_000;
+        try {
+            JobQueue q = new JobQueue(false);
+            for (int i = 0; i < 4; i++) {
+                Job j = new LocalJob();
+                j.setCommand("true");
+                j.setRunDir(tempDir.resolve(Integer.toString(i)).toString());
+                q.addJob(j);
+            }
+            long start = System.currentTimeMillis();
+            Assertions.assertTrue(q.runAllToCompletion(2));
+            Assertions.assertTrue(System.currentTimeMillis() - start < 60_000);
+            Assertions.assertEquals(4, q.getFinishedJobs().size());
+        } finally {
+            JobQueue.POLL_INTERVAL_MS = pollInterval;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.util;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestLocalJob {
+
+    private static LocalJob runJob(Path runDir, String command) throws Exception {
+        LocalJob job = new LocalJob();
+        job.setCommand(command);
+        job.setRunDir(runDir.toString());
+        job.launchJob();
+        Assertions.assertSame(job, job.onExit().get(60, TimeUnit.SECONDS));
+        Assertions.assertTrue(job.isFinished());
+        Assertions.assertTrue(job.getWallTime() >= 0);
+        return job;
+    }
+
+    @Test
+    public void testOnExit(@TempDir Path tempDir) throws Exception {
+        Assumptions.assumeFalse(FileTools.isWindows());
+        LocalJob job = runJob(tempDir, "echo 'single quoted'");
+        Assertions.assertTrue(job.jobWasSuccessful());
+        Assertions.assertEquals(Collections.singletonList("single quoted"),
+                Files.readAllLines(tempDir.resolve(Job.DEFAULT_COMMAND_LOG_FILE)));
+        Assertions.assertTrue(job.getCPUTime() >= 0);
+        if (new File("/usr/bin/time").canExecute()) {
+            Assertions.assertTrue(job.getPeakRSS() > 0);
+        }
+    }
+
+    @Test
+    public void testShellCommands(@TempDir Path tempDir) throws Exception {
+        Assumptions.assumeFalse(FileTools.isWindows());
+        // Builtins, variable assignments and lists must run as in a plain shell
+        LocalJob job = runJob(tempDir, "cd . && export A=1; B=2 env | grep -e '^A=' -e '^B=' | sort");
+        Assertions.assertTrue(job.jobWasSuccessful());
+        Assertions.assertEquals(Arrays.asList("A=1", "B=2"),
+                Files.readAllLines(tempDir.resolve(Job.DEFAULT_COMMAND_LOG_FILE)));
+
+        Assertions.assertFalse(runJob(tempDir.resolve("fail"), "exit 3").jobWasSuccessful());
+    }
+
+    @Test
+    public void testWrapWithPeakRSS() {
+        Assertions.assertEquals("/usr/bin/time -f %M -o " + LocalJob.PEAK_RSS_FILE + " sh -c 'echo '\\''a b'\\'''",
+                LocalJob.wrapWithPeakRSS("echo 'a b'"));
+    }
+
+    @Test
+    public void testParseCPUTime() {
+        // bash
+        Assertions.assertEquals(62.5 + 0.25, LocalJob.parseCPUTime(Arrays.asList(
+                "0m0.004s 0m0.001s", "1m2.500s 0m0.250s")), 1e-9);
+        // dash
+        Assertions.assertEquals(1.5, LocalJob.parseCPUTime(Arrays.asList(
+                "0m0.00s 0m0.00s", "0m1.00s 0m0.50s")), 1e-9);
+        Assertions.assertEquals(-1.0, LocalJob.parseCPUTime(Collections.singletonList("0m0.00s 0m0.00s")));
+        Assertions.assertEquals(-1.0, LocalJob.parseCPUTime(Arrays.asList("", "garbage")));
+    }
+
+    @Test
+    public void testParsePeakRSS() {
+        Assertions.assertEquals(12345, LocalJob.parsePeakRSS(Collections.singletonList("12345")));
+        Assertions.assertEquals(678, LocalJob.parsePeakRSS(Arrays.asList("Command exited with non-zero status 3", "678")));
+        Assertions.assertEquals(-1, LocalJob.parsePeakRSS(Collections.emptyList()));
+        List<String> killed = Collections.singletonList("Command terminated by signal 9");
+        Assertions.assertEquals(-1, LocalJob.parsePeakRSS(killed));
+    }
+}
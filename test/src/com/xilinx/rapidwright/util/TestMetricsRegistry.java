@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.util;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.xilinx.rapidwright.tests.CodePerfTracker;
+
+public class TestMetricsRegistry {
+
+    private static String toJSON(MetricsRegistry metrics) throws IOException {
+        StringWriter w = new StringWriter();
+        metrics.writeJSON(w);
+        return w.toString();
+    }
+
+    private static String toCSV(MetricsRegistry metrics) throws IOException {
+        StringWriter w = new StringWriter();
+        metrics.writeCSV(w);
+        return w.toString();
+    }
+
+    @Test
+    public void testDisabled() throws IOException {
+        MetricsRegistry metrics = new MetricsRegistry(false);
+        metrics.addTime("a", 1000);
+        metrics.increment("b");
+        metrics.setGauge("c", 1.0);
+        Assertions.assertEquals("type,name,index,field,value\n", toCSV(metrics));
+    }
+
+    @Test
+    public void testExport() throws IOException {
+        MetricsRegistry metrics = new MetricsRegistry(true);
+        metrics.addTime("phase/a", 2000000000L);
+        metrics.addTime("phase/a", 1000000000L);
+        metrics.increment("count", 3);
+        metrics.increment("count");
+        metrics.setGauge("gauge", 0.5);
+        Map<String, Number> record = new LinkedHashMap<>();
+        record.put("iteration", 1);
+        record.put("overused", 42L);
+        metrics.addRecord("iter", record);
+
+        String csv = toCSV(metrics);
+        Assertions.assertTrue(csv.contains("timer,phase/a,,count,2\n"));
+        Assertions.assertTrue(csv.contains("timer,phase/a,,total_s,3.0\n"));
+        Assertions.assertTrue(csv.contains("timer,phase/a,,max_s,2.0\n"));
+        Assertions.assertTrue(csv.contains("counter,count,,value,4\n"));
+        Assertions.assertTrue(csv.contains("gauge,gauge,,value,0.5\n"));
+        Assertions.assertTrue(csv.contains("series,iter,0,iteration,1\nseries,iter,0,overused,42\n"));
+
+        String json = toJSON(metrics);
+        Assertions.assertTrue(json.contains("\"phase/a\": {\"count\": 2, \"total_s\": 3.0, \"max_s\": 2.0}"));
+        Assertions.assertTrue(json.contains("\"count\": 4"));
+        Assertions.assertTrue(json.contains("\"iter\": [\n      {\"iteration\": 1, \"overused\": 42}\n    ]"));
+
+        metrics.clear();
+        Assertions.assertEquals("type,name,index,field,value\n", toCSV(metrics));
+    }
+
+    @Test
+    public void testRuntimeTrackerTree() throws IOException {
+        RuntimeTrackerTree tree = new RuntimeTrackerTree("Top", false);
+        tree.createRuntimeTracker("child", tree.getRootRuntimeTracker()).setTime(1000000000L);
+        tree.createRuntimeTracker("grandchild", "child").setTime(500000000L);
+        MetricsRegistry metrics = new MetricsRegistry(true);
+        tree.exportMetrics(metrics, "tool");
+        String csv = toCSV(metrics);
+        Assertions.assertTrue(csv.contains("timer,tool/Top,,total_s,1.0\n"));
+        Assertions.assertTrue(csv.contains("timer,tool/Top/child,,total_s,1.0\n"));
+        Assertions.assertTrue(csv.contains("timer,tool/Top/child/grandchild,,total_s,0.5\n"));
+    }
+
+    @Test
+    public void testCodePerfTrackerRecordsOnce() throws IOException {
+        MetricsRegistry global = MetricsRegistry.getGlobal();
+        boolean wasEnabled = global.isEnabled();
+        global.setEnabled(true);
+        try {
+            global.clear();
+            CodePerfTracker t = new CodePerfTracker("perf", false, false);
+            t.start("seg").stop();
+            t.exportMetrics(global);
+            Assertions.assertTrue(toCSV(global).contains("timer,perf/seg,,count,1\n"));
+
+            MetricsRegistry other = new MetricsRegistry(true);
+            t.exportMetrics(other);
+            String csv = toCSV(other);
+            Assertions.assertTrue(csv.contains("timer,perf/seg,,count,1\n"));
+            Assertions.assertTrue(csv.contains("gauge,perf/seg/mem_bytes,,value,"));
+        } finally {
+            global.clear();
+            global.setEnabled(wasEnabled);
+        }
+    }
+}
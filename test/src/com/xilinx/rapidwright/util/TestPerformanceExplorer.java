@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestPerformanceExplorer {
+
+    @Test
+    public void testRunKey() {
+        PerformanceExplorer pe = new PerformanceExplorer(null, "run", "clk", 2.0);
+        String key = pe.getRunKey("abc", "Vivado v2022.1", PlacerDirective.Default, RouterDirective.Explore, "0.1", null);
+        Assertions.assertEquals(32, key.length());
+        Assertions.assertEquals(key, pe.getRunKey("abc", "Vivado v2022.1", PlacerDirective.Default, RouterDirective.Explore, "0.1", null));
+        Assertions.assertNotEquals(key, pe.getRunKey("abd", "Vivado v2022.1", PlacerDirective.Default, RouterDirective.Explore, "0.1", null));
+        Assertions.assertNotEquals(key, pe.getRunKey("abc", "Vivado v2022.2", PlacerDirective.Default, RouterDirective.Explore, "0.1", null));
+        Assertions.assertNotEquals(key, pe.getRunKey("abc", "Vivado v2022.1", PlacerDirective.Explore, RouterDirective.Explore, "0.1", null));
+        Assertions.assertNotEquals(key, pe.getRunKey("abc", "Vivado v2022.1", PlacerDirective.Default, RouterDirective.Default, "0.1", null));
+        Assertions.assertNotEquals(key, pe.getRunKey("abc", "Vivado v2022.1", PlacerDirective.Default, RouterDirective.Explore, "0.125", null));
+    }
+
+    @Test
+    public void testRunComplete(@TempDir Path tempDir) throws IOException {
+        Path timing = tempDir.resolve("route_timing.twr");
+        Files.write(timing, Arrays.asList(
+                "Timing Report",
+                "",
+                "Slack (VIOLATED) :        -0.123ns  (required time - arrival time)",
+                "  Source:                 a_reg/C"));
+        Assertions.assertEquals(-0.123, PerformanceExplorer.getWorstSlack(timing.toString()), 1e-9);
+        Assertions.assertNull(PerformanceExplorer.getWorstSlack(tempDir.resolve("missing.twr").toString()));
+
+        Assertions.assertFalse(PerformanceExplorer.isRunComplete(tempDir.toString(), "key"));
+        Files.write(tempDir.resolve("routed.dcp"), new byte[1]);
+        Assertions.assertFalse(PerformanceExplorer.isRunComplete(tempDir.toString(), "key"));
+        Files.write(tempDir.resolve("run.key"), Arrays.asList("key"));
+        Assertions.assertTrue(PerformanceExplorer.isRunComplete(tempDir.toString(), "key"));
+        Assertions.assertFalse(PerformanceExplorer.isRunComplete(tempDir.toString(), "other"));
+    }
+
+    private static Path writeRun(Path runDir, String id, String key, String slack) throws IOException {
+        Path instDir = Files.createDirectories(runDir.resolve(id));
+        Files.write(instDir.resolve("route_timing.twr"), Arrays.asList(
+                "Slack (MET) :        " + slack + "ns  (required time - arrival time)"));
+        Files.write(instDir.resolve("routed.dcp"), new byte[1]);
+        Files.write(instDir.resolve("run.key"), Arrays.asList(key));
+        return instDir;
+    }
+
+    @Test
+    public void testResultsIgnoreOtherSweeps(@TempDir Path tempDir) throws IOException {
+        PerformanceExplorer pe = new PerformanceExplorer(null, tempDir.toString(), "clk", 2.0);
+        Map<String, String> runs = new HashMap<>();
+        Map<String, String> keys = new HashMap<>();
+        runs.put("current", writeRun(tempDir, "current", "key1", "0.100").toString());
+        keys.put("current", "key1");
+        // Left behind by a sweep with different settings, e.g. a run that was dropped this time
+        runs.put("stale", writeRun(tempDir, "stale", "old", "0.500").toString());
+        keys.put("stale", "key2");
+
+        pe.writeResults(runs, keys);
+        List<String> lines = Files.readAllLines(tempDir.resolve("results.txt"));
+        Assertions.assertEquals(Arrays.asList("current " + PerformanceExplorer.printNS(0.1), "stale N/A"), lines);
+    }
+}
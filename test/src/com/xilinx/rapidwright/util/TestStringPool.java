@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2022 Xilinx, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class TestStringPool {
+
+    public static Stream<Arguments> pools() {
+        return Stream.of(
+                Arguments.of(StringPool.singleThreadedPool()),
+                Arguments.of(StringPool.concurrentPool()),
+                Arguments.of(StringPool.weakPool(3)),
+                Arguments.of(StringPool.boundedPool(100, 4))
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("pools")
+    public void testDeduplication(StringPool pool) {
+        String a = new String("name");
+        String b = new String("name");
+        Assertions.assertSame(a, pool.uniquifyName(a));
+        Assertions.assertSame(a, pool.uniquifyName(b));
+        Assertions.assertSame(a, pool.uniquifyName(a));
+        pool.uniquifyName("other");
+        Assertions.assertEquals(2, pool.getHits());
+        Assertions.assertEquals(2, pool.getMisses());
+        Assertions.assertEquals(0.5, pool.getHitRate());
+        Assertions.assertEquals(2, pool.size());
+        pool.clear();
+        Assertions.assertEquals(0, pool.size());
+        Assertions.assertSame(b, pool.uniquifyName(b));
+    }
+
+    @Test
+    public void testBoundedPool() {
+        StringPool pool = StringPool.boundedPool(10, 1);
+        for (int i = 0; i < 100; i++) {
+            pool.uniquifyName("s" + i);
+        }
+        Assertions.assertEquals(10, pool.size());
+        Assertions.assertEquals(100, pool.getMisses());
+    }
+
+    @Test
+    public void testWeakPoolReleasesStrings() throws InterruptedException {
+        StringPool pool = StringPool.weakPool(1);
+        List<String> kept = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String s = pool.uniquifyName(new String("s" + i));
+            if (i % 10 == 0) kept.add(s);
+        }
+        for (int i = 0; i < 20 && pool.size() > kept.size(); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(kept.size(), pool.size());
+        Assertions.assertSame(kept.get(1), pool.uniquifyName(new String("s10")));
+    }
+}